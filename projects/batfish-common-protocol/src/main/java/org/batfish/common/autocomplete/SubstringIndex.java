@@ -0,0 +1,132 @@
+package org.batfish.common.autocomplete;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A case-insensitive substring index over a list of documents, each consisting of one or more
+ * strings. A document matches a query if one of its strings contains the query, ignoring case.
+ *
+ * <p>Every trigram of every (lower-cased) string is mapped to the ascending ids of the documents
+ * containing it. A query of at least three characters is answered by intersecting the lists of its
+ * trigrams and then confirming the few remaining candidates, rather than by scanning every string.
+ * Shorter queries match so many documents that they are answered by a scan.
+ */
+@ParametersAreNonnullByDefault
+public final class SubstringIndex {
+
+  private static final int GRAM_LENGTH = 3;
+
+  private static final int[] NO_DOCUMENTS = new int[0];
+
+  private final String[][] _documents;
+
+  private final Map<Long, int[]> _postings;
+
+  /** Creates an index of {@code documents}; a document's id is its index in the list. */
+  public SubstringIndex(List<? extends Collection<String>> documents) {
+    _documents = new String[documents.size()][];
+    Map<Long, Postings> postings = new HashMap<>();
+    for (int id = 0; id < _documents.length; id++) {
+      String[] strings =
+          documents.get(id).stream().map(String::toLowerCase).distinct().toArray(String[]::new);
+      _documents[id] = strings;
+      for (String string : strings) {
+        for (int i = 0; i + GRAM_LENGTH <= string.length(); i++) {
+          postings.computeIfAbsent(gram(string, i), g -> new Postings()).add(id);
+        }
+      }
+    }
+    _postings = new HashMap<>(postings.size() * 4 / 3 + 1);
+    postings.forEach((gram, ids) -> _postings.put(gram, ids.toArray()));
+  }
+
+  private static long gram(String string, int start) {
+    return ((long) string.charAt(start) << 32)
+        | ((long) string.charAt(start + 1) << 16)
+        | string.charAt(start + 2);
+  }
+
+  /** Number of indexed documents. */
+  public int size() {
+    return _documents.length;
+  }
+
+  /** Returns the ids, in ascending order, of the documents matching {@code query}. */
+  public @Nonnull IntStream matching(String query) {
+    String lowerQuery = query.toLowerCase();
+    if (lowerQuery.isEmpty()) {
+      return IntStream.range(0, _documents.length);
+    }
+    return candidates(lowerQuery).filter(id -> contains(_documents[id], lowerQuery));
+  }
+
+  private IntStream candidates(String lowerQuery) {
+    if (lowerQuery.length() < GRAM_LENGTH) {
+      return IntStream.range(0, _documents.length);
+    }
+    int numGrams = lowerQuery.length() - GRAM_LENGTH + 1;
+    int[][] lists = new int[numGrams][];
+    for (int i = 0; i < numGrams; i++) {
+      lists[i] = _postings.getOrDefault(gram(lowerQuery, i), NO_DOCUMENTS);
+    }
+    // intersect, starting from the shortest list
+    Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+    int[] result = lists[0];
+    for (int i = 1; i < lists.length && result.length > 0; i++) {
+      result = intersect(result, lists[i]);
+    }
+    return Arrays.stream(result);
+  }
+
+  private static int[] intersect(int[] small, int[] large) {
+    int[] result = new int[small.length];
+    int size = 0;
+    int from = 0;
+    for (int id : small) {
+      int pos = Arrays.binarySearch(large, from, large.length, id);
+      if (pos >= 0) {
+        result[size++] = id;
+        from = pos + 1;
+      } else {
+        from = -pos - 1;
+      }
+    }
+    return Arrays.copyOf(result, size);
+  }
+
+  private static boolean contains(String[] strings, String lowerQuery) {
+    for (String string : strings) {
+      if (string.contains(lowerQuery)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A growable list of ascending document ids without repeats. */
+  private static final class Postings {
+    private int[] _ids = new int[2];
+    private int _size;
+
+    void add(int id) {
+      if (_size > 0 && _ids[_size - 1] == id) {
+        return;
+      }
+      if (_size == _ids.length) {
+        _ids = Arrays.copyOf(_ids, _size * 2);
+      }
+      _ids[_size++] = id;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(_ids, _size);
+    }
+  }
+}
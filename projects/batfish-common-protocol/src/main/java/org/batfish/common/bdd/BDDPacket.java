@@ -286,9 +286,28 @@ public class BDDPacket implements Serializable {
         preferBeforePacketVars && _nextFreeBDDVarIdxBeforePacketVars + bits < FIRST_PACKET_VAR
             ? allocateBDDBitsBeforePacketVars(name, bits)
             : allocateBDDBitsAfterPacketVars(name, bits);
+    if (bits > 1) {
+      addVarBlock(vars[0].var(), bits);
+    }
     return new ImmutableBDDInteger(_factory, vars);
   }
 
+  /**
+   * Keeps the given variables of a multi-bit field together and in order if the factory reorders
+   * variables, unless reordering has already separated them.
+   */
+  private void addVarBlock(int first, int numVars) {
+    int minLevel = Integer.MAX_VALUE;
+    int maxLevel = Integer.MIN_VALUE;
+    for (int var = first; var < first + numVars; var++) {
+      minLevel = Math.min(minLevel, _factory.var2Level(var));
+      maxLevel = Math.max(maxLevel, _factory.var2Level(var));
+    }
+    if (maxLevel - minLevel == numVars - 1) {
+      _factory.addVarBlock(first, first + numVars - 1);
+    }
+  }
+
   /**
    * Allocate {@link BDD} variables before the variables used to encode packet headers. Requires
    * there are enough such variables available.
@@ -337,12 +356,14 @@ public class BDDPacket implements Serializable {
         "Not enough variables to create PrimedBDDInteger");
     BDD[] vars = new BDD[length];
     BDD[] primedVars = new BDD[length];
+    int first = _nextFreeBDDVarIdx;
     for (int i = 0; i < length; i++) {
       _bitNames.put(_nextFreeBDDVarIdx, name + i);
       vars[i] = _factory.ithVar(_nextFreeBDDVarIdx++);
       _bitNames.put(_nextFreeBDDVarIdx, name + "'" + i);
       primedVars[i] = _factory.ithVar(_nextFreeBDDVarIdx++);
     }
+    addVarBlock(first, length * 2);
     return new PrimedBDDInteger(_factory, vars, primedVars);
   }
 
@@ -361,6 +382,18 @@ public class BDDPacket implements Serializable {
     return _factory;
   }
 
+  /**
+   * Returns whether {@code other} has allocated the same variables as this packet, in the same
+   * order. BDDs built with such packets can be moved between their factories with {@link
+   * BDDFactory#save} and {@link BDDFactory#load}.
+   */
+  public boolean hasSameVariables(BDDPacket other) {
+    return _factory.varNum() == other._factory.varNum()
+        && _nextFreeBDDVarIdx == other._nextFreeBDDVarIdx
+        && _nextFreeBDDVarIdxBeforePacketVars == other._nextFreeBDDVarIdxBeforePacketVars
+        && _bitNames.equals(other._bitNames);
+  }
+
   /**
    * Get a representative flow in a BDD according to a given preference.
    *
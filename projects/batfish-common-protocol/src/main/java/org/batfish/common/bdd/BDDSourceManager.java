@@ -215,6 +215,14 @@ public final class BDDSourceManager implements Serializable {
     return _finiteDomain;
   }
 
+  /**
+   * Returns the sources that are active but not referenced, which are not tracked individually but
+   * share the value of a single representative.
+   */
+  public Set<String> getActiveButUnreferenced() {
+    return _activeButUnreferenced;
+  }
+
   public BDD getOriginatingFromDeviceBDD() {
     return getSourceBDD(SOURCE_ORIGINATING_FROM_DEVICE);
   }
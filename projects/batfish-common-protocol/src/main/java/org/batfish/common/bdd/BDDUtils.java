@@ -11,11 +11,20 @@ import java.util.stream.Stream;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
 import net.sf.javabdd.BDDPairing;
+import net.sf.javabdd.BDDStats;
 import net.sf.javabdd.BDDVarPair;
 import net.sf.javabdd.JFactory;
+import org.batfish.datamodel.answers.AnswerElement;
+import org.batfish.datamodel.answers.AnswerSummary;
 
 /** Various utility methods for working with {@link BDD}s. */
 public class BDDUtils {
+  /**
+   * Debug flag asking BDD-based answerers to add the {@link BDDStats} of their factory to the notes
+   * of their {@link AnswerSummary}.
+   */
+  public static final String DEBUG_FLAG_BDD_STATS = "bddStats";
+
   /** Create a new {@link BDDFactory} object with {@code numVariables} boolean variables. */
   public static BDDFactory bddFactory(int numVariables) {
     BDDFactory factory = JFactory.init(10000, 1000);
@@ -67,4 +76,17 @@ public class BDDUtils {
                 .flatMap(Function.identity())
                 .collect(ImmutableSet.toImmutableSet()));
   }
+
+  /**
+   * Adds the current {@link BDDStats} of {@code factory} to the notes of the summary of {@code
+   * answer}, creating the summary if it has none.
+   */
+  public static void addStatsToSummary(AnswerElement answer, BDDFactory factory) {
+    AnswerSummary stats = new AnswerSummary("BDD stats: " + factory.getStats(), 0, 0, 0);
+    if (answer.getSummary() == null) {
+      answer.setSummary(stats);
+    } else {
+      answer.getSummary().combine(stats);
+    }
+  }
 }
@@ -470,8 +470,21 @@ public final class TopologyUtil {
   @VisibleForTesting
   public static @Nonnull Topology computeRawLayer3Topology(
       @Nonnull L3Adjacencies adjacencies, @Nonnull Map<String, Configuration> configurations) {
+    return computeRawLayer3Topology(
+        adjacencies, configurations, synthesizeL3Topology(configurations));
+  }
+
+  /**
+   * Compute the raw layer 3 topology from the given {@link #synthesizeL3Topology synthesized} layer
+   * 3 topology of {@code configurations}, which may have been assembled from the synthesized edges
+   * of another snapshot (see {@link #synthesizeL3Topology(Map, Set)}).
+   */
+  public static @Nonnull Topology computeRawLayer3Topology(
+      @Nonnull L3Adjacencies adjacencies,
+      @Nonnull Map<String, Configuration> configurations,
+      @Nonnull Topology synthesizedL3Topology) {
     Stream<Edge> filteredEdgeStream =
-        synthesizeL3Topology(configurations).getEdges().stream()
+        synthesizedL3Topology.getEdges().stream()
             .filter(
                 edge ->
                     adjacencies.inSameBroadcastDomain(edge.getHead(), edge.getTail())
@@ -587,6 +600,19 @@ public final class TopologyUtil {
    * <p>Ignores {@code Loopback} interfaces and inactive interfaces.
    */
   public static Topology synthesizeL3Topology(Map<String, Configuration> configurations) {
+    return synthesizeL3Topology(configurations, configurations.keySet());
+  }
+
+  /**
+   * Returns the edges of {@link #synthesizeL3Topology(Map)} that have at least one endpoint on one
+   * of the given nodes.
+   *
+   * <p>Whether there is an edge between two interfaces depends only on those two interfaces, so
+   * when some nodes change, the synthesized edges among the unchanged nodes stay the same and only
+   * the edges of the changed nodes need to be recomputed.
+   */
+  public static Topology synthesizeL3Topology(
+      Map<String, Configuration> configurations, Set<String> nodes) {
     Map<Prefix, List<Interface>> prefixInterfaces = computeInterfacesBucketByPrefix(configurations);
 
     ImmutableSortedSet.Builder<Edge> edges = ImmutableSortedSet.naturalOrder();
@@ -596,6 +622,10 @@ public final class TopologyUtil {
 
       for (Interface iface1 : bucketEntry.getValue()) {
         for (Interface iface2 : candidateInterfaces) {
+          if (!nodes.contains(iface1.getOwner().getHostname())
+              && !nodes.contains(iface2.getOwner().getHostname())) {
+            continue;
+          }
           // No device self-adjacencies in the same VRF.
           if (!isValidLayer3Adjacency(iface1, iface2)) {
             continue;
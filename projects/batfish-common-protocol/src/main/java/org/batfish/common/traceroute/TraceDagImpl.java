@@ -4,11 +4,20 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.math.LongMath;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
 import java.util.Stack;
+import java.util.TreeSet;
+import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.common.util.TracePruner;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
@@ -115,6 +124,186 @@ public final class TraceDagImpl implements TraceDag {
     }
   }
 
+  @Override
+  public List<Trace> getPrunedTraces(int maxSize) {
+    return new Pruner().prune(maxSize);
+  }
+
+  /**
+   * Chooses the same traces as {@link TracePruner}, but works on the DAG instead of the enumerated
+   * traces. A trace is identified by its path of node ids. To find the first trace with some
+   * disposition or through some node, we count for each DAG node the paths below it that qualify,
+   * so each choice takes time linear in the size of the DAG no matter how many traces there are.
+   */
+  private final class Pruner {
+    // number of paths from each node to a leaf (saturated), or -1 if unreachable from the roots
+    private final long[] _pathCounts;
+    private final Set<List<Integer>> _pickedPaths;
+    private final SortedSet<FlowDisposition> _unpickedDispositions;
+    private final SortedSet<String> _unpickedNodes;
+
+    Pruner() {
+      _pathCounts = new long[_nodes.size()];
+      Arrays.fill(_pathCounts, -1);
+      _rootIds.forEach(this::countPaths);
+      _pickedPaths = new HashSet<>();
+      _unpickedDispositions = new TreeSet<>();
+      _unpickedNodes = new TreeSet<>();
+      for (int nodeId = 0; nodeId < _nodes.size(); nodeId++) {
+        if (_pathCounts[nodeId] < 0) {
+          continue;
+        }
+        Node node = _nodes.get(nodeId);
+        _unpickedNodes.add(node._hop.getNode().getName());
+        if (node._flowDisposition != null) {
+          _unpickedDispositions.add(node._flowDisposition);
+        }
+      }
+    }
+
+    private long countPaths(int nodeId) {
+      if (_pathCounts[nodeId] < 0) {
+        List<Integer> successors = _nodes.get(nodeId)._successors;
+        long count = successors.isEmpty() ? 1 : 0;
+        for (int successorId : successors) {
+          count = LongMath.saturatedAdd(count, countPaths(successorId));
+        }
+        _pathCounts[nodeId] = count;
+      }
+      return _pathCounts[nodeId];
+    }
+
+    /**
+     * Counts the paths from each node that pass through some node satisfying {@code covers}. Every
+     * path from a covering node qualifies.
+     */
+    private long[] countCoveredPaths(IntPredicate covers) {
+      long[] counts = new long[_nodes.size()];
+      Arrays.fill(counts, -1);
+      _rootIds.forEach(rootId -> countCoveredPaths(rootId, covers, counts));
+      return counts;
+    }
+
+    private long countCoveredPaths(int nodeId, IntPredicate covers, long[] counts) {
+      if (counts[nodeId] < 0) {
+        long count = 0;
+        if (covers.test(nodeId)) {
+          count = _pathCounts[nodeId];
+        } else {
+          for (int successorId : _nodes.get(nodeId)._successors) {
+            count = LongMath.saturatedAdd(count, countCoveredPaths(successorId, covers, counts));
+          }
+        }
+        counts[nodeId] = count;
+      }
+      return counts[nodeId];
+    }
+
+    /** Returns the first path in trace order that passes through a node satisfying covers. */
+    private List<Integer> firstCoveredPath(IntPredicate covers) {
+      long[] counts = countCoveredPaths(covers);
+      int nodeId =
+          _rootIds.stream()
+              .filter(rootId -> counts[rootId] > 0)
+              .findFirst()
+              .orElseThrow(() -> new IllegalStateException("No path through a covering node"));
+      ImmutableList.Builder<Integer> path = ImmutableList.builder();
+      boolean covered = false;
+      while (true) {
+        path.add(nodeId);
+        List<Integer> successors = _nodes.get(nodeId)._successors;
+        if (successors.isEmpty()) {
+          return path.build();
+        }
+        covered = covered || covers.test(nodeId);
+        if (covered) {
+          // every path from here qualifies, so take the first one.
+          nodeId = successors.get(0);
+        } else {
+          nodeId = successors.stream().filter(id -> counts[id] > 0).findFirst().get();
+        }
+      }
+    }
+
+    /** Adds the first unpicked paths in trace order to {@code paths} until it has maxSize. */
+    private void addUnpickedPaths(
+        int nodeId, List<Integer> prefix, List<List<Integer>> paths, int maxSize) {
+      List<Integer> path =
+          ImmutableList.<Integer>builderWithExpectedSize(prefix.size() + 1)
+              .addAll(prefix)
+              .add(nodeId)
+              .build();
+      List<Integer> successors = _nodes.get(nodeId)._successors;
+      if (successors.isEmpty()) {
+        if (!_pickedPaths.contains(path)) {
+          paths.add(path);
+        }
+        return;
+      }
+      for (int successorId : successors) {
+        if (paths.size() >= maxSize) {
+          return;
+        }
+        addUnpickedPaths(successorId, path, paths, maxSize);
+      }
+    }
+
+    private void pick(List<Integer> path, List<List<Integer>> paths) {
+      paths.add(path);
+      _pickedPaths.add(path);
+      for (int nodeId : path) {
+        Node node = _nodes.get(nodeId);
+        _unpickedNodes.remove(node._hop.getNode().getName());
+        if (node._flowDisposition != null) {
+          _unpickedDispositions.remove(node._flowDisposition);
+        }
+      }
+    }
+
+    private Trace toTrace(List<Integer> path) {
+      List<Hop> hops =
+          path.stream().map(id -> _nodes.get(id)._hop).collect(ImmutableList.toImmutableList());
+      FlowDisposition disposition =
+          checkNotNull(
+              _nodes.get(path.get(path.size() - 1))._flowDisposition,
+              "failed to determine disposition from hop");
+      return new Trace(disposition, hops);
+    }
+
+    List<Trace> prune(int maxSize) {
+      long size =
+          _rootIds.stream()
+              .mapToLong(rootId -> _pathCounts[rootId])
+              .reduce(0, LongMath::saturatedAdd);
+      if (size <= maxSize) {
+        return getTraces()
+            .map(TraceAndReverseFlow::getTrace)
+            .collect(ImmutableList.toImmutableList());
+      }
+      List<List<Integer>> paths = new ArrayList<>(maxSize);
+      while (paths.size() < maxSize) {
+        if (!_unpickedDispositions.isEmpty()) {
+          FlowDisposition disposition = _unpickedDispositions.first();
+          pick(firstCoveredPath(id -> _nodes.get(id)._flowDisposition == disposition), paths);
+        } else if (!_unpickedNodes.isEmpty()) {
+          String hostname = _unpickedNodes.first();
+          pick(
+              firstCoveredPath(id -> _nodes.get(id)._hop.getNode().getName().equals(hostname)),
+              paths);
+        } else {
+          for (int rootId : _rootIds) {
+            if (paths.size() >= maxSize) {
+              break;
+            }
+            addUnpickedPaths(rootId, ImmutableList.of(), paths, maxSize);
+          }
+          break;
+        }
+      }
+      return paths.stream().map(this::toTrace).collect(ImmutableList.toImmutableList());
+    }
+  }
+
   private Stream<TraceAndReverseFlow> getTraces(
       List<Hop> hopsInput, List<FirewallSessionTraceInfo> sessionsInput, int rootId) {
     Node node = _nodes.get(rootId);
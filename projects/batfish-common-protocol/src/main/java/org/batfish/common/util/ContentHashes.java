@@ -0,0 +1,81 @@
+package org.batfish.common.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Stable 128-bit hashes of the content of datamodel objects, for telling whether two objects (e.g.
+ * same-named structures on different devices) are the same without comparing them directly.
+ *
+ * <p>The content of an object is its JSON form as written by {@link BatfishObjectMapper}, which is
+ * streamed straight into the hash function rather than built as a string. Two objects with the same
+ * JSON form have the same hash; the chance that two objects with different JSON forms collide is
+ * negligible (about 2<sup>-64</sup> even among billions of objects).
+ */
+@ParametersAreNonnullByDefault
+public final class ContentHashes {
+
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private static final HashCode NULL_HASH = HASH_FUNCTION.hashString("null", UTF_8);
+
+  /**
+   * Hashes already computed, by object identity. Only objects that are never modified after
+   * construction, such as structures of a loaded snapshot, may be hashed through this cache.
+   */
+  private static final LoadingCache<Object, HashCode> MEMOIZED_HASHES =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(CacheLoader.from(ContentHashes::computeContentHash));
+
+  /** Returns the content hash of {@code o}, which must not change after construction. */
+  public static @Nonnull HashCode contentHash(@Nullable Object o) {
+    return o == null ? NULL_HASH : MEMOIZED_HASHES.getUnchecked(o);
+  }
+
+  /**
+   * Returns the content hash of a precomputed JSON (or other canonical) representation of an
+   * object. Not memoized.
+   */
+  public static @Nonnull HashCode contentHashOfString(String representation) {
+    return HASH_FUNCTION.hashString(representation, UTF_8);
+  }
+
+  /** Returns a new hasher for combining content hashes and {@link #putContent content}. */
+  public static @Nonnull Hasher newContentHasher() {
+    return HASH_FUNCTION.newHasher();
+  }
+
+  /**
+   * Streams the content of {@code o} into {@code hasher}. Not memoized, so {@code o} may be an
+   * object that changes, or a view of one.
+   */
+  public static void putContent(Hasher hasher, @Nullable Object o) {
+    try {
+      BatfishObjectMapper.writer().writeValue(Funnels.asOutputStream(hasher), o);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write object as JSON", e);
+    }
+  }
+
+  private static @Nonnull HashCode computeContentHash(Object o) {
+    Hasher hasher = HASH_FUNCTION.newHasher();
+    putContent(hasher, o);
+    return hasher.hash();
+  }
+
+  private ContentHashes() {}
+}
@@ -6,24 +6,38 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class DefinedStructureInfo implements Serializable {
 
   private static final String PROP_DEFINITION_LINES = "definitionLines";
   private static final String PROP_NUM_REFERRERS = "numReferrers";
 
-  @Nonnull private final RangeSet<Integer> _definitionLines;
+  @Nonnull private IntegerSpace _definitionLines;
+
+  /**
+   * Lines added since {@link #_definitionLines} was last built, or {@code null} if there are none.
+   * Structures get their lines added one at a time while parsing, so the space is only rebuilt when
+   * it is read rather than on every addition.
+   */
+  @Nullable private transient IntegerSpace.Builder _addedLines;
+
   private int _numReferrers;
 
   public DefinedStructureInfo() {
-    this(TreeRangeSet.create(), 0);
+    this(IntegerSpace.EMPTY, 0);
   }
 
   public DefinedStructureInfo(@Nonnull RangeSet<Integer> lines, int numReferrers) {
+    this(IntegerSpace.of(lines), numReferrers);
+  }
+
+  public DefinedStructureInfo(@Nonnull IntegerSpace lines, int numReferrers) {
     _definitionLines = lines;
     _numReferrers = numReferrers;
   }
@@ -33,24 +47,35 @@ public class DefinedStructureInfo implements Serializable {
       @JsonProperty(PROP_DEFINITION_LINES) IntegerSpace definitionLines,
       @JsonProperty(PROP_NUM_REFERRERS) Integer numReferrers) {
     checkArgument(numReferrers != null, "Missing %s", PROP_NUM_REFERRERS);
-    return new DefinedStructureInfo(definitionLines.getRangeSet(), numReferrers);
+    return new DefinedStructureInfo(definitionLines, numReferrers);
   }
 
   @JsonProperty(PROP_DEFINITION_LINES)
   public @Nonnull IntegerSpace getDefinitionLines() {
-    return IntegerSpace.of(_definitionLines);
+    if (_addedLines != null) {
+      _definitionLines = _addedLines.build();
+      _addedLines = null;
+    }
+    return _definitionLines;
   }
 
   public void addDefinitionLines(int line) {
-    _definitionLines.add(Range.singleton(line));
+    addedLines().including(line);
   }
 
   public void addDefinitionLines(IntStream lines) {
-    lines.forEach(l -> _definitionLines.add(Range.singleton(l)));
+    addedLines().including(lines.toArray());
   }
 
   public void addDefinitionLines(Range<Integer> lines) {
-    _definitionLines.add(lines);
+    addedLines().including(lines);
+  }
+
+  private @Nonnull IntegerSpace.Builder addedLines() {
+    if (_addedLines == null) {
+      _addedLines = IntegerSpace.builder().including(_definitionLines);
+    }
+    return _addedLines;
   }
 
   @JsonProperty(PROP_NUM_REFERRERS)
@@ -61,4 +86,10 @@ public class DefinedStructureInfo implements Serializable {
   public void setNumReferrers(int numReferrers) {
     _numReferrers = numReferrers;
   }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    // Build any pending lines, since the builder is not serialized.
+    getDefinitionLines();
+    out.defaultWriteObject();
+  }
 }
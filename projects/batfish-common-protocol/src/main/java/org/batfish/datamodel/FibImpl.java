@@ -6,17 +6,21 @@ import static org.batfish.datamodel.Names.generatedTenantVniInterfaceName;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import java.io.IOException;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -91,23 +95,96 @@ public final class FibImpl implements Fib {
 
   private static final int MAX_DEPTH = 10;
 
+  /** Minimum number of routes for which the FIB is built in parallel. */
+  private static final int PARALLEL_MIN_ROUTES = 1 << 12;
+
+  /** Which routes may resolve the next-hop IP of a route, depending on the kind of route. */
+  private enum ResolutionMode {
+    /** Routes passing the resolution restriction. */
+    RESTRICTED,
+    /** Connected routes, and routes passing the resolution restriction. */
+    STATIC_RECURSIVE,
+    /** Connected routes only. */
+    STATIC_NON_RECURSIVE;
+
+    private static @Nonnull ResolutionMode of(AbstractRoute route) {
+      if (route.getProtocol() != RoutingProtocol.STATIC) {
+        return RESTRICTED;
+      }
+      return ((StaticRoute) route).getRecursive() ? STATIC_RECURSIVE : STATIC_NON_RECURSIVE;
+    }
+
+    private <R extends AbstractRouteDecorator> boolean canResolve(
+        R route, ResolutionRestriction<R> restriction) {
+      // TODO: factor out common code with StaticRouteHelper.shouldActivateNextHopIpRoute
+      if (this != RESTRICTED
+          && route.getAbstractRoute().getProtocol() == RoutingProtocol.CONNECTED) {
+        // All static routes can be activated by a connected route.
+        return true;
+      }
+      // Non-recursive static routes cannot be activated by non-connected routes. Recursive routes
+      // must pass restriction if present.
+      return this != STATIC_NON_RECURSIVE && restriction.test(route);
+    }
+  }
+
+  /** The resolution of a next-hop IP, shared by all routes with that next-hop IP. */
+  private static final class NextHopResolution {
+    /** The actions of the FIB entries of a route with the next-hop IP. */
+    private final @Nonnull Set<FibAction> _actions;
+
+    /** The networks of all routes the resolution went through. */
+    private final @Nonnull Set<Prefix> _networks;
+
+    private NextHopResolution(Set<FibAction> actions, Set<Prefix> networks) {
+      _actions = actions;
+      _networks = networks;
+    }
+  }
+
   /** This trie is the source of truth for all resolved FIB routes */
   @Nonnull private final PrefixTrieMultiMap<FibEntry> _root;
 
   private transient Supplier<Set<FibEntry>> _entries;
 
+  /**
+   * Frozen, array-backed copy of {@link #_root} for fast longest-prefix-match lookups, built on the
+   * first lookup.
+   */
+  private transient Supplier<MultibitLpmTable<Set<FibEntry>>> _lpmTable;
+
   public <R extends AbstractRouteDecorator> FibImpl(
       GenericRib<R> rib, ResolutionRestriction<R> restriction) {
     _root = new PrefixTrieMultiMap<>();
-    rib.getTypedRoutes().stream()
-        .map(AbstractRouteDecorator::getAbstractRoute)
-        .filter(r -> !r.getNonForwarding())
-        .forEach(r -> _root.putAll(r.getNetwork(), resolveRoute(rib, r, restriction)));
+    List<AbstractRoute> routes =
+        rib.getTypedRoutes().stream()
+            .map(AbstractRouteDecorator::getAbstractRoute)
+            .filter(r -> !r.getNonForwarding())
+            .collect(ImmutableList.toImmutableList());
+    // Many routes typically share few next-hop IPs, e.g. BGP routes learned from a few peers, so
+    // each next-hop IP is only resolved once.
+    Map<ResolutionMode, Map<Ip, NextHopResolution>> nextHopResolutions =
+        new EnumMap<>(ResolutionMode.class);
+    for (ResolutionMode mode : ResolutionMode.values()) {
+      nextHopResolutions.put(mode, new ConcurrentHashMap<>());
+    }
+    IntStream indices = IntStream.range(0, routes.size());
+    if (routes.size() >= PARALLEL_MIN_ROUTES) {
+      indices = indices.parallel();
+    }
+    List<Set<FibEntry>> entries =
+        indices
+            .mapToObj(i -> resolveRoute(rib, routes.get(i), restriction, nextHopResolutions))
+            .collect(ImmutableList.toImmutableList());
+    for (int i = 0; i < routes.size(); i++) {
+      _root.putAll(routes.get(i).getNetwork(), entries.get(i));
+    }
     initSuppliers();
   }
 
   private void initSuppliers() {
     _entries = Suppliers.memoize(this::computeEntries);
+    _lpmTable = Suppliers.memoize(() -> MultibitLpmTable.of(_root));
   }
 
   private Set<FibEntry> computeEntries() {
@@ -141,6 +218,66 @@ public final class FibImpl implements Fib {
     return collector.build();
   }
 
+  /**
+   * Like {@link #resolveRoute(GenericRib, AbstractRoute, ResolutionRestriction)}, but reuses the
+   * resolution of the next-hop IP of {@code route} from {@code nextHopResolutions}, or adds it
+   * there.
+   */
+  private <R extends AbstractRouteDecorator> Set<FibEntry> resolveRoute(
+      GenericRib<R> rib,
+      AbstractRoute route,
+      ResolutionRestriction<R> restriction,
+      Map<ResolutionMode, Map<Ip, NextHopResolution>> nextHopResolutions) {
+    if (!(route.getNextHop() instanceof NextHopIp)) {
+      return resolveRoute(rib, route, restriction);
+    }
+    NextHopResolution resolution =
+        nextHopResolutions
+            .get(ResolutionMode.of(route))
+            .computeIfAbsent(
+                ((NextHopIp) route.getNextHop()).getIp(),
+                ip -> resolveNextHopIp(rib, route, ip, restriction));
+    if (resolution._networks.contains(route.getNetwork())) {
+      // The route would take part in its own resolution, which is then a loop.
+      return resolveRoute(rib, route, restriction);
+    }
+    List<AbstractRoute> resolutionSteps = ImmutableList.of(route);
+    return resolution._actions.stream()
+        .map(action -> new FibEntry(action, resolutionSteps))
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Resolves the next-hop IP {@code nextHopIp} of {@code route} without regard to the network of
+   * {@code route}, so that the result applies to every route with the same {@link ResolutionMode}
+   * and next-hop IP, unless the route's network is among the {@link NextHopResolution#_networks}.
+   */
+  private <R extends AbstractRouteDecorator> NextHopResolution resolveNextHopIp(
+      GenericRib<R> rib, AbstractRoute route, Ip nextHopIp, ResolutionRestriction<R> restriction) {
+    ResolutionTreeNode resolutionRoot = ResolutionTreeNode.root(route);
+    resolveNextHopIp(rib, route, nextHopIp, ImmutableSet.of(), 0, resolutionRoot, restriction);
+    Builder<FibEntry> collector = ImmutableSet.builder();
+    collectEntries(resolutionRoot, new Stack<>(), collector);
+    Builder<Prefix> networks = ImmutableSet.builder();
+    collectNetworks(resolutionRoot, networks);
+    return new NextHopResolution(
+        collector.build().stream().map(FibEntry::getAction).collect(ImmutableSet.toImmutableSet()),
+        networks.build());
+  }
+
+  /**
+   * Collects the networks of the routes below {@code node}, except for unresolvable nodes, which
+   * hold the route being resolved.
+   */
+  private static void collectNetworks(ResolutionTreeNode node, Builder<Prefix> networks) {
+    for (ResolutionTreeNode child : node.getChildren()) {
+      if (!child.getUnresolvable()) {
+        networks.add(child.getRoute().getNetwork());
+        collectNetworks(child, networks);
+      }
+    }
+  }
+
   private void collectEntries(
       ResolutionTreeNode node,
       Stack<AbstractRoute> stack,
@@ -223,49 +360,8 @@ public final class FibImpl implements Fib {
 
       @Override
       public Void visitNextHopIp(NextHopIp nextHopIp) {
-        Set<R> lpmRoutes =
-            rib.longestPrefixMatch(
-                nextHopIp.getIp(),
-                r -> {
-                  if (route.getProtocol() == RoutingProtocol.STATIC) {
-                    // TODO: factor out common code with
-                    // StaticRouteHelper.shouldActivateNextHopIpRoute
-                    if (r.getAbstractRoute().getProtocol() == RoutingProtocol.CONNECTED) {
-                      // All static routes can be activated by a connected route.
-                      return true;
-                    }
-                    if (!((StaticRoute) route).getRecursive()) {
-                      // Non-recursive static routes cannot be activated by non-connected
-                      // routes.
-                      return false;
-                    }
-                  }
-                  // Recursive routes must pass restriction if present.
-                  return restriction.test(r);
-                });
-
-        if (lpmRoutes.isEmpty()
-            || newSeenNetworks.contains(lpmRoutes.iterator().next().getNetwork())) {
-          // The next hop IP does not resolve or resolves in a loop, so this route becomes a
-          // discard entry. Note that such entries may only exist on some vendors (e.g. IOS), and
-          // will only survive in the final FIB if they do not cause an oscillation during data
-          // plane computation. On other vendors, the main RIB does not activate such routes, so we
-          // will not encounter them here.
-          ResolutionTreeNode.withParent(route, treeNode, null).markUnresolvable();
-          return null;
-        }
-        // We have at least one longest-prefix match, and have not looped yet.
-        for (R nextHopLongestPrefixMatchRoute : lpmRoutes) {
-          AbstractRoute genericRoute = nextHopLongestPrefixMatchRoute.getAbstractRoute();
-          buildResolutionTree(
-              rib,
-              genericRoute,
-              nextHopIp.getIp(),
-              newSeenNetworks,
-              depth + 1,
-              ResolutionTreeNode.withParent(genericRoute, treeNode, null),
-              restriction);
-        }
+        resolveNextHopIp(
+            rib, route, nextHopIp.getIp(), newSeenNetworks, depth, treeNode, restriction);
         return null;
       }
 
@@ -297,10 +393,49 @@ public final class FibImpl implements Fib {
     }.visit(route.getNextHop());
   }
 
+  /**
+   * Adds the resolution of the next-hop IP {@code nextHopIp} of {@code route} to {@code treeNode},
+   * given the networks of {@code route} and the routes it resolves.
+   */
+  private <R extends AbstractRouteDecorator> void resolveNextHopIp(
+      GenericRib<R> rib,
+      AbstractRoute route,
+      Ip nextHopIp,
+      Set<Prefix> seenNetworks,
+      int depth,
+      ResolutionTreeNode treeNode,
+      ResolutionRestriction<R> restriction) {
+    ResolutionMode mode = ResolutionMode.of(route);
+    Set<R> lpmRoutes = rib.longestPrefixMatch(nextHopIp, r -> mode.canResolve(r, restriction));
+
+    if (lpmRoutes.isEmpty() || seenNetworks.contains(lpmRoutes.iterator().next().getNetwork())) {
+      // The next hop IP does not resolve or resolves in a loop, so this route becomes a
+      // discard entry. Note that such entries may only exist on some vendors (e.g. IOS), and
+      // will only survive in the final FIB if they do not cause an oscillation during data
+      // plane computation. On other vendors, the main RIB does not activate such routes, so we
+      // will not encounter them here.
+      ResolutionTreeNode.withParent(route, treeNode, null).markUnresolvable();
+      return;
+    }
+    // We have at least one longest-prefix match, and have not looped yet.
+    for (R nextHopLongestPrefixMatchRoute : lpmRoutes) {
+      AbstractRoute genericRoute = nextHopLongestPrefixMatchRoute.getAbstractRoute();
+      buildResolutionTree(
+          rib,
+          genericRoute,
+          nextHopIp,
+          seenNetworks,
+          depth + 1,
+          ResolutionTreeNode.withParent(genericRoute, treeNode, null),
+          restriction);
+    }
+  }
+
   @Nonnull
   @Override
   public Set<FibEntry> get(Ip ip) {
-    return _root.longestPrefixMatch(ip);
+    Set<FibEntry> entries = _lpmTable.get().longestPrefixMatch(ip);
+    return entries == null ? ImmutableSet.of() : entries;
   }
 
   @Nonnull
@@ -1,5 +1,7 @@
 package org.batfish.datamodel;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.Arrays;
@@ -70,6 +72,9 @@ public final class FinalMainRib implements Serializable {
 
   //
 
+  private static final Interner<FinalMainRib> RIB_INTERNER = Interners.newWeakInterner();
+  private static final Interner<AbstractRoute> ROUTE_INTERNER = Interners.newWeakInterner();
+
   private final PrefixTrieMultiMap<AbstractRoute> _routeTree;
 
   private static PrefixTrieMultiMap<AbstractRoute> toPrefixTrie(
@@ -111,8 +116,12 @@ public final class FinalMainRib implements Serializable {
       _routes = routes;
     }
 
+    /**
+     * Re-intern after deserialization, so that snapshots loaded at the same time share identical
+     * RIBs and routes.
+     */
     private Object readResolve() throws ObjectStreamException {
-      return FinalMainRib.of(_routes);
+      return RIB_INTERNER.intern(FinalMainRib.of(_routes.stream().map(ROUTE_INTERNER::intern)));
     }
   }
 
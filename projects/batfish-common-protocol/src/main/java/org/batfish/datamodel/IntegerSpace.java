@@ -4,9 +4,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.BoundType;
 import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
@@ -22,8 +20,8 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public final class IntegerSpace extends NumberSpace<Integer, IntegerSpace, IntegerSpace.Builder> {
 
-  protected IntegerSpace(RangeSet<Integer> rangeset) {
-    super(rangeset);
+  private IntegerSpace(long[] bounds) {
+    super(bounds);
   }
 
   /** Empty {@link IntegerSpace} */
@@ -64,24 +62,34 @@ public final class IntegerSpace extends NumberSpace<Integer, IntegerSpace, Integ
 
   /** Return this space as a set of included {@link SubRange}s */
   public @Nonnull Set<SubRange> getSubRanges() {
-    return _rangeset.asRanges().stream()
-        .map(
-            r -> {
-              assert r.lowerBoundType() == BoundType.CLOSED && r.upperBoundType() == BoundType.OPEN;
-              return new SubRange(r.lowerEndpoint(), r.upperEndpoint() - 1);
-            })
-        .collect(ImmutableSet.toImmutableSet());
+    ImmutableSet.Builder<SubRange> subRanges =
+        ImmutableSet.builderWithExpectedSize(_bounds.length / 2);
+    for (int i = 0; i < _bounds.length; i += 2) {
+      subRanges.add(new SubRange((int) _bounds[i], (int) _bounds[i + 1]));
+    }
+    return subRanges.build();
+  }
+
+  /** Check that this space contains a given {@code value}, without boxing. */
+  public boolean contains(int value) {
+    return containsValue(value);
   }
 
   /** Return an ordered set of integers described by this space. */
   @Override
   public @Nonnull SortedSet<Integer> enumerate() {
-    return ImmutableRangeSet.copyOf(_rangeset).asSet(DiscreteDomain.integers());
+    return toImmutableRangeSet().asSet(DiscreteDomain.integers());
   }
 
   /** Returns a stream of the included integers. */
   public @Nonnull IntStream intStream() {
-    return stream().mapToInt(Integer::intValue);
+    return IntStream.range(0, _bounds.length / 2)
+        .flatMap(i -> IntStream.rangeClosed((int) _bounds[2 * i], (int) _bounds[2 * i + 1]));
+  }
+
+  @Override
+  protected @Nonnull Integer valueOf(long value) {
+    return (int) value;
   }
 
   /** Create a new {@link IntegerSpace} from a {@link SubRange} */
@@ -170,8 +178,8 @@ public final class IntegerSpace extends NumberSpace<Integer, IntegerSpace, Integ
     }
 
     @Override
-    protected @Nonnull IntegerSpace build(RangeSet<Integer> rangeSet) {
-      return new IntegerSpace(rangeSet);
+    protected @Nonnull IntegerSpace build(long[] bounds) {
+      return new IntegerSpace(bounds);
     }
 
     @Override
@@ -7,6 +7,9 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
@@ -97,6 +100,8 @@ public class IpAccessList implements Serializable {
     return new Builder(nameGenerator);
   }
 
+  private static final Interner<List<AclLine>> LINES_INTERNER = Interners.newWeakInterner();
+
   @Nonnull private final List<AclLine> _lines;
   @Nonnull private final String _name;
   private final String _sourceName;
@@ -201,4 +206,12 @@ public class IpAccessList implements Serializable {
         .setSourceName(_sourceName)
         .setSourceType(_sourceType);
   }
+
+  /**
+   * Re-intern the lines after deserialization, so that snapshots loaded at the same time share
+   * identical ACLs.
+   */
+  private Object readResolve() throws ObjectStreamException {
+    return new IpAccessList(_name, LINES_INTERNER.intern(_lines), _sourceName, _sourceType);
+  }
 }
@@ -5,11 +5,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.ImmutableRangeSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -39,8 +39,8 @@ public final class LongSpace extends NumberSpace<Long, LongSpace, LongSpace.Buil
     }
 
     @Override
-    protected @Nonnull LongSpace build(RangeSet<Long> rangeSet) {
-      return new LongSpace(rangeSet);
+    protected @Nonnull LongSpace build(long[] bounds) {
+      return new LongSpace(bounds);
     }
 
     @Override
@@ -115,8 +115,8 @@ public final class LongSpace extends NumberSpace<Long, LongSpace, LongSpace.Buil
     return unionOf(Arrays.asList(ranges));
   }
 
-  protected LongSpace(RangeSet<Long> rangeset) {
-    super(rangeset);
+  private LongSpace(long[] bounds) {
+    super(bounds);
   }
 
   @Override
@@ -132,7 +132,12 @@ public final class LongSpace extends NumberSpace<Long, LongSpace, LongSpace.Buil
   /** Return an ordered set of longs described by this space. */
   @Override
   public @Nonnull Set<Long> enumerate() {
-    return ImmutableRangeSet.copyOf(_rangeset).asSet(DiscreteDomain.longs());
+    return toImmutableRangeSet().asSet(DiscreteDomain.longs());
+  }
+
+  /** Check that this space contains a given {@code value}, without boxing. */
+  public boolean contains(long value) {
+    return containsValue(value);
   }
 
   @Override
@@ -142,7 +147,14 @@ public final class LongSpace extends NumberSpace<Long, LongSpace, LongSpace.Buil
 
   /** Returns a stream of the included longs. */
   public @Nonnull LongStream longStream() {
-    return stream().mapToLong(Long::longValue);
+    return IntStream.range(0, _bounds.length / 2)
+        .mapToObj(i -> LongStream.rangeClosed(_bounds[2 * i], _bounds[2 * i + 1]))
+        .flatMapToLong(s -> s);
+  }
+
+  @Override
+  protected @Nonnull Long valueOf(long value) {
+    return value;
   }
 
   @Override
@@ -0,0 +1,154 @@
+package org.batfish.datamodel;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An immutable, array-backed multibit trie for longest-prefix-match lookups of IPv4 addresses.
+ *
+ * <p>The trie consumes the address in fixed strides (e.g. 16, 8, and 8 bits), so a lookup reads at
+ * most one array slot per stride. Every node is a contiguous block of {@code 2^stride} slots in a
+ * single {@code int[]}. Each slot holds {@code 0} if no prefix matches, the positive index (plus
+ * one) of the value of the longest matching prefix, or the negated offset of a child node. Values
+ * of shorter prefixes are pushed down into the slots of child nodes when those are created, so a
+ * lookup never needs to backtrack.
+ *
+ * <p>Intended as a frozen view of a {@link PrefixTrieMultiMap} that no longer changes, e.g. the
+ * routes of a {@link Fib}.
+ */
+@ParametersAreNonnullByDefault
+public final class MultibitLpmTable<T> {
+
+  /** Strides for small tables, where a 2^16 slot root node would dominate the memory use. */
+  @VisibleForTesting static final int[] SMALL_TABLE_STRIDES = {8, 8, 8, 8};
+
+  /** Strides for large tables, which need at most three reads per lookup. */
+  @VisibleForTesting static final int[] LARGE_TABLE_STRIDES = {16, 8, 8};
+
+  /** Minimum number of prefixes for which {@link #LARGE_TABLE_STRIDES} are used. */
+  @VisibleForTesting static final int LARGE_TABLE_MIN_PREFIXES = 1 << 12;
+
+  /**
+   * Returns a table mapping each IP address to the non-empty set of elements of its longest
+   * matching prefix in {@code trie}.
+   */
+  public static @Nonnull <T> MultibitLpmTable<Set<T>> of(PrefixTrieMultiMap<T> trie) {
+    List<Entry<Prefix, Set<T>>> entries = new ArrayList<>();
+    trie.traverseEntries((prefix, elements) -> entries.add(Maps.immutableEntry(prefix, elements)));
+    return of(
+        entries,
+        entries.size() >= LARGE_TABLE_MIN_PREFIXES ? LARGE_TABLE_STRIDES : SMALL_TABLE_STRIDES);
+  }
+
+  @VisibleForTesting
+  static @Nonnull <T> MultibitLpmTable<T> of(List<Entry<Prefix, T>> entries, int[] strides) {
+    checkArgument(Arrays.stream(strides).sum() == Prefix.MAX_PREFIX_LENGTH, "Invalid strides");
+    Builder<T> builder = new Builder<>(strides);
+    // Inserting shorter prefixes first means that when a prefix is inserted, every slot it covers
+    // is either empty or holds the value of a shorter prefix, so it can simply be overwritten.
+    entries.stream()
+        .sorted(Comparator.comparingInt(e -> e.getKey().getPrefixLength()))
+        .forEach(e -> builder.insert(e.getKey(), e.getValue()));
+    return builder.build();
+  }
+
+  private final int[] _strides;
+  private final int[] _slots;
+  private final Object[] _values;
+
+  private MultibitLpmTable(int[] strides, int[] slots, Object[] values) {
+    _strides = strides;
+    _slots = slots;
+    _values = values;
+  }
+
+  /** Returns the value of the longest prefix matching {@code ip}, or {@code null} if none does. */
+  @SuppressWarnings("unchecked")
+  public @Nullable T longestPrefixMatch(Ip ip) {
+    int address = (int) ip.asLong();
+    int shift = Prefix.MAX_PREFIX_LENGTH - _strides[0];
+    int slot = _slots[address >>> shift];
+    for (int level = 1; slot < 0; level++) {
+      int stride = _strides[level];
+      shift -= stride;
+      slot = _slots[-slot + ((address >>> shift) & ((1 << stride) - 1))];
+    }
+    return slot == 0 ? null : (T) _values[slot - 1];
+  }
+
+  /** Returns the number of slots in this table, each of which occupies four bytes. */
+  public int getSlotCount() {
+    return _slots.length;
+  }
+
+  private static final class Builder<T> {
+    private final int[] _strides;
+    private int[] _slots;
+    private int _size;
+    private final List<T> _values;
+
+    private Builder(int[] strides) {
+      _strides = strides.clone();
+      _slots = new int[1 << strides[0]];
+      _size = _slots.length;
+      _values = new ArrayList<>();
+    }
+
+    private void insert(Prefix prefix, T value) {
+      _values.add(value);
+      int leaf = _values.size();
+      int address = (int) prefix.getStartIp().asLong();
+      int length = prefix.getPrefixLength();
+      int node = 0;
+      int consumed = 0;
+      for (int level = 0; ; level++) {
+        int stride = _strides[level];
+        int shift = Prefix.MAX_PREFIX_LENGTH - consumed - stride;
+        int index = (address >>> shift) & ((1 << stride) - 1);
+        if (length <= consumed + stride) {
+          // The prefix covers a contiguous, aligned range of slots in this node.
+          int span = 1 << (consumed + stride - length);
+          int first = node + (index & -span);
+          assert Arrays.stream(_slots, first, first + span).allMatch(s -> s >= 0);
+          Arrays.fill(_slots, first, first + span, leaf);
+          return;
+        }
+        int slot = _slots[node + index];
+        if (slot < 0) {
+          node = -slot;
+        } else {
+          int child = allocate(1 << _strides[level + 1], slot);
+          _slots[node + index] = -child;
+          node = child;
+        }
+        consumed += stride;
+      }
+    }
+
+    /** Allocates a node of {@code size} slots initialized to {@code leaf}, returning its offset. */
+    private int allocate(int size, int leaf) {
+      if (_size + size > _slots.length) {
+        _slots = Arrays.copyOf(_slots, Math.max(_slots.length * 2, _size + size));
+      }
+      int offset = _size;
+      _size += size;
+      Arrays.fill(_slots, offset, _size, leaf);
+      return offset;
+    }
+
+    private @Nonnull MultibitLpmTable<T> build() {
+      return new MultibitLpmTable<>(_strides, Arrays.copyOf(_slots, _size), _values.toArray());
+    }
+  }
+}
@@ -6,18 +6,15 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
-import com.google.common.collect.BoundType;
 import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
-import com.google.common.collect.TreeRangeSet;
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -26,6 +23,9 @@ import javax.annotation.ParametersAreNonnullByDefault;
 /**
  * A finite, closed, not necessarily contiguous space of numbers. {@link NumberSpace}s are by design
  * <i>immutable</i>, but can be altered by converting {@link #toBuilder()} and rebuilding.
+ *
+ * <p>A space is stored as a sorted array of primitive interval bounds, so that membership tests do
+ * not allocate and set operations are linear merges.
  */
 @ParametersAreNonnullByDefault
 public abstract class NumberSpace<
@@ -57,43 +57,41 @@ public abstract class NumberSpace<
       Arrays.stream(atoms).forEach(atom -> builder.processStringAtom(atom.trim()));
     }
 
-    private Set<Range<T>> _excluding;
-    private Set<Range<T>> _including;
+    private final Intervals _excluding;
+    private final Intervals _including;
 
     protected Builder() {
-      _including = new HashSet<>();
-      _excluding = new HashSet<>();
+      _including = new Intervals();
+      _excluding = new Intervals();
     }
 
     protected Builder(S space) {
       this();
-      _including.addAll(space._rangeset.asRanges());
+      _including.addAll(space._bounds);
     }
 
     /** Returns a new {@link NumberSpace} */
     public final S build() {
-      RangeSet<T> rangeSet = TreeRangeSet.<T>create(_including);
-      rangeSet.removeAll(_excluding);
-      return build(rangeSet);
+      return build(difference(_including.normalized(), _excluding.normalized()));
     }
 
-    protected abstract S build(RangeSet<T> rangeSet);
+    /**
+     * Returns a new {@link NumberSpace} of the given {@code bounds}, which must satisfy the
+     * invariant of {@link NumberSpace#_bounds}.
+     */
+    protected abstract S build(long[] bounds);
 
     protected abstract DiscreteDomain<T> discreteDomain();
 
     /** Exclude a range. The {@link Range} must be finite. */
     public final B excluding(Range<T> range) {
-      checkArgument(
-          range.hasLowerBound() && range.hasUpperBound(), "Infinite ranges are not supported");
-      if (!range.isEmpty()) {
-        _excluding.add(range.canonical(discreteDomain()));
-      }
+      add(_excluding, range);
       return getThis();
     }
 
     /** Exclude an {@link NumberSpace} */
     public final B excluding(S space) {
-      space._rangeset.asRanges().forEach(this::excluding);
+      _excluding.addAll(space._bounds);
       return getThis();
     }
 
@@ -116,17 +114,13 @@ public abstract class NumberSpace<
 
     /** Include a range. The {@link Range} must be a finite range. */
     public final B including(Range<T> range) {
-      checkArgument(
-          range.hasLowerBound() && range.hasUpperBound(), "Infinite ranges are not supported");
-      if (!range.isEmpty()) {
-        _including.add(range.canonical(discreteDomain()));
-      }
+      add(_including, range);
       return getThis();
     }
 
     /** Include an {@link NumberSpace} */
     public final B including(S space) {
-      space._rangeset.asRanges().forEach(this::including);
+      _including.addAll(space._bounds);
       return getThis();
     }
 
@@ -162,33 +156,98 @@ public abstract class NumberSpace<
         including(parse(s));
       }
     }
+
+    private void add(Intervals intervals, Range<T> range) {
+      checkArgument(
+          range.hasLowerBound() && range.hasUpperBound(), "Infinite ranges are not supported");
+      if (range.isEmpty()) {
+        return;
+      }
+      Range<T> canonical = range.canonical(discreteDomain());
+      if (!canonical.isEmpty()) {
+        intervals.add(
+            canonical.lowerEndpoint().longValue(), lastValue(canonical, discreteDomain()));
+      }
+    }
+  }
+
+  /** A growable list of closed intervals, in no particular order. */
+  private static final class Intervals {
+    private long[] _bounds = EMPTY_BOUNDS;
+    private int _size;
+
+    void add(long lo, long hi) {
+      if (_size == _bounds.length) {
+        _bounds = Arrays.copyOf(_bounds, Math.max(4, 2 * _size));
+      }
+      _bounds[_size++] = lo;
+      _bounds[_size++] = hi;
+    }
+
+    void addAll(long[] bounds) {
+      for (int i = 0; i < bounds.length; i += 2) {
+        add(bounds[i], bounds[i + 1]);
+      }
+    }
+
+    boolean isEmpty() {
+      return _size == 0;
+    }
+
+    /** Returns the union of these intervals, in the form of {@link NumberSpace#_bounds}. */
+    long[] normalized() {
+      return normalize(_bounds, 0, _size);
+    }
   }
 
   protected static final String ERROR_MESSAGE_TEMPLATE = "Invalid range specification %s";
 
+  private static final long[] EMPTY_BOUNDS = new long[0];
+
   /*
-   * Invariant: always ensure ranges are stored in canonical form (enforced in builder methods)
-   * and immutable (enforced in constructor)
+   * Invariant: the space is the union of the closed intervals [_bounds[2i], _bounds[2i + 1]],
+   * which are sorted, disjoint, and not adjacent (enforced by the builder and set operations), so
+   * that each space has exactly one representation. The array is never modified.
    */
-  @Nonnull final RangeSet<T> _rangeset;
+  @Nonnull final long[] _bounds;
 
-  protected NumberSpace(RangeSet<T> rangeset) {
-    _rangeset = ImmutableRangeSet.copyOf(rangeset);
+  protected NumberSpace(long[] bounds) {
+    _bounds = bounds;
   }
 
   /** Check that this space *fully* contains the {@code other} {@link NumberSpace}. */
   public final boolean contains(S other) {
-    return _rangeset.enclosesAll(other._rangeset.asRanges());
+    return encloses(_bounds, other._bounds);
   }
 
   /** Check that this space contains a given {@code value}. */
   public final boolean contains(@Nonnull T value) {
-    return _rangeset.contains(value);
+    return containsValue(value.longValue());
+  }
+
+  /** Check that this space contains a given {@code value}, without allocating. */
+  final boolean containsValue(long value) {
+    int low = 0;
+    int high = _bounds.length / 2 - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (_bounds[2 * mid + 1] < value) {
+        low = mid + 1;
+      } else if (_bounds[2 * mid] > value) {
+        high = mid - 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
   }
 
   /** Compute the difference between two {@link NumberSpace}s */
   public final S difference(S other) {
-    return toBuilder().excluding(other).build();
+    if (isEmpty() || other.isEmpty()) {
+      return getThis();
+    }
+    return newBuilder().build(difference(_bounds, other._bounds));
   }
 
   protected abstract DiscreteDomain<T> discreteDomain();
@@ -210,57 +269,61 @@ public abstract class NumberSpace<
     // safe cast since we just checked
     @SuppressWarnings("unchecked")
     S that = (S) o;
-    return _rangeset.equals(that._rangeset);
+    return Arrays.equals(_bounds, that._bounds);
   }
 
   @Override
   public final int hashCode() {
-    return _rangeset.hashCode();
+    return Arrays.hashCode(_bounds);
   }
 
   /** This space as a set of included {@link Range}s */
   public final Set<Range<T>> getRanges() {
-    return _rangeset.asRanges();
+    ImmutableSet.Builder<Range<T>> ranges =
+        ImmutableSet.builderWithExpectedSize(_bounds.length / 2);
+    for (int i = 0; i < _bounds.length; i += 2) {
+      ranges.add(
+          Range.closed(valueOf(_bounds[i]), valueOf(_bounds[i + 1])).canonical(discreteDomain()));
+    }
+    return ranges.build();
   }
 
   /** This space as an immutable {@link RangeSet}. */
   public final RangeSet<T> getRangeSet() {
-    return ImmutableRangeSet.copyOf(_rangeset);
+    return toImmutableRangeSet();
+  }
+
+  final ImmutableRangeSet<T> toImmutableRangeSet() {
+    ImmutableRangeSet.Builder<T> rangeSet = ImmutableRangeSet.builder();
+    getRanges().forEach(rangeSet::add);
+    return rangeSet.build();
   }
 
   protected abstract S getThis();
 
   /** Intersect two number spaces together. */
   public final S intersection(S other) {
-    return newBuilder()
-        .including(
-            other._rangeset.asRanges().stream()
-                .map(_rangeset::subRangeSet) // intersect individual ranges with _rangeset
-                .map(RangeSet::asRanges) // flatten each intersection result to set of ranges
-                .flatMap(Set::stream) // stream for collection
-                .collect(ImmutableRangeSet.toImmutableRangeSet()))
-        .build();
+    if (isEmpty()) {
+      return getThis();
+    } else if (other.isEmpty()) {
+      return other;
+    }
+    return newBuilder().build(intersection(_bounds, other._bounds));
   }
 
   /** Returns true if this space is a contiguous space */
   public final boolean isContiguous() {
-    return _rangeset.asRanges().size() <= 1;
+    return _bounds.length <= 2;
   }
 
   /** Return true iff this space is empty (contains no values) */
   public final boolean isEmpty() {
-    return _rangeset.isEmpty();
+    return _bounds.length == 0;
   }
 
   /** Return true iff this space is a singleton (contains exactly one value) */
   public final boolean isSingleton() {
-    return getRanges().size() == 1 && isSingletonRange(getRanges().iterator().next());
-  }
-
-  private boolean isSingletonRange(Range<T> range) {
-    // note that argument is guaranteed to be closedOpen Range
-    assert range.lowerBoundType() == BoundType.CLOSED && range.upperBoundType() == BoundType.OPEN;
-    return range.upperEndpoint().equals(discreteDomain().next(range.lowerEndpoint()));
+    return _bounds.length == 2 && _bounds[0] == _bounds[1];
   }
 
   /**
@@ -269,11 +332,10 @@ public abstract class NumberSpace<
    * @throws NoSuchElementException if space is empty
    */
   public final @Nonnull T greatest() {
-    Range<T> span = _rangeset.span();
-    T upperEndpoint = span.upperEndpoint();
-    return span.upperBoundType() == BoundType.CLOSED
-        ? upperEndpoint
-        : discreteDomain().previous(upperEndpoint);
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return valueOf(_bounds[_bounds.length - 1]);
   }
 
   /**
@@ -282,11 +344,10 @@ public abstract class NumberSpace<
    * @throws NoSuchElementException if space is empty
    */
   public final @Nonnull T least() {
-    Range<T> span = _rangeset.span();
-    T lowerEndpoint = span.lowerEndpoint();
-    return span.lowerBoundType() == BoundType.CLOSED
-        ? lowerEndpoint
-        : discreteDomain().next(lowerEndpoint);
+    if (isEmpty()) {
+      throw new NoSuchElementException();
+    }
+    return valueOf(_bounds[0]);
   }
 
   protected abstract B newBuilder();
@@ -299,11 +360,19 @@ public abstract class NumberSpace<
   public final S complement(Range<T> bounds) {
     Range<T> canonicalBounds = bounds.canonical(discreteDomain());
     checkArgument(
-        isEmpty() || canonicalBounds.encloses(_rangeset.span().canonical(discreteDomain())),
+        isEmpty()
+            || canonicalBounds.encloses(
+                Range.closed(least(), greatest()).canonical(discreteDomain())),
         "Cannot take the complement of space %s within a smaller bounds %s.",
         this,
         bounds);
-    return newBuilder().build(_rangeset.complement().subRangeSet(canonicalBounds));
+    if (canonicalBounds.isEmpty()) {
+      return empty();
+    }
+    long[] boundsInterval = {
+      canonicalBounds.lowerEndpoint().longValue(), lastValue(canonicalBounds, discreteDomain())
+    };
+    return newBuilder().build(difference(boundsInterval, _bounds));
   }
 
   /**
@@ -314,7 +383,7 @@ public abstract class NumberSpace<
     if (!isSingleton()) {
       throw new NoSuchElementException();
     }
-    return _rangeset.asRanges().iterator().next().lowerEndpoint();
+    return valueOf(_bounds[0]);
   }
 
   /** Returns a stream of the included numbers. */
@@ -332,17 +401,23 @@ public abstract class NumberSpace<
     return newBuilder().including(getThis());
   }
 
-  private @Nonnull String toRangeString(Range<T> r) {
-    assert r.lowerBoundType() == BoundType.CLOSED && r.upperBoundType() == BoundType.OPEN;
-    return isSingletonRange(r)
-        ? r.lowerEndpoint().toString()
-        : String.format("%s-%s", r.lowerEndpoint(), discreteDomain().previous(r.upperEndpoint()));
-  }
+  /** Returns the number of the represented type with the given value. */
+  protected abstract @Nonnull T valueOf(long value);
 
   @JsonValue
   @Override
   public final @Nonnull String toString() {
-    return getRanges().stream().map(this::toRangeString).collect(Collectors.joining(","));
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < _bounds.length; i += 2) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(_bounds[i]);
+      if (_bounds[i] != _bounds[i + 1]) {
+        sb.append('-').append(_bounds[i + 1]);
+      }
+    }
+    return sb.toString();
   }
 
   /** Union two {@link NumberSpace}s together */
@@ -352,17 +427,7 @@ public abstract class NumberSpace<
     } else if (other.isEmpty()) {
       return getThis();
     }
-    if (!_rangeset.intersects(other._rangeset.span())) {
-      // ImmutableRangeSet rejects overlapping ranges. There's a Guava-internal TO-DO about it.
-      // https://github.com/google/guava/blob/8075df7ffd63b4b96cd0bdfdc2dde71d08f672c9/guava/src/com/google/common/collect/ImmutableRangeSet.java#L739
-      // So only use this shortcut if it's easy to prove that the two range sets don't overlap.
-      return newBuilder()
-          .build(ImmutableRangeSet.<T>builder().addAll(_rangeset).addAll(other._rangeset).build());
-    }
-    // Slow, but handle overlap.
-    TreeRangeSet<T> ret = TreeRangeSet.create(other._rangeset);
-    ret.addAll(_rangeset);
-    return newBuilder().build(ret);
+    return newBuilder().build(union(_bounds, other._bounds));
   }
 
   /**
@@ -378,4 +443,136 @@ public abstract class NumberSpace<
         completeSpace);
     return isEmpty() ? "none" : equals(completeSpace) ? "all" : toString();
   }
+
+  /** Returns the greatest value in a non-empty {@code canonical} range. */
+  private static <T extends Number & Comparable<T>> long lastValue(
+      Range<T> canonical, DiscreteDomain<T> domain) {
+    // A canonical range is closed-open, unless it extends to the maximum value of the domain.
+    return canonical.hasUpperBound()
+        ? canonical.upperEndpoint().longValue() - 1
+        : domain.maxValue().longValue();
+  }
+
+  /*
+   * Operations on interval bounds. Except for normalize, inputs must satisfy the invariant of
+   * _bounds, as do all outputs.
+   */
+
+  /**
+   * Returns the union of the intervals in {@code intervals[from, to)}, which may be in any order
+   * and may overlap.
+   */
+  private static long[] normalize(long[] intervals, int from, int to) {
+    int count = (to - from) / 2;
+    if (count == 0) {
+      return EMPTY_BOUNDS;
+    } else if (count == 1) {
+      return new long[] {intervals[from], intervals[from + 1]};
+    }
+    int mid = from + count / 2 * 2;
+    return union(normalize(intervals, from, mid), normalize(intervals, mid, to));
+  }
+
+  @VisibleForTesting
+  static long[] union(long[] a, long[] b) {
+    long[] out = new long[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < a.length || j < b.length) {
+      long lo;
+      long hi;
+      if (j == b.length || (i < a.length && a[i] <= b[j])) {
+        lo = a[i];
+        hi = a[i + 1];
+        i += 2;
+      } else {
+        lo = b[j];
+        hi = b[j + 1];
+        j += 2;
+      }
+      // Intervals arrive sorted by lower bound, so this one overlaps or is adjacent to the last
+      // output iff it starts at most one past its end. Written so that neither side overflows.
+      if (n > 0 && (lo <= out[n - 1] || lo - 1 == out[n - 1])) {
+        out[n - 1] = Math.max(out[n - 1], hi);
+      } else {
+        out[n++] = lo;
+        out[n++] = hi;
+      }
+    }
+    return n == out.length ? out : Arrays.copyOf(out, n);
+  }
+
+  @VisibleForTesting
+  static long[] intersection(long[] a, long[] b) {
+    long[] out = new long[a.length + b.length];
+    int i = 0;
+    int j = 0;
+    int n = 0;
+    while (i < a.length && j < b.length) {
+      long lo = Math.max(a[i], b[j]);
+      long hi = Math.min(a[i + 1], b[j + 1]);
+      if (lo <= hi) {
+        out[n++] = lo;
+        out[n++] = hi;
+      }
+      if (a[i + 1] < b[j + 1]) {
+        i += 2;
+      } else {
+        j += 2;
+      }
+    }
+    return n == 0 ? EMPTY_BOUNDS : Arrays.copyOf(out, n);
+  }
+
+  @VisibleForTesting
+  static long[] difference(long[] a, long[] b) {
+    if (b.length == 0) {
+      return a;
+    }
+    // Each interval of b splits at most one interval of a in two.
+    long[] out = new long[a.length + b.length];
+    int j = 0;
+    int n = 0;
+    for (int i = 0; i < a.length; i += 2) {
+      long lo = a[i];
+      long hi = a[i + 1];
+      while (j < b.length && b[j + 1] < lo) {
+        j += 2;
+      }
+      // Intervals of b overlapping [lo, hi] may also overlap the next interval of a, so scan them
+      // without advancing j.
+      boolean remaining = true;
+      for (int k = j; k < b.length && b[k] <= hi; k += 2) {
+        if (b[k] > lo) {
+          out[n++] = lo;
+          out[n++] = b[k] - 1;
+        }
+        if (b[k + 1] >= hi) {
+          remaining = false;
+          break;
+        }
+        lo = b[k + 1] + 1;
+      }
+      if (remaining) {
+        out[n++] = lo;
+        out[n++] = hi;
+      }
+    }
+    return n == 0 ? EMPTY_BOUNDS : Arrays.copyOf(out, n);
+  }
+
+  /** Returns true iff every interval of {@code b} is contained in an interval of {@code a}. */
+  private static boolean encloses(long[] a, long[] b) {
+    int i = 0;
+    for (int j = 0; j < b.length; j += 2) {
+      while (i < a.length && a[i + 1] < b[j]) {
+        i += 2;
+      }
+      if (i == a.length || a[i] > b[j] || a[i + 1] < b[j + 1]) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
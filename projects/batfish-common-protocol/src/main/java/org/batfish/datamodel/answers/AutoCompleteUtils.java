@@ -83,6 +83,61 @@ public final class AutoCompleteUtils {
       @Nullable NodeRolesData nodeRolesData,
       @Nullable ReferenceLibrary referenceLibrary,
       boolean fuzzyMatching) {
+    return autoComplete(
+        network,
+        snapshot,
+        completionType,
+        query,
+        maxSuggestions,
+        completionMetadata,
+        null,
+        nodeRolesData,
+        referenceLibrary,
+        fuzzyMatching);
+  }
+
+  /**
+   * Same as {@link #autoComplete(String, String, Variable.Type, String, int, CompletionMetadata,
+   * NodeRolesData, ReferenceLibrary, boolean)}, but answers queries over the names in the
+   * completion metadata from {@code completionMetadataIndex} instead of scanning them. Callers that
+   * autocomplete many queries against the same snapshot should keep the index around.
+   */
+  @Nonnull
+  public static List<AutocompleteSuggestion> indexedAutoComplete(
+      @Nullable String network,
+      @Nullable String snapshot,
+      Variable.Type completionType,
+      String query,
+      int maxSuggestions,
+      CompletionMetadataIndex completionMetadataIndex,
+      @Nullable NodeRolesData nodeRolesData,
+      @Nullable ReferenceLibrary referenceLibrary,
+      boolean fuzzyMatching) {
+    return autoComplete(
+        network,
+        snapshot,
+        completionType,
+        query,
+        maxSuggestions,
+        completionMetadataIndex.getCompletionMetadata(),
+        completionMetadataIndex,
+        nodeRolesData,
+        referenceLibrary,
+        fuzzyMatching);
+  }
+
+  @Nonnull
+  private static List<AutocompleteSuggestion> autoComplete(
+      @Nullable String network,
+      @Nullable String snapshot,
+      Variable.Type completionType,
+      String query,
+      int maxSuggestions,
+      @Nullable CompletionMetadata completionMetadata,
+      @Nullable CompletionMetadataIndex completionMetadataIndex,
+      @Nullable NodeRolesData nodeRolesData,
+      @Nullable ReferenceLibrary referenceLibrary,
+      boolean fuzzyMatching) {
 
     List<AutocompleteSuggestion> suggestions =
         getPotentialMatches(
@@ -92,6 +147,7 @@ public final class AutoCompleteUtils {
             query,
             maxSuggestions,
             completionMetadata,
+            completionMetadataIndex,
             nodeRolesData,
             referenceLibrary);
 
@@ -110,6 +166,7 @@ public final class AutoCompleteUtils {
                 relaxedQuery,
                 maxSuggestions,
                 completionMetadata,
+                completionMetadataIndex,
                 nodeRolesData,
                 referenceLibrary);
       }
@@ -205,6 +262,7 @@ public final class AutoCompleteUtils {
       String query,
       int maxSuggestions,
       @Nullable CompletionMetadata completionMetadata,
+      @Nullable CompletionMetadataIndex completionMetadataIndex,
       @Nullable NodeRolesData nodeRolesData,
       @Nullable ReferenceLibrary referenceLibrary) {
     List<AutocompleteSuggestion> suggestions;
@@ -341,7 +399,10 @@ public final class AutoCompleteUtils {
         case FILTER_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getFilterNames());
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.filterNames(query)
+                    : stringAutoComplete(query, completionMetadata.getFilterNames());
             break;
           }
         case FILTER:
@@ -393,11 +454,13 @@ public final class AutoCompleteUtils {
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
             suggestions =
-                stringAutoComplete(
-                    query,
-                    completionMetadata.getInterfaces().stream()
-                        .map(NodeInterfacePair::getInterface)
-                        .collect(Collectors.toSet()));
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.interfaceNames(query)
+                    : stringAutoComplete(
+                        query,
+                        completionMetadata.getInterfaces().stream()
+                            .map(NodeInterfacePair::getInterface)
+                            .collect(Collectors.toSet()));
             break;
           }
         case INTERFACE_TYPE:
@@ -441,7 +504,10 @@ public final class AutoCompleteUtils {
         case IP:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = ipStringAutoComplete(query, completionMetadata.getIps());
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.ips(query)
+                    : ipStringAutoComplete(query, completionMetadata.getIps());
             break;
           }
         case IP_PROTOCOL_SPEC:
@@ -521,7 +587,10 @@ public final class AutoCompleteUtils {
         case MLAG_ID:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getMlagIds());
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.mlagIds(query)
+                    : stringAutoComplete(query, completionMetadata.getMlagIds());
             break;
           }
         case MLAG_ID_SPEC:
@@ -555,6 +624,10 @@ public final class AutoCompleteUtils {
         case NODE_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
+            if (completionMetadataIndex != null) {
+              suggestions = completionMetadataIndex.nodes(query);
+              break;
+            }
             Map<String, Optional<String>> nodesWithDescriptions =
                 toImmutableMap(
                     completionMetadata.getNodes(),
@@ -660,7 +733,10 @@ public final class AutoCompleteUtils {
         case PREFIX:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getPrefixes());
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.prefixes(query)
+                    : stringAutoComplete(query, completionMetadata.getPrefixes());
             break;
           }
         case PROTOCOL:
@@ -685,7 +761,10 @@ public final class AutoCompleteUtils {
         case ROUTING_POLICY_NAME:
           {
             checkCompletionMetadata(completionMetadata, network, snapshot);
-            suggestions = stringAutoComplete(query, completionMetadata.getRoutingPolicyNames());
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.routingPolicyNames(query)
+                    : stringAutoComplete(query, completionMetadata.getRoutingPolicyNames());
             break;
           }
         case ROUTING_POLICY_SPEC:
@@ -732,7 +811,10 @@ public final class AutoCompleteUtils {
           }
         case SOURCE_LOCATION:
           {
-            suggestions = autoCompleteSourceLocation(query, false, completionMetadata);
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.sourceLocations(query, false)
+                    : autoCompleteSourceLocation(query, false, completionMetadata);
             break;
           }
         case STRUCTURE_NAME:
@@ -743,7 +825,10 @@ public final class AutoCompleteUtils {
           }
         case TRACEROUTE_SOURCE_LOCATION:
           {
-            suggestions = autoCompleteSourceLocation(query, true, completionMetadata);
+            suggestions =
+                completionMetadataIndex != null
+                    ? completionMetadataIndex.sourceLocations(query, true)
+                    : autoCompleteSourceLocation(query, true, completionMetadata);
             break;
           }
         case VRF:
@@ -798,7 +883,7 @@ public final class AutoCompleteUtils {
    * false, "natural" source locations (per location info) with IPs are considered. Otherwise,
    * traceroute sources that are not source location with IPs are considered.
    */
-  private static Map<String, Optional<String>> getLocationsWithHumanNames(
+  static Map<String, Optional<String>> getLocationsWithHumanNames(
       boolean tracerouteSource, CompletionMetadata completionMetadata) {
     return (tracerouteSource
             ? completionMetadata.getLocations().stream()
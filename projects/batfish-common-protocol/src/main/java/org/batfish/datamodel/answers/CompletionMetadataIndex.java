@@ -0,0 +1,272 @@
+package org.batfish.datamodel.answers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.batfish.common.util.CollectionUtil.toImmutableMap;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableRangeSet;
+import com.google.common.collect.Range;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.CompletionMetadata;
+import org.batfish.common.autocomplete.IpCompletionMetadata;
+import org.batfish.common.autocomplete.SubstringIndex;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+
+/**
+ * Substring indexes over the {@link CompletionMetadata} of one snapshot, for answering the
+ * autocomplete queries of {@link AutoCompleteUtils} without scanning every name in the snapshot.
+ *
+ * <p>Each index is built the first time a query needs it. Queries answered from an index return the
+ * same suggestions, in the same order, as the corresponding scan in {@link AutoCompleteUtils}.
+ */
+@ParametersAreNonnullByDefault
+public final class CompletionMetadataIndex {
+
+  public CompletionMetadataIndex(CompletionMetadata completionMetadata) {
+    _completionMetadata = completionMetadata;
+    _filterNames = Suppliers.memoize(() -> new StringIndex(completionMetadata.getFilterNames()));
+    _interfaceNames =
+        Suppliers.memoize(
+            () ->
+                new StringIndex(
+                    completionMetadata.getInterfaces().stream()
+                        .map(NodeInterfacePair::getInterface)
+                        .collect(Collectors.toSet())));
+    _ips = Suppliers.memoize(() -> new IpIndex(completionMetadata));
+    _mlagIds = Suppliers.memoize(() -> new StringIndex(completionMetadata.getMlagIds()));
+    _nodes =
+        Suppliers.memoize(
+            () ->
+                new StringIndex(
+                    toImmutableMap(
+                        completionMetadata.getNodes(),
+                        Entry::getKey,
+                        entry -> Optional.ofNullable(entry.getValue().getHumanName()))));
+    _prefixes = Suppliers.memoize(() -> new StringIndex(completionMetadata.getPrefixes()));
+    _routingPolicyNames =
+        Suppliers.memoize(() -> new StringIndex(completionMetadata.getRoutingPolicyNames()));
+    _sourceLocations =
+        Suppliers.memoize(
+            () ->
+                new StringIndex(
+                    AutoCompleteUtils.getLocationsWithHumanNames(false, completionMetadata)));
+    _tracerouteSourceLocations =
+        Suppliers.memoize(
+            () ->
+                new StringIndex(
+                    AutoCompleteUtils.getLocationsWithHumanNames(true, completionMetadata)));
+  }
+
+  /** The indexed completion metadata. */
+  public @Nonnull CompletionMetadata getCompletionMetadata() {
+    return _completionMetadata;
+  }
+
+  @Nonnull
+  List<AutocompleteSuggestion> filterNames(@Nullable String query) {
+    return _filterNames.get().complete(query, AutocompleteSuggestion.DEFAULT_RANK);
+  }
+
+  @Nonnull
+  List<AutocompleteSuggestion> interfaceNames(@Nullable String query) {
+    return _interfaceNames.get().complete(query, AutocompleteSuggestion.DEFAULT_RANK);
+  }
+
+  /** See {@link AutoCompleteUtils#ipStringAutoComplete}. */
+  @Nonnull
+  List<AutocompleteSuggestion> ips(@Nullable String query) {
+    return _ips.get().complete(query);
+  }
+
+  @Nonnull
+  List<AutocompleteSuggestion> mlagIds(@Nullable String query) {
+    return _mlagIds.get().complete(query, AutocompleteSuggestion.DEFAULT_RANK);
+  }
+
+  @Nonnull
+  List<AutocompleteSuggestion> nodes(@Nullable String query) {
+    return _nodes.get().complete(query, AutocompleteSuggestion.DEFAULT_RANK);
+  }
+
+  @Nonnull
+  List<AutocompleteSuggestion> prefixes(@Nullable String query) {
+    return _prefixes.get().complete(query, AutocompleteSuggestion.DEFAULT_RANK);
+  }
+
+  @Nonnull
+  List<AutocompleteSuggestion> routingPolicyNames(@Nullable String query) {
+    return _routingPolicyNames.get().complete(query, AutocompleteSuggestion.DEFAULT_RANK);
+  }
+
+  /** See {@link AutoCompleteUtils#autoCompleteSourceLocation}. */
+  @Nonnull
+  List<AutocompleteSuggestion> sourceLocations(@Nullable String query, boolean tracerouteSource) {
+    checkNotNull(
+        _completionMetadata.getLocations(),
+        "cannot autocomplete source locations without location metadata");
+    List<AutocompleteSuggestion> sourceSuggestions = _sourceLocations.get().complete(query, 1);
+    if (!tracerouteSource) {
+      return sourceSuggestions;
+    }
+    return ImmutableList.<AutocompleteSuggestion>builder()
+        .addAll(sourceSuggestions)
+        .addAll(_tracerouteSourceLocations.get().complete(query, 2))
+        .build();
+  }
+
+  /** Strings, each with an optional description, that are matched by substring. */
+  private static final class StringIndex {
+
+    private StringIndex(Set<String> strings) {
+      _strings = strings.toArray(new String[0]);
+      _descriptions = new String[_strings.length];
+      _index =
+          new SubstringIndex(
+              Arrays.stream(_strings).map(ImmutableList::of).collect(Collectors.toList()));
+    }
+
+    private StringIndex(Map<String, Optional<String>> stringsWithDescriptions) {
+      _strings = new String[stringsWithDescriptions.size()];
+      _descriptions = new String[_strings.length];
+      ImmutableList.Builder<List<String>> documents = ImmutableList.builder();
+      int i = 0;
+      for (Entry<String, Optional<String>> entry : stringsWithDescriptions.entrySet()) {
+        _strings[i] = entry.getKey();
+        _descriptions[i] = entry.getValue().orElse(null);
+        documents.add(
+            _descriptions[i] == null
+                ? ImmutableList.of(_strings[i])
+                : ImmutableList.of(_strings[i], _descriptions[i]));
+        i++;
+      }
+      _index = new SubstringIndex(documents.build());
+    }
+
+    /**
+     * Returns the strings, with their descriptions, that contain the query or whose description
+     * does.
+     */
+    private @Nonnull List<AutocompleteSuggestion> complete(@Nullable String query, int rank) {
+      return _index
+          .matching(query == null ? "" : query)
+          .mapToObj(i -> new AutocompleteSuggestion(_strings[i], false, _descriptions[i], rank))
+          .collect(ImmutableList.toImmutableList());
+    }
+
+    private final @Nonnull String[] _strings;
+    private final @Nonnull String[] _descriptions;
+    private final @Nonnull SubstringIndex _index;
+  }
+
+  /**
+   * The IPs of the snapshot's /32 IP entries, in the order {@link
+   * AutoCompleteUtils#ipStringAutoComplete} visits them.
+   */
+  private static final class IpIndex {
+
+    private IpIndex(CompletionMetadata completionMetadata) {
+      List<Entry<Prefix, Set<IpCompletionMetadata>>> entries =
+          completionMetadata
+              .getIps()
+              .getOverlappingEntries(
+                  ImmutableRangeSet.of(
+                      Range.closed(Prefix.ZERO.getStartIp(), Prefix.ZERO.getEndIp())))
+              .filter(e -> e.getKey().getPrefixLength() == Prefix.MAX_PREFIX_LENGTH)
+              .collect(Collectors.toList());
+      _ips = new Ip[entries.size()];
+      _metadata = new IpCompletionMetadata[entries.size()][];
+      ImmutableList.Builder<List<String>> ipDocuments = ImmutableList.builder();
+      ImmutableList.Builder<List<String>> tagDocuments = ImmutableList.builder();
+      for (int i = 0; i < _ips.length; i++) {
+        _ips[i] = entries.get(i).getKey().getStartIp();
+        _metadata[i] = entries.get(i).getValue().toArray(new IpCompletionMetadata[0]);
+        String ipString = _ips[i].toString();
+        ipDocuments.add(ImmutableList.of(ipString));
+        tagDocuments.add(
+            Stream.concat(
+                    Stream.of(ipString),
+                    Arrays.stream(_metadata[i])
+                        .flatMap(metadata -> metadata.getRelevances().stream())
+                        .flatMap(relevance -> relevance.getMatchTags().stream()))
+                .collect(ImmutableList.toImmutableList()));
+      }
+      _ipIndex = new SubstringIndex(ipDocuments.build());
+      _tagIndex = new SubstringIndex(tagDocuments.build());
+    }
+
+    private @Nonnull List<AutocompleteSuggestion> complete(@Nullable String query) {
+      String testQuery = query == null ? "" : query.toLowerCase();
+      String[] subQueries = testQuery.split("\\s+");
+      // every subquery must match, so the longest one narrows down the candidates the most
+      String longest =
+          Arrays.stream(subQueries).max(Comparator.comparingInt(String::length)).orElse("");
+
+      BitSet ipMatches = new BitSet(_ips.length);
+      _ipIndex
+          .matching(longest)
+          .filter(i -> containsAll(_ips[i].toString(), subQueries))
+          .forEach(ipMatches::set);
+
+      ImmutableList.Builder<AutocompleteSuggestion> suggestions = ImmutableList.builder();
+      ipMatches.stream()
+          .mapToObj(
+              i ->
+                  // could have multiple metadata, but only the first is used.
+                  AutoCompleteUtils.toAutocompleteSuggestion(
+                      _ips[i], _metadata[i][0].getRelevances()))
+          .forEach(suggestions::add);
+      _tagIndex
+          .matching(longest)
+          .filter(i -> !ipMatches.get(i))
+          .mapToObj(
+              i ->
+                  new SimpleEntry<>(
+                      _ips[i],
+                      Arrays.stream(_metadata[i])
+                          .flatMap(metadata -> metadata.getRelevances().stream())
+                          .filter(r -> r.matches(subQueries, _ips[i]))
+                          .collect(ImmutableList.toImmutableList())))
+          .filter(e -> !e.getValue().isEmpty())
+          .map(e -> AutoCompleteUtils.toAutocompleteSuggestion(e.getKey(), e.getValue()))
+          .forEach(suggestions::add);
+      return suggestions.build();
+    }
+
+    private static boolean containsAll(String string, String[] subQueries) {
+      return Arrays.stream(subQueries).allMatch(string::contains);
+    }
+
+    private final @Nonnull Ip[] _ips;
+    private final @Nonnull IpCompletionMetadata[][] _metadata;
+    private final @Nonnull SubstringIndex _ipIndex;
+    private final @Nonnull SubstringIndex _tagIndex;
+  }
+
+  private final @Nonnull CompletionMetadata _completionMetadata;
+  private final @Nonnull Supplier<StringIndex> _filterNames;
+  private final @Nonnull Supplier<StringIndex> _interfaceNames;
+  private final @Nonnull Supplier<IpIndex> _ips;
+  private final @Nonnull Supplier<StringIndex> _mlagIds;
+  private final @Nonnull Supplier<StringIndex> _nodes;
+  private final @Nonnull Supplier<StringIndex> _prefixes;
+  private final @Nonnull Supplier<StringIndex> _routingPolicyNames;
+  private final @Nonnull Supplier<StringIndex> _sourceLocations;
+  private final @Nonnull Supplier<StringIndex> _tracerouteSourceLocations;
+}
@@ -51,11 +51,8 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   /* Map of source filename to generated nodes (e.g. "configs/j1.cfg" -> ["j1_master", "j1_logical_system1"]) */
   @Nonnull private Multimap<String, String> _fileMap;
 
-  // filename -> structType -> structName -> usage -> lines
-  @Nonnull
-  private SortedMap<
-          String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
-      _referencedStructures;
+  // filename -> references
+  @Nonnull private SortedMap<String, StructureReferenceTable> _referencedStructures;
 
   @Nonnull private SortedMap<String, BatfishException.BatfishStackTrace> _errors;
 
@@ -64,11 +61,8 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   // This is just to support legacy objects, before _convertStatus map was used
   @Nullable private Set<String> _failed;
 
-  // filename -> structType -> structName -> usage -> lines
-  @Nonnull
-  private SortedMap<
-          String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
-      _undefinedReferences;
+  // filename -> undefined references
+  @Nonnull private SortedMap<String, StructureReferenceTable> _undefinedReferences;
 
   @Nonnull private String _version;
 
@@ -106,8 +100,8 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     _fileMap = firstNonNull(fileMap, TreeMultimap.create());
     _convertStatus = firstNonNull(convertStatus, new TreeMap<>());
 
-    _referencedStructures = firstNonNull(referencedstructures, new TreeMap<>());
-    _undefinedReferences = firstNonNull(undefinedReferences, new TreeMap<>());
+    _referencedStructures = toTables(firstNonNull(referencedstructures, ImmutableSortedMap.of()));
+    _undefinedReferences = toTables(firstNonNull(undefinedReferences, ImmutableSortedMap.of()));
     _version = firstNonNull(version, BatfishVersion.getVersionStatic());
     _warnings = firstNonNull(warnings, new TreeMap<>());
   }
@@ -158,22 +152,63 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     return _fileMap;
   }
 
+  /**
+   * Returns a copy of the references to structures, as a map: filename -> structType -> structName
+   * -> usage -> lines. Prefer {@link #getReferencedStructureTables()} for bulk access.
+   */
   @JsonProperty(PROP_REFERENCED_STRUCTURES)
   @Nonnull
   public SortedMap<
           String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
       getReferencedStructures() {
+    return toMaps(_referencedStructures);
+  }
+
+  /** The references to structures in each file: filename -> references. */
+  @JsonIgnore
+  @Nonnull
+  public SortedMap<String, StructureReferenceTable> getReferencedStructureTables() {
     return _referencedStructures;
   }
 
+  /**
+   * Returns a copy of the references to undefined structures, as a map: filename -> structType ->
+   * structName -> usage -> lines. Prefer {@link #getUndefinedReferenceTables()} for bulk access.
+   */
   @JsonProperty(PROP_UNDEFINED_REFERENCES)
   @Nonnull
   public SortedMap<
           String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
       getUndefinedReferences() {
+    return toMaps(_undefinedReferences);
+  }
+
+  /** The references to undefined structures in each file: filename -> references. */
+  @JsonIgnore
+  @Nonnull
+  public SortedMap<String, StructureReferenceTable> getUndefinedReferenceTables() {
     return _undefinedReferences;
   }
 
+  private static @Nonnull SortedMap<String, StructureReferenceTable> toTables(
+      SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+          referencesByFile) {
+    SortedMap<String, StructureReferenceTable> tables = new TreeMap<>();
+    referencesByFile.forEach(
+        (filename, references) ->
+            tables.put(filename, StructureReferenceTable.fromMap(references)));
+    return tables;
+  }
+
+  private static @Nonnull SortedMap<
+          String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+      toMaps(SortedMap<String, StructureReferenceTable> tables) {
+    SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
+        maps = new TreeMap<>();
+    tables.forEach((filename, table) -> maps.put(filename, table.toMap()));
+    return maps;
+  }
+
   @JsonProperty(PROP_VERSION)
   @Nonnull
   public String getVersion() {
@@ -217,7 +252,7 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
                   String,
                   SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
               undefinedReferences) {
-    _undefinedReferences = undefinedReferences;
+    _undefinedReferences = toTables(undefinedReferences);
   }
 
   public void setVersion(String version) {
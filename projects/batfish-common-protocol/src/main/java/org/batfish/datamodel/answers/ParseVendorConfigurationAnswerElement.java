@@ -19,6 +19,8 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
 
   private static final String PROP_FILE_MAP = "fileMap";
   private static final String PROP_FILE_FORMATS = "fileFormats";
+  private static final String PROP_PARSE_STAGE_MILLIS = "parseStageMillis";
+  private static final String PROP_PARSER_CACHE_STATS = "parserCacheStats";
   private static final String PROP_VERSION = "version";
 
   private SortedMap<String, BatfishException.BatfishStackTrace> _errors;
@@ -33,6 +35,12 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
 
   private SortedMap<String, ParseStatus> _parseStatus;
 
+  /** Map of filename to time in milliseconds taken by each vendor-specific processing stage. */
+  private SortedMap<String, Map<String, Long>> _parseStageMillis;
+
+  /** Map of grammar name to statistics about its shared parser DFA cache. */
+  private SortedMap<String, ParserCacheStats> _parserCacheStats;
+
   private SortedMap<String, ParseTreeSentences> _parseTrees;
 
   private String _version;
@@ -44,6 +52,8 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _fileMap = TreeMultimap.create();
     _fileFormats = new TreeMap<>();
     _parseStatus = new TreeMap<>();
+    _parseStageMillis = new TreeMap<>();
+    _parserCacheStats = new TreeMap<>();
     _parseTrees = new TreeMap<>();
     _warnings = new TreeMap<>();
     _errors = new TreeMap<>();
@@ -83,6 +93,16 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     return _parseStatus;
   }
 
+  @JsonProperty(PROP_PARSE_STAGE_MILLIS)
+  public SortedMap<String, Map<String, Long>> getParseStageMillis() {
+    return _parseStageMillis;
+  }
+
+  @JsonProperty(PROP_PARSER_CACHE_STATS)
+  public SortedMap<String, ParserCacheStats> getParserCacheStats() {
+    return _parserCacheStats;
+  }
+
   @Override
   public SortedMap<String, ParseTreeSentences> getParseTrees() {
     return _parseTrees;
@@ -118,6 +138,16 @@ public class ParseVendorConfigurationAnswerElement extends ParseAnswerElement
     _parseStatus = parseStatus;
   }
 
+  @JsonProperty(PROP_PARSE_STAGE_MILLIS)
+  public void setParseStageMillis(SortedMap<String, Map<String, Long>> parseStageMillis) {
+    _parseStageMillis = parseStageMillis;
+  }
+
+  @JsonProperty(PROP_PARSER_CACHE_STATS)
+  public void setParserCacheStats(SortedMap<String, ParserCacheStats> parserCacheStats) {
+    _parserCacheStats = parserCacheStats;
+  }
+
   @Override
   public void setParseTrees(SortedMap<String, ParseTreeSentences> parseTrees) {
     _parseTrees = parseTrees;
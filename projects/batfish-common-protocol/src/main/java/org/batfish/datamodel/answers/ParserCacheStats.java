@@ -0,0 +1,148 @@
+package org.batfish.datamodel.answers;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Point-in-time statistics about the shared ANTLR DFA cache of a single grammar (parser and lexer),
+ * as tracked by {@code org.batfish.grammar.ParserCacheManager}.
+ */
+public final class ParserCacheStats implements Serializable {
+
+  private static final String PROP_LEXER_DFA_STATES = "lexerDfaStates";
+  private static final String PROP_PARSE_MILLIS = "parseMillis";
+  private static final String PROP_PARSER_DFA_STATES = "parserDfaStates";
+  private static final String PROP_PARSES = "parses";
+  private static final String PROP_RESETS = "resets";
+  private static final String PROP_WARMUP_MILLIS = "warmupMillis";
+  private static final String PROP_WARMUP_PARSES = "warmupParses";
+
+  @JsonCreator
+  private static @Nonnull ParserCacheStats create(
+      @JsonProperty(PROP_LEXER_DFA_STATES) int lexerDfaStates,
+      @JsonProperty(PROP_PARSER_DFA_STATES) int parserDfaStates,
+      @JsonProperty(PROP_PARSE_MILLIS) long parseMillis,
+      @JsonProperty(PROP_PARSES) long parses,
+      @JsonProperty(PROP_RESETS) int resets,
+      @JsonProperty(PROP_WARMUP_MILLIS) long warmupMillis,
+      @JsonProperty(PROP_WARMUP_PARSES) int warmupParses) {
+    return new ParserCacheStats(
+        lexerDfaStates, parserDfaStates, parseMillis, parses, resets, warmupMillis, warmupParses);
+  }
+
+  private final int _lexerDfaStates;
+  private final int _parserDfaStates;
+  private final long _parseMillis;
+  private final long _parses;
+  private final int _resets;
+  private final long _warmupMillis;
+  private final int _warmupParses;
+
+  public ParserCacheStats(
+      int lexerDfaStates,
+      int parserDfaStates,
+      long parseMillis,
+      long parses,
+      int resets,
+      long warmupMillis,
+      int warmupParses) {
+    _lexerDfaStates = lexerDfaStates;
+    _parserDfaStates = parserDfaStates;
+    _parseMillis = parseMillis;
+    _parses = parses;
+    _resets = resets;
+    _warmupMillis = warmupMillis;
+    _warmupParses = warmupParses;
+  }
+
+  /** Number of DFA states currently cached across all modes of the lexer. */
+  @JsonProperty(PROP_LEXER_DFA_STATES)
+  public int getLexerDfaStates() {
+    return _lexerDfaStates;
+  }
+
+  /** Number of DFA states currently cached across all decisions of the parser. */
+  @JsonProperty(PROP_PARSER_DFA_STATES)
+  public int getParserDfaStates() {
+    return _parserDfaStates;
+  }
+
+  /** Total time spent in parses (including warm-up parses) of this grammar, in milliseconds. */
+  @JsonProperty(PROP_PARSE_MILLIS)
+  public long getParseMillis() {
+    return _parseMillis;
+  }
+
+  /** Number of parses (including warm-up parses) observed for this grammar. */
+  @JsonProperty(PROP_PARSES)
+  public long getParses() {
+    return _parses;
+  }
+
+  /** Number of times the DFA cache was cleared because it exceeded the configured budget. */
+  @JsonProperty(PROP_RESETS)
+  public int getResets() {
+    return _resets;
+  }
+
+  /** Total time spent warming up this grammar's DFA cache, in milliseconds. */
+  @JsonProperty(PROP_WARMUP_MILLIS)
+  public long getWarmupMillis() {
+    return _warmupMillis;
+  }
+
+  /** Number of warm-up inputs parsed for this grammar. */
+  @JsonProperty(PROP_WARMUP_PARSES)
+  public int getWarmupParses() {
+    return _warmupParses;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ParserCacheStats)) {
+      return false;
+    }
+    ParserCacheStats that = (ParserCacheStats) o;
+    return _lexerDfaStates == that._lexerDfaStates
+        && _parserDfaStates == that._parserDfaStates
+        && _parseMillis == that._parseMillis
+        && _parses == that._parses
+        && _resets == that._resets
+        && _warmupMillis == that._warmupMillis
+        && _warmupParses == that._warmupParses;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        _lexerDfaStates,
+        _parserDfaStates,
+        _parseMillis,
+        _parses,
+        _resets,
+        _warmupMillis,
+        _warmupParses);
+  }
+
+  @Override
+  public String toString() {
+    return toStringHelper(getClass())
+        .add(PROP_LEXER_DFA_STATES, _lexerDfaStates)
+        .add(PROP_PARSER_DFA_STATES, _parserDfaStates)
+        .add(PROP_PARSE_MILLIS, _parseMillis)
+        .add(PROP_PARSES, _parses)
+        .add(PROP_RESETS, _resets)
+        .add(PROP_WARMUP_MILLIS, _warmupMillis)
+        .add(PROP_WARMUP_PARSES, _warmupParses)
+        .toString();
+  }
+}
@@ -0,0 +1,201 @@
+package org.batfish.datamodel.answers;
+
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * The references to named structures in one configuration file, stored compactly: for each
+ * structure type, a column of (interned) structure names, a column of usages and a column of
+ * primitive line numbers.
+ *
+ * <p>References are added one at a time with {@link #add} and read back in bulk, grouped by
+ * structure type, name and usage, in that order. Each distinct reference is reported once.
+ */
+@ParametersAreNonnullByDefault
+public final class StructureReferenceTable implements Serializable {
+
+  /** Receives the references to one structure with one usage. */
+  @FunctionalInterface
+  public interface ReferenceVisitor {
+    /**
+     * @param structureType the description of the type of the referenced structure
+     * @param name the name of the referenced structure
+     * @param usage the description of the usage
+     * @param lines the lines on which the structure is referenced this way, ascending and distinct
+     */
+    void visit(String structureType, String name, String usage, int[] lines);
+  }
+
+  public StructureReferenceTable() {
+    _byType = new TreeMap<>();
+  }
+
+  /** Creates a table of the references in a map: type -> name -> usage -> lines. */
+  public static @Nonnull StructureReferenceTable fromMap(
+      SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>> references) {
+    StructureReferenceTable table = new StructureReferenceTable();
+    references.forEach(
+        (type, byName) ->
+            byName.forEach(
+                (name, byUsage) ->
+                    byUsage.forEach(
+                        (usage, lines) ->
+                            lines.forEach(line -> table.add(type, name, usage, line)))));
+    return table;
+  }
+
+  /** Records a reference to the structure named {@code name} on line {@code line}. */
+  public synchronized void add(String structureType, String name, String usage, int line) {
+    _byType.computeIfAbsent(structureType, t -> new Columns()).add(name, usage, line);
+  }
+
+  public synchronized boolean isEmpty() {
+    return _byType.isEmpty();
+  }
+
+  /** Returns the descriptions of the types of the referenced structures. */
+  public synchronized @Nonnull SortedSet<String> getStructureTypes() {
+    return ImmutableSortedSet.copyOf(_byType.keySet());
+  }
+
+  /** Visits all references, in order of type, name, usage. */
+  public synchronized void forEachReference(ReferenceVisitor visitor) {
+    _byType.forEach((type, columns) -> columns.forEachGroup(type, visitor));
+  }
+
+  /** Visits the references to structures of the given type, in order of name, usage. */
+  public synchronized void forEachReference(String structureType, ReferenceVisitor visitor) {
+    Columns columns = _byType.get(structureType);
+    if (columns != null) {
+      columns.forEachGroup(structureType, visitor);
+    }
+  }
+
+  /** Returns the references as a map: type -> name -> usage -> lines. */
+  public @Nonnull SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>
+      toMap() {
+    SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>> map =
+        new TreeMap<>();
+    forEachReference(
+        (type, name, usage, lines) -> {
+          SortedSet<Integer> lineSet =
+              map.computeIfAbsent(type, t -> new TreeMap<>())
+                  .computeIfAbsent(name, n -> new TreeMap<>())
+                  .computeIfAbsent(usage, u -> new TreeSet<>());
+          for (int line : lines) {
+            lineSet.add(line);
+          }
+        });
+    return map;
+  }
+
+  private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+    _byType.values().forEach(Columns::compact);
+    out.defaultWriteObject();
+  }
+
+  /**
+   * The references to structures of one type. New references are appended; the columns are sorted
+   * and deduplicated before they are read.
+   */
+  private static final class Columns implements Serializable {
+
+    private @Nonnull String[] _names = new String[4];
+    private @Nonnull String[] _usages = new String[4];
+    private @Nonnull int[] _lines = new int[4];
+    private int _size;
+    private boolean _compact = true;
+
+    /** Canonical instances of names and usages, so that each is stored once. */
+    private transient @Nullable Map<String, String> _interned;
+
+    void add(String name, String usage, int line) {
+      if (_interned == null) {
+        _interned = new HashMap<>();
+        for (int i = 0; i < _size; i++) {
+          _interned.putIfAbsent(_names[i], _names[i]);
+          _interned.putIfAbsent(_usages[i], _usages[i]);
+        }
+      }
+      if (_size == _lines.length) {
+        int capacity = _size * 2;
+        _names = Arrays.copyOf(_names, capacity);
+        _usages = Arrays.copyOf(_usages, capacity);
+        _lines = Arrays.copyOf(_lines, capacity);
+      }
+      _names[_size] = _interned.computeIfAbsent(name, n -> n);
+      _usages[_size] = _interned.computeIfAbsent(usage, u -> u);
+      _lines[_size] = line;
+      _size++;
+      _compact = false;
+    }
+
+    /** Sorts the references by name, usage and line, and drops repeats. */
+    void compact() {
+      if (_compact) {
+        return;
+      }
+      int[] order =
+          IntStream.range(0, _size)
+              .boxed()
+              .sorted(
+                  Comparator.<Integer, String>comparing(i -> _names[i])
+                      .thenComparing(i -> _usages[i])
+                      .thenComparingInt(i -> _lines[i]))
+              .mapToInt(Integer::intValue)
+              .toArray();
+      String[] names = new String[_size];
+      String[] usages = new String[_size];
+      int[] lines = new int[_size];
+      int size = 0;
+      for (int i : order) {
+        if (size > 0
+            && names[size - 1].equals(_names[i])
+            && usages[size - 1].equals(_usages[i])
+            && lines[size - 1] == _lines[i]) {
+          continue;
+        }
+        names[size] = _names[i];
+        usages[size] = _usages[i];
+        lines[size] = _lines[i];
+        size++;
+      }
+      _names = Arrays.copyOf(names, size);
+      _usages = Arrays.copyOf(usages, size);
+      _lines = Arrays.copyOf(lines, size);
+      _size = size;
+      _compact = true;
+    }
+
+    void forEachGroup(String type, ReferenceVisitor visitor) {
+      compact();
+      int start = 0;
+      while (start < _size) {
+        int end = start + 1;
+        while (end < _size
+            && _names[end].equals(_names[start])
+            && _usages[end].equals(_usages[start])) {
+          end++;
+        }
+        visitor.visit(type, _names[start], _usages[start], Arrays.copyOfRange(_lines, start, end));
+        start = end;
+      }
+    }
+  }
+
+  private final @Nonnull SortedMap<String, Columns> _byType;
+}
@@ -3,11 +3,11 @@ package org.batfish.datamodel.collections;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.HashCode;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -16,33 +16,19 @@ import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.function.Function;
 import javax.annotation.Nullable;
-import org.batfish.common.BatfishException;
-import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CollectionUtil;
-import org.skyscreamer.jsonassert.JSONAssert;
+import org.batfish.common.util.ContentHashes;
 
 public class NamedStructureEquivalenceSets<T> {
 
   public static class Builder<T> {
 
-    private static boolean checkJsonStringEquals(String lhs, String rhs) {
-      try {
-        JSONAssert.assertEquals(lhs, rhs, false);
-        return true;
-      } catch (Exception e) {
-        throw new BatfishException("JSON equality check failed", e);
-      } catch (AssertionError err) {
-        return false;
-      }
-    }
-
-    private Map<String, Map<Integer, Set<NamedStructureEquivalenceSet<T>>>>
+    private Map<String, Map<HashCode, Set<NamedStructureEquivalenceSet<T>>>>
         _sameNamedStructuresByNameAndHash;
 
     private final String _structureClassName;
@@ -52,48 +38,41 @@ public class NamedStructureEquivalenceSets<T> {
       _structureClassName = structureClassName;
     }
 
+    /**
+     * Adds {@code structure} of {@code hostname}, which is in the same equivalence set as another
+     * structure of the same name if they have the same {@link #contentHash content hash}.
+     */
     public void addEntry(
         String structureName,
         String hostname,
         T structure,
         boolean assumeAllUnique,
         @Nullable Function<T, String> definitionJsonifier) {
-      Map<Integer, Set<NamedStructureEquivalenceSet<T>>> sameNamedStructuresByHash =
+      Map<HashCode, Set<NamedStructureEquivalenceSet<T>>> sameNamedStructuresByHash =
           _sameNamedStructuresByNameAndHash.computeIfAbsent(structureName, s -> new HashMap<>());
-      String structureJson = writeObject(structure, definitionJsonifier);
-      int hash = structureJson.hashCode();
+      HashCode hash = contentHash(structure, definitionJsonifier);
       Set<NamedStructureEquivalenceSet<T>> eqSetsWithSameHash =
           sameNamedStructuresByHash.computeIfAbsent(hash, h -> new HashSet<>());
       if (assumeAllUnique || eqSetsWithSameHash.isEmpty()) {
         eqSetsWithSameHash.add(new NamedStructureEquivalenceSet<>(hostname, structure));
       } else {
-        Optional<NamedStructureEquivalenceSet<T>> potentialMatchingSet =
-            eqSetsWithSameHash.stream()
-                .filter(
-                    s ->
-                        checkJsonStringEquals(
-                            structureJson, writeObject(s.getNamedStructure(), definitionJsonifier)))
-                .findAny();
-        if (potentialMatchingSet.isPresent()) {
-          NamedStructureEquivalenceSet<T> matchingSet = potentialMatchingSet.get();
-          matchingSet.setNodes(
-              new ImmutableSortedSet.Builder<String>(Comparator.naturalOrder())
-                  .addAll(matchingSet.getNodes())
-                  .add(hostname)
-                  .build());
-        } else {
-          eqSetsWithSameHash.add(new NamedStructureEquivalenceSet<>(hostname, structure));
-        }
+        // the content hash is wide enough to identify the content, so any set with it matches.
+        NamedStructureEquivalenceSet<T> matchingSet = eqSetsWithSameHash.iterator().next();
+        matchingSet.setNodes(
+            new ImmutableSortedSet.Builder<String>(Comparator.naturalOrder())
+                .addAll(matchingSet.getNodes())
+                .add(hostname)
+                .build());
       }
     }
 
     public NamedStructureEquivalenceSets<T> build() {
       ImmutableSortedMap.Builder<String, SortedSet<NamedStructureEquivalenceSet<T>>> builder =
           new ImmutableSortedMap.Builder<>(Comparator.naturalOrder());
-      for (Entry<String, Map<Integer, Set<NamedStructureEquivalenceSet<T>>>> e :
+      for (Entry<String, Map<HashCode, Set<NamedStructureEquivalenceSet<T>>>> e :
           _sameNamedStructuresByNameAndHash.entrySet()) {
         String structureName = e.getKey();
-        Map<Integer, Set<NamedStructureEquivalenceSet<T>>> structuresByHash = e.getValue();
+        Map<HashCode, Set<NamedStructureEquivalenceSet<T>>> structuresByHash = e.getValue();
         SortedSet<NamedStructureEquivalenceSet<T>> newSet =
             structuresByHash.values().stream()
                 .flatMap(ss -> ss.stream())
@@ -106,15 +85,15 @@ public class NamedStructureEquivalenceSets<T> {
       return eqSets;
     }
 
+    /**
+     * Returns the content hash of {@code t}: that of its definition JSON if {@code
+     * definitionJsonifier} is given, and of its default JSON form otherwise.
+     */
     @VisibleForTesting
-    String writeObject(T t, @Nullable Function<T, String> definitionJsonifier) {
-      try {
-        return definitionJsonifier == null
-            ? BatfishObjectMapper.writePrettyString(t)
-            : definitionJsonifier.apply(t);
-      } catch (JsonProcessingException e) {
-        throw new BatfishException("Could not write named structure as String", e);
-      }
+    HashCode contentHash(@Nullable T t, @Nullable Function<T, String> definitionJsonifier) {
+      return definitionJsonifier == null
+          ? ContentHashes.contentHash(t)
+          : ContentHashes.contentHashOfString(definitionJsonifier.apply(t));
     }
   }
 
@@ -92,6 +92,11 @@ public class RoutingPolicy implements Serializable {
   @Nonnull private final String _name;
   @Nullable private Configuration _owner;
   @Nullable private transient Set<String> _sources;
+
+  /**
+   * Unlike the lines of an {@link org.batfish.datamodel.IpAccessList}, statements are not interned
+   * on deserialization: the list may be mutable, and so may the statements in it.
+   */
   @Nonnull private List<Statement> _statements;
 
   @JsonCreator
@@ -1,6 +1,8 @@
 package org.batfish.grammar;
 
 import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -20,6 +22,7 @@ public class FileParseResult implements Serializable {
   @Nonnull private final SilentSyntaxCollection _silentSyntax;
   @Nonnull private final Warnings _warnings;
   @Nullable private ParseStatus _parseStatus;
+  @Nonnull private final Map<String, Long> _stageMillis;
 
   public FileParseResult(
       ParseTreeSentences parseTreeSentences,
@@ -28,6 +31,7 @@ public class FileParseResult implements Serializable {
     _parseTreeSentences = parseTreeSentences;
     _silentSyntax = silentSyntax;
     _warnings = warnings;
+    _stageMillis = new LinkedHashMap<>();
   }
 
   public @Nonnull FileParseResult setParseStatus(ParseStatus parseStatus) {
@@ -60,4 +64,13 @@ public class FileParseResult implements Serializable {
   public ParseStatus getParseStatus() {
     return _parseStatus;
   }
+
+  /**
+   * Returns the time in milliseconds taken by each vendor-specific processing stage of this file,
+   * keyed by stage name in execution order. Empty if the vendor does not report stages.
+   */
+  @Nonnull
+  public Map<String, Long> getStageMillis() {
+    return _stageMillis;
+  }
 }
@@ -0,0 +1,203 @@
+package org.batfish.grammar;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.datamodel.answers.ParserCacheStats;
+
+/**
+ * Manages the DFA caches that ANTLR shares across all instances of a generated parser and lexer.
+ *
+ * <p>ANTLR stores the DFA it builds during adaptive prediction in a static array on each generated
+ * recognizer, so the cache warms up over the first parses of each grammar and then grows without
+ * bound for the lifetime of the JVM. This class tracks the size of each grammar's cache after every
+ * parse, clears caches that exceed the configured budget, and records warm-up statistics. All
+ * methods are thread-safe.
+ *
+ * <p>Clearing a DFA cache while another thread is parsing with the same grammar is unsafe, so
+ * parses must run through {@link #trackParse}. A grammar's cache is only cleared when no tracked
+ * parse of that grammar is in flight; otherwise clearing is left to the next parse to finish.
+ */
+@ParametersAreNonnullByDefault
+public final class ParserCacheManager {
+
+  /** Default maximum number of DFA states (parser plus lexer) retained per grammar. */
+  public static final int DEFAULT_MAX_DFA_STATES = 1_000_000;
+
+  private static final Logger LOGGER = LogManager.getLogger(ParserCacheManager.class);
+
+  private static final ParserCacheManager INSTANCE = new ParserCacheManager(DEFAULT_MAX_DFA_STATES);
+
+  /** Returns the process-wide manager used for all parses in this JVM. */
+  public static @Nonnull ParserCacheManager getInstance() {
+    return INSTANCE;
+  }
+
+  private static final class GrammarCacheStats {
+    /** Held for reading by each parse in flight, and for writing while clearing the caches. */
+    private final ReadWriteLock _inFlight = new ReentrantReadWriteLock();
+
+    private volatile int _lexerDfaStates;
+    private final AtomicLong _parseMillis = new AtomicLong();
+    private final AtomicLong _parses = new AtomicLong();
+    private volatile int _parserDfaStates;
+    private final AtomicInteger _resets = new AtomicInteger();
+    private final AtomicLong _warmupMillis = new AtomicLong();
+    private final AtomicInteger _warmupParses = new AtomicInteger();
+
+    private @Nonnull ParserCacheStats toStats() {
+      return new ParserCacheStats(
+          _lexerDfaStates,
+          _parserDfaStates,
+          _parseMillis.get(),
+          _parses.get(),
+          _resets.get(),
+          _warmupMillis.get(),
+          _warmupParses.get());
+    }
+  }
+
+  private volatile int _maxDfaStates;
+
+  private final ConcurrentMap<String, GrammarCacheStats> _stats;
+
+  /** Whether parses on the current thread are part of a warm-up. */
+  private final ThreadLocal<Boolean> _warmingUp;
+
+  @VisibleForTesting
+  ParserCacheManager(int maxDfaStates) {
+    checkArgument(maxDfaStates >= 0, "DFA state budget must be non-negative");
+    _maxDfaStates = maxDfaStates;
+    _stats = new ConcurrentHashMap<>();
+    _warmingUp = ThreadLocal.withInitial(() -> false);
+  }
+
+  /**
+   * Sets the maximum number of DFA states retained per grammar. A value of {@code 0} disables the
+   * budget, so caches are never cleared.
+   */
+  public void setMaxDfaStates(int maxDfaStates) {
+    checkArgument(maxDfaStates >= 0, "DFA state budget must be non-negative");
+    _maxDfaStates = maxDfaStates;
+  }
+
+  public int getMaxDfaStates() {
+    return _maxDfaStates;
+  }
+
+  /**
+   * Runs {@code parse}, which must parse with the given parser, and then records it with {@link
+   * #afterParse}. While it runs, the grammar's DFA cache is not cleared.
+   */
+  public <T> T trackParse(BatfishCombinedParser<?, ?> combinedParser, Supplier<T> parse) {
+    Lock inFlight = getGrammarStats(combinedParser)._inFlight.readLock();
+    long startTime = System.currentTimeMillis();
+    inFlight.lock();
+    try {
+      return parse.get();
+    } finally {
+      inFlight.unlock();
+      afterParse(combinedParser, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  /**
+   * Records a completed parse by the given parser that took {@code elapsedMillis} milliseconds, and
+   * clears the grammar's shared DFA cache if it now exceeds the configured budget and no parse of
+   * the grammar is in flight.
+   */
+  @VisibleForTesting
+  void afterParse(BatfishCombinedParser<?, ?> combinedParser, long elapsedMillis) {
+    Parser parser = combinedParser.getParser();
+    Lexer lexer = combinedParser.getLexer();
+    GrammarCacheStats stats = getGrammarStats(combinedParser);
+    stats._parses.incrementAndGet();
+    stats._parseMillis.addAndGet(elapsedMillis);
+    if (_warmingUp.get()) {
+      stats._warmupParses.incrementAndGet();
+      stats._warmupMillis.addAndGet(elapsedMillis);
+    }
+    int parserStates = countDfaStates(parser.getInterpreter().decisionToDFA);
+    int lexerStates = countDfaStates(lexer.getInterpreter().decisionToDFA);
+    int maxDfaStates = _maxDfaStates;
+    // If the lock is taken, another parse is in flight, or another thread is clearing.
+    if (maxDfaStates > 0
+        && parserStates + lexerStates > maxDfaStates
+        && stats._inFlight.writeLock().tryLock()) {
+      try {
+        parserStates = countDfaStates(parser.getInterpreter().decisionToDFA);
+        lexerStates = countDfaStates(lexer.getInterpreter().decisionToDFA);
+        if (parserStates + lexerStates > maxDfaStates) {
+          LOGGER.info(
+              "Clearing DFA cache for {}: {} parser states and {} lexer states exceed budget of {}",
+              parser.getGrammarFileName(),
+              parserStates,
+              lexerStates,
+              maxDfaStates);
+          parser.getInterpreter().clearDFA();
+          lexer.getInterpreter().clearDFA();
+          stats._resets.incrementAndGet();
+          parserStates = 0;
+          lexerStates = 0;
+        }
+      } finally {
+        stats._inFlight.writeLock().unlock();
+      }
+    }
+    stats._parserDfaStates = parserStates;
+    stats._lexerDfaStates = lexerStates;
+  }
+
+  private @Nonnull GrammarCacheStats getGrammarStats(BatfishCombinedParser<?, ?> combinedParser) {
+    return _stats.computeIfAbsent(
+        combinedParser.getParser().getGrammarFileName(), g -> new GrammarCacheStats());
+  }
+
+  /**
+   * Runs the given warm-up task on the current thread, attributing all parses it performs to
+   * warm-up in the statistics returned by {@link #getStats()}.
+   */
+  public void warmUp(Runnable task) {
+    boolean wasWarmingUp = _warmingUp.get();
+    _warmingUp.set(true);
+    try {
+      task.run();
+    } finally {
+      _warmingUp.set(wasWarmingUp);
+    }
+  }
+
+  /** Returns a snapshot of the cache statistics of each grammar used so far, keyed by grammar. */
+  public @Nonnull SortedMap<String, ParserCacheStats> getStats() {
+    ImmutableSortedMap.Builder<String, ParserCacheStats> builder =
+        ImmutableSortedMap.naturalOrder();
+    _stats.forEach((grammar, stats) -> builder.put(grammar, stats.toStats()));
+    return builder.build();
+  }
+
+  @VisibleForTesting
+  static int countDfaStates(DFA[] decisionToDFA) {
+    int count = 0;
+    for (DFA dfa : decisionToDFA) {
+      count += dfa.states.size();
+    }
+    return count;
+  }
+}
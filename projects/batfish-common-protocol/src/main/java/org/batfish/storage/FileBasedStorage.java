@@ -14,6 +14,7 @@ import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Streams;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
@@ -29,6 +30,7 @@ import java.io.OutputStream;
 import java.io.PushbackInputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
@@ -39,6 +41,7 @@ import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -514,6 +517,15 @@ public class FileBasedStorage implements StorageProvider {
     writeStringToFile(answerPath, answerStr, UTF_8);
   }
 
+  @Override
+  public void storeAnswer(
+      NetworkId network, SnapshotId snapshot, AnswerWriter answerWriter, AnswerId answerId)
+      throws IOException {
+    Path answerPath = getAnswerPath(network, snapshot, answerId);
+    mkdirs(answerPath.getParent());
+    writeToFile(answerPath, answerWriter, UTF_8);
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId networkId, SnapshotId snapshotId, AnswerMetadata answerMetadata, AnswerId answerId)
@@ -1240,6 +1252,21 @@ public class FileBasedStorage implements StorageProvider {
     }
   }
 
+  private void writeToFile(Path file, AnswerWriter answerWriter, Charset charset)
+      throws IOException {
+    Path sanitizedFile = validatePath(file);
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      try (Writer writer = Files.newBufferedWriter(tmpFile, charset)) {
+        answerWriter.writeTo(writer);
+      }
+      mkdirs(sanitizedFile.getParent());
+      Files.move(tmpFile, sanitizedFile, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
   private void writeJsonFile(Path file, @Nullable Object json) throws IOException {
     Path sanitizedFile = validatePath(file);
     Path tmpFile = Files.createTempFile(null, null);
@@ -1891,6 +1918,33 @@ public class FileBasedStorage implements StorageProvider {
     return vendorConfigurations;
   }
 
+  @Nonnull
+  @Override
+  public SortedSet<String> listVendorConfigurationNames(NetworkSnapshot snapshot)
+      throws IOException {
+    Path serializedVendorConfigPath = getVendorConfigurationsPath(snapshot);
+    if (!exists(serializedVendorConfigPath)) {
+      return ImmutableSortedSet.of();
+    }
+    try (Stream<Path> serializedConfigs = list(serializedVendorConfigPath)) {
+      return serializedConfigs
+          .map(serializedConfig -> serializedConfig.getFileName().toString())
+          .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder()));
+    }
+  }
+
+  @Nonnull
+  @Override
+  public VendorConfiguration loadVendorConfiguration(NetworkSnapshot snapshot, String name)
+      throws IOException {
+    Path serializedConfig = getVendorConfigurationsPath(snapshot).resolve(name);
+    if (!exists(serializedConfig)) {
+      throw new FileNotFoundException(
+          String.format("No vendor configuration named '%s' in snapshot %s", name, snapshot));
+    }
+    return deserializeObject(serializedConfig, VendorConfiguration.class);
+  }
+
   private @Nonnull Path getVendorConfigurationsPath(NetworkSnapshot snapshot) {
     return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
         .resolve(RELPATH_VENDOR_SPECIFIC_CONFIG_DIR);
@@ -4,6 +4,7 @@ import com.google.errorprone.annotations.MustBeClosed;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -158,6 +159,26 @@ public interface StorageProvider {
   void storeAnswer(NetworkId network, SnapshotId snapshot, String answerStr, AnswerId answerId)
       throws IOException;
 
+  /**
+   * Store the answer to an ad-hoc question, written as a stream rather than built as one string.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answerWriter Writes the text of the answer
+   * @param answerId The ID of the answer
+   * @throws IOException if there is an error, including one thrown by {@code answerWriter}. The
+   *     answer is not stored in that case.
+   */
+  void storeAnswer(
+      NetworkId network, SnapshotId snapshot, AnswerWriter answerWriter, AnswerId answerId)
+      throws IOException;
+
+  /** Writes the text of an answer. */
+  @FunctionalInterface
+  interface AnswerWriter {
+    void writeTo(Writer writer) throws IOException;
+  }
+
   /**
    * Store the metadata for the answer to an ad-hoc question.
    *
@@ -858,6 +879,25 @@ public interface StorageProvider {
   Map<String, VendorConfiguration> loadVendorConfigurations(NetworkSnapshot snapshot)
       throws IOException;
 
+  /**
+   * Returns the names of the compiled vendor configurations for the given snapshot, or an empty set
+   * if none were compiled.
+   *
+   * @throws IOException if there is an error
+   */
+  @Nonnull
+  SortedSet<String> listVendorConfigurationNames(NetworkSnapshot snapshot) throws IOException;
+
+  /**
+   * Loads the compiled vendor configuration with the given name for the given snapshot.
+   *
+   * @throws FileNotFoundException if no such configuration was compiled
+   * @throws IOException if there is an error
+   */
+  @Nonnull
+  VendorConfiguration loadVendorConfiguration(NetworkSnapshot snapshot, String name)
+      throws IOException;
+
   /**
    * Stores the compiled vendor configurations for the given snapshot if they exist. Merges with any
    * existing stored vendor configurations.
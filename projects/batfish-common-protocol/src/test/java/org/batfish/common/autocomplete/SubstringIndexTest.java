@@ -0,0 +1,80 @@
+package org.batfish.common.autocomplete;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+/** Tests of {@link SubstringIndex}. */
+public final class SubstringIndexTest {
+
+  private static List<Integer> matching(SubstringIndex index, String query) {
+    return index.matching(query).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  public void testMatching() {
+    SubstringIndex index =
+        new SubstringIndex(
+            ImmutableList.of(
+                ImmutableList.of("Ethernet1"),
+                ImmutableList.of("router1", "Core Router"),
+                ImmutableList.of("eth"),
+                ImmutableList.of()));
+
+    assertThat(index.size(), equalTo(4));
+    assertThat(matching(index, ""), contains(0, 1, 2, 3));
+    // short queries
+    assertThat(matching(index, "e"), contains(0, 1, 2));
+    assertThat(matching(index, "ET"), contains(0, 2));
+    // case-insensitive, in any string of a document
+    assertThat(matching(index, "ETHER"), contains(0));
+    assertThat(matching(index, "core"), contains(1));
+    assertThat(matching(index, "router"), contains(1));
+    // all trigrams present, but not contiguously
+    assertThat(matching(index, "ethnet"), empty());
+    assertThat(matching(index, "missing"), empty());
+  }
+
+  @Test
+  public void testMatchingAgreesWithContains() {
+    Random random = new Random(0);
+    List<List<String>> documents =
+        IntStream.range(0, 500)
+            .mapToObj(
+                i ->
+                    IntStream.range(0, 1 + random.nextInt(2))
+                        .mapToObj(j -> randomString(random, 1 + random.nextInt(10)))
+                        .collect(ImmutableList.toImmutableList()))
+            .collect(ImmutableList.toImmutableList());
+    SubstringIndex index = new SubstringIndex(documents);
+    for (int i = 0; i < 500; i++) {
+      String query = randomString(random, 1 + random.nextInt(4));
+      List<Integer> expected =
+          IntStream.range(0, documents.size())
+              .filter(
+                  id ->
+                      documents.get(id).stream()
+                          .anyMatch(s -> s.toLowerCase().contains(query.toLowerCase())))
+              .boxed()
+              .collect(Collectors.toList());
+      assertThat(query, matching(index, query), equalTo(expected));
+    }
+  }
+
+  private static String randomString(Random random, int length) {
+    // small alphabet, so that queries often match
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < length; i++) {
+      sb.append("aAbB1.".charAt(random.nextInt(6)));
+    }
+    return sb.toString();
+  }
+}
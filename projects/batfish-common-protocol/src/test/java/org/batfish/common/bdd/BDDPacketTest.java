@@ -14,6 +14,7 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -47,6 +48,22 @@ public class BDDPacketTest {
     assertThat(bdd.var(), lessThan(pkt.getDstIp().value(0).var()));
   }
 
+  @Test
+  public void testHasSameVariables() {
+    BDDPacket pkt1 = new BDDPacket();
+    BDDPacket pkt2 = new BDDPacket();
+    assertTrue(pkt1.hasSameVariables(pkt2));
+
+    pkt1.allocateBDDBit("foo");
+    assertFalse(pkt1.hasSameVariables(pkt2));
+    pkt2.allocateBDDBit("bar");
+    assertFalse(pkt1.hasSameVariables(pkt2));
+
+    BDDPacket pkt3 = new BDDPacket();
+    pkt3.allocateBDDBit("foo");
+    assertTrue(pkt1.hasSameVariables(pkt3));
+  }
+
   @Test
   public void testAllocateBDDInteger() {
     BDDPacket pkt = new BDDPacket();
@@ -56,6 +73,24 @@ public class BDDPacketTest {
     assertThat(pkt.getFactory().varNum(), equalTo(varNum + 5));
   }
 
+  @Test
+  public void testReorderKeepsFieldsTogether() {
+    BDDPacket pkt = new BDDPacket();
+    BDD[] dstIp = pkt.getDstIp()._bitvec;
+    BDD[] dstPort = pkt.getDstPort()._bitvec;
+    // A constraint that is smaller if the fields are interleaved.
+    BDD bdd = pkt.getFactory().zero();
+    for (int i = 0; i < 4; i++) {
+      bdd.orWith(dstIp[i].and(dstPort[i]));
+    }
+    pkt.getFactory().reorder();
+    int firstLevel = pkt.getFactory().var2Level(dstIp[0].var());
+    for (int i = 1; i < dstIp.length; i++) {
+      // dstIp bits are interleaved with primed dstIp bits
+      assertThat(pkt.getFactory().var2Level(dstIp[i].var()), equalTo(firstLevel + 2 * i));
+    }
+  }
+
   @Test
   public void testAllocateBDDInteger_beforePacketVars() {
     BDDPacket pkt = new BDDPacket();
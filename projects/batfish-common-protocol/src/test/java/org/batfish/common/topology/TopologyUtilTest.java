@@ -1530,6 +1530,35 @@ public final class TopologyUtilTest {
     assertThat(t.getEdges(), equalTo(ImmutableSet.of(new Edge(i1, i2), new Edge(i2, i1))));
   }
 
+  @Test
+  public void testSynthesizeTopology_nodes() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Configuration c1 = cb.build();
+    Configuration c2 = cb.build();
+    Configuration c3 = cb.build();
+    Interface.Builder ib = nf.interfaceBuilder();
+    Interface i1 =
+        ib.setOwner(c1).setAddresses(ConcreteInterfaceAddress.parse("1.2.3.1/24")).build();
+    Interface i2 =
+        ib.setOwner(c2).setAddresses(ConcreteInterfaceAddress.parse("1.2.3.2/24")).build();
+    Interface i3 =
+        ib.setOwner(c3).setAddresses(ConcreteInterfaceAddress.parse("1.2.3.3/24")).build();
+    Map<String, Configuration> configs =
+        ImmutableMap.of(c1.getHostname(), c1, c2.getHostname(), c2, c3.getHostname(), c3);
+
+    assertThat(
+        TopologyUtil.synthesizeL3Topology(configs, ImmutableSet.of(c3.getHostname())).getEdges(),
+        equalTo(
+            ImmutableSet.of(
+                new Edge(i1, i3), new Edge(i3, i1), new Edge(i2, i3), new Edge(i3, i2))));
+    assertThat(TopologyUtil.synthesizeL3Topology(configs, ImmutableSet.of()).getEdges(), empty());
+    assertThat(
+        TopologyUtil.synthesizeL3Topology(configs, configs.keySet()),
+        equalTo(TopologyUtil.synthesizeL3Topology(configs)));
+  }
+
   @Test
   public void testSynthesizeTopology_selfEdges() {
     NetworkFactory nf = new NetworkFactory();
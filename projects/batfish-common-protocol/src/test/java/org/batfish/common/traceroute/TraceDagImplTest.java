@@ -2,15 +2,21 @@ package org.batfish.common.traceroute;
 
 import static org.batfish.datamodel.flow.HopTestUtils.acceptedHop;
 import static org.batfish.datamodel.flow.HopTestUtils.forwardedHop;
+import static org.batfish.datamodel.flow.HopTestUtils.loopHop;
 import static org.batfish.datamodel.flow.HopTestUtils.noRouteHop;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertEquals;
 
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.batfish.common.traceroute.TraceDagImpl.Node;
+import org.batfish.common.util.TracePruner;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.Ip;
@@ -92,4 +98,123 @@ public class TraceDagImplTest {
     assertEquals(6, dag.countNodes());
     assertEquals(8, dag.countEdges());
   }
+
+  /** Builds a random layered DAG, including nodes that are unreachable from the roots. */
+  private static TraceDagImpl randomDag(Random random) {
+    List<String> hostnames = ImmutableList.of("A", "B", "C", "D", "E");
+    int numLayers = 2 + random.nextInt(3);
+    List<List<Integer>> layers = new ArrayList<>();
+    int numNodes = 0;
+    for (int layer = 0; layer < numLayers; layer++) {
+      int width = 1 + random.nextInt(4);
+      List<Integer> ids = new ArrayList<>();
+      for (int i = 0; i < width; i++) {
+        ids.add(numNodes++);
+      }
+      layers.add(ids);
+    }
+    List<Node> nodes = new ArrayList<>();
+    for (int layer = 0; layer < numLayers; layer++) {
+      for (int ignored : layers.get(layer)) {
+        String hostname = hostnames.get(random.nextInt(hostnames.size()));
+        if (layer == numLayers - 1) {
+          switch (random.nextInt(3)) {
+            case 0:
+              nodes.add(
+                  new Node(
+                      acceptedHop(hostname),
+                      null,
+                      FlowDisposition.ACCEPTED,
+                      TEST_FLOW,
+                      ImmutableList.of()));
+              break;
+            case 1:
+              nodes.add(
+                  new Node(
+                      noRouteHop(hostname),
+                      null,
+                      FlowDisposition.NO_ROUTE,
+                      null,
+                      ImmutableList.of()));
+              break;
+            default:
+              nodes.add(
+                  new Node(
+                      loopHop(hostname), null, FlowDisposition.LOOP, null, ImmutableList.of()));
+          }
+        } else {
+          List<Integer> successors =
+              layers.get(layer + 1).stream()
+                  .filter(id -> random.nextBoolean())
+                  .collect(Collectors.toList());
+          if (successors.isEmpty()) {
+            successors = ImmutableList.of(layers.get(layer + 1).get(0));
+          }
+          nodes.add(new Node(forwardedHop(hostname, "vrf"), null, null, null, successors));
+        }
+      }
+    }
+    return new TraceDagImpl(nodes, layers.get(0));
+  }
+
+  @Test
+  public void testGetPrunedTracesMatchesTracePruner() {
+    Random random = new Random(0);
+    for (int i = 0; i < 200; i++) {
+      TraceDagImpl dag = randomDag(random);
+      List<Trace> traces =
+          dag.getTraces().map(TraceAndReverseFlow::getTrace).collect(Collectors.toList());
+      for (int maxSize = 1; maxSize <= traces.size() + 1; maxSize++) {
+        assertEquals(TracePruner.prune(traces, maxSize), dag.getPrunedTraces(maxSize));
+      }
+    }
+  }
+
+  @Test
+  public void testGetPrunedTracesEcmp() {
+    // Three tiers of 64-way ECMP, with a single path that is not accepted.
+    int width = 64;
+    List<Node> nodes = new ArrayList<>();
+    List<Integer> tier1 = IntStream.range(1, 1 + width).boxed().collect(Collectors.toList());
+    List<Integer> tier2 =
+        IntStream.range(1 + width, 1 + 2 * width).boxed().collect(Collectors.toList());
+    List<Integer> tier3 =
+        IntStream.range(1 + 2 * width, 1 + 3 * width).boxed().collect(Collectors.toList());
+    int accept = 1 + 3 * width;
+    int noRoute = accept + 1;
+    nodes.add(new Node(forwardedHop("leaf", "vrf"), null, null, null, tier1));
+    for (int i = 0; i < width; i++) {
+      nodes.add(new Node(forwardedHop("spine" + i, "vrf"), null, null, null, tier2));
+    }
+    for (int i = 0; i < width; i++) {
+      nodes.add(new Node(forwardedHop("super" + i, "vrf"), null, null, null, tier3));
+    }
+    for (int i = 0; i < width; i++) {
+      nodes.add(
+          new Node(
+              forwardedHop("border" + i, "vrf"),
+              null,
+              null,
+              null,
+              i == width - 1 ? ImmutableList.of(accept, noRoute) : ImmutableList.of(accept)));
+    }
+    nodes.add(
+        new Node(
+            acceptedHop("dst"), null, FlowDisposition.ACCEPTED, TEST_FLOW, ImmutableList.of()));
+    nodes.add(
+        new Node(noRouteHop("dst"), null, FlowDisposition.NO_ROUTE, null, ImmutableList.of()));
+    TraceDagImpl dag = new TraceDagImpl(nodes, ImmutableList.of(0));
+
+    assertEquals(width * width * (width + 1), dag.size());
+    List<Trace> pruned = dag.getPrunedTraces(256);
+    assertThat(pruned, hasSize(256));
+    assertEquals(FlowDisposition.ACCEPTED, pruned.get(0).getDisposition());
+    assertEquals(FlowDisposition.NO_ROUTE, pruned.get(1).getDisposition());
+    assertThat(
+        pruned.stream()
+            .flatMap(t -> t.getHops().stream())
+            .map(h -> h.getNode().getName())
+            .collect(Collectors.toSet()),
+        hasSize(3 * width + 2));
+  }
 }
@@ -0,0 +1,42 @@
+package org.batfish.common.util;
+
+import static org.batfish.common.util.ContentHashes.contentHash;
+import static org.batfish.common.util.ContentHashes.contentHashOfString;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import com.google.common.collect.ImmutableList;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.junit.Test;
+
+/** Tests of {@link ContentHashes}. */
+public final class ContentHashesTest {
+
+  private static IpAccessList acl(String dstIp) {
+    return IpAccessList.builder()
+        .setName("acl")
+        .setLines(
+            ImmutableList.of(
+                ExprAclLine.accepting(matchDst(Ip.parse(dstIp))), ExprAclLine.REJECT_ALL))
+        .build();
+  }
+
+  @Test
+  public void testContentHash() {
+    // equal content, distinct objects
+    assertThat(contentHash(acl("1.1.1.1")), equalTo(contentHash(acl("1.1.1.1"))));
+    assertThat(contentHash(acl("1.1.1.1")), not(equalTo(contentHash(acl("2.2.2.2")))));
+    assertThat(contentHash(null), equalTo(contentHash(null)));
+    assertThat(contentHash(null), not(equalTo(contentHash(acl("1.1.1.1")))));
+
+    // the hash is of the JSON form
+    IpAccessList acl = acl("1.1.1.1");
+    assertThat(
+        contentHash(acl),
+        equalTo(contentHashOfString(BatfishObjectMapper.writeStringRuntimeError(acl))));
+  }
+}
@@ -0,0 +1,54 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import com.google.common.collect.Range;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.junit.Test;
+
+public final class DefinedStructureInfoTest {
+  @Test
+  public void testAddDefinitionLines() {
+    DefinedStructureInfo info = new DefinedStructureInfo(IntegerSpace.of(1), 0);
+    info.addDefinitionLines(3);
+    info.addDefinitionLines(3);
+    info.addDefinitionLines(IntStream.of(4, 10, 2));
+    assertThat(
+        info.getDefinitionLines(),
+        equalTo(IntegerSpace.builder().including(Range.closed(1, 4)).including(10).build()));
+
+    // Lines added after reading are still recorded.
+    info.addDefinitionLines(Range.closed(5, 9));
+    assertThat(info.getDefinitionLines(), equalTo(IntegerSpace.of(Range.closed(1, 10))));
+  }
+
+  @Test
+  public void testAddManyDefinitionLines() {
+    DefinedStructureInfo info = new DefinedStructureInfo();
+    for (int line = 200_000; line > 0; line -= 2) {
+      info.addDefinitionLines(line);
+    }
+    assertThat(info.getDefinitionLines().getRanges().size(), equalTo(100_000));
+  }
+
+  @Test
+  public void testJavaSerialization() {
+    DefinedStructureInfo info = new DefinedStructureInfo(IntegerSpace.of(1), 2);
+    info.addDefinitionLines(5);
+    DefinedStructureInfo clone = SerializationUtils.clone(info);
+    assertThat(clone.getDefinitionLines(), equalTo(IntegerSpace.of(1).union(IntegerSpace.of(5))));
+    assertThat(clone.getNumReferrers(), equalTo(2));
+  }
+
+  @Test
+  public void testJsonSerialization() {
+    DefinedStructureInfo info = new DefinedStructureInfo(IntegerSpace.of(1), 2);
+    info.addDefinitionLines(5);
+    DefinedStructureInfo clone = BatfishObjectMapper.clone(info, DefinedStructureInfo.class);
+    assertThat(clone.getDefinitionLines(), equalTo(IntegerSpace.of(1).union(IntegerSpace.of(5))));
+    assertThat(clone.getNumReferrers(), equalTo(2));
+  }
+}
@@ -3,6 +3,7 @@ package org.batfish.datamodel;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.testing.EqualsTester;
@@ -44,4 +45,21 @@ public class FinalMainRibTest {
     assertThat(someRoutes.getRoutes(Prefix.parse("1.2.3.0/24")), hasSize(2));
     assertThat(someRoutes, equalTo(SerializationUtils.clone(someRoutes)));
   }
+
+  @Test
+  public void testDeserializationInterns() {
+    StaticRoute sr = StaticRoute.testBuilder().setNetwork(Prefix.ZERO).build();
+    StaticRoute sr2 = StaticRoute.testBuilder().setNetwork(Prefix.MULTICAST).build();
+    FinalMainRib rib = FinalMainRib.of(sr, sr2);
+
+    // Identical RIBs deserialized separately are shared.
+    assertThat(SerializationUtils.clone(rib), sameInstance(SerializationUtils.clone(rib)));
+
+    // Identical routes in different RIBs are shared.
+    FinalMainRib one = SerializationUtils.clone(FinalMainRib.of(sr));
+    FinalMainRib both = SerializationUtils.clone(rib);
+    assertThat(
+        both.getRoutes(Prefix.ZERO).iterator().next(),
+        sameInstance(one.getRoutes(Prefix.ZERO).iterator().next()));
+  }
 }
@@ -1,8 +1,12 @@
 package org.batfish.datamodel;
 
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableList;
+import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Test;
 
 /** Tests of {@link IpAccessList}. */
@@ -18,4 +22,21 @@ public class IpAccessListTest {
             .build();
     assertEquals(acl, acl.toBuilder().build());
   }
+
+  @Test
+  public void testDeserializationInternsLines() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("name")
+            .setLines(ImmutableList.of(new AclAclLine("name", "aclName")))
+            .setSourceName("sourceName")
+            .setSourceType("sourceType")
+            .build();
+    IpAccessList clone1 = SerializationUtils.clone(acl);
+    IpAccessList clone2 = SerializationUtils.clone(acl);
+    assertThat(clone1, equalTo(acl));
+    assertThat(clone1.getSourceName(), equalTo("sourceName"));
+    assertThat(clone1.getSourceType(), equalTo("sourceType"));
+    assertThat(clone1.getLines(), sameInstance(clone2.getLines()));
+  }
 }
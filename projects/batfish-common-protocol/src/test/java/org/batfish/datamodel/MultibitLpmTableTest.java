@@ -0,0 +1,86 @@
+package org.batfish.datamodel;
+
+import static org.batfish.datamodel.MultibitLpmTable.LARGE_TABLE_STRIDES;
+import static org.batfish.datamodel.MultibitLpmTable.SMALL_TABLE_STRIDES;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+/** Tests of {@link MultibitLpmTable}. */
+public final class MultibitLpmTableTest {
+
+  private static List<Entry<Prefix, Set<Integer>>> entries(PrefixTrieMultiMap<Integer> trie) {
+    List<Entry<Prefix, Set<Integer>>> entries = new ArrayList<>();
+    trie.traverseEntries((prefix, elements) -> entries.add(Maps.immutableEntry(prefix, elements)));
+    return entries;
+  }
+
+  @Test
+  public void testEmpty() {
+    MultibitLpmTable<Set<Integer>> table = MultibitLpmTable.of(new PrefixTrieMultiMap<>());
+    assertThat(table.longestPrefixMatch(Ip.parse("1.2.3.4")), nullValue());
+    assertThat(table.getSlotCount(), equalTo(1 << SMALL_TABLE_STRIDES[0]));
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+    trie.put(Prefix.ZERO, 0);
+    trie.put(Prefix.parse("10.0.0.0/8"), 8);
+    trie.put(Prefix.parse("10.0.0.0/20"), 20);
+    trie.put(Prefix.parse("10.0.0.0/20"), 21);
+    trie.put(Prefix.parse("10.0.1.1/32"), 32);
+
+    for (int[] strides : ImmutableList.of(SMALL_TABLE_STRIDES, LARGE_TABLE_STRIDES)) {
+      MultibitLpmTable<Set<Integer>> table = MultibitLpmTable.of(entries(trie), strides);
+      assertThat(table.longestPrefixMatch(Ip.parse("1.1.1.1")), equalTo(ImmutableSet.of(0)));
+      assertThat(table.longestPrefixMatch(Ip.parse("10.1.0.0")), equalTo(ImmutableSet.of(8)));
+      assertThat(
+          table.longestPrefixMatch(Ip.parse("10.0.15.255")), equalTo(ImmutableSet.of(20, 21)));
+      assertThat(table.longestPrefixMatch(Ip.parse("10.0.1.1")), equalTo(ImmutableSet.of(32)));
+      assertThat(table.longestPrefixMatch(Ip.parse("10.0.1.2")), equalTo(ImmutableSet.of(20, 21)));
+      assertThat(table.longestPrefixMatch(Ip.MAX), equalTo(ImmutableSet.of(0)));
+    }
+  }
+
+  @Test
+  public void testNoMatch() {
+    PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+    trie.put(Prefix.parse("192.168.0.0/16"), 1);
+    MultibitLpmTable<Set<Integer>> table = MultibitLpmTable.of(trie);
+    assertThat(table.longestPrefixMatch(Ip.parse("192.167.255.255")), nullValue());
+    assertThat(table.longestPrefixMatch(Ip.parse("192.169.0.0")), nullValue());
+    assertThat(table.longestPrefixMatch(Ip.parse("192.168.3.4")), equalTo(ImmutableSet.of(1)));
+  }
+
+  @Test
+  public void testAgreesWithPrefixTrieMultiMap() {
+    Random random = new Random(0);
+    PrefixTrieMultiMap<Integer> trie = new PrefixTrieMultiMap<>();
+    for (int i = 0; i < 5000; i++) {
+      // Cluster addresses so that prefixes nest.
+      long address = (long) random.nextInt(1 << 12) << 20 | random.nextInt(1 << 20);
+      trie.put(Prefix.create(Ip.create(address), random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1)), i);
+    }
+    List<Entry<Prefix, Set<Integer>>> entries = entries(trie);
+    for (int[] strides : ImmutableList.of(SMALL_TABLE_STRIDES, LARGE_TABLE_STRIDES)) {
+      MultibitLpmTable<Set<Integer>> table = MultibitLpmTable.of(entries, strides);
+      for (int i = 0; i < 100_000; i++) {
+        Ip ip = Ip.create((long) random.nextInt(1 << 12) << 20 | random.nextInt(1 << 20));
+        Set<Integer> expected = trie.longestPrefixMatch(ip);
+        Set<Integer> actual = table.longestPrefixMatch(ip);
+        assertThat(ip.toString(), actual, equalTo(expected.isEmpty() ? null : expected));
+      }
+    }
+  }
+}
@@ -1,8 +1,14 @@
 package org.batfish.datamodel;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.DiscreteDomain;
 import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import java.util.Random;
 import org.junit.Test;
 
 /** Tests of {@link NumberSpace} */
@@ -31,4 +37,110 @@ public class NumberSpaceTest {
   public void testToStringAsSubsetOf_invalid() {
     SPACE1.toStringAsSubsetOf(LongSpace.EMPTY);
   }
+
+  @Test
+  public void testExtremeValues() {
+    LongSpace all = LongSpace.of(Range.closed(Long.MIN_VALUE, Long.MAX_VALUE));
+    assertTrue(all.contains(Long.MIN_VALUE));
+    assertTrue(all.contains(Long.MAX_VALUE));
+    assertEquals(Long.MAX_VALUE, (long) all.greatest());
+    assertEquals(
+        all,
+        LongSpace.of(Range.closed(Long.MIN_VALUE, 0L))
+            .union(LongSpace.of(Range.closed(1L, Long.MAX_VALUE))));
+    assertEquals(
+        LongSpace.of(Range.closed(Long.MIN_VALUE + 1, Long.MAX_VALUE - 1)),
+        all.difference(LongSpace.of(Long.MIN_VALUE)).difference(LongSpace.of(Long.MAX_VALUE)));
+    assertEquals(
+        LongSpace.of(Range.closed(1L, Long.MAX_VALUE)),
+        LongSpace.of(Range.closed(Long.MIN_VALUE, 0L))
+            .complement(Range.closed(Long.MIN_VALUE, Long.MAX_VALUE)));
+    assertFalse(IntegerSpace.of(Range.closed(0, Integer.MAX_VALUE)).contains(-1));
+  }
+
+  @Test
+  public void testUnionAtMinValue() {
+    LongSpace expected = LongSpace.of(Range.closed(Long.MIN_VALUE, 10L));
+    LongSpace built =
+        LongSpace.builder()
+            .including(Range.closed(Long.MIN_VALUE, 5L))
+            .including(Range.closed(Long.MIN_VALUE, 10L))
+            .build();
+    assertEquals(expected, built);
+    assertEquals(expected.hashCode(), built.hashCode());
+    assertEquals(expected.getRanges(), built.getRanges());
+    assertEquals(
+        expected,
+        LongSpace.of(Long.MIN_VALUE).union(LongSpace.of(Range.closed(Long.MIN_VALUE + 1, 10L))));
+    assertEquals(
+        IntegerSpace.of(Range.closed(Integer.MIN_VALUE, 10)),
+        IntegerSpace.builder()
+            .including(Range.closed(Integer.MIN_VALUE, 5))
+            .including(Range.closed(Integer.MIN_VALUE, 10))
+            .build());
+  }
+
+  @Test
+  public void testUnionAtMaxValue() {
+    LongSpace expected = LongSpace.of(Range.closed(-10L, Long.MAX_VALUE));
+    LongSpace built =
+        LongSpace.builder()
+            .including(Range.closed(-5L, Long.MAX_VALUE))
+            .including(Range.closed(-10L, Long.MAX_VALUE))
+            .build();
+    assertEquals(expected, built);
+    assertEquals(expected.hashCode(), built.hashCode());
+    assertEquals(expected.getRanges(), built.getRanges());
+    assertEquals(
+        expected,
+        LongSpace.of(Range.closed(-10L, Long.MAX_VALUE - 1)).union(LongSpace.of(Long.MAX_VALUE)));
+    assertEquals(
+        IntegerSpace.of(Range.closed(-10, Integer.MAX_VALUE)),
+        IntegerSpace.builder()
+            .including(Range.closed(-5, Integer.MAX_VALUE))
+            .including(Range.closed(-10, Integer.MAX_VALUE))
+            .build());
+  }
+
+  /** Compares set operations with those of Guava {@link RangeSet}, on random spaces. */
+  @Test
+  public void testMatchesRangeSet() {
+    Random random = new Random(0);
+    for (int iteration = 0; iteration < 500; iteration++) {
+      RangeSet<Integer> a = randomRangeSet(random);
+      RangeSet<Integer> b = randomRangeSet(random);
+      IntegerSpace spaceA = IntegerSpace.of(a);
+      IntegerSpace spaceB = IntegerSpace.of(b);
+      assertEquals(a.asRanges(), spaceA.getRanges());
+
+      RangeSet<Integer> union = TreeRangeSet.create(a);
+      union.addAll(b);
+      assertEquals(IntegerSpace.of(union), spaceA.union(spaceB));
+
+      RangeSet<Integer> difference = TreeRangeSet.create(a);
+      difference.removeAll(b);
+      assertEquals(IntegerSpace.of(difference), spaceA.difference(spaceB));
+
+      RangeSet<Integer> intersection = TreeRangeSet.create(a);
+      intersection.removeAll(b.complement());
+      assertEquals(IntegerSpace.of(intersection), spaceA.intersection(spaceB));
+
+      assertEquals(a.enclosesAll(b), spaceA.contains(spaceB));
+      for (int i = -1; i <= 101; i++) {
+        assertEquals(a.contains(i), spaceA.contains(i));
+      }
+    }
+  }
+
+  /** Returns a random set of canonical ranges within {@code [0, 100]}. */
+  private static RangeSet<Integer> randomRangeSet(Random random) {
+    RangeSet<Integer> rangeSet = TreeRangeSet.create();
+    int ranges = random.nextInt(6);
+    for (int i = 0; i < ranges; i++) {
+      int lo = random.nextInt(101);
+      int hi = lo + random.nextInt(Math.min(20, 101 - lo));
+      rangeSet.add(Range.closed(lo, hi).canonical(DiscreteDomain.integers()));
+    }
+    return rangeSet;
+  }
 }
@@ -0,0 +1,161 @@
+package org.batfish.datamodel.answers;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.batfish.common.CompletionMetadata;
+import org.batfish.common.autocomplete.IpCompletionMetadata;
+import org.batfish.common.autocomplete.IpCompletionRelevance;
+import org.batfish.common.autocomplete.LocationCompletionMetadata;
+import org.batfish.common.autocomplete.NodeCompletionMetadata;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+import org.batfish.datamodel.collections.NodeInterfacePair;
+import org.batfish.datamodel.questions.Variable.Type;
+import org.batfish.specifier.InterfaceLinkLocation;
+import org.batfish.specifier.InterfaceLocation;
+import org.junit.Test;
+
+/** Tests of {@link CompletionMetadataIndex}. */
+public final class CompletionMetadataIndexTest {
+
+  private static CompletionMetadata completionMetadata() {
+    PrefixTrieMultiMap<IpCompletionMetadata> ips = new PrefixTrieMultiMap<>();
+    ips.put(
+        Ip.parse("10.0.0.1").toPrefix(),
+        new IpCompletionMetadata(
+            ImmutableList.of(
+                new IpCompletionRelevance("router1 Ethernet1", "router1", "Ethernet1"),
+                new IpCompletionRelevance("Loopback", "loopback"))));
+    ips.put(
+        Ip.parse("10.0.0.2").toPrefix(),
+        new IpCompletionMetadata(new IpCompletionRelevance("host1 eth0", "host1", "eth0")));
+    ips.put(Ip.parse("10.0.1.1").toPrefix(), new IpCompletionMetadata());
+    ips.put(
+        Ip.parse("192.168.10.1").toPrefix(),
+        new IpCompletionMetadata(new IpCompletionRelevance("router10", "router10", "vlan10")));
+    ips.put(
+        Prefix.parse("10.0.0.0/24"),
+        new IpCompletionMetadata(new IpCompletionRelevance("subnet", "subnet")));
+    return CompletionMetadata.builder()
+        .setFilterNames(ImmutableSet.of("acl_in", "ACL_OUT", "mgmt-filter"))
+        .setInterfaces(
+            ImmutableSet.of(
+                NodeInterfacePair.of("router1", "Ethernet1"),
+                NodeInterfacePair.of("router1", "Loopback0"),
+                NodeInterfacePair.of("host1", "eth0")))
+        .setIps(ips)
+        .setLocations(
+            ImmutableSet.of(
+                new LocationCompletionMetadata(new InterfaceLocation("router1", "Ethernet1"), true),
+                new LocationCompletionMetadata(
+                    new InterfaceLinkLocation("host1", "eth0"), false, true),
+                new LocationCompletionMetadata(
+                    new InterfaceLocation("router10", "vlan10"), false, false)))
+        .setMlagIds(ImmutableSet.of("mlag1", "MLAG22"))
+        .setNodes(
+            ImmutableMap.of(
+                "router1",
+                new NodeCompletionMetadata("Core Router"),
+                "host1",
+                new NodeCompletionMetadata(null),
+                "router10",
+                new NodeCompletionMetadata("edge")))
+        .setPrefixes(ImmutableSet.of("10.0.0.0/24", "192.168.10.0/24"))
+        .setRoutingPolicyNames(ImmutableSet.of("export-to-isp", "IMPORT_FROM_ISP"))
+        .build();
+  }
+
+  /** The parts of a suggestion that autocomplete callers see, in the order returned. */
+  private static List<String> render(List<AutocompleteSuggestion> suggestions) {
+    return suggestions.stream()
+        .map(
+            s ->
+                String.join(
+                    "|",
+                    s.getText(),
+                    String.valueOf(s.getDescription()),
+                    String.valueOf(s.getRank()),
+                    s.getSuggestionType().toString()))
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testIndexedAutoCompleteMatchesScan() {
+    CompletionMetadata completionMetadata = completionMetadata();
+    CompletionMetadataIndex index = new CompletionMetadataIndex(completionMetadata);
+    List<Type> types =
+        ImmutableList.of(
+            Type.FILTER_NAME,
+            Type.INTERFACE_NAME,
+            Type.IP,
+            Type.MLAG_ID,
+            Type.NODE_NAME,
+            Type.PREFIX,
+            Type.ROUTING_POLICY_NAME,
+            Type.SOURCE_LOCATION,
+            Type.TRACEROUTE_SOURCE_LOCATION);
+    List<String> queries =
+        ImmutableList.of(
+            "",
+            "1",
+            "10",
+            "10.0",
+            "10.0.0.1",
+            "0.1",
+            "acl",
+            "ISP",
+            "eth",
+            "ETHERNET",
+            "route",
+            "router1 eth",
+            "  loop",
+            "core",
+            "edge",
+            "vlan",
+            "mlag",
+            "@enter",
+            "xyz");
+    for (Type type : types) {
+      for (String query : queries) {
+        assertThat(
+            type + " " + query,
+            render(
+                AutoCompleteUtils.indexedAutoComplete(
+                    "network", "snapshot", type, query, 50, index, null, null, true)),
+            equalTo(
+                render(
+                    AutoCompleteUtils.autoComplete(
+                        "network",
+                        "snapshot",
+                        type,
+                        query,
+                        50,
+                        completionMetadata,
+                        null,
+                        null,
+                        true))));
+      }
+    }
+  }
+
+  @Test
+  public void testIpsMatchesIpStringAutoComplete() {
+    CompletionMetadata completionMetadata = completionMetadata();
+    CompletionMetadataIndex index = new CompletionMetadataIndex(completionMetadata);
+    for (String query :
+        ImmutableList.of("", "10", "10.0", "0.0.1", "router", "router1 10", "eth 10.0", "subnet")) {
+      assertThat(
+          query,
+          render(index.ips(query)),
+          equalTo(
+              render(AutoCompleteUtils.ipStringAutoComplete(query, completionMetadata.getIps()))));
+    }
+  }
+}
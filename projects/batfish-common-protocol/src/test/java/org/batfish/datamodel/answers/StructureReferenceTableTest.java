@@ -0,0 +1,100 @@
+package org.batfish.datamodel.answers;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.Test;
+
+/** Tests of {@link StructureReferenceTable}. */
+public final class StructureReferenceTableTest {
+
+  private static List<String> render(StructureReferenceTable table) {
+    List<String> references = new ArrayList<>();
+    table.forEachReference(
+        (type, name, usage, lines) ->
+            references.add(String.join(":", type, name, usage, Arrays.toString(lines))));
+    return references;
+  }
+
+  @Test
+  public void testForEachReference() {
+    StructureReferenceTable table = new StructureReferenceTable();
+    assertTrue(table.isEmpty());
+
+    table.add("route-map", "rm2", "bgp import", 7);
+    table.add("acl", "acl1", "interface in", 3);
+    table.add("route-map", "rm1", "bgp export", 9);
+    table.add("route-map", "rm1", "bgp export", 5);
+    table.add("route-map", "rm1", "bgp export", 9);
+    table.add("route-map", "rm1", "bgp import", 2);
+
+    assertFalse(table.isEmpty());
+    assertThat(table.getStructureTypes(), contains("acl", "route-map"));
+    // grouped and ordered by type, name, usage; lines ascending and distinct
+    assertThat(
+        render(table),
+        contains(
+            "acl:acl1:interface in:[3]",
+            "route-map:rm1:bgp export:[5, 9]",
+            "route-map:rm1:bgp import:[2]",
+            "route-map:rm2:bgp import:[7]"));
+
+    // references added after a read are merged in order
+    table.add("acl", "acl0", "interface out", 1);
+    List<String> acls = new ArrayList<>();
+    table.forEachReference(
+        "acl",
+        (type, name, usage, lines) -> acls.add(name + ":" + usage + ":" + Arrays.toString(lines)));
+    assertThat(acls, contains("acl0:interface out:[1]", "acl1:interface in:[3]"));
+  }
+
+  @Test
+  public void testMapRoundTrip() {
+    SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>> map =
+        ImmutableSortedMap.of(
+            "acl",
+            ImmutableSortedMap.of(
+                "acl1",
+                ImmutableSortedMap.of(
+                    "interface in",
+                    ImmutableSortedSet.of(3, 4),
+                    "interface out",
+                    ImmutableSortedSet.of(8))),
+            "route-map",
+            ImmutableSortedMap.of(
+                "rm1", ImmutableSortedMap.of("bgp export", ImmutableSortedSet.of(5))));
+
+    assertThat(StructureReferenceTable.fromMap(map).toMap(), equalTo(map));
+  }
+
+  @Test
+  public void testJavaSerialization() {
+    StructureReferenceTable table = new StructureReferenceTable();
+    table.add("route-map", "rm1", "bgp export", 9);
+    table.add("route-map", "rm1", "bgp export", 5);
+    table.add("acl", "acl1", "interface in", 3);
+
+    StructureReferenceTable clone = SerializationUtils.clone(table);
+    assertThat(render(clone), equalTo(render(table)));
+
+    // the clone can still be added to
+    clone.add("route-map", "rm0", "bgp import", 1);
+    assertThat(
+        render(clone),
+        contains(
+            "acl:acl1:interface in:[3]",
+            "route-map:rm0:bgp import:[1]",
+            "route-map:rm1:bgp export:[5, 9]"));
+  }
+}
@@ -1,27 +1,62 @@
 package org.batfish.datamodel.collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.collect.ImmutableList;
-import org.batfish.common.util.BatfishObjectMapper;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.SortedSet;
+import org.batfish.common.util.ContentHashes;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RouteFilterLine;
 import org.batfish.datamodel.RouteFilterList;
+import org.batfish.datamodel.SubRange;
 import org.junit.Test;
 
 public class NamedStructureEquivalenceSetsTest {
 
+  private static RouteFilterList rfl(String prefix) {
+    return new RouteFilterList(
+        "name",
+        ImmutableList.of(
+            new RouteFilterLine(LineAction.PERMIT, Prefix.parse(prefix), new SubRange(8, 32))));
+  }
+
   @Test
-  public void testWriteObject() throws JsonProcessingException {
+  public void testContentHash() {
     NamedStructureEquivalenceSets.Builder<RouteFilterList> builder =
         NamedStructureEquivalenceSets.builder("rfl");
-    RouteFilterList rfl = new RouteFilterList("name", ImmutableList.of());
+    RouteFilterList rfl = rfl("10.0.0.0/8");
 
     // the function is used when passed in
     assertThat(
-        builder.writeObject(rfl, RouteFilterList::definitionJson), equalTo(rfl.definitionJson()));
+        builder.contentHash(rfl, RouteFilterList::definitionJson),
+        equalTo(ContentHashes.contentHashOfString(rfl.definitionJson())));
 
     // default json is used otherwise
-    assertThat(builder.writeObject(rfl, null), equalTo(BatfishObjectMapper.writePrettyString(rfl)));
+    assertThat(builder.contentHash(rfl, null), equalTo(ContentHashes.contentHash(rfl)));
+  }
+
+  @Test
+  public void testAddEntry() {
+    NamedStructureEquivalenceSets.Builder<RouteFilterList> builder =
+        NamedStructureEquivalenceSets.builder("rfl");
+    builder.addEntry("name", "n1", rfl("10.0.0.0/8"), false, null);
+    builder.addEntry("name", "n2", rfl("10.0.0.0/8"), false, null);
+    builder.addEntry("name", "n3", rfl("11.0.0.0/8"), false, null);
+    builder.addEntry("name", "n4", null, false, null);
+
+    SortedSet<NamedStructureEquivalenceSet<RouteFilterList>> sets =
+        builder.build().getSameNamedStructures().get("name");
+    assertThat(
+        sets.stream()
+            .map(NamedStructureEquivalenceSet::getNodes)
+            .collect(ImmutableList.toImmutableList()),
+        contains(
+            ImmutableSortedSet.of("n1", "n2"),
+            ImmutableSortedSet.of("n3"),
+            ImmutableSortedSet.of("n4")));
   }
 }
@@ -0,0 +1,33 @@
+package org.batfish.datamodel.routing_policy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Test;
+
+public final class RoutingPolicyTest {
+  @Test
+  public void testJavaSerializationKeepsStatementsMutable() {
+    RoutingPolicy policy = new RoutingPolicy("policy", null);
+    If ifStatement = new If();
+    policy.getStatements().add(ifStatement);
+
+    RoutingPolicy clone1 = SerializationUtils.clone(policy);
+    RoutingPolicy clone2 = SerializationUtils.clone(policy);
+    assertThat(clone1.getStatements(), equalTo(clone2.getStatements()));
+
+    // Deserialized policies do not share statements, which may be modified.
+    assertThat(clone1.getStatements().get(0), not(sameInstance(clone2.getStatements().get(0))));
+    ((If) clone1.getStatements().get(0))
+        .getTrueStatements()
+        .add(Statements.ExitAccept.toStaticStatement());
+    clone1.getStatements().add(Statements.ExitReject.toStaticStatement());
+    assertThat(clone2.getStatements(), contains(ifStatement));
+  }
+}
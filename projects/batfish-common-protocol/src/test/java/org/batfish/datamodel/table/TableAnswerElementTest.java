@@ -139,4 +139,19 @@ public class TableAnswerElementTest {
             row.getColumnNames(), twoKeyTableMetadata.toColumnMap().keySet()));
     table.addRow(row);
   }
+
+  @Test
+  public void testJsonSerialization() throws IOException {
+    TableAnswerElement table = new TableAnswerElement(oneKeyTableMetadata);
+    Row row1 = Row.of("key1", "value1");
+    Row row2 = Row.of("key1", "value2");
+    table.addRow(row1).addRow(row2).addRow(row1);
+
+    JsonNode json = BatfishObjectMapper.mapper().valueToTree(table);
+    assertThat(json.has("rowsList"), equalTo(false));
+    assertThat(json.get("rows").size(), equalTo(3));
+
+    TableAnswerElement clone = BatfishObjectMapper.clone(table, TableAnswerElement.class);
+    assertThat(clone.getRowsList(), equalTo(table.getRowsList()));
+  }
 }
@@ -0,0 +1,145 @@
+package org.batfish.grammar;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.common.util.Resources.readResource;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasKey;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.batfish.datamodel.answers.ParserCacheStats;
+import org.batfish.grammar.recovery.RecoveryCombinedParser;
+import org.junit.Test;
+
+/** Tests of {@link ParserCacheManager}. */
+public final class ParserCacheManagerTest {
+
+  private static final GrammarSettings SETTINGS =
+      MockGrammarSettings.builder().setThrowOnLexerError(true).setThrowOnParserError(true).build();
+
+  private static RecoveryCombinedParser parseRecoveryText() {
+    String recoveryText = readResource("org/batfish/grammar/recovery/recovery_text", UTF_8);
+    RecoveryCombinedParser cp = new RecoveryCombinedParser(recoveryText, SETTINGS);
+    cp.parse();
+    return cp;
+  }
+
+  @Test
+  public void testAfterParseRecordsStats() {
+    ParserCacheManager manager = new ParserCacheManager(0);
+    RecoveryCombinedParser cp = parseRecoveryText();
+    manager.afterParse(cp, 5L);
+
+    String grammar = cp.getParser().getGrammarFileName();
+    assertThat(manager.getStats(), hasKey(grammar));
+    ParserCacheStats stats = manager.getStats().get(grammar);
+    assertThat(stats.getParses(), equalTo(1L));
+    assertThat(stats.getParseMillis(), equalTo(5L));
+    assertThat(stats.getLexerDfaStates(), greaterThan(0));
+    assertThat(stats.getResets(), equalTo(0));
+    assertThat(stats.getWarmupParses(), equalTo(0));
+  }
+
+  @Test
+  public void testAfterParseResetsOverBudget() {
+    ParserCacheManager manager = new ParserCacheManager(1);
+    RecoveryCombinedParser cp = parseRecoveryText();
+    manager.afterParse(cp, 0L);
+
+    ParserCacheStats stats = manager.getStats().get(cp.getParser().getGrammarFileName());
+    assertThat(stats.getResets(), equalTo(1));
+    assertThat(stats.getParserDfaStates(), equalTo(0));
+    assertThat(stats.getLexerDfaStates(), equalTo(0));
+    assertThat(
+        ParserCacheManager.countDfaStates(cp.getParser().getInterpreter().decisionToDFA),
+        equalTo(0));
+    assertThat(
+        ParserCacheManager.countDfaStates(cp.getLexer().getInterpreter().decisionToDFA),
+        equalTo(0));
+  }
+
+  @Test
+  public void testNoResetWhileParseInFlight() throws Exception {
+    ParserCacheManager manager = new ParserCacheManager(1);
+    RecoveryCombinedParser inFlight = parseRecoveryText();
+    RecoveryCombinedParser finished = parseRecoveryText();
+    String grammar = finished.getParser().getGrammarFileName();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<?> parse =
+          executor.submit(
+              () ->
+                  manager.trackParse(
+                      inFlight,
+                      () -> {
+                        started.countDown();
+                        Uninterruptibles.awaitUninterruptibly(release);
+                        return null;
+                      }));
+      started.await();
+
+      // over budget, but another parse of the grammar is in flight
+      manager.trackParse(finished, () -> null);
+      assertThat(manager.getStats().get(grammar).getResets(), equalTo(0));
+      assertThat(
+          ParserCacheManager.countDfaStates(finished.getLexer().getInterpreter().decisionToDFA),
+          greaterThan(0));
+
+      // the in-flight parse clears the cache when it finishes
+      release.countDown();
+      parse.get();
+      assertThat(manager.getStats().get(grammar).getResets(), equalTo(1));
+      assertThat(
+          ParserCacheManager.countDfaStates(finished.getLexer().getInterpreter().decisionToDFA),
+          equalTo(0));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testNoResetWhileOuterParseInFlight() {
+    ParserCacheManager manager = new ParserCacheManager(1);
+    RecoveryCombinedParser outer = parseRecoveryText();
+    RecoveryCombinedParser subParser = parseRecoveryText();
+    String grammar = outer.getParser().getGrammarFileName();
+
+    // a sub-parse of the grammar finishing while the outer parse is in flight on the same thread
+    manager.trackParse(
+        outer,
+        () -> {
+          manager.trackParse(subParser, () -> null);
+          assertThat(manager.getStats().get(grammar).getResets(), equalTo(0));
+          assertThat(
+              ParserCacheManager.countDfaStates(
+                  subParser.getLexer().getInterpreter().decisionToDFA),
+              greaterThan(0));
+          return null;
+        });
+
+    // the outer parse clears the cache when it finishes
+    assertThat(manager.getStats().get(grammar).getParses(), equalTo(2L));
+    assertThat(manager.getStats().get(grammar).getResets(), equalTo(1));
+  }
+
+  @Test
+  public void testWarmUp() {
+    ParserCacheManager manager = new ParserCacheManager(0);
+    RecoveryCombinedParser cp = parseRecoveryText();
+    manager.warmUp(() -> manager.afterParse(cp, 3L));
+    manager.afterParse(cp, 4L);
+
+    ParserCacheStats stats = manager.getStats().get(cp.getParser().getGrammarFileName());
+    assertThat(stats.getParses(), equalTo(2L));
+    assertThat(stats.getParseMillis(), equalTo(7L));
+    assertThat(stats.getWarmupParses(), equalTo(1));
+    assertThat(stats.getWarmupMillis(), equalTo(3L));
+  }
+}
@@ -9,6 +9,7 @@ import static org.batfish.storage.FileBasedStorage.objectKeyToRelativePath;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
@@ -97,6 +98,7 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.specifier.InterfaceLocation;
 import org.batfish.vendor.ConversionContext;
+import org.batfish.vendor.VendorConfiguration;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -158,6 +160,50 @@ public final class FileBasedStorageTest {
     assertThat(loadedContext, instanceOf(ConversionContext.class));
   }
 
+  private static final class TestVendorConfiguration extends VendorConfiguration {
+    private String _hostname;
+
+    TestVendorConfiguration(String hostname) {
+      _hostname = hostname;
+    }
+
+    @Override
+    public String getHostname() {
+      return _hostname;
+    }
+
+    @Override
+    public void setHostname(String hostname) {
+      _hostname = hostname;
+    }
+
+    @Override
+    public void setVendor(ConfigurationFormat format) {}
+
+    @Override
+    public List<Configuration> toVendorIndependentConfigurations() {
+      return ImmutableList.of();
+    }
+  }
+
+  @Test
+  public void testListAndLoadVendorConfiguration() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    assertThat(_storage.listVendorConfigurationNames(snapshot), empty());
+
+    _storage.storeVendorConfigurations(
+        ImmutableMap.of(
+            "b", new TestVendorConfiguration("b"), "a", new TestVendorConfiguration("a")),
+        snapshot);
+
+    assertThat(_storage.listVendorConfigurationNames(snapshot), contains("a", "b"));
+    assertThat(_storage.loadVendorConfiguration(snapshot, "b").getHostname(), equalTo("b"));
+
+    _thrown.expect(FileNotFoundException.class);
+    _storage.loadVendorConfiguration(snapshot, "c");
+  }
+
   @Test
   public void testLoadConversionContext_fileNotFound() throws IOException {
     _thrown.expect(FileNotFoundException.class);
@@ -541,6 +587,47 @@ public final class FileBasedStorageTest {
     _storage.loadAnswer(networkId, snapshotId, new AnswerId("missing"));
   }
 
+  @Test
+  public void testStoreAnswerWriter() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+
+    _storage.storeAnswer(
+        networkId,
+        snapshotId,
+        writer -> {
+          writer.write("answer");
+          writer.write("Str");
+        },
+        answerId);
+
+    assertThat(_storage.loadAnswer(networkId, snapshotId, answerId), equalTo("answerStr"));
+  }
+
+  /** Test that an answer whose writer fails is not stored, and any old answer is kept. */
+  @Test
+  public void testStoreAnswerWriterFailure() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+    _storage.storeAnswer(networkId, snapshotId, "old", answerId);
+
+    _thrown.expect(IOException.class);
+    try {
+      _storage.storeAnswer(
+          networkId,
+          snapshotId,
+          writer -> {
+            writer.write("partial");
+            throw new IOException("failed");
+          },
+          answerId);
+    } finally {
+      assertThat(_storage.loadAnswer(networkId, snapshotId, answerId), equalTo("old"));
+    }
+  }
+
   /**
    * Test that the answer metadata is loaded from the legacy location if nothing is found in the
    * primary location
@@ -155,6 +155,13 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public void storeAnswer(
+      NetworkId network, SnapshotId snapshot, AnswerWriter answerWriter, AnswerId answerId)
+      throws IOException {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public void storeAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerMetadata answerMetadata, AnswerId answerId)
@@ -600,6 +607,20 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Nonnull
+  @Override
+  public SortedSet<String> listVendorConfigurationNames(NetworkSnapshot snapshot)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Nonnull
+  @Override
+  public VendorConfiguration loadVendorConfiguration(NetworkSnapshot snapshot, String name)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public void storeVendorConfigurations(
       Map<String, VendorConfiguration> vendorConfigurations, NetworkSnapshot snapshot)
@@ -2,6 +2,7 @@ package org.batfish.bddreachability;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.alwaysTrue;
+import static org.batfish.bddreachability.BDDReachabilityUtils.sliceToQuery;
 import static org.batfish.bddreachability.BidirectionalReachabilityReturnPassInstrumentation.instrumentReturnPassEdges;
 import static org.batfish.bddreachability.SessionInstrumentation.sessionInstrumentation;
 import static org.batfish.bddreachability.transition.Transitions.IDENTITY;
@@ -25,19 +26,36 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.BoundType;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Streams;
+import com.google.common.math.IntMath;
+import com.google.common.util.concurrent.Futures;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -191,6 +209,9 @@ public final class BDDReachabilityAnalysisFactory {
 
   private final Map<String, Configuration> _configs;
 
+  // construction step or rule family --> total time spent on it, in milliseconds
+  private final Map<String, Long> _constructionMillis = new LinkedHashMap<>();
+
   // only use this for IpSpaces that have no references
   private final IpSpaceToBDD _dstIpSpaceToBDD;
   private final IpSpaceToBDD _srcIpSpaceToBDD;
@@ -257,6 +278,31 @@ public final class BDDReachabilityAnalysisFactory {
       IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
       boolean ignoreFilters,
       boolean initializeSessions) {
+    this(
+        packet,
+        configs,
+        forwardingAnalysis,
+        ipsRoutedOutInterfacesFactory,
+        ignoreFilters,
+        initializeSessions,
+        1);
+  }
+
+  /**
+   * @param constructionThreads The number of threads with which to build ACL BDDs. If more than
+   *     one, and filters are not ignored, the nodes are partitioned across that many threads. Each
+   *     thread builds the ACL BDDs of its nodes with its own {@link BDDPacket}, and they are then
+   *     loaded into {@code packet}'s factory. Otherwise, ACL BDDs are built lazily as they are
+   *     needed.
+   */
+  public BDDReachabilityAnalysisFactory(
+      BDDPacket packet,
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
+      boolean ignoreFilters,
+      boolean initializeSessions,
+      int constructionThreads) {
     _bddPacket = packet;
     _one = packet.getFactory().one();
     _zero = packet.getFactory().zero();
@@ -280,8 +326,17 @@ public final class BDDReachabilityAnalysisFactory {
     _dstIpSpaceToBDD = _bddPacket.getDstIpSpaceToBDD();
     _srcIpSpaceToBDD = _bddPacket.getSrcIpSpaceToBDD();
 
-    _aclPermitBDDs = computeAclBDDs(this::ipAccessListToBddForNode, configs);
+    long aclStart = System.currentTimeMillis();
+    Map<String, Map<String, Supplier<BDD>>> aclPermitBDDs = null;
+    if (constructionThreads > 1 && !_ignoreFilters) {
+      aclPermitBDDs = computeAclBDDsInParallel(initializeSessions, constructionThreads);
+    }
+    _aclPermitBDDs =
+        aclPermitBDDs != null
+            ? aclPermitBDDs
+            : computeAclBDDs(this::ipAccessListToBddForNode, configs);
     _aclDenyBDDs = computeAclDenyBDDs(_aclPermitBDDs);
+    recordMillis("aclBdds", System.currentTimeMillis() - aclStart);
 
     if (_ignoreFilters) {
       // If ignoring filters, make all BDDOutgoingOriginalFlowFilterManagers trivial; they should
@@ -395,10 +450,128 @@ public final class BDDReachabilityAnalysisFactory {
         });
   }
 
+  /**
+   * Builds the ACL BDDs of all nodes on {@code threads} threads. Returns {@code null} if the
+   * threads' packets could not be given the same variables as {@link #_bddPacket}, e.g. because the
+   * caller allocated variables in it before constructing this factory.
+   */
+  private @Nullable Map<String, Map<String, Supplier<BDD>>> computeAclBDDsInParallel(
+      boolean initializeSessions, int threads) {
+    List<String> nodes = ImmutableList.copyOf(_configs.keySet());
+    if (nodes.isEmpty()) {
+      return ImmutableMap.of();
+    }
+    List<List<String>> partitions =
+        Lists.partition(nodes, IntMath.divide(nodes.size(), threads, RoundingMode.CEILING));
+    List<byte[]> saved = new ArrayList<>(partitions.size());
+    ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, partitions.size()));
+    try {
+      List<Future<byte[]>> futures =
+          partitions.stream()
+              .map(partition -> pool.submit(() -> saveAclBDDs(partition, initializeSessions)))
+              .collect(ImmutableList.toImmutableList());
+      for (Future<byte[]> future : futures) {
+        saved.add(Futures.getUnchecked(future));
+      }
+    } finally {
+      pool.shutdown();
+    }
+    if (saved.contains(null)) {
+      LOGGER.warn("Cannot build ACL BDDs in parallel: variables differ. Building them lazily.");
+      return null;
+    }
+
+    ImmutableMap.Builder<String, Map<String, Supplier<BDD>>> result = ImmutableMap.builder();
+    for (int i = 0; i < partitions.size(); i++) {
+      Iterator<BDD> bdds;
+      try {
+        bdds =
+            _bddPacket
+                .getFactory()
+                .load(new DataInputStream(new ByteArrayInputStream(saved.get(i))))
+                .iterator();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      for (String node : partitions.get(i)) {
+        ImmutableMap.Builder<String, Supplier<BDD>> nodeBdds = ImmutableMap.builder();
+        for (String aclName : _configs.get(node).getIpAccessLists().keySet()) {
+          BDD bdd = bdds.next();
+          nodeBdds.put(aclName, () -> bdd);
+        }
+        result.put(node, nodeBdds.build());
+      }
+    }
+    return result.build();
+  }
+
+  /**
+   * Builds the ACL BDDs of the given nodes with a new {@link BDDPacket}, and returns them in {@link
+   * net.sf.javabdd.BDDFactory#save} format, in order of node and then ACL. Returns {@code null} if
+   * the new packet's variables differ from those of {@link #_bddPacket}.
+   */
+  private @Nullable byte[] saveAclBDDs(List<String> nodes, boolean initializeSessions) {
+    // Allocate variables in the same order as the constructor.
+    BDDPacket pkt = new BDDPacket();
+    if (initializeSessions) {
+      new LastHopOutgoingInterfaceManager(pkt, _configs, _topologyEdges);
+    }
+    pkt.allocateBDDBit("requiredTransitNodes");
+    Map<String, BDDSourceManager> srcMgrs =
+        BDDSourceManager.forNetwork(pkt, _configs, initializeSessions);
+    if (!pkt.hasSameVariables(_bddPacket)) {
+      return null;
+    }
+
+    List<BDD> bdds = new ArrayList<>();
+    for (String node : nodes) {
+      Configuration config = _configs.get(node);
+      IpAccessListToBdd aclToBdd =
+          new IpAccessListToBddImpl(
+              pkt, srcMgrs.get(node), config.getIpAccessLists(), config.getIpSpaces());
+      config.getIpAccessLists().values().forEach(acl -> bdds.add(aclToBdd.toBdd(acl)));
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      pkt.getFactory().save(new DataOutputStream(bytes), bdds);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
   Map<String, Map<String, Supplier<BDD>>> getAclPermitBdds() {
     return _aclPermitBDDs;
   }
 
+  /**
+   * Returns the total time spent on each step of construction so far, including generating each
+   * family of rules, in milliseconds.
+   *
+   * <p>The time of a family of rules covers creating its edges only. Transitions that edges build
+   * lazily, and the ACL BDDs they use, are built when first needed (e.g. after slicing the graph to
+   * a query), and that time is not included.
+   */
+  public synchronized Map<String, Long> getConstructionMillis() {
+    return ImmutableMap.copyOf(_constructionMillis);
+  }
+
+  private synchronized void recordMillis(String step, long millis) {
+    _constructionMillis.merge(step, millis, Long::sum);
+  }
+
+  /**
+   * Generates the edges of one family of rules, recording the time spent in {@link
+   * #getConstructionMillis()}. Lazy transitions are deliberately not forced here, so that edges
+   * pruned before any BDD work never build them.
+   */
+  private Stream<Edge> timed(String family, Supplier<Stream<Edge>> rules) {
+    long start = System.currentTimeMillis();
+    List<Edge> edges = rules.get().collect(ImmutableList.toImmutableList());
+    recordMillis(family, System.currentTimeMillis() - start);
+    return edges.stream();
+  }
+
   /** Return an {@link IpAccessListToBdd} for the input {@link Configuration}. */
   IpAccessListToBdd ipAccessListToBddForNode(Configuration config) {
     return _aclToBdds.computeIfAbsent(
@@ -442,6 +615,7 @@ public final class BDDReachabilityAnalysisFactory {
             });
     long t = System.currentTimeMillis() - start;
     LOGGER.info("computeBDDIncomingTransformations: {}ms", t);
+    recordMillis("incomingTransformations", t);
     return result;
   }
 
@@ -464,6 +638,7 @@ public final class BDDReachabilityAnalysisFactory {
             });
     long t = System.currentTimeMillis() - start;
     LOGGER.info("computeBDDOutgoingTransformations: {}ms", t);
+    recordMillis("outgoingTransformations", t);
     return result;
   }
 
@@ -654,20 +829,30 @@ public final class BDDReachabilityAnalysisFactory {
    */
   private Stream<Edge> generateEdges() {
     return Streams.concat(
-        generateRules_PreInInterface_NodeDropAclIn(),
-        generateRules_PreInInterface_PostInInterface(),
-        generateRules_PreInInterface_PacketPolicy(),
-        generateRules_PostInInterface_NodeDropAclIn(),
-        generateRules_PostInInterface_PostInVrf(),
-        generateRules_PreOutEdge_NodeDropAclOut(),
-        generateRules_PreOutEdge_PreOutEdgePostNat(),
-        generateRules_PreOutEdgePostNat_NodeDropAclOut(),
-        generateRules_PreOutEdgePostNat_PreInInterface(),
-        generateRules_PreOutInterfaceDisposition_SetupSessionDisposition(),
-        generateRules_SetupSessionDisposition_NodeInterfaceDisposition(),
-        generateRules_PreOutInterfaceDisposition_NodeDropAclOut(),
-        generateRules_VrfAccept_NodeAccept(),
-        generateFibRules());
+        timed("PreInInterface_NodeDropAclIn", this::generateRules_PreInInterface_NodeDropAclIn),
+        timed("PreInInterface_PostInInterface", this::generateRules_PreInInterface_PostInInterface),
+        timed("PreInInterface_PacketPolicy", this::generateRules_PreInInterface_PacketPolicy),
+        timed("PostInInterface_NodeDropAclIn", this::generateRules_PostInInterface_NodeDropAclIn),
+        timed("PostInInterface_PostInVrf", this::generateRules_PostInInterface_PostInVrf),
+        timed("PreOutEdge_NodeDropAclOut", this::generateRules_PreOutEdge_NodeDropAclOut),
+        timed("PreOutEdge_PreOutEdgePostNat", this::generateRules_PreOutEdge_PreOutEdgePostNat),
+        timed(
+            "PreOutEdgePostNat_NodeDropAclOut",
+            this::generateRules_PreOutEdgePostNat_NodeDropAclOut),
+        timed(
+            "PreOutEdgePostNat_PreInInterface",
+            this::generateRules_PreOutEdgePostNat_PreInInterface),
+        timed(
+            "PreOutInterfaceDisposition_SetupSessionDisposition",
+            this::generateRules_PreOutInterfaceDisposition_SetupSessionDisposition),
+        timed(
+            "SetupSessionDisposition_NodeInterfaceDisposition",
+            this::generateRules_SetupSessionDisposition_NodeInterfaceDisposition),
+        timed(
+            "PreOutInterfaceDisposition_NodeDropAclOut",
+            this::generateRules_PreOutInterfaceDisposition_NodeDropAclOut),
+        timed("VrfAccept_NodeAccept", this::generateRules_VrfAccept_NodeAccept),
+        timed("Fib", this::generateFibRules));
   }
 
   private @Nonnull Stream<Edge> generateFibRules() {
@@ -921,15 +1106,15 @@ public final class BDDReachabilityAnalysisFactory {
               PreInInterface preState = new PreInInterface(nodeName, ifaceName);
               PostInInterface postState = new PostInInterface(nodeName, ifaceName);
 
-              BDD inAclBDD = ignorableAclPermitBDD(nodeName, acl);
-
-              Transition transition =
-                  compose(
-                      constraint(inAclBDD),
-                      addOutgoingOriginalFlowFiltersConstraint(
-                          _bddOutgoingOriginalFlowFilterManagers.get(nodeName)),
-                      _bddIncomingTransformations.get(nodeName).get(ifaceName));
-              return new Edge(preState, postState, transition);
+              return new Edge(
+                  preState,
+                  postState,
+                  () ->
+                      compose(
+                          constraint(ignorableAclPermitBDD(nodeName, acl)),
+                          addOutgoingOriginalFlowFiltersConstraint(
+                              _bddOutgoingOriginalFlowFilterManagers.get(nodeName)),
+                          _bddIncomingTransformations.get(nodeName).get(ifaceName)));
             });
   }
 
@@ -1057,25 +1242,26 @@ public final class BDDReachabilityAnalysisFactory {
 
               Interface i1 = _configs.get(node1).getAllInterfaces().get(iface1);
               assert i1.canSendIpTraffic();
-              BDD aclPermitBDD = ignorableAclPermitBDD(node1, i1.getOutgoingFilter());
-
-              BDDOutgoingOriginalFlowFilterManager originalFlowFilterMgr =
-                  _bddOutgoingOriginalFlowFilterManagers.get(node1);
-              BDD originalFlowAclPermitBdd =
-                  originalFlowFilterMgr.permittedByOriginalFlowEgressFilter(iface1);
 
               return new Edge(
                   new PreOutEdgePostNat(node1, iface1, node2, iface2),
                   new PreInInterface(node2, iface2),
-                  compose(
-                      constraint(aclPermitBDD.and(originalFlowAclPermitBdd)),
-                      removeNodeSpecificConstraints(
-                          node1,
-                          _lastHopMgr,
-                          _bddOutgoingOriginalFlowFilterManagers.get(node1),
-                          _bddSourceManagers.get(node1)),
-                      addSourceInterfaceConstraint(_bddSourceManagers.get(node2), iface2),
-                      addLastHopConstraint(_lastHopMgr, node1, iface1, node2, iface2)));
+                  () -> {
+                    BDD aclPermitBDD = ignorableAclPermitBDD(node1, i1.getOutgoingFilter());
+                    BDDOutgoingOriginalFlowFilterManager originalFlowFilterMgr =
+                        _bddOutgoingOriginalFlowFilterManagers.get(node1);
+                    BDD originalFlowAclPermitBdd =
+                        originalFlowFilterMgr.permittedByOriginalFlowEgressFilter(iface1);
+                    return compose(
+                        constraint(aclPermitBDD.and(originalFlowAclPermitBdd)),
+                        removeNodeSpecificConstraints(
+                            node1,
+                            _lastHopMgr,
+                            originalFlowFilterMgr,
+                            _bddSourceManagers.get(node1)),
+                        addSourceInterfaceConstraint(_bddSourceManagers.get(node2), iface2),
+                        addLastHopConstraint(_lastHopMgr, node1, iface1, node2, iface2));
+                  });
             });
   }
 
@@ -1107,41 +1293,11 @@ public final class BDDReachabilityAnalysisFactory {
                             .flatMap(
                                 iface -> {
                                   String ifaceName = iface.getName();
-                                  BDD denyOriginalFlowBdd =
-                                      originalFlowFilterMgr.deniedByOriginalFlowEgressFilter(
-                                          ifaceName);
-                                  BDD denyPreAclBDD =
-                                      ignorableAclDenyBDD(
-                                          node, iface.getPreTransformationOutgoingFilter());
-                                  BDD denyPostAclBDD =
-                                      ignorableAclDenyBDD(node, iface.getOutgoingFilter());
-                                  Transition transformation =
-                                      _bddOutgoingTransformations.get(node).get(ifaceName);
-
-                                  // DENIED_OUT can be due to any of:
-                                  // - denied by the outgoingOriginalFlowFilter
-                                  // - denied by the pre-Transformation ACL
-                                  // - transformed and denied by the post-Transformation ACL
-                                  Transition deniedFlows =
-                                      branch(
-                                          // branch on whether denied before transformation
-                                          denyOriginalFlowBdd.or(denyPreAclBDD),
-                                          // deny all flows denied by pre-trans ACLs
-                                          IDENTITY,
-                                          // for flows permitted by first two ACLs, transform and
-                                          // then apply the post-trans ACL. deny any that are denied
-                                          // by the post-trans ACL.
-                                          compose(transformation, constraint(denyPostAclBDD)));
-
-                                  // Clear any node-specific constraints before exiting the node.
-                                  Transition transition =
-                                      compose(
-                                          deniedFlows,
-                                          removeNodeSpecificConstraints(
-                                              node,
-                                              _lastHopMgr,
-                                              _bddOutgoingOriginalFlowFilterManagers.get(node),
-                                              _bddSourceManagers.get(node)));
+                                  Supplier<Transition> transition =
+                                      Suppliers.memoize(
+                                          () ->
+                                              deniedOutTransition(
+                                                  node, iface, originalFlowFilterMgr));
 
                                   return Stream.of(
                                           new PreOutInterfaceDeliveredToSubnet(node, ifaceName),
@@ -1154,6 +1310,38 @@ public final class BDDReachabilityAnalysisFactory {
             });
   }
 
+  /**
+   * The transition for flows leaving {@code iface} that are denied by one of its outgoing filters.
+   */
+  private @Nonnull Transition deniedOutTransition(
+      String node, Interface iface, BDDOutgoingOriginalFlowFilterManager originalFlowFilterMgr) {
+    String ifaceName = iface.getName();
+    BDD denyOriginalFlowBdd = originalFlowFilterMgr.deniedByOriginalFlowEgressFilter(ifaceName);
+    BDD denyPreAclBDD = ignorableAclDenyBDD(node, iface.getPreTransformationOutgoingFilter());
+    BDD denyPostAclBDD = ignorableAclDenyBDD(node, iface.getOutgoingFilter());
+    Transition transformation = _bddOutgoingTransformations.get(node).get(ifaceName);
+
+    // DENIED_OUT can be due to any of:
+    // - denied by the outgoingOriginalFlowFilter
+    // - denied by the pre-Transformation ACL
+    // - transformed and denied by the post-Transformation ACL
+    Transition deniedFlows =
+        branch(
+            // branch on whether denied before transformation
+            denyOriginalFlowBdd.or(denyPreAclBDD),
+            // deny all flows denied by pre-trans ACLs
+            IDENTITY,
+            // for flows permitted by first two ACLs, transform and then apply the post-trans ACL.
+            // deny any that are denied by the post-trans ACL.
+            compose(transformation, constraint(denyPostAclBDD)));
+
+    // Clear any node-specific constraints before exiting the node.
+    return compose(
+        deniedFlows,
+        removeNodeSpecificConstraints(
+            node, _lastHopMgr, originalFlowFilterMgr, _bddSourceManagers.get(node)));
+  }
+
   @Nonnull
   private Stream<Edge> generateRules_VrfAccept_NodeAccept() {
     return _ifaceAcceptBDDs.entrySet().stream()
@@ -1334,14 +1522,17 @@ public final class BDDReachabilityAnalysisFactory {
       // since actions is not empty, loopIncluded must be true. Thus just detect loops
       return bddLoopDetectionAnalysis(srcIpSpaceAssignment).detectLoops();
     } else if (!loopIncluded) {
-      // only reachability, no loop detection
+      // only reachability, no loop detection. Only the ingress locations' results are needed, so
+      // the graph can be sliced to the query.
       return bddReachabilityAnalysis(
               srcIpSpaceAssignment,
               initialHeaderSpace,
               forbiddenTransitNodes,
               requiredTransitNodes,
               finalNodes,
-              nonLoopActions)
+              nonLoopActions,
+              false,
+              true)
           .getIngressLocationReachableBDDs();
     } else {
       // both reachability and loop detection
@@ -1438,6 +1629,36 @@ public final class BDDReachabilityAnalysisFactory {
       Set<String> finalNodes,
       Set<FlowDisposition> actions,
       boolean useInterfaceRoots) {
+    return bddReachabilityAnalysis(
+        srcIpSpaceAssignment,
+        initialHeaderSpace,
+        forbiddenTransitNodes,
+        requiredTransitNodes,
+        finalNodes,
+        actions,
+        useInterfaceRoots,
+        false);
+  }
+
+  /**
+   * Create a {@link BDDReachabilityAnalysis} with the specified parameters.
+   *
+   * @param queryScoped Whether to {@link BDDReachabilityUtils#sliceToQuery slice} the graph to the
+   *     states on some path from the roots to {@link Query} before any transition is computed. The
+   *     resulting analysis only supports {@link
+   *     BDDReachabilityAnalysis#getIngressLocationReachableBDDs()}, but for questions about a few
+   *     sources or final nodes it is built and searched in a fraction of the time.
+   */
+  @VisibleForTesting
+  BDDReachabilityAnalysis bddReachabilityAnalysis(
+      IpSpaceAssignment srcIpSpaceAssignment,
+      AclLineMatchExpr initialHeaderSpace,
+      Set<String> forbiddenTransitNodes,
+      Set<String> requiredTransitNodes,
+      Set<String> finalNodes,
+      Set<FlowDisposition> actions,
+      boolean useInterfaceRoots,
+      boolean queryScoped) {
     checkArgument(!finalNodes.isEmpty(), "final nodes cannot be empty");
     BDD initialHeaderSpaceBdd = computeInitialHeaderSpaceBdd(initialHeaderSpace);
     BDD finalHeaderSpaceBdd = computeFinalHeaderSpaceBdd(initialHeaderSpaceBdd);
@@ -1453,6 +1674,12 @@ public final class BDDReachabilityAnalysisFactory {
             generateQueryEdges(actions));
     edgeStream = instrumentForbiddenTransitNodes(forbiddenTransitNodes, edgeStream);
     edgeStream = instrumentRequiredTransitNodes(requiredTransitNodes, edgeStream);
+    if (queryScoped) {
+      List<Edge> edges = edgeStream.collect(Collectors.toList());
+      List<Edge> slice = sliceToQuery(edges, roots.keySet());
+      LOGGER.debug("Sliced reachability graph to {} of {} edges", slice.size(), edges.size());
+      edgeStream = slice.stream();
+    }
 
     return new BDDReachabilityAnalysis(_bddPacket, roots.keySet(), edgeStream, finalHeaderSpaceBdd);
   }
@@ -1799,8 +2026,10 @@ public final class BDDReachabilityAnalysisFactory {
     return new Edge(
         edge.getPreState(),
         edge.getPostState(),
-        compose(
-            edge.getTransition(), eraseAndSet(_requiredTransitNodeBDD, _requiredTransitNodeBDD)));
+        () ->
+            compose(
+                edge.getTransition(),
+                eraseAndSet(_requiredTransitNodeBDD, _requiredTransitNodeBDD)));
   }
 
   /**
@@ -1811,7 +2040,7 @@ public final class BDDReachabilityAnalysisFactory {
     return new Edge(
         edge.getPreState(),
         edge.getPostState(),
-        compose(edge.getTransition(), constraint(constraint)));
+        () -> compose(edge.getTransition(), constraint(constraint)));
   }
 
   /**
@@ -5,6 +5,8 @@ import static com.google.common.collect.ImmutableTable.toImmutableTable;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Iterables;
@@ -13,10 +15,13 @@ import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Streams;
 import com.google.common.collect.Table;
 import com.google.common.collect.Tables;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -38,6 +43,7 @@ import org.batfish.datamodel.transformation.AssignPortFromPool;
 import org.batfish.symbolic.IngressLocation;
 import org.batfish.symbolic.state.OriginateInterfaceLink;
 import org.batfish.symbolic.state.OriginateVrf;
+import org.batfish.symbolic.state.Query;
 import org.batfish.symbolic.state.StateExpr;
 
 /**
@@ -55,6 +61,44 @@ public final class BDDReachabilityUtils {
             Edge::getPreState, Edge::getPostState, Edge::getTransition, Transitions::or));
   }
 
+  /**
+   * Returns the edges that can lie on a path from one of the {@code roots} to {@link Query}. This
+   * is computed on the unlabeled state graph, i.e. without computing any {@link Transition}, so
+   * edges built with a lazy transition are only paid for if they survive the slice.
+   *
+   * <p>Reachability from the roots to {@link Query} is unchanged by the slice, so it is safe to use
+   * whenever only the ingress location results of a backward search from {@link Query} are needed.
+   */
+  static List<Edge> sliceToQuery(Collection<Edge> edges, Set<StateExpr> roots) {
+    ListMultimap<StateExpr, StateExpr> successors = ArrayListMultimap.create();
+    ListMultimap<StateExpr, StateExpr> predecessors = ArrayListMultimap.create();
+    for (Edge edge : edges) {
+      successors.put(edge.getPreState(), edge.getPostState());
+      predecessors.put(edge.getPostState(), edge.getPreState());
+    }
+    Set<StateExpr> forward = reachableStates(successors, roots);
+    Set<StateExpr> backward = reachableStates(predecessors, ImmutableSet.of(Query.INSTANCE));
+    return edges.stream()
+        // an edge's post state is forward reachable if its pre state is, and vice versa backward.
+        .filter(
+            edge -> forward.contains(edge.getPreState()) && backward.contains(edge.getPostState()))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static Set<StateExpr> reachableStates(
+      ListMultimap<StateExpr, StateExpr> adjacency, Set<StateExpr> start) {
+    Set<StateExpr> reached = new HashSet<>(start);
+    Deque<StateExpr> work = new ArrayDeque<>(start);
+    while (!work.isEmpty()) {
+      for (StateExpr next : adjacency.get(work.pop())) {
+        if (reached.add(next)) {
+          work.push(next);
+        }
+      }
+    }
+    return reached;
+  }
+
   /** Apply edges to the reachableSets until a fixed point is reached. */
   @VisibleForTesting
   static void fixpoint(
@@ -3,7 +3,9 @@ package org.batfish.bddreachability;
 import static org.batfish.bddreachability.transition.Transitions.constraint;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.base.Suppliers;
 import java.util.Objects;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import net.sf.javabdd.BDD;
@@ -16,24 +18,31 @@ import org.batfish.symbolic.state.StateExpr;
 public final class Edge {
   private final @Nonnull StateExpr _postState;
   private final @Nonnull StateExpr _preState;
-  private final @Nonnull Transition _transition;
+  private final @Nonnull Supplier<Transition> _transition;
 
   Edge(StateExpr preState, StateExpr postState) {
-    _preState = preState;
-    _postState = postState;
-    _transition = Identity.INSTANCE;
+    this(preState, postState, Identity.INSTANCE);
   }
 
   Edge(StateExpr preState, StateExpr postState, BDD constraint) {
+    this(preState, postState, constraint(constraint));
+  }
+
+  public Edge(StateExpr preState, StateExpr postState, Transition transition) {
     _preState = preState;
     _postState = postState;
-    _transition = constraint(constraint);
+    _transition = Suppliers.ofInstance(transition);
   }
 
-  public Edge(StateExpr preState, StateExpr postState, Transition transition) {
+  /**
+   * Create an edge whose transition is only computed when first needed, so that edges pruned from
+   * the graph before any BDD work is done (see {@link BDDReachabilityUtils#sliceToQuery}) never pay
+   * for building their transitions.
+   */
+  Edge(StateExpr preState, StateExpr postState, Supplier<Transition> transition) {
     _preState = preState;
     _postState = postState;
-    _transition = transition;
+    _transition = Suppliers.memoize(transition::get);
   }
 
   @Override
@@ -47,12 +56,12 @@ public final class Edge {
     Edge edge = (Edge) o;
     return _postState.equals(edge._postState)
         && _preState.equals(edge._preState)
-        && _transition.equals(edge._transition);
+        && getTransition().equals(edge.getTransition());
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(_postState, _preState, _transition);
+    return Objects.hash(_postState, _preState, getTransition());
   }
 
   @Nonnull
@@ -67,17 +76,17 @@ public final class Edge {
 
   @Nonnull
   public Transition getTransition() {
-    return _transition;
+    return _transition.get();
   }
 
   @Nonnull
   BDD traverseBackward(BDD bdd) {
-    return _transition.transitBackward(bdd);
+    return getTransition().transitBackward(bdd);
   }
 
   @Nonnull
   BDD traverseForward(BDD bdd) {
-    return _transition.transitForward(bdd);
+    return getTransition().transitForward(bdd);
   }
 
   @Override
@@ -85,7 +94,7 @@ public final class Edge {
     return MoreObjects.toStringHelper(Edge.class)
         .add("preState", _preState)
         .add("postState", _postState)
-        .add("transition", _transition)
+        .add("transition", getTransition())
         .toString();
   }
 }
@@ -15,14 +15,20 @@ import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CoordConsts;
 import org.batfish.grammar.GrammarSettings;
+import org.batfish.grammar.ParserCacheManager;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
+import org.batfish.main.BfCache;
 import org.batfish.main.Driver.RunMode;
 import org.batfish.version.Versioned;
 
 public final class Settings extends BaseSettings implements GrammarSettings {
 
+  private static final String ARG_BDD_CONSTRUCTION_THREADS = "bddconstructionthreads";
+
+  private static final String ARG_CACHE_HEAP_PERCENT = "cacheheappercent";
+
   public static final String ARG_CHECK_BGP_REACHABILITY = "checkbgpsessionreachability";
 
   public static final String ARG_COORDINATOR_HOST = "coordinatorhost";
@@ -37,6 +43,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_PARSE_REUSE = "parsereuse";
 
+  private static final String ARG_PARSE_STATS = "parsestats";
+
+  private static final String ARG_PARSER_DFA_MAX_STATES = "parserdfamaxstates";
+
+  private static final String ARG_PARSER_WARMUP = "parserwarmup";
+
+  private static final String ARG_PIPELINED_CONVERSION = "pipelinedconversion";
+
   private static final String ARG_EXIT_ON_FIRST_ERROR = "ee";
 
   private static final String ARG_FLATTEN = "flatten";
@@ -177,6 +191,19 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return Math.min(Runtime.getRuntime().availableProcessors(), getJobs());
   }
 
+  /**
+   * Number of threads with which to build the ACL BDDs of a BDD reachability graph, each with its
+   * own BDD factory. At most {@code 1} builds them lazily on one factory.
+   */
+  public int getBddConstructionThreads() {
+    return Math.max(1, _config.getInt(ARG_BDD_CONSTRUCTION_THREADS));
+  }
+
+  /** Percentage of the maximum heap size that may be used for cached snapshot data. */
+  public int getCacheHeapPercent() {
+    return _config.getInt(ARG_CACHE_HEAP_PERCENT);
+  }
+
   public NetworkId getContainer() {
     String id = _config.getString(BfConsts.ARG_CONTAINER);
     return id != null ? new NetworkId(id) : null;
@@ -276,6 +303,35 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_PARSE_REUSE);
   }
 
+  /**
+   * Maximum number of ANTLR DFA states retained per grammar before the grammar's shared DFA cache
+   * is cleared, or {@code 0} for no limit.
+   */
+  public int getParserDfaMaxStates() {
+    return Math.max(0, _config.getInt(ARG_PARSER_DFA_MAX_STATES));
+  }
+
+  /**
+   * Whether to include parser cache statistics and per-stage parse timings in the parse answer. Off
+   * by default, since the values differ from run to run.
+   */
+  public boolean getParseStats() {
+    return _config.getBoolean(ARG_PARSE_STATS);
+  }
+
+  /**
+   * Whether each conversion job loads its own vendor configuration, so that only the vendor
+   * configurations being converted are in memory at once, rather than all of them.
+   */
+  public boolean getPipelinedConversion() {
+    return _config.getBoolean(ARG_PIPELINED_CONVERSION);
+  }
+
+  /** Whether to pre-warm parser DFA caches from a bundled corpus when the worker service starts. */
+  public boolean getParserWarmup() {
+    return _config.getBoolean(ARG_PARSER_WARMUP);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -431,6 +487,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS, false);
     setDefaultProperty(BfConsts.ARG_BDP_RECORD_ALL_ITERATIONS, false);
+    setDefaultProperty(ARG_BDD_CONSTRUCTION_THREADS, 1);
+    setDefaultProperty(ARG_CACHE_HEAP_PERCENT, BfCache.DEFAULT_HEAP_PERCENT);
     setDefaultProperty(CAN_EXECUTE, true);
     setDefaultProperty(BfConsts.ARG_CONTAINER, null);
     setDefaultProperty(ARG_COORDINATOR_REGISTER, false);
@@ -461,6 +519,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_CHECK_BGP_REACHABILITY, true);
     setDefaultProperty(ARG_NO_SHUFFLE, false);
     setDefaultProperty(ARG_PARSE_REUSE, true);
+    setDefaultProperty(ARG_PARSE_STATS, false);
+    setDefaultProperty(ARG_PARSER_DFA_MAX_STATES, ParserCacheManager.DEFAULT_MAX_DFA_STATES);
+    setDefaultProperty(ARG_PARSER_WARMUP, true);
+    setDefaultProperty(ARG_PIPELINED_CONVERSION, true);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
@@ -527,6 +589,17 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         "Set to true to record all iterations, including during oscillation. Ignores max recorded "
             + "iterations value.");
 
+    addOption(
+        ARG_BDD_CONSTRUCTION_THREADS,
+        "number of threads with which to build ACL BDDs of the BDD reachability graph "
+            + "(<= 1 builds them lazily on one thread)",
+        ARGNAME_NUMBER);
+
+    addOption(
+        ARG_CACHE_HEAP_PERCENT,
+        "percentage of the maximum heap size to use for cached snapshot data",
+        ARGNAME_NUMBER);
+
     addBooleanOption(
         ARG_CHECK_BGP_REACHABILITY,
         "whether to check BGP session reachability during data plane computation");
@@ -622,6 +695,22 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_PARSE_REUSE, "reuse parse results when appropriate");
 
+    addBooleanOption(
+        ARG_PIPELINED_CONVERSION,
+        "load each vendor configuration in its conversion job rather than all of them up front");
+
+    addBooleanOption(
+        ARG_PARSE_STATS, "include parser cache statistics and parse stage timings in parse answer");
+
+    addOption(
+        ARG_PARSER_DFA_MAX_STATES,
+        "max number of parser DFA states cached per grammar before the cache is cleared "
+            + "(<= 0 is treated as no limit)",
+        ARGNAME_NUMBER);
+
+    addBooleanOption(
+        ARG_PARSER_WARMUP, "pre-warm parser DFA caches when starting the worker service");
+
     addBooleanOption(ARG_PRINT_PARSE_TREES, "print parse trees");
 
     addBooleanOption(
@@ -756,6 +845,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(BfConsts.ARG_BDP_MAX_RECORDED_ITERATIONS);
     getBooleanOptionValue(BfConsts.ARG_BDP_PRINT_ALL_ITERATIONS);
     getBooleanOptionValue(BfConsts.ARG_BDP_PRINT_OSCILLATING_ITERATIONS);
+    getIntOptionValue(ARG_BDD_CONSTRUCTION_THREADS);
+    getIntOptionValue(ARG_CACHE_HEAP_PERCENT);
     getBooleanOptionValue(ARG_CHECK_BGP_REACHABILITY);
     getStringOptionValue(BfConsts.ARG_CONTAINER);
     getStringOptionValue(ARG_COORDINATOR_HOST);
@@ -795,6 +886,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(ARG_SERVICE_PORT);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
     getBooleanOptionValue(ARG_PARSE_REUSE);
+    getBooleanOptionValue(ARG_PARSE_STATS);
+    getIntOptionValue(ARG_PARSER_DFA_MAX_STATES);
+    getBooleanOptionValue(ARG_PARSER_WARMUP);
+    getBooleanOptionValue(ARG_PIPELINED_CONVERSION);
     getStringOptionValue(BfConsts.ARG_SNAPSHOT_NAME);
     getPathOptionValue(BfConsts.ARG_STORAGE_BASE);
     getStringOptionValue(BfConsts.ARG_TASK_PLUGIN);
@@ -870,6 +965,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_MAX_RUNTIME_MS, runtimeMs);
   }
 
+  public void setParseStats(boolean parseStats) {
+    _config.setProperty(ARG_PARSE_STATS, parseStats);
+  }
+
+  public void setPipelinedConversion(boolean pipelinedConversion) {
+    _config.setProperty(ARG_PIPELINED_CONVERSION, pipelinedConversion);
+  }
+
   @Override
   public void setPrintParseTree(boolean printParseTree) {
     _config.setProperty(ARG_PRINT_PARSE_TREES, printParseTree);
@@ -734,16 +734,14 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
   private static @Nonnull <T extends EvpnRoute<?, ?>, U extends T> RibDelta<T> importRibDelta(
       EvpnMasterRib<T> rib, RibDelta<U> delta) {
     RibDelta.Builder<T> builder = RibDelta.builder();
-    delta
-        .getActions()
-        .forEach(
-            action -> {
-              if (action.isWithdrawn()) {
-                builder.from(rib.removeRouteGetDelta(action.getRoute()));
-              } else {
-                builder.from(rib.mergeRouteGetDelta(action.getRoute()));
-              }
-            });
+    delta.forEachAction(
+        (route, reason) -> {
+          if (reason.isWithdrawn()) {
+            builder.from(rib.removeRouteGetDelta(route));
+          } else {
+            builder.from(rib.mergeRouteGetDelta(route));
+          }
+        });
     return builder.build();
   }
 
@@ -1389,9 +1387,8 @@ final class BgpRoutingProcess implements RoutingProcess<BgpTopology, BgpRoute<?,
           }
         });
     RibDelta<Bgpv4Route> aggDelta = aggDeltaBuilder.build();
-    aggDelta
-        .getActions()
-        .forEach(action -> processMergeOrRemoveInBgpRib(action.getRoute(), !action.isWithdrawn()));
+    aggDelta.forEachAction(
+        (route, reason) -> processMergeOrRemoveInBgpRib(route, !reason.isWithdrawn()));
     return aggDelta;
   }
 
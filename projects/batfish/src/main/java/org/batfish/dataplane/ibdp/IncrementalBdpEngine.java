@@ -608,6 +608,7 @@ final class IncrementalBdpEngine {
    * @param vrs virtual routers that are participating in the computation
    * @param iterationLabel iteration label (for stats tracking)
    * @param allNodes all nodes in the network (for correct neighbor referencing)
+   * @param isisSpf whether to propagate IS-IS routes with {@link IsisSpf}
    */
   private static void computeDependentRoutesIteration(
       List<VirtualRouter> vrs,
@@ -615,7 +616,8 @@ final class IncrementalBdpEngine {
       Map<String, Node> allNodes,
       NetworkConfigurations networkConfigurations,
       DataPlaneTrackMethodEvaluatorProvider provider,
-      int iteration) {
+      int iteration,
+      boolean isisSpf) {
     LOGGER.info("{}: Compute dependent routes", iterationLabel);
 
     // Static nextHopIp routes
@@ -638,7 +640,14 @@ final class IncrementalBdpEngine {
         .forEach(vr -> vr.initIsisExports(iteration, allNodes, networkConfigurations));
 
     // IS-IS route propagation
-    AtomicBoolean isisChanged = new AtomicBoolean(true);
+    if (isisSpf) {
+      int advertisements = IsisSpf.propagateIsisRoutes(vrs, allNodes, networkConfigurations);
+      LOGGER.info(
+          "{}: Recompute IS-IS routes: processed {} advertisements",
+          iterationLabel,
+          advertisements);
+    }
+    AtomicBoolean isisChanged = new AtomicBoolean(!isisSpf);
     int isisSubIterations = 0;
     while (isisChanged.get()) {
       isisSubIterations++;
@@ -831,7 +840,13 @@ final class IncrementalBdpEngine {
                 iterationNodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
         String iterationlabel = String.format("Iteration %d Schedule %d", _numIterations, nodeSet);
         computeDependentRoutesIteration(
-            iterationVrs, iterationlabel, nodes, networkConfigurations, provider, _numIterations);
+            iterationVrs,
+            iterationlabel,
+            nodes,
+            networkConfigurations,
+            provider,
+            _numIterations,
+            _settings.getIsisSpf());
         ++nodeSet;
       }
 
@@ -932,6 +947,10 @@ final class IncrementalBdpEngine {
    * @return the number of iterations it took for internal OSPF routes to converge
    */
   private int initOspfInternalRoutes(Map<String, Node> allNodes, OspfTopology ospfTopology) {
+    if (_settings.getOspfSpf()) {
+      LOGGER.info("OSPF internal: Compute intra-area routes");
+      OspfIntraAreaSpf.importIntraAreaRoutes(allNodes, ospfTopology);
+    }
     int ospfInternalIterations = 0;
     boolean dirty = true;
 
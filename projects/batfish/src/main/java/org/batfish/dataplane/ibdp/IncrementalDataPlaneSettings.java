@@ -17,6 +17,8 @@ public final class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_ISIS_SPF = "isisspf";
+  public static final String PROP_OSPF_SPF = "ospfspf";
   public static final String PROP_SCHEDULE = "schedule";
 
   /**
@@ -48,6 +50,8 @@ public final class IncrementalDataPlaneSettings {
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_ISIS_SPF, true);
+    _config.setProperty(PROP_OSPF_SPF, true);
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
   }
 
@@ -63,4 +67,22 @@ public final class IncrementalDataPlaneSettings {
   public Coloring getColoringType() {
     return Coloring.valueOf(_config.getString(PROP_COLORING));
   }
+
+  /**
+   * Whether converged OSPF intra-area routes are computed up front with shortest-path-first, rather
+   * than propagated hop by hop in OSPF iterations. Both produce the same routes; disabling this
+   * cross-checks the former against the latter.
+   */
+  public boolean getOspfSpf() {
+    return _config.getBoolean(PROP_OSPF_SPF);
+  }
+
+  /**
+   * Whether IS-IS routes are propagated to convergence in shortest-path-first order, rather than
+   * one hop per sub-iteration. Both produce the same routes; disabling this cross-checks the former
+   * against the latter.
+   */
+  public boolean getIsisSpf() {
+    return _config.getBoolean(PROP_ISIS_SPF);
+  }
 }
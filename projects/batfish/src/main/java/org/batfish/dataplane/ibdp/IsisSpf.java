@@ -0,0 +1,199 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.IsisRoute;
+import org.batfish.datamodel.NetworkConfigurations;
+import org.batfish.datamodel.isis.IsisEdge;
+import org.batfish.datamodel.isis.IsisInterfaceLevelSettings;
+import org.batfish.datamodel.isis.IsisInterfaceSettings;
+import org.batfish.datamodel.isis.IsisLevel;
+import org.batfish.dataplane.rib.RouteAdvertisement;
+
+/**
+ * Propagates IS-IS routes to convergence in shortest-path-first order, instead of one hop per
+ * sub-iteration.
+ *
+ * <p>Every queued route advertisement becomes an event keyed by the overload bit and the metric the
+ * route would have at its receiver, i.e. the IS-IS route preference on the link-state graph of
+ * IS-IS circuits weighted by per-level interface costs. Events are processed in key order, like the
+ * edges relaxed by Dijkstra's algorithm, so a route usually reaches each router first along its
+ * best path and is never replaced. Each event goes through the same import, L1-to-L2 leaking, and
+ * export logic as in {@link VirtualRouter#propagateIsisRoutes} and {@link
+ * VirtualRouter#unstageIsisRoutes}, so the resulting RIBs are those of hop-by-hop propagation.
+ *
+ * <p>Only the virtual routers scheduled for the current step are processed. Advertisements they
+ * export to other routers stay queued until those routers' own step. Scheduled routers that are not
+ * connected through other scheduled routers are processed independently, in parallel.
+ */
+@ParametersAreNonnullByDefault
+final class IsisSpf {
+
+  /** A route advertisement queued at its receiver, with its preference key. */
+  private static final class Event {
+    private final boolean _overload;
+    private final long _metric;
+    private final long _sequence;
+    private final VirtualRouter _receiver;
+    private final IsisEdge _edge;
+    private final RouteAdvertisement<IsisRoute> _advertisement;
+
+    private Event(
+        boolean overload,
+        long metric,
+        long sequence,
+        VirtualRouter receiver,
+        IsisEdge edge,
+        RouteAdvertisement<IsisRoute> advertisement) {
+      _overload = overload;
+      _metric = metric;
+      _sequence = sequence;
+      _receiver = receiver;
+      _edge = edge;
+      _advertisement = advertisement;
+    }
+  }
+
+  /** Ties are broken by sequence number, so advertisements on an edge keep their order. */
+  private static final Comparator<Event> EVENT_ORDER =
+      Comparator.<Event, Boolean>comparing(e -> e._overload)
+          .thenComparingLong(e -> e._metric)
+          .thenComparingLong(e -> e._sequence);
+
+  private final Map<String, Node> _allNodes;
+  private final NetworkConfigurations _nc;
+
+  /** The routers whose queued advertisements this instance processes. */
+  private final Set<VirtualRouter> _routers;
+
+  private final PriorityQueue<Event> _events;
+  private long _sequence;
+  private int _processed;
+
+  private IsisSpf(
+      Map<String, Node> allNodes, NetworkConfigurations nc, Set<VirtualRouter> routers) {
+    _allNodes = allNodes;
+    _nc = nc;
+    _routers = routers;
+    _events = new PriorityQueue<>(EVENT_ORDER);
+  }
+
+  /**
+   * Processes all queued IS-IS route advertisements of {@code vrs}, and those they cause in turn,
+   * until no IS-IS routes change.
+   *
+   * @return the number of advertisements processed
+   */
+  static int propagateIsisRoutes(
+      List<VirtualRouter> vrs, Map<String, Node> allNodes, NetworkConfigurations nc) {
+    return connectedComponents(vrs, allNodes, nc).parallelStream()
+        .mapToInt(
+            routers -> {
+              IsisSpf spf = new IsisSpf(allNodes, nc, routers);
+              routers.forEach(
+                  vr -> vr._isisIncomingRoutes.forEach((edge, queue) -> spf.poll(vr, edge, queue)));
+              spf.run();
+              return spf._processed;
+            })
+        .sum();
+  }
+
+  /**
+   * Partitions {@code vrs} into sets connected by IS-IS edges between members of {@code vrs}. No
+   * router in one set is a neighbor of a router in another, so the sets can be processed
+   * concurrently.
+   */
+  private static List<Set<VirtualRouter>> connectedComponents(
+      List<VirtualRouter> vrs, Map<String, Node> allNodes, NetworkConfigurations nc) {
+    Set<VirtualRouter> scheduled = Collections.newSetFromMap(new IdentityHashMap<>());
+    scheduled.addAll(vrs);
+    Set<VirtualRouter> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Set<VirtualRouter>> components = new ArrayList<>();
+    for (VirtualRouter root : vrs) {
+      if (!visited.add(root)) {
+        continue;
+      }
+      Set<VirtualRouter> component = Collections.newSetFromMap(new IdentityHashMap<>());
+      Deque<VirtualRouter> toVisit = new ArrayDeque<>();
+      toVisit.add(root);
+      while (!toVisit.isEmpty()) {
+        VirtualRouter vr = toVisit.remove();
+        component.add(vr);
+        for (IsisEdge edge : vr._isisIncomingRoutes.keySet()) {
+          VirtualRouter neighbor = neighbor(edge, allNodes, nc);
+          if (scheduled.contains(neighbor) && visited.add(neighbor)) {
+            toVisit.add(neighbor);
+          }
+        }
+      }
+      components.add(component);
+    }
+    return components;
+  }
+
+  /** Returns the virtual router at the sending end of {@code edge}. */
+  private static VirtualRouter neighbor(
+      IsisEdge edge, Map<String, Node> allNodes, NetworkConfigurations nc) {
+    return allNodes
+        .get(edge.getNode1().getNode())
+        .getVirtualRouterOrThrow(edge.getNode1().getInterface(nc).getVrfName());
+  }
+
+  private void run() {
+    while (!_events.isEmpty()) {
+      Event event = _events.remove();
+      _processed++;
+      VirtualRouter vr = event._receiver;
+      if (vr.propagateIsisAdvertisement(_allNodes, _nc, event._edge, event._advertisement)) {
+        // Collect what vr exported to its scheduled neighbors, each of which has an edge reverse
+        // to vr's. Other neighbors process what they received in their own step.
+        for (IsisEdge edge : vr._isisIncomingRoutes.keySet()) {
+          VirtualRouter neighbor = neighbor(edge, _allNodes, _nc);
+          if (_routers.contains(neighbor)) {
+            IsisEdge neighborEdge = edge.reverse();
+            poll(neighbor, neighborEdge, neighbor._isisIncomingRoutes.get(neighborEdge));
+          }
+        }
+      }
+    }
+  }
+
+  /** Turns all advertisements queued at {@code receiver} on {@code edge} into events. */
+  private void poll(
+      VirtualRouter receiver, IsisEdge edge, Queue<RouteAdvertisement<IsisRoute>> queue) {
+    if (queue.isEmpty()) {
+      return;
+    }
+    IsisInterfaceSettings isis = edge.getNode2().getInterface(_nc).getIsis();
+    while (!queue.isEmpty()) {
+      RouteAdvertisement<IsisRoute> advertisement = queue.remove();
+      IsisRoute route = advertisement.getRoute();
+      IsisInterfaceLevelSettings levelSettings =
+          route.getLevel() == IsisLevel.LEVEL_1 ? isis.getLevel1() : isis.getLevel2();
+      long cost =
+          levelSettings == null
+              ? 0L
+              : firstNonNull(levelSettings.getCost(), IsisRoute.DEFAULT_METRIC);
+      _events.add(
+          new Event(
+              route.getOverload(),
+              route.getMetric() + cost,
+              _sequence++,
+              receiver,
+              edge,
+              advertisement));
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package org.batfish.dataplane.ibdp;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.OspfIntraAreaRoute;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.ospf.OspfSessionProperties;
+import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+import org.batfish.datamodel.route.nh.NextHopIp;
+
+/**
+ * Computes the converged intra-area routes of all {@link OspfRoutingProcess OSPF processes} with a
+ * shortest-path-first computation, instead of propagating them one hop per OSPF iteration.
+ *
+ * <p>Processes are the vertices of a link-state graph whose edges are the sessions of the {@link
+ * OspfTopology}, weighted by the incremental cost of the receiving interface. For each prefix, a
+ * Dijkstra search seeded with the locally originated routes of every process yields the best metric
+ * of the prefix at every process. Each process then receives the prefix from every neighbor on a
+ * shortest path, exactly as the neighbor would have advertised it once OSPF converged.
+ *
+ * <p>A process only re-advertises a prefix into the areas of its best routes for it, so the search
+ * tracks these areas as well and revisits a process whenever they grow. This only matters for
+ * prefixes originated in more than one area.
+ */
+@ParametersAreNonnullByDefault
+final class OspfIntraAreaSpf {
+
+  private static final long UNREACHABLE = Long.MAX_VALUE;
+
+  /**
+   * Imports the converged intra-area routes into every OSPF process of {@code allNodes}. Must be
+   * called after the processes are initialized and before the first OSPF iteration.
+   */
+  static void importIntraAreaRoutes(Map<String, Node> allNodes, OspfTopology topology) {
+    List<OspfRoutingProcess> processes =
+        allNodes.values().stream()
+            .flatMap(n -> n.getVirtualRouters().stream())
+            .flatMap(vr -> vr.getOspfProcesses().values().stream())
+            .collect(ImmutableList.toImmutableList());
+    List<SortedMap<EdgeId, List<OspfIntraAreaRoute>>> routesByProcess =
+        new OspfIntraAreaSpf(processes, allNodes, topology).computeIncomingRoutes();
+    IntStream.range(0, processes.size())
+        .parallel()
+        .forEach(i -> processes.get(i).importSpfIntraAreaRoutes(routesByProcess.get(i)));
+  }
+
+  /** A directed OSPF adjacency along which intra-area routes of one area are advertised. */
+  private static final class Link {
+    private final int _receiver;
+    private final long _area;
+    private final long _cost;
+    /** The edge on which the receiver receives advertisements, with head pointing at it. */
+    private final EdgeId _receiverEdge;
+
+    private final Ip _nextHopIp;
+    private final int _senderAdmin;
+
+    private Link(
+        int receiver, long area, long cost, EdgeId receiverEdge, Ip nextHopIp, int senderAdmin) {
+      _receiver = receiver;
+      _area = area;
+      _cost = cost;
+      _receiverEdge = receiverEdge;
+      _nextHopIp = nextHopIp;
+      _senderAdmin = senderAdmin;
+    }
+  }
+
+  /** A locally originated intra-area route. */
+  private static final class Origin {
+    private final int _process;
+    private final long _area;
+    private final long _metric;
+
+    private Origin(int process, long area, long metric) {
+      _process = process;
+      _area = area;
+      _metric = metric;
+    }
+  }
+
+  private final int _numProcesses;
+  /** Outgoing links of each process. */
+  private final List<List<Link>> _outLinks;
+  /** Locally originated routes of all processes, by prefix. */
+  private final SortedMap<Prefix, List<Origin>> _origins;
+
+  private OspfIntraAreaSpf(
+      List<OspfRoutingProcess> processes, Map<String, Node> allNodes, OspfTopology topology) {
+    _numProcesses = processes.size();
+    Map<OspfRoutingProcess, Integer> indices = new IdentityHashMap<>();
+    for (int i = 0; i < _numProcesses; i++) {
+      indices.put(processes.get(i), i);
+    }
+    _outLinks = new ArrayList<>(_numProcesses);
+    _origins = new TreeMap<>();
+    for (int i = 0; i < _numProcesses; i++) {
+      OspfRoutingProcess sender = processes.get(i);
+      // Mirror OspfRoutingProcess#sendOutIntraAreaRoutesPerEdge: the sender iterates over its
+      // incoming edges and advertises to the tail of each.
+      List<Link> outLinks = new ArrayList<>();
+      for (EdgeId edgeId : sender.getIncomingEdges()) {
+        Optional<OspfSessionProperties> session = topology.getSession(edgeId);
+        OspfRoutingProcess receiver =
+            OspfRoutingProcess.getNeighborProcess(edgeId.getTail(), allNodes);
+        if (!session.isPresent()
+            || receiver == null
+            || !sender.getProcess().getAreas().containsKey(session.get().getArea())) {
+          continue;
+        }
+        EdgeId receiverEdge = edgeId.reverse();
+        outLinks.add(
+            new Link(
+                indices.get(receiver),
+                session.get().getArea(),
+                receiver.getIncrementalCost(receiverEdge.getHead().getInterfaceName(), false),
+                receiverEdge,
+                session.get().getIpLink().getIp2(),
+                sender.getProcess().getAdminCosts().get(RoutingProtocol.OSPF)));
+      }
+      _outLinks.add(outLinks);
+      int process = i;
+      sender
+          .getIntraAreaRoutes()
+          .forEach(
+              r ->
+                  _origins
+                      .computeIfAbsent(r.getNetwork(), p -> new ArrayList<>())
+                      .add(new Origin(process, r.getArea(), r.getMetric())));
+    }
+  }
+
+  /**
+   * Returns, for each process, the in-transit intra-area routes it receives from its neighbors once
+   * OSPF has converged, keyed by the edge on which they arrive.
+   */
+  private @Nonnull List<SortedMap<EdgeId, List<OspfIntraAreaRoute>>> computeIncomingRoutes() {
+    List<SortedMap<EdgeId, List<OspfIntraAreaRoute>>> routesByProcess =
+        new ArrayList<>(_numProcesses);
+    for (int i = 0; i < _numProcesses; i++) {
+      routesByProcess.add(new TreeMap<>());
+    }
+    long[] best = new long[_numProcesses];
+    _origins.forEach(
+        (prefix, origins) -> {
+          Map<Integer, Set<Long>> areas = shortestPaths(origins, best);
+          areas.forEach(
+              (sender, senderAreas) -> {
+                for (Link link : _outLinks.get(sender)) {
+                  if (senderAreas.contains(link._area)
+                      && best[sender] + link._cost == best[link._receiver]) {
+                    routesByProcess
+                        .get(link._receiver)
+                        .computeIfAbsent(link._receiverEdge, e -> new ArrayList<>())
+                        .add(
+                            OspfIntraAreaRoute.builder()
+                                .setNetwork(prefix)
+                                .setNextHop(NextHopIp.of(link._nextHopIp))
+                                .setAdmin(link._senderAdmin)
+                                .setMetric(best[sender])
+                                .setArea(link._area)
+                                .setNonRouting(true)
+                                .build());
+                  }
+                }
+              });
+        });
+    return routesByProcess;
+  }
+
+  /**
+   * Computes the best metric of a prefix with the given origins at every process into {@code best},
+   * and returns the areas of the best routes of every process that has one.
+   */
+  private @Nonnull Map<Integer, Set<Long>> shortestPaths(List<Origin> origins, long[] best) {
+    Arrays.fill(best, UNREACHABLE);
+    Map<Integer, Set<Long>> areas = new HashMap<>();
+    PriorityQueue<long[]> queue = new PriorityQueue<>(Comparator.comparingLong(entry -> entry[0]));
+    for (Origin origin : origins) {
+      relax(origin._process, origin._metric, origin._area, best, areas, queue);
+    }
+    while (!queue.isEmpty()) {
+      long[] entry = queue.poll();
+      int sender = (int) entry[1];
+      if (entry[0] != best[sender]) {
+        // stale entry
+        continue;
+      }
+      Set<Long> senderAreas = areas.get(sender);
+      for (Link link : _outLinks.get(sender)) {
+        if (senderAreas.contains(link._area)) {
+          relax(link._receiver, best[sender] + link._cost, link._area, best, areas, queue);
+        }
+      }
+    }
+    return areas;
+  }
+
+  /** Offers a route with the given metric and area to {@code process}. */
+  private static void relax(
+      int process,
+      long metric,
+      long area,
+      long[] best,
+      Map<Integer, Set<Long>> areas,
+      PriorityQueue<long[]> queue) {
+    if (metric < best[process]) {
+      best[process] = metric;
+      Set<Long> processAreas = new HashSet<>(1);
+      processAreas.add(area);
+      areas.put(process, processAreas);
+    } else if (metric > best[process] || !areas.get(process).add(area)) {
+      return;
+    }
+    // Equal-cost routes in a new area must be re-advertised into that area, so revisit the process.
+    queue.add(new long[] {metric, process});
+  }
+}
@@ -14,6 +14,7 @@ import java.util.AbstractMap.SimpleEntry;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -352,6 +353,65 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
     _changeset.from(RibDelta.importRibDelta(_ospfRib, intraAreaDelta));
   }
 
+  /**
+   * Imports the intra-area routes that neighbors advertise to this process once OSPF has converged,
+   * as computed by {@link OspfIntraAreaSpf}. Must be called after {@link #initialize(Node)}.
+   *
+   * <p>The routes are processed as if received in the first iteration. Since every process already
+   * has its converged intra-area routes, they are not advertised again; only the inter-area routes
+   * of ABRs remain in the initialization delta.
+   *
+   * @param routesByEdge in-transit routes, keyed by the edge (with head pointing at this process)
+   *     on which they arrive
+   */
+  void importSpfIntraAreaRoutes(Map<EdgeId, List<OspfIntraAreaRoute>> routesByEdge) {
+    RibDelta.Builder<OspfIntraAreaRoute> intraAreaDelta = RibDelta.builder();
+    RibDelta.Builder<OspfInterAreaRoute> interAreaDelta = RibDelta.builder();
+    routesByEdge.forEach(
+        (edgeId, routes) -> {
+          String ifaceName = edgeId.getHead().getInterfaceName();
+          long incrementalCost = getIncrementalCost(ifaceName, false);
+          routes.forEach(
+              route ->
+                  processIntraAreaAdvertisement(
+                      intraAreaDelta,
+                      interAreaDelta,
+                      ifaceName,
+                      incrementalCost,
+                      new RouteAdvertisement<>(route)));
+        });
+    RibDelta<OspfIntraAreaRoute> intraArea = intraAreaDelta.build();
+    RibDelta<OspfInterAreaRoute> interArea = interAreaDelta.build();
+    _initializationDelta =
+        new InternalDelta(
+            RibDelta.empty(),
+            RibDelta.<OspfInterAreaRoute>builder()
+                .from(_initializationDelta._interArea)
+                .from(interArea)
+                .build(),
+            _initializationDelta._internalSummary);
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, intraArea));
+    _changeset.from(RibDelta.importRibDelta(_ospfRib, interArea));
+  }
+
+  /** Return the ids of the edges on which this process receives routes from its neighbors. */
+  @Nonnull
+  Set<EdgeId> getIncomingEdges() {
+    return _intraAreaIncomingRoutes.keySet();
+  }
+
+  /** Return the intra-area routes currently in this process's intra-area RIB. */
+  @Nonnull
+  Set<OspfIntraAreaRoute> getIntraAreaRoutes() {
+    return _intraAreaRib.getTypedRoutes();
+  }
+
+  /** Return the {@link OspfProcess} configuration of this process. */
+  @Nonnull
+  OspfProcess getProcess() {
+    return _process;
+  }
+
   /** Initialize inter-area routes based the initial intra-area routes. */
   @VisibleForTesting
   @Nonnull
@@ -471,7 +531,7 @@ final class OspfRoutingProcess implements RoutingProcess<OspfTopology, OspfRoute
    * OspfNeighborId}
    */
   @Nullable
-  private static OspfRoutingProcess getNeighborProcess(
+  static OspfRoutingProcess getNeighborProcess(
       OspfNeighborConfigId ospfNeighborId, Map<String, Node> allNodes) {
     return allNodes
         .get(ospfNeighborId.getHostname())
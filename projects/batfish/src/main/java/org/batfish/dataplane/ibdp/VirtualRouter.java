@@ -402,15 +402,12 @@ public final class VirtualRouter {
             });
     delta
         .build()
-        .getActions()
-        .forEach(
-            action -> {
-              if (action.isWithdrawn()) {
-                _mainRibRouteDeltaBuilder.from(
-                    _mainRib.removeRouteGetDelta(annotateRoute(action.getRoute())));
+        .forEachAction(
+            (route, reason) -> {
+              if (reason.isWithdrawn()) {
+                _mainRibRouteDeltaBuilder.from(_mainRib.removeRouteGetDelta(annotateRoute(route)));
               } else {
-                _mainRibRouteDeltaBuilder.from(
-                    _mainRib.mergeRouteGetDelta(annotateRoute(action.getRoute())));
+                _mainRibRouteDeltaBuilder.from(_mainRib.mergeRouteGetDelta(annotateRoute(route)));
               }
             });
     _hmmRoutes = newHmmRoutes.build();
@@ -487,7 +484,7 @@ public final class VirtualRouter {
     */
     _mainRibDeltaPrevRound =
         RibDelta.<AnnotatedRoute<AbstractRoute>>builder().add(_mainRib.getTypedRoutes()).build();
-    _mainRibRouteDeltaBuilder = RibDelta.builder();
+    _mainRibRouteDeltaBuilder.clear();
 
     if (_bgpRoutingProcess != null && !_bgpRoutingProcess.isInitialized()) {
       _bgpRoutingProcess.initialize(_node);
@@ -599,9 +596,12 @@ public final class VirtualRouter {
      * Updates from these BGP deltas into mainRib will be handled in finalizeBgp routes
      */
     if (!d.isEmpty() && _bgpRoutingProcess != null) {
-      d.getActions()
-          .filter(RouteAdvertisement::isWithdrawn)
-          .forEach(r -> _bgpRoutingProcess.removeAggregate(r.getRoute().getRoute()));
+      d.forEachAction(
+          (route, reason) -> {
+            if (reason.isWithdrawn()) {
+              _bgpRoutingProcess.removeAggregate(route.getRoute());
+            }
+          });
     }
   }
 
@@ -983,7 +983,7 @@ public final class VirtualRouter {
       _routesForIsisRedistribution.add(_mainRib.getTypedRoutes());
     }
     addRedistributedRoutesToDeltas(d1, d2, proc);
-    _routesForIsisRedistribution = RibDelta.builder();
+    _routesForIsisRedistribution.clear();
 
     queueOutgoingIsisRoutes(allNodes, nc, d1.build(), d2.build());
   }
@@ -1141,48 +1141,79 @@ public final class VirtualRouter {
           Ip nextHopIp = edge.getNode1().getInterface(nc).getConcreteAddress().getIp();
           Interface iface = edge.getNode2().getInterface(nc);
           while (queue.peek() != null) {
-            RouteAdvertisement<IsisRoute> routeAdvert = queue.remove();
-            IsisRoute neighborRoute = routeAdvert.getRoute();
-            IsisLevel routeLevel = neighborRoute.getLevel();
-            IsisInterfaceLevelSettings isisLevelSettings =
-                routeLevel == IsisLevel.LEVEL_1
-                    ? iface.getIsis().getLevel1()
-                    : iface.getIsis().getLevel2();
-
-            // Do not propagate route if ISIS interface is not active at this level
-            if (isisLevelSettings.getMode() != IsisInterfaceMode.ACTIVE) {
-              continue;
-            }
-            boolean withdraw = routeAdvert.isWithdrawn();
-            int adminCost =
-                neighborRoute
-                    .getProtocol()
-                    .getDefaultAdministrativeCost(_c.getConfigurationFormat());
-            RibDelta.Builder<IsisRoute> deltaBuilder =
-                routeLevel == IsisLevel.LEVEL_1 ? l1DeltaBuilder : l2DeltaBuilder;
-            long incrementalMetric =
-                firstNonNull(isisLevelSettings.getCost(), IsisRoute.DEFAULT_METRIC);
-            IsisRoute newRoute =
-                neighborRoute.toBuilder()
-                    .setAdmin(adminCost)
-                    .setLevel(routeLevel)
-                    .setMetric(incrementalMetric + neighborRoute.getMetric())
-                    .setNextHopIp(nextHopIp)
-                    // Just imported, so set nonrouting false
-                    .setNonRouting(false)
-                    .build();
-            if (withdraw) {
-              deltaBuilder.remove(newRoute, Reason.WITHDRAW);
-            } else {
-              IsisLevelRib levelStagingRib =
-                  routeLevel == IsisLevel.LEVEL_1 ? _isisL1StagingRib : _isisL2StagingRib;
-              deltaBuilder.from(levelStagingRib.mergeRouteGetDelta(newRoute));
-            }
+            stageIsisAdvertisement(
+                nextHopIp, iface, queue.remove(), l1DeltaBuilder, l2DeltaBuilder);
           }
         });
     return new SimpleEntry<>(l1DeltaBuilder.build(), l2DeltaBuilder.build());
   }
 
+  /**
+   * Process a single IS-IS route advertisement received on {@code edge}, then move the resulting
+   * routes out of the staging RIBs as {@link #unstageIsisRoutes} does.
+   *
+   * @return true if the advertisement changed the L1 or L2 RIB
+   */
+  boolean propagateIsisAdvertisement(
+      Map<String, Node> allNodes,
+      NetworkConfigurations nc,
+      IsisEdge edge,
+      RouteAdvertisement<IsisRoute> routeAdvert) {
+    RibDelta.Builder<IsisRoute> l1DeltaBuilder = RibDelta.builder();
+    RibDelta.Builder<IsisRoute> l2DeltaBuilder = RibDelta.builder();
+    stageIsisAdvertisement(
+        edge.getNode1().getInterface(nc).getConcreteAddress().getIp(),
+        edge.getNode2().getInterface(nc),
+        routeAdvert,
+        l1DeltaBuilder,
+        l2DeltaBuilder);
+    return unstageIsisRoutes(allNodes, nc, l1DeltaBuilder.build(), l2DeltaBuilder.build());
+  }
+
+  /**
+   * Transform an IS-IS route advertisement received on {@code iface} from a neighbor with IP {@code
+   * nextHopIp}, and merge it into the staging RIB of its level. Any changes are recorded in the
+   * given deltas.
+   */
+  private void stageIsisAdvertisement(
+      Ip nextHopIp,
+      Interface iface,
+      RouteAdvertisement<IsisRoute> routeAdvert,
+      RibDelta.Builder<IsisRoute> l1DeltaBuilder,
+      RibDelta.Builder<IsisRoute> l2DeltaBuilder) {
+    IsisRoute neighborRoute = routeAdvert.getRoute();
+    IsisLevel routeLevel = neighborRoute.getLevel();
+    IsisInterfaceLevelSettings isisLevelSettings =
+        routeLevel == IsisLevel.LEVEL_1 ? iface.getIsis().getLevel1() : iface.getIsis().getLevel2();
+
+    // Do not propagate route if ISIS interface is not active at this level
+    if (isisLevelSettings.getMode() != IsisInterfaceMode.ACTIVE) {
+      return;
+    }
+    boolean withdraw = routeAdvert.isWithdrawn();
+    int adminCost =
+        neighborRoute.getProtocol().getDefaultAdministrativeCost(_c.getConfigurationFormat());
+    RibDelta.Builder<IsisRoute> deltaBuilder =
+        routeLevel == IsisLevel.LEVEL_1 ? l1DeltaBuilder : l2DeltaBuilder;
+    long incrementalMetric = firstNonNull(isisLevelSettings.getCost(), IsisRoute.DEFAULT_METRIC);
+    IsisRoute newRoute =
+        neighborRoute.toBuilder()
+            .setAdmin(adminCost)
+            .setLevel(routeLevel)
+            .setMetric(incrementalMetric + neighborRoute.getMetric())
+            .setNextHopIp(nextHopIp)
+            // Just imported, so set nonrouting false
+            .setNonRouting(false)
+            .build();
+    if (withdraw) {
+      deltaBuilder.remove(newRoute, Reason.WITHDRAW);
+    } else {
+      IsisLevelRib levelStagingRib =
+          routeLevel == IsisLevel.LEVEL_1 ? _isisL1StagingRib : _isisL2StagingRib;
+      deltaBuilder.from(levelStagingRib.mergeRouteGetDelta(newRoute));
+    }
+  }
+
   /**
    * Process RIP routes from our neighbors.
    *
@@ -1829,7 +1860,7 @@ public final class VirtualRouter {
   /** End of a single "EGP" routing round. */
   void endOfEgpRound() {
     _mainRibDeltaPrevRound = _mainRibRouteDeltaBuilder.build();
-    _mainRibRouteDeltaBuilder = RibDelta.builder();
+    _mainRibRouteDeltaBuilder.clear();
     if (_bgpRoutingProcess != null) {
       _bgpRoutingProcess.endOfRound();
     }
@@ -3,11 +3,11 @@ package org.batfish.dataplane.rib;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -21,17 +21,38 @@ import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 /**
  * Represents a change in RIB state
  *
+ * <p>A delta stores its routes and the {@link Reason reasons} for their actions in two parallel
+ * arrays rather than as a list of {@link RouteAdvertisement}s, since deltas are built and consumed
+ * in large numbers during each dataplane iteration. Use {@link #forEachAction} to visit the actions
+ * without allocating advertisements.
+ *
  * @param <R> route type
  */
 @ParametersAreNonnullByDefault
 public final class RibDelta<R extends AbstractRouteDecorator> {
 
-  private final List<RouteAdvertisement<R>> _actions;
+  /** The routes, in the order their actions are applied. */
+  private final @Nonnull Object[] _routes;
+
+  /** The {@link Reason#ordinal() ordinal} of the reason for each route's action. */
+  private final @Nonnull byte[] _reasons;
+
+  private static final Reason[] REASONS = Reason.values();
+
+  private static final byte ADD = (byte) Reason.ADD.ordinal();
 
-  private static final RibDelta<AbstractRoute> EMPTY = new RibDelta<>(ImmutableList.of());
+  private static final RibDelta<AbstractRoute> EMPTY = new RibDelta<>(new Object[0], new byte[0]);
 
-  private RibDelta(List<RouteAdvertisement<R>> actions) {
-    _actions = ImmutableList.copyOf(actions);
+  private RibDelta(Object[] routes, byte[] reasons) {
+    assert routes.length == reasons.length;
+    _routes = routes;
+    _reasons = reasons;
+  }
+
+  /** Receives one action of a delta. */
+  @FunctionalInterface
+  public interface ActionVisitor<R> {
+    void visit(R route, Reason reason);
   }
 
   /**
@@ -39,7 +60,7 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
    * Reason#ADD}.
    */
   public static <R extends AbstractRouteDecorator> RibDelta<R> adding(R route) {
-    return new RibDelta<>(ImmutableList.of(RouteAdvertisement.adding(route)));
+    return new RibDelta<>(new Object[] {route}, new byte[] {ADD});
   }
 
   /**
@@ -47,21 +68,33 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
    * Reason#ADD}.
    */
   public static <R extends AbstractRouteDecorator> RibDelta<R> adding(Collection<R> routes) {
-    ImmutableList.Builder<RouteAdvertisement<R>> builder =
-        ImmutableList.builderWithExpectedSize(routes.size());
-    for (R route : routes) {
-      builder.add(RouteAdvertisement.adding(route));
+    if (routes.isEmpty()) {
+      return empty();
     }
-    return new RibDelta<>(builder.build());
+    byte[] reasons = new byte[routes.size()];
+    Arrays.fill(reasons, ADD);
+    return new RibDelta<>(routes.toArray(), reasons);
   }
 
   public static <R extends AbstractRouteDecorator> RibDelta<R> of(RouteAdvertisement<R> action) {
-    return new RibDelta<>(ImmutableList.of(action));
+    return new RibDelta<>(
+        new Object[] {action.getRoute()}, new byte[] {(byte) action.getReason().ordinal()});
   }
 
   public static <R extends AbstractRouteDecorator> RibDelta<R> of(
       Collection<RouteAdvertisement<R>> actions) {
-    return new RibDelta<>(ImmutableList.copyOf(actions));
+    if (actions.isEmpty()) {
+      return empty();
+    }
+    Object[] routes = new Object[actions.size()];
+    byte[] reasons = new byte[actions.size()];
+    int i = 0;
+    for (RouteAdvertisement<R> action : actions) {
+      routes[i] = action.getRoute();
+      reasons[i] = (byte) action.getReason().ordinal();
+      i++;
+    }
+    return new RibDelta<>(routes, reasons);
   }
 
   public static <R extends AbstractRouteDecorator> RibDelta<R> merge(
@@ -69,7 +102,7 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
     if (delta1 == null || delta1.isEmpty()) {
       return delta2;
     }
-    return RibDelta.<R>builder().from(delta1.getActions()).from(delta2.getActions()).build();
+    return RibDelta.<R>builder().from(delta1).from(delta2).build();
   }
 
   /**
@@ -79,18 +112,31 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
    */
   @Nonnull
   public Stream<Prefix> getPrefixes() {
-    return _actions.stream().map(ra -> ra.getRoute().getNetwork()).distinct();
+    return getRoutesStream().map(AbstractRouteDecorator::getNetwork).distinct();
   }
 
   /** Return all the RIB actions that need to be applied (in order). */
   @Nonnull
   public Stream<RouteAdvertisement<R>> getActions() {
-    return _actions.stream();
+    return IntStream.range(0, _routes.length)
+        .mapToObj(i -> new RouteAdvertisement<>(route(i), REASONS[_reasons[i]]));
+  }
+
+  /** Visits all the RIB actions that need to be applied (in order). */
+  public void forEachAction(ActionVisitor<? super R> visitor) {
+    for (int i = 0; i < _routes.length; i++) {
+      visitor.visit(route(i), REASONS[_reasons[i]]);
+    }
   }
 
   /** Check whether this delta is empty (has no outstanding actions) */
   public boolean isEmpty() {
-    return _actions.isEmpty();
+    return _routes.length == 0;
+  }
+
+  /** Return the number of actions in this delta. */
+  public int size() {
+    return _routes.length;
   }
 
   /**
@@ -107,7 +153,16 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
   /** Helper method: retrieves all routes affected by this delta. */
   @Nonnull
   public Stream<R> getRoutesStream() {
-    return _actions.stream().map(RouteAdvertisement::getRoute);
+    return IntStream.range(0, _routes.length).mapToObj(this::route);
+  }
+
+  @SuppressWarnings("unchecked") // only Rs are stored
+  private R route(int i) {
+    return (R) _routes[i];
+  }
+
+  private static boolean isWithdrawn(byte reason) {
+    return reason != ADD;
   }
 
   /**
@@ -119,30 +174,52 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
    */
   public static <T extends AbstractRoute, U extends T> void importDeltaToBuilder(
       RibDelta.Builder<AnnotatedRoute<T>> importer, RibDelta<U> exporter, String vrfName) {
-    exporter
-        .getActions()
-        .forEach(
-            ra -> {
-              AnnotatedRoute<T> tRoute = new AnnotatedRoute<>(ra.getRoute(), vrfName);
-              if (ra.isWithdrawn()) {
-                importer.remove(tRoute, ra.getReason());
-              } else {
-                importer.add(tRoute);
-              }
-            });
+    for (int i = 0; i < exporter._routes.length; i++) {
+      AnnotatedRoute<T> tRoute = new AnnotatedRoute<>(exporter.route(i), vrfName);
+      byte reason = exporter._reasons[i];
+      if (isWithdrawn(reason)) {
+        importer.remove(tRoute, reason);
+      } else {
+        importer.add(tRoute);
+      }
+    }
   }
 
-  /** Builder for {@link RibDelta} */
+  /**
+   * Builder for {@link RibDelta}
+   *
+   * <p>Actions are kept in insertion order in parallel route and reason arrays, indexed by an
+   * open-addressing hash table of positions in those arrays, so recording an action allocates
+   * nothing beyond occasional array growth. A builder may be {@link #clear() cleared} and reused
+   * once its delta is built.
+   */
   @ParametersAreNonnullByDefault
   public static final class Builder<R extends AbstractRouteDecorator> {
 
-    @SuppressWarnings("PMD.LooseCoupling") // insertion order matters
-    private LinkedHashMap<R, RouteAdvertisement<R>> _actions;
+    private static final int INITIAL_CAPACITY = 8;
+
+    /** Routes in insertion order; {@code null} where an action was cancelled. */
+    private @Nonnull Object[] _routes;
+
+    private @Nonnull byte[] _reasons;
+
+    /** Number of used slots of {@link #_routes}, including cancelled ones. */
+    private int _size;
+
+    /** Number of actions, i.e. non-null slots of {@link #_routes}. */
+    private int _count;
+
+    /**
+     * Linear-probing hash table of (1 + the position in {@link #_routes}) of each action, keyed by
+     * route; 0 marks an empty bucket. Its length is a power of two at least twice {@link #_count}.
+     */
+    private @Nonnull int[] _table;
 
     /** Initialize a new RibDelta builder */
     private Builder() {
-      // use a LinkedHashMap to preserve insertion order
-      _actions = new LinkedHashMap<>();
+      _routes = new Object[INITIAL_CAPACITY];
+      _reasons = new byte[INITIAL_CAPACITY];
+      _table = new int[2 * INITIAL_CAPACITY];
     }
 
     /**
@@ -151,10 +228,15 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
      * @param route Route that was added
      */
     public Builder<R> add(R route) {
-      RouteAdvertisement<R> old = _actions.put(route, new RouteAdvertisement<>(route));
-      if (old != null && old.isWithdrawn()) {
+      int bucket = find(route);
+      int position = _table[bucket] - 1;
+      if (position < 0) {
+        append(bucket, route, ADD);
+      } else if (isWithdrawn(_reasons[position])) {
         // In this same delta, we withdrew the route and are now re-advertising. Should be no-op.
-        _actions.remove(route);
+        cancel(bucket, position);
+      } else {
+        _routes[position] = route;
       }
       return this;
     }
@@ -175,12 +257,20 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
      * @param route that was removed
      */
     public Builder<R> remove(R route, Reason reason) {
-      RouteAdvertisement<R> old =
-          _actions.put(
-              route, RouteAdvertisement.<R>builder().setRoute(route).setReason(reason).build());
-      if (old != null && old.getReason() == Reason.ADD) {
+      return remove(route, (byte) reason.ordinal());
+    }
+
+    private Builder<R> remove(R route, byte reason) {
+      int bucket = find(route);
+      int position = _table[bucket] - 1;
+      if (position < 0) {
+        append(bucket, route, reason);
+      } else if (_reasons[position] == ADD) {
         // In this same delta, we added the route and are now withdrawing. Instead, no-op.
-        _actions.remove(route);
+        cancel(bucket, position);
+      } else {
+        _routes[position] = route;
+        _reasons[position] = reason;
       }
       return this;
     }
@@ -198,7 +288,7 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
     }
 
     public boolean isEmpty() {
-      return _actions.isEmpty();
+      return _count == 0;
     }
 
     /**
@@ -211,13 +301,39 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
       if (isEmpty()) {
         return empty();
       }
-      return new RibDelta<>(ImmutableList.copyOf(_actions.values()));
+      Object[] routes = new Object[_count];
+      byte[] reasons = new byte[_count];
+      int i = 0;
+      for (int position = 0; position < _size; position++) {
+        if (_routes[position] != null) {
+          routes[i] = _routes[position];
+          reasons[i] = _reasons[position];
+          i++;
+        }
+      }
+      return new RibDelta<>(routes, reasons);
+    }
+
+    /** Removes all actions, so that this builder can be reused for another delta. */
+    public void clear() {
+      Arrays.fill(_routes, 0, _size, null);
+      Arrays.fill(_table, 0);
+      _size = 0;
+      _count = 0;
     }
 
     /** Process all added and removed routes from a given delta */
     @Nonnull
     public <T extends R> Builder<R> from(RibDelta<T> delta) {
-      return from(delta.getActions());
+      for (int i = 0; i < delta._routes.length; i++) {
+        byte reason = delta._reasons[i];
+        if (isWithdrawn(reason)) {
+          remove(delta.route(i), reason);
+        } else {
+          add(delta.route(i));
+        }
+      }
+      return this;
     }
 
     /** Process all added and removed routes from a given delta */
@@ -237,9 +353,91 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
       return this;
     }
 
+    /** Returns the bucket of {@code route} in the table, or the empty bucket where it would go. */
+    private int find(Object route) {
+      int mask = _table.length - 1;
+      int bucket = spread(route.hashCode()) & mask;
+      while (true) {
+        int position = _table[bucket] - 1;
+        if (position < 0) {
+          return bucket;
+        }
+        Object other = _routes[position];
+        if (other == route || other.equals(route)) {
+          return bucket;
+        }
+        bucket = (bucket + 1) & mask;
+      }
+    }
+
+    private void append(int bucket, Object route, byte reason) {
+      if (_size == _routes.length || 2 * (_count + 1) > _table.length) {
+        resize();
+        bucket = find(route);
+      }
+      _routes[_size] = route;
+      _reasons[_size] = reason;
+      _size++;
+      _count++;
+      _table[bucket] = _size;
+    }
+
+    /** Removes the action at {@code position}, whose route is in {@code bucket}. */
+    private void cancel(int bucket, int position) {
+      _routes[position] = null;
+      _count--;
+      // Shift later entries of the probe sequence back, so that lookups need no tombstones.
+      int mask = _table.length - 1;
+      int hole = bucket;
+      int next = (hole + 1) & mask;
+      while (_table[next] != 0) {
+        int home = spread(_routes[_table[next] - 1].hashCode()) & mask;
+        // move the entry at next into the hole unless its home lies cyclically in (hole, next]
+        if (((next - home) & mask) >= ((next - hole) & mask)) {
+          _table[hole] = _table[next];
+          hole = next;
+        }
+        next = (next + 1) & mask;
+      }
+      _table[hole] = 0;
+    }
+
+    /** Drops cancelled slots and grows the arrays and table as needed, then rehashes. */
+    private void resize() {
+      // a power of two greater than the number of actions after the next append
+      int capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(_count + 1) << 1);
+      Object[] routes = new Object[Math.max(capacity, _routes.length)];
+      byte[] reasons = new byte[routes.length];
+      int size = 0;
+      for (int position = 0; position < _size; position++) {
+        if (_routes[position] != null) {
+          routes[size] = _routes[position];
+          reasons[size] = _reasons[position];
+          size++;
+        }
+      }
+      _routes = routes;
+      _reasons = reasons;
+      _size = size;
+      _table = new int[Math.max(2 * capacity, _table.length)];
+      int mask = _table.length - 1;
+      for (int position = 0; position < _size; position++) {
+        int bucket = spread(_routes[position].hashCode()) & mask;
+        while (_table[bucket] != 0) {
+          bucket = (bucket + 1) & mask;
+        }
+        _table[bucket] = position + 1;
+      }
+    }
+
+    private static int spread(int hashCode) {
+      int h = hashCode * 0x9E3779B9;
+      return h ^ (h >>> 16);
+    }
+
     @Override
     public String toString() {
-      return MoreObjects.toStringHelper(this).add("actions", _actions).toString();
+      return MoreObjects.toStringHelper(this).add("actions", build()).toString();
     }
   }
 
@@ -267,8 +465,14 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
   @Nonnull
   public static <T extends AbstractRoute, U extends T> RibDelta<AnnotatedRoute<T>> importRibDelta(
       AnnotatedRib<T> importingRib, RibDelta<AnnotatedRoute<U>> delta) {
-    return importRibDelta(
-        importingRib, delta, ar -> new AnnotatedRoute<>(ar.getRoute(), ar.getSourceVrf()));
+    return importRibDelta(importingRib, delta, RibDelta::<T, U>upcast);
+  }
+
+  /** Returns {@code route}, which is immutable and so may be used as an annotated {@code T}. */
+  @SuppressWarnings("unchecked")
+  private static <T extends AbstractRoute, U extends T> AnnotatedRoute<T> upcast(
+      AnnotatedRoute<U> route) {
+    return (AnnotatedRoute<T>) (AnnotatedRoute<?>) route;
   }
 
   /**
@@ -324,15 +528,14 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
       return empty();
     }
     Builder<T> builder = RibDelta.builder();
-    delta._actions.forEach(
-        (uRouteAdvertisement) -> {
-          T tRoute = converter.apply(uRouteAdvertisement.getRoute());
-          if (uRouteAdvertisement.isWithdrawn()) {
-            builder.from(importingRib.removeRouteGetDelta(tRoute));
-          } else {
-            builder.from(importingRib.mergeRouteGetDelta(tRoute));
-          }
-        });
+    for (int i = 0; i < delta._routes.length; i++) {
+      T tRoute = converter.apply(delta.route(i));
+      if (isWithdrawn(delta._reasons[i])) {
+        builder.from(importingRib.removeRouteGetDelta(tRoute));
+      } else {
+        builder.from(importingRib.mergeRouteGetDelta(tRoute));
+      }
+    }
     return builder.build();
   }
 
@@ -345,16 +548,18 @@ public final class RibDelta<R extends AbstractRouteDecorator> {
       return false;
     }
     RibDelta<?> ribDelta = (RibDelta<?>) o;
-    return Objects.equals(_actions, ribDelta._actions);
+    return Arrays.equals(_reasons, ribDelta._reasons) && Arrays.equals(_routes, ribDelta._routes);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(_actions);
+    return 31 * Arrays.hashCode(_routes) + Arrays.hashCode(_reasons);
   }
 
   @Override
   public String toString() {
-    return MoreObjects.toStringHelper(this).add("actions", _actions).toString();
+    return MoreObjects.toStringHelper(this)
+        .add("actions", getActions().collect(ImmutableList.toImmutableList()))
+        .toString();
   }
 }
@@ -27,7 +27,12 @@ public final class RouteAdvertisement<T> {
     /** The route was replaced by a better route */
     REPLACE,
     /** The route was removed */
-    WITHDRAW
+    WITHDRAW;
+
+    /** Whether a route advertised for this reason is being withdrawn */
+    public boolean isWithdrawn() {
+      return this != ADD;
+    }
   }
 
   /**
@@ -21,6 +21,7 @@ import org.batfish.grammar.ControlPlaneExtractor;
 import org.batfish.grammar.GrammarSettings;
 import org.batfish.grammar.ImplementedRules;
 import org.batfish.grammar.ParseTreePrettyPrinter;
+import org.batfish.grammar.ParserCacheManager;
 import org.batfish.grammar.cumulus_interfaces.CumulusInterfacesCombinedParser;
 import org.batfish.grammar.cumulus_interfaces.CumulusInterfacesConfigurationBuilder;
 import org.batfish.grammar.cumulus_interfaces.CumulusInterfacesParser.Cumulus_interfaces_configurationContext;
@@ -98,7 +99,8 @@ public class CumulusConcatenatedControlPlaneExtractor implements ControlPlaneExt
 
   private void parseFrrFile() {
     FrrCombinedParser parser = new FrrCombinedParser(_text, _grammarSettings, _line, _offset);
-    Frr_configurationContext ctxt = parser.parse();
+    Frr_configurationContext ctxt =
+        ParserCacheManager.getInstance().trackParse(parser, parser::parse);
     checkErrors(parser);
     ParseTreeWalker walker = new BatfishParseTreeWalker(parser);
     FrrConfigurationBuilder cb =
@@ -113,7 +115,8 @@ public class CumulusConcatenatedControlPlaneExtractor implements ControlPlaneExt
 
     CumulusInterfacesCombinedParser parser =
         new CumulusInterfacesCombinedParser(text, _grammarSettings, _line, _offset);
-    Cumulus_interfaces_configurationContext ctxt = parser.parse();
+    Cumulus_interfaces_configurationContext ctxt =
+        ParserCacheManager.getInstance().trackParse(parser, parser::parse);
     checkErrors(parser);
     ParseTreeWalker walker = new BatfishParseTreeWalker(parser);
     CumulusInterfacesConfigurationBuilder cb =
@@ -132,7 +135,8 @@ public class CumulusConcatenatedControlPlaneExtractor implements ControlPlaneExt
 
     CumulusPortsCombinedParser parser =
         new CumulusPortsCombinedParser(text, _grammarSettings, _line, _offset);
-    Cumulus_ports_configurationContext ctxt = parser.parse();
+    Cumulus_ports_configurationContext ctxt =
+        ParserCacheManager.getInstance().trackParse(parser, parser::parse);
     checkErrors(parser);
     ParseTreeWalker walker = new BatfishParseTreeWalker(parser);
     CumulusPortsConfigurationBuilder cb =
@@ -15,6 +15,7 @@ import org.batfish.grammar.BatfishParseTreeWalker;
 import org.batfish.grammar.ControlPlaneExtractor;
 import org.batfish.grammar.ImplementedRules;
 import org.batfish.grammar.ParseTreePrettyPrinter;
+import org.batfish.grammar.ParserCacheManager;
 import org.batfish.grammar.f5_bigip_imish.F5BigipImishCombinedParser;
 import org.batfish.grammar.f5_bigip_imish.F5BigipImishConfigurationBuilder;
 import org.batfish.grammar.silent_syntax.SilentSyntaxCollection;
@@ -85,7 +86,8 @@ public class F5BigipStructuredControlPlaneExtractor implements ControlPlaneExtra
             _text, _parser.getSettings(), imishConfigurationOffset, cb.getImishConfigurationLine());
 
     // parse imish content
-    ParserRuleContext imishCtx = imishParser.parse();
+    ParserRuleContext imishCtx =
+        ParserCacheManager.getInstance().trackParse(imishParser, imishParser::parse);
     if (!imishParser.getErrors().isEmpty()) {
       throw new BatfishException(
           String.format(
@@ -6,6 +6,7 @@ import com.google.common.base.Throwables;
 import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.common.BatfishException;
 import org.batfish.common.Warnings;
@@ -17,9 +18,34 @@ import org.batfish.grammar.flatjuniper.FlatJuniperParser.Set_lineContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Set_line_tailContext;
 import org.batfish.grammar.flatjuniper.Hierarchy.HierarchyTree.HierarchyPath;
 
+/**
+ * Generates lines corresponding to 'apply-groups' lines, and removes 'apply-groups' and
+ * 'apply-groups-except' lines.
+ *
+ * <p>Lines generated from a group may themselves contain 'apply-groups' lines. Rather than
+ * re-walking the whole configuration until nothing changes, {@link #applyGroups} walks each
+ * generated line exactly once, and splices all generated lines into the configuration at the end.
+ */
 public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
 
-  private boolean _changed;
+  /**
+   * Applies all 'apply-groups' lines in {@code tree}, including those in lines generated by
+   * applying groups.
+   */
+  public static void applyGroups(
+      Flat_juniper_configurationContext tree,
+      Hierarchy hierarchy,
+      ParseTreeWalker walker,
+      Warnings warnings) {
+    ApplyGroupsApplicator applicator = new ApplyGroupsApplicator(hierarchy, warnings);
+    walker.walk(applicator, tree);
+    while (!applicator._generatedLines.isEmpty()) {
+      List<ParseTree> toVisit = applicator._generatedLines;
+      applicator._generatedLines = new ArrayList<>();
+      toVisit.forEach(line -> walker.walk(applicator, line));
+    }
+    applicator._edits.applyTo(tree);
+  }
 
   private Flat_juniper_configurationContext _configurationContext;
 
@@ -33,13 +59,18 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
 
   private boolean _inGroup;
 
-  private List<ParseTree> _newConfigurationLines;
+  /** Lines generated since the last call to {@link #applyGroups}, in configuration order. */
+  private List<ParseTree> _generatedLines;
+
+  private final ConfigurationLineEdits _edits;
 
   private final Warnings _w;
 
   public ApplyGroupsApplicator(Hierarchy hierarchy, Warnings warnings) {
     _hierarchy = hierarchy;
     _w = warnings;
+    _generatedLines = new ArrayList<>();
+    _edits = new ConfigurationLineEdits();
   }
 
   private String applyGroupsExceptionMessage(String groupName, Throwable e) {
@@ -67,8 +98,8 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       List<ParseTree> applyGroupsLines =
           _hierarchy.getApplyGroupsLines(
               groupName, _currentPath, _configurationContext, clusterGroup);
-      int insertionIndex = _newConfigurationLines.indexOf(_currentSetLine);
-      _newConfigurationLines.addAll(insertionIndex, applyGroupsLines);
+      _edits.insertBefore(_currentSetLine, applyGroupsLines);
+      _generatedLines.addAll(applyGroupsLines);
     } catch (PartialGroupMatchException e) {
       _w.pedantic(applyGroupsExceptionMessage(groupName, e));
     } catch (UndefinedGroupBatfishException e) {
@@ -82,9 +113,8 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
       _w.redFlag(applyGroupsExceptionMessage(groupName, e));
     }
     if (removeApplyLine) {
-      _newConfigurationLines.remove(_currentSetLine);
+      _edits.remove(_currentSetLine);
     }
-    _changed = true;
   }
 
   @Override
@@ -92,13 +122,12 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
     if (_inGroup) {
       _w.redFlag("Do not know how to handle apply-groups-except occurring within group statement");
     }
-    _newConfigurationLines.remove(_currentSetLine);
+    _edits.remove(_currentSetLine);
   }
 
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
   }
 
   @Override
@@ -117,11 +146,6 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
     _currentPath = new HierarchyPath();
   }
 
-  @Override
-  public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
-  }
-
   @Override
   public void exitS_groups_named(S_groups_namedContext ctx) {
     _inGroup = false;
@@ -138,10 +162,6 @@ public class ApplyGroupsApplicator extends FlatJuniperParserBaseListener {
     _enablePathRecording = false;
   }
 
-  public boolean getChanged() {
-    return _changed;
-  }
-
   private String pathString() {
     String currentPathString = _currentPath.pathString();
     return currentPathString.isEmpty()
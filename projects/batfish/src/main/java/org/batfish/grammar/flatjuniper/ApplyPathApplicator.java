@@ -1,6 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -24,7 +23,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
 
   private Hierarchy _hierarchy;
 
-  private List<ParseTree> _newConfigurationLines;
+  private ConfigurationLineEdits _edits;
 
   private final Warnings _w;
 
@@ -36,7 +35,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _edits = new ConfigurationLineEdits();
   }
 
   @Override
@@ -54,7 +53,6 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
         applyPathPath.addNode(pathComponent, line);
       }
     }
-    int insertionIndex = _newConfigurationLines.indexOf(_currentSetLine);
     List<ParseTree> newLines = null;
     try {
       newLines = _hierarchy.getApplyPathLines(_currentPath, applyPathPath, _configurationContext);
@@ -66,9 +64,9 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
               + "addresses or prefixes");
     }
     if (newLines != null) {
-      _newConfigurationLines.addAll(insertionIndex + 1, newLines);
+      _edits.insertAfter(_currentSetLine, newLines);
     }
-    // TODO: removing this removes definition lines. _newConfigurationLines.remove(insertionIndex);
+    // TODO: removing this removes definition lines. _edits.remove(_currentSetLine);
   }
 
   @Override
@@ -84,7 +82,7 @@ public class ApplyPathApplicator extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _edits.applyTo(_configurationContext);
   }
 
   @Override
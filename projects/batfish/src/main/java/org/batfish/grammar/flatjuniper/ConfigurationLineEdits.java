@@ -0,0 +1,81 @@
+package org.batfish.grammar.flatjuniper;
+
+import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
+
+/**
+ * Insertions and removals of the top-level lines of a {@link Flat_juniper_configurationContext},
+ * recorded during a walk and applied together in a single pass over the lines afterwards.
+ *
+ * <p>Lines are identified by identity. Inserted lines may themselves be the target of further
+ * insertions and removals.
+ */
+@ParametersAreNonnullByDefault
+final class ConfigurationLineEdits {
+
+  /** Map of line to the lines to insert immediately before it. */
+  private final Map<ParseTree, List<ParseTree>> _linesBefore;
+
+  /** Map of line to the lines to insert immediately after it. */
+  private final Map<ParseTree, List<ParseTree>> _linesAfter;
+
+  private final Set<ParseTree> _removedLines;
+
+  ConfigurationLineEdits() {
+    _linesBefore = new IdentityHashMap<>();
+    _linesAfter = new IdentityHashMap<>();
+    _removedLines = Sets.newIdentityHashSet();
+  }
+
+  /**
+   * Inserts {@code newLines} immediately before {@code line}, after any lines previously inserted
+   * before it.
+   */
+  void insertBefore(ParseTree line, List<ParseTree> newLines) {
+    _linesBefore.computeIfAbsent(line, l -> new ArrayList<>()).addAll(newLines);
+  }
+
+  /**
+   * Inserts {@code newLines} immediately after {@code line}, before any lines previously inserted
+   * after it.
+   */
+  void insertAfter(ParseTree line, List<ParseTree> newLines) {
+    _linesAfter.computeIfAbsent(line, l -> new ArrayList<>()).addAll(0, newLines);
+  }
+
+  /** Removes {@code line}. Lines inserted before or after it are kept. */
+  void remove(ParseTree line) {
+    _removedLines.add(line);
+  }
+
+  /** Replaces the lines of {@code ctx} with the result of applying these edits to them. */
+  void applyTo(Flat_juniper_configurationContext ctx) {
+    if (_linesBefore.isEmpty() && _linesAfter.isEmpty() && _removedLines.isEmpty()) {
+      return;
+    }
+    List<ParseTree> newLines = new ArrayList<>(ctx.children.size());
+    ctx.children.forEach(line -> addEditedLines(line, newLines));
+    ctx.children = newLines;
+  }
+
+  private void addEditedLines(ParseTree line, List<ParseTree> output) {
+    List<ParseTree> linesBefore = _linesBefore.get(line);
+    if (linesBefore != null) {
+      linesBefore.forEach(lineBefore -> addEditedLines(lineBefore, output));
+    }
+    if (!_removedLines.contains(line)) {
+      output.add(line);
+    }
+    List<ParseTree> linesAfter = _linesAfter.get(line);
+    if (linesAfter != null) {
+      linesAfter.forEach(lineAfter -> addEditedLines(lineAfter, output));
+    }
+  }
+}
@@ -2,6 +2,8 @@ package org.batfish.grammar.flatjuniper;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import org.antlr.v4.runtime.ParserRuleContext;
@@ -17,11 +19,15 @@ import org.batfish.vendor.VendorConfiguration;
 
 public class FlatJuniperControlPlaneExtractor implements ControlPlaneExtractor {
 
+  /** Name of the stage that builds the vendor configuration, as reported in stage timings. */
+  static final String STAGE_EXTRACT = "extract";
+
   private JuniperConfiguration _configuration;
   private final FlatJuniperCombinedParser _parser;
   private final String _text;
   private final Warnings _w;
   @Nonnull private final SilentSyntaxCollection _silentSyntax;
+  @Nonnull private final Map<String, Long> _stageMillis;
 
   @Override
   public Set<String> implementedRuleNames() {
@@ -39,6 +45,7 @@ public class FlatJuniperControlPlaneExtractor implements ControlPlaneExtractor {
     _parser = combinedParser;
     _w = warnings;
     _silentSyntax = silentSyntax;
+    _stageMillis = new LinkedHashMap<>();
   }
 
   @Override
@@ -56,11 +63,21 @@ public class FlatJuniperControlPlaneExtractor implements ControlPlaneExtractor {
     Hierarchy hierarchy = new Hierarchy();
     // Pre-process parse tree
     PreprocessJuniperExtractor.preprocess(
-        (Flat_juniper_configurationContext) tree, hierarchy, _parser, _w);
+        (Flat_juniper_configurationContext) tree, hierarchy, _parser, _w, _stageMillis);
     // Build configuration from pre-processed parse tree
+    long startTime = System.currentTimeMillis();
     ConfigurationBuilder cb =
         new ConfigurationBuilder(_parser, _text, _w, hierarchy.getTokenInputs(), _silentSyntax);
     new BatfishParseTreeWalker(_parser).walk(cb, tree);
     _configuration = cb.getConfiguration();
+    _stageMillis.put(STAGE_EXTRACT, System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Returns the time in milliseconds taken by each stage of {@link #processParseTree}, keyed by
+   * stage name in execution order.
+   */
+  public @Nonnull Map<String, Long> getStageMillis() {
+    return _stageMillis;
   }
 }
@@ -2,7 +2,12 @@ package org.batfish.grammar.flatjuniper;
 
 import static org.batfish.grammar.flatjuniper.ConfigurationBuilder.unquote;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -11,6 +16,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -29,6 +35,7 @@ import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.Prefix6;
 import org.batfish.grammar.BatfishParseTreeWalker;
 import org.batfish.grammar.GrammarSettings;
+import org.batfish.grammar.ParserCacheManager;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Deactivate_lineContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Set_lineContext;
@@ -86,6 +93,9 @@ public final class Hierarchy {
 
     private abstract static class HierarchyChildNode extends HierarchyNode {
 
+      /** Insertion order of this node among the children of its parent. */
+      protected int _childIndex;
+
       private Set_lineContext _line;
       protected int _lineNumber;
       protected String _sourceGroup;
@@ -126,7 +136,7 @@ public final class Hierarchy {
 
       @Override
       public boolean isMatchedBy(HierarchyWildcardNode node) {
-        return matchWithJuniperRegex(_unquotedText, node._wildcard);
+        return node.getPattern().matcher(_unquotedText).matches();
       }
 
       @Override
@@ -154,6 +164,13 @@ public final class Hierarchy {
       protected Set<String> _blacklistedGroups;
       private final Map<String, HierarchyChildNode> _children;
       protected List<ErrorNode> _errorNodes;
+      private int _nextChildIndex;
+
+      /**
+       * The wildcard children of this node, in insertion order. Indexed separately so that matching
+       * a literal against this node's children only needs one lookup plus a scan of the wildcards.
+       */
+      private final List<HierarchyWildcardNode> _wildcardChildren;
 
       /**
        * Add a set line to {@code output} prefixed by {@code prefix} for each path from this node to
@@ -176,6 +193,7 @@ public final class Hierarchy {
         _children = new LinkedHashMap<>();
         _blacklistedGroups = new HashSet<>();
         _errorNodes = ImmutableList.of();
+        _wildcardChildren = new ArrayList<>();
       }
 
       public void addBlacklistedGroup(String groupName) {
@@ -183,7 +201,16 @@ public final class Hierarchy {
       }
 
       public void addChildNode(HierarchyChildNode node) {
+        node._childIndex = _nextChildIndex++;
         _children.put(node._unquotedText, node);
+        if (node instanceof HierarchyWildcardNode) {
+          _wildcardChildren.add((HierarchyWildcardNode) node);
+        }
+      }
+
+      public void clearChildren() {
+        _children.clear();
+        _wildcardChildren.clear();
       }
 
       public HierarchyChildNode getChildNode(String text) {
@@ -194,14 +221,29 @@ public final class Hierarchy {
         return _children;
       }
 
+      /**
+       * Returns the first child, in insertion order, that matches {@code node}, or {@code null} if
+       * there is none.
+       */
       @Nullable
       public HierarchyChildNode getFirstMatchingChildNode(HierarchyChildNode node) {
-        for (HierarchyChildNode child : _children.values()) {
-          if (child.matches(node)) {
-            return child;
+        HierarchyChildNode sameText = _children.get(node._unquotedText);
+        if (node.isWildcard()) {
+          // a wildcard only matches an identical wildcard
+          return sameText != null && sameText.isWildcard() ? sameText : null;
+        }
+        // a literal matches an identical literal, or any wildcard whose pattern matches it
+        HierarchyChildNode firstMatch =
+            sameText != null && !sameText.isWildcard() ? sameText : null;
+        for (HierarchyWildcardNode wildcard : _wildcardChildren) {
+          if (firstMatch != null && firstMatch._childIndex < wildcard._childIndex) {
+            break;
+          }
+          if (node.isMatchedBy(wildcard)) {
+            return wildcard;
           }
         }
-        return null;
+        return firstMatch;
       }
 
       public boolean isWildcard() {
@@ -252,6 +294,7 @@ public final class Hierarchy {
 
     private static final class HierarchyWildcardNode extends HierarchyChildNode {
 
+      private @Nullable Pattern _pattern;
       private final String _wildcard;
 
       private HierarchyWildcardNode(String text, int lineNumber) {
@@ -265,7 +308,17 @@ public final class Hierarchy {
 
       @Override
       public HierarchyChildNode copy() {
-        return new HierarchyWildcardNode(_text, _lineNumber);
+        HierarchyWildcardNode copy = new HierarchyWildcardNode(_text, _lineNumber);
+        copy._pattern = _pattern;
+        return copy;
+      }
+
+      /** Returns the compiled Java regex equivalent to this node's Juniper wildcard. */
+      private @Nonnull Pattern getPattern() {
+        if (_pattern == null) {
+          _pattern = juniperRegexPattern(_wildcard);
+        }
+        return _pattern;
       }
 
       @Override
@@ -489,8 +542,7 @@ public final class Hierarchy {
             return;
           }
           newDestinationTreeRoot = currentPathNode.copy();
-          destinationTreeRoot._children.put(
-              newDestinationTreeRoot._unquotedText, newDestinationTreeRoot);
+          destinationTreeRoot.addChildNode(newDestinationTreeRoot);
         }
         newPath._nodes.add(newDestinationTreeRoot);
         if (startingIndex == path._nodes.size() - 1) {
@@ -603,8 +655,10 @@ public final class Hierarchy {
       if (markWildcards) {
         parser.setMarkWildcards(true);
       }
+      // Shares the grammar's DFA cache with other parses, so it must not be cleared meanwhile.
       Flat_juniper_configurationContext newConfiguration =
-          parser.getParser().flat_juniper_configuration();
+          ParserCacheManager.getInstance()
+              .trackParse(parser, () -> parser.getParser().flat_juniper_configuration());
       markTokenInputs(newConfiguration, newStatementText, tokenInputs, parser);
       if (markWildcards) {
         parser.setMarkWildcards(false);
@@ -759,7 +813,7 @@ public final class Hierarchy {
 
     public void pruneAfterPath(HierarchyPath path) {
       HierarchyChildNode pathEnd = findExactPathMatchNode(path);
-      pathEnd.getChildren().clear();
+      pathEnd.clearChildren();
     }
 
     public void setApplyGroupsExcept(HierarchyPath path, String groupName) {
@@ -857,9 +911,29 @@ public final class Hierarchy {
     _masterTree.setApplyGroupsExcept(path, groupName);
   }
 
+  /**
+   * Cache of Juniper wildcard to equivalent compiled Java regex. Converting a wildcard is
+   * expensive, and the same few wildcards are matched against many nodes.
+   */
+  private static final LoadingCache<String, Pattern> JUNIPER_REGEX_PATTERNS =
+      CacheBuilder.newBuilder()
+          .softValues()
+          .maximumSize(1 << 12)
+          .build(
+              CacheLoader.from(
+                  juniperRegex -> Pattern.compile(GroupWildcard.toJavaRegex(juniperRegex))));
+
+  private static @Nonnull Pattern juniperRegexPattern(String juniperRegex) {
+    try {
+      return JUNIPER_REGEX_PATTERNS.getUnchecked(juniperRegex);
+    } catch (UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+
   static boolean matchWithJuniperRegex(String candidate, String juniperRegex) {
-    String regex = GroupWildcard.toJavaRegex(juniperRegex);
-    return candidate.matches(regex);
+    return juniperRegexPattern(juniperRegex).matcher(candidate).matches();
   }
 
   public Map<Token, String> getTokenInputs() {
@@ -2,6 +2,8 @@ package org.batfish.grammar.flatjuniper;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.antlr.v4.runtime.ParserRuleContext;
@@ -20,6 +22,14 @@ public final class PreprocessJuniperExtractor implements PreprocessExtractor {
 
   private static final String HEADER = "####BATFISH PRE-PROCESSED JUNIPER CONFIG####\n";
 
+  // Names of pre-processing stages, as reported in stage timings.
+  static final String STAGE_APPLY_GROUPS = "preprocess:applyGroups";
+  static final String STAGE_APPLY_PATH = "preprocess:applyPath";
+  static final String STAGE_BUILD_HIERARCHY = "preprocess:buildHierarchy";
+  static final String STAGE_DEACTIVATE = "preprocess:deactivate";
+  static final String STAGE_INSERT_DELETE = "preprocess:insertDelete";
+  static final String STAGE_WILDCARDS = "preprocess:wildcards";
+
   /**
    * Pre-process a flat Juniper parse tree by generating and pruning parse tree nodes corresponding
    * to various lines in the input configuration.
@@ -52,12 +62,28 @@ public final class PreprocessJuniperExtractor implements PreprocessExtractor {
       Hierarchy hierarchy,
       FlatJuniperCombinedParser parser,
       Warnings w) {
+    preprocess(tree, hierarchy, parser, w, new LinkedHashMap<>());
+  }
+
+  /**
+   * Like {@link #preprocess(Flat_juniper_configurationContext, Hierarchy,
+   * FlatJuniperCombinedParser, Warnings)}, but also adds the time taken by each pre-processing
+   * stage in milliseconds to {@code stageMillis}, keyed by stage name in execution order.
+   */
+  static void preprocess(
+      Flat_juniper_configurationContext tree,
+      Hierarchy hierarchy,
+      FlatJuniperCombinedParser parser,
+      Warnings w,
+      Map<String, Long> stageMillis) {
     ParseTreeWalker walker = new BatfishParseTreeWalker(parser);
 
     // Implements insert and delete respecting order of configuration lines.
     // Properly handles set and deactivate lines.
+    long startTime = System.currentTimeMillis();
     InsertDeleteApplicator d = new InsertDeleteApplicator(parser, w);
     walker.walk(d, tree);
+    startTime = recordStage(stageMillis, STAGE_INSERT_DELETE, startTime);
 
     // Delete all deactivated lines:
     // 1. Mark parts of the hierarchy as deleted
@@ -69,29 +95,41 @@ public final class PreprocessJuniperExtractor implements PreprocessExtractor {
     // 3. Remove 'set' lines that are deactivated
     DeactivatedLinePruner dlp = new DeactivatedLinePruner(hierarchy);
     walker.walk(dlp, tree);
+    startTime = recordStage(stageMillis, STAGE_DEACTIVATE, startTime);
 
     InitialTreeBuilder tb = new InitialTreeBuilder(hierarchy);
     walker.walk(tb, tree);
     GroupTreeBuilder gb = new GroupTreeBuilder(hierarchy);
     walker.walk(gb, tree);
+    startTime = recordStage(stageMillis, STAGE_BUILD_HIERARCHY, startTime);
 
-    ApplyGroupsApplicator hb;
-    do {
-      // Run until convergence: [set groups A apply-groups B] is valid
-      hb = new ApplyGroupsApplicator(hierarchy, w);
-      walker.walk(hb, tree);
-    } while (hb.getChanged());
+    // [set groups A apply-groups B] is valid, so lines generated by applying groups are themselves
+    // processed for apply-groups.
+    ApplyGroupsApplicator.applyGroups(tree, hierarchy, walker, w);
     GroupPruner.prune(tree);
+    startTime = recordStage(stageMillis, STAGE_APPLY_GROUPS, startTime);
 
     WildcardApplicator wa = new WildcardApplicator(hierarchy);
     walker.walk(wa, tree);
     WildcardPruner wp = new WildcardPruner();
     walker.walk(wp, tree);
     walker.walk(dlp, tree);
+    startTime = recordStage(stageMillis, STAGE_WILDCARDS, startTime);
 
     ApplyPathApplicator ap = new ApplyPathApplicator(hierarchy, w);
     walker.walk(ap, tree);
     // TODO: pruning apply-path lines removes definition lines
+    recordStage(stageMillis, STAGE_APPLY_PATH, startTime);
+  }
+
+  /**
+   * Adds the time since {@code startTime} to the given stage in {@code stageMillis}, and returns
+   * the current time.
+   */
+  private static long recordStage(Map<String, Long> stageMillis, String stage, long startTime) {
+    long now = System.currentTimeMillis();
+    stageMillis.merge(stage, now - startTime, Long::sum);
+    return now;
   }
 
   private final FlatJuniperCombinedParser _parser;
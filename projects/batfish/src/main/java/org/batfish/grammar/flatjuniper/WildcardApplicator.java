@@ -1,6 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
 import java.util.List;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
@@ -19,7 +18,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
 
   private final Hierarchy _hierarchy;
 
-  private List<ParseTree> _newConfigurationLines;
+  private ConfigurationLineEdits _edits;
 
   public WildcardApplicator(Hierarchy hierarchy) {
     _hierarchy = hierarchy;
@@ -28,7 +27,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _edits = new ConfigurationLineEdits();
   }
 
   @Override
@@ -39,7 +38,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _edits.applyTo(_configurationContext);
   }
 
   @Override
@@ -49,8 +48,7 @@ public class WildcardApplicator extends FlatJuniperParserBaseListener {
           _hierarchy
               .getMasterTree()
               .applyWildcardPath(_currentPath, _configurationContext, _hierarchy.getTokenInputs());
-      int insertionIndex = _newConfigurationLines.indexOf(ctx);
-      _newConfigurationLines.addAll(insertionIndex, lines);
+      _edits.insertBefore(ctx, lines);
     }
     _currentPath = null;
   }
@@ -1,8 +1,5 @@
 package org.batfish.grammar.flatjuniper;
 
-import java.util.ArrayList;
-import java.util.List;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Set_lineContext;
@@ -17,12 +14,12 @@ public class WildcardPruner extends FlatJuniperParserBaseListener {
 
   private boolean _enablePathRecording;
 
-  private List<ParseTree> _newConfigurationLines;
+  private ConfigurationLineEdits _edits;
 
   @Override
   public void enterFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
     _configurationContext = ctx;
-    _newConfigurationLines = new ArrayList<>(ctx.children);
+    _edits = new ConfigurationLineEdits();
   }
 
   @Override
@@ -33,13 +30,13 @@ public class WildcardPruner extends FlatJuniperParserBaseListener {
 
   @Override
   public void exitFlat_juniper_configuration(Flat_juniper_configurationContext ctx) {
-    _configurationContext.children = _newConfigurationLines;
+    _edits.applyTo(_configurationContext);
   }
 
   @Override
   public void exitSet_line(Set_lineContext ctx) {
     if (_currentPath.containsWildcard()) {
-      _newConfigurationLines.remove(ctx);
+      _edits.remove(ctx);
     }
     _currentPath = null;
   }
@@ -26,6 +26,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -106,7 +107,8 @@ import org.batfish.vendor.VendorStructureId;
 
 public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResult> {
 
-  private final Object _configObject;
+  private final Supplier<?> _configObject;
+  @Nonnull private final Consumer<VendorConfiguration> _onConverted;
   @Nonnull private final ConversionContext _conversionContext;
   @Nonnull private final SnapshotRuntimeData _runtimeData;
   private final String _name;
@@ -117,8 +119,26 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
       @Nullable SnapshotRuntimeData runtimeData,
       Object configObject,
       String name) {
+    this(settings, conversionContext, runtimeData, () -> configObject, vc -> {}, name);
+  }
+
+  /**
+   * Creates a job that converts the configuration returned by {@code configObject}, which is not
+   * called until the job runs. This lets the configuration be loaded by the job itself, and be
+   * garbage-collected as soon as the job completes. Exceptions thrown by {@code configObject} are
+   * not reported as conversion errors, but fail the job. {@code onConverted} is given the
+   * configuration after its conversion is attempted, e.g. to read what conversion computed from it.
+   */
+  public ConvertConfigurationJob(
+      Settings settings,
+      @Nullable ConversionContext conversionContext,
+      @Nullable SnapshotRuntimeData runtimeData,
+      Supplier<?> configObject,
+      Consumer<VendorConfiguration> onConverted,
+      String name) {
     super(settings);
     _configObject = configObject;
+    _onConverted = onConverted;
     _conversionContext = firstNonNull(conversionContext, EMPTY_CONVERSION_CONTEXT);
     _runtimeData = firstNonNull(runtimeData, SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA);
     _name = name;
@@ -945,8 +965,11 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
     Map<String, Warnings> warningsByHost = new HashMap<>();
     ConvertConfigurationAnswerElement answerElement = new ConvertConfigurationAnswerElement();
     Multimap<String, String> fileMap = answerElement.getFileMap();
+    // Failing to load the configuration is not a conversion error, so let it fail the job.
+    Object configObject = _configObject.get();
+    VendorConfiguration vendorConfiguration = null;
     try {
-      VendorConfiguration vendorConfiguration = (VendorConfiguration) _configObject;
+      vendorConfiguration = (VendorConfiguration) configObject;
       Warnings warnings = Batfish.buildWarnings(_settings);
       List<String> filenames =
           ImmutableList.<String>builder()
@@ -992,6 +1015,9 @@ public class ConvertConfigurationJob extends BatfishJob<ConvertConfigurationResu
           elapsedTime, _logger.getHistory(), _name, new BatfishException(error, e));
     } finally {
       warningsByHost.forEach((hostname, warnings) -> Batfish.logWarnings(_logger, warnings));
+      if (vendorConfiguration != null) {
+        _onConverted.accept(vendorConfiguration);
+      }
     }
     elapsedTime = System.currentTimeMillis() - startTime;
     return new ConvertConfigurationResult(
@@ -77,8 +77,12 @@ public class ConvertConfigurationResult
             answerElement.getConvertStatus().put(_name, ConvertStatus.PASSED);
           }
           answerElement.getDefinedStructures().putAll(_answerElement.getDefinedStructures());
-          answerElement.getUndefinedReferences().putAll(_answerElement.getUndefinedReferences());
-          answerElement.getReferencedStructures().putAll(_answerElement.getReferencedStructures());
+          answerElement
+              .getUndefinedReferenceTables()
+              .putAll(_answerElement.getUndefinedReferenceTables());
+          answerElement
+              .getReferencedStructureTables()
+              .putAll(_answerElement.getReferencedStructureTables());
           answerElement.getFileMap().putAll(_answerElement.getFileMap());
         }
       }
@@ -5,7 +5,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Strings;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -19,8 +21,9 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.function.Function;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.batfish.common.BatfishException;
@@ -100,7 +103,14 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   /** Information about duplicate hostnames is collected here */
   private final Multimap<String, String> _duplicateHostnames;
 
-  private final @Nonnull Map<String, String> _fileTexts;
+  /** Names of the files that are part of this job. */
+  private final @Nonnull Set<String> _filenames;
+
+  /** Loads the text of each file in this job on demand. */
+  private final @Nonnull Map<String, Supplier<String>> _fileTextLoaders;
+
+  /** Texts of the files in this job, or {@code null} if not currently loaded. */
+  private @Nullable Map<String, String> _fileTexts;
 
   /**
    * What type of files are expected, or {@link ConfigurationFormat#UNKNOWN} to detect dynamically.
@@ -125,11 +135,34 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       Warnings.Settings logSettings,
       ConfigurationFormat expectedFormat,
       Multimap<String, String> duplicateHostnames) {
+    this(
+        settings,
+        snapshot,
+        fileTexts.entrySet().stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Entry::getKey, e -> Suppliers.ofInstance(e.getValue()))),
+        logSettings,
+        expectedFormat,
+        duplicateHostnames,
+        ImmutableMap.copyOf(fileTexts));
+  }
+
+  private ParseVendorConfigurationJob(
+      Settings settings,
+      NetworkSnapshot snapshot,
+      Map<String, Supplier<String>> fileTextLoaders,
+      Warnings.Settings logSettings,
+      ConfigurationFormat expectedFormat,
+      Multimap<String, String> duplicateHostnames,
+      @Nullable Map<String, String> fileTexts) {
     super(settings);
-    checkArgument(!fileTexts.isEmpty(), "Set of file texts cannot be empty");
-    _fileTexts = ImmutableMap.copyOf(fileTexts);
+    checkArgument(!fileTextLoaders.isEmpty(), "Set of file texts cannot be empty");
+    _fileTextLoaders = ImmutableMap.copyOf(fileTextLoaders);
+    _filenames = _fileTextLoaders.keySet();
+    _fileTexts = fileTexts;
     _fileResults =
-        _fileTexts.keySet().stream()
+        _filenames.stream()
             .collect(
                 ImmutableMap.toImmutableMap(
                     Function.identity(),
@@ -144,7 +177,27 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     _warnings = new Warnings(logSettings);
   }
 
-  private static final Pattern WHITESPACE_ONLY = Pattern.compile("^\\s*$");
+  /**
+   * Returns a {@link ParseVendorConfigurationJob} whose file texts are only loaded, using the given
+   * loaders, when the job is run. The texts are released when {@link #parse()} completes, so a
+   * queue of pending jobs does not hold every input file in memory.
+   */
+  public static @Nonnull ParseVendorConfigurationJob withFileTextLoaders(
+      Settings settings,
+      NetworkSnapshot snapshot,
+      Map<String, Supplier<String>> fileTextLoaders,
+      Warnings.Settings logSettings,
+      ConfigurationFormat expectedFormat,
+      Multimap<String, String> duplicateHostnames) {
+    return new ParseVendorConfigurationJob(
+        settings, snapshot, fileTextLoaders, logSettings, expectedFormat, duplicateHostnames, null);
+  }
+
+  /** Name of the stage that flattens hierarchical configurations, as reported in stage timings. */
+  @VisibleForTesting static final String STAGE_FLATTEN = "flatten";
+
+  /** Characters {@link java.util.regex.Pattern} treats as whitespace ({@code \s}). */
+  private static final CharMatcher WHITESPACE = CharMatcher.anyOf(" \t\n\u000B\f\r");
 
   /**
    * Detects and returns the {@link ConfigurationFormat format} of the given text using the given
@@ -153,9 +206,12 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
   @VisibleForTesting
   static ConfigurationFormat detectFormat(
       Map<String, String> fileTexts, Settings settings, ConfigurationFormat format) {
-    String fileText = String.join("\n", fileTexts.values());
+    String fileText =
+        fileTexts.size() == 1
+            ? Iterables.getOnlyElement(fileTexts.values())
+            : String.join("\n", fileTexts.values());
 
-    if (WHITESPACE_ONLY.matcher(fileText).matches()) {
+    if (WHITESPACE.matchesAllOf(fileText)) {
       return ConfigurationFormat.EMPTY;
     }
 
@@ -180,6 +236,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
    */
   @SuppressWarnings("fallthrough")
   private VendorConfiguration parseFiles(ConfigurationFormat format) {
+    Map<String, String> fileTexts = getFileTexts();
     VendorConfiguration vc;
     FlattenerLineMap lineMap = null;
 
@@ -189,7 +246,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
     switch (format) {
       case A10_ACOS:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           A10CombinedParser a10Parser = new A10CombinedParser(fileText, _settings);
@@ -207,7 +264,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case ARISTA:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           AristaCombinedParser aristaParser = new AristaCombinedParser(fileText, _settings);
@@ -230,7 +287,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       case FORCE10:
       case FOUNDRY:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           CiscoCombinedParser ciscoParser = new CiscoCombinedParser(fileText, _settings);
@@ -248,7 +305,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
         }
       case CISCO_ASA:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           AsaCombinedParser asaParser = new AsaCombinedParser(fileText, _settings);
@@ -266,7 +323,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case CISCO_NX:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           CiscoNxosCombinedParser ciscoNxosParser =
@@ -285,7 +342,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case CISCO_IOS_XR:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           CiscoXrCombinedParser ciscoXrParser = new CiscoXrCombinedParser(fileText, _settings);
@@ -304,7 +361,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case CHECK_POINT_GATEWAY:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           CheckPointGatewayCombinedParser checkPointParser =
@@ -323,7 +380,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case CUMULUS_CONCATENATED:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           CumulusConcatenatedCombinedParser parser =
@@ -347,7 +404,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case CUMULUS_NCLU:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           CumulusNcluCombinedParser parser = new CumulusNcluCombinedParser(fileText, _settings);
@@ -365,7 +422,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case F5_BIGIP_STRUCTURED:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           F5BigipStructuredCombinedParser parser =
@@ -389,7 +446,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case FORTIOS:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           FortiosCombinedParser parser = new FortiosCombinedParser(fileText, _settings);
@@ -407,7 +464,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case HOST:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           try {
@@ -425,14 +482,14 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       case SONIC:
         {
           Map<SonicFileType, String> sonicFileTypes =
-              SonicControlPlaneExtractor.getSonicFileMap(_fileTexts);
+              SonicControlPlaneExtractor.getSonicFileMap(fileTexts);
 
           String frrFilename = sonicFileTypes.get(SonicFileType.FRR_CONF); // frr file must exist
           FrrCombinedParser frrParser =
-              new FrrCombinedParser(_fileTexts.get(frrFilename), _settings, 1, 0);
+              new FrrCombinedParser(fileTexts.get(frrFilename), _settings, 1, 0);
 
           SonicControlPlaneExtractor extractor =
-              new SonicControlPlaneExtractor(sonicFileTypes, _fileTexts, _fileResults, frrParser);
+              new SonicControlPlaneExtractor(sonicFileTypes, fileTexts, _fileResults, frrParser);
 
           try {
             extractor.processNonFrrFiles();
@@ -443,7 +500,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
           vc = extractor.getVendorConfiguration();
           vc.setFilename(frrFilename);
           vc.setSecondaryFilenames(
-              _fileTexts.keySet().stream()
+              _filenames.stream()
                   .filter(filename -> !filename.equals(frrFilename))
                   .collect(ImmutableList.toImmutableList()));
           break;
@@ -451,7 +508,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case VYOS:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           _fileResults
@@ -475,7 +532,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
         }
       case FLAT_VYOS:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = firstNonNull(flattenedFileText, fileEntry.getValue());
           FlatVyosCombinedParser flatVyosParser = new FlatVyosCombinedParser(fileText, _settings);
@@ -493,9 +550,10 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case JUNIPER:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
+          long startTime = System.currentTimeMillis();
           try {
             Flattener flattener =
                 Batfish.flatten(
@@ -511,22 +569,31 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
             throw new BatfishException(
                 String.format("Error flattening configuration file: '%s'", filename), e);
           }
+          if (_settings.getParseStats()) {
+            _fileResults
+                .get(filename)
+                .getStageMillis()
+                .put(STAGE_FLATTEN, System.currentTimeMillis() - startTime);
+          }
           // fall through
         }
       case FLAT_JUNIPER:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = firstNonNull(flattenedFileText, fileEntry.getValue());
           FlatJuniperCombinedParser flatJuniperParser =
               new FlatJuniperCombinedParser(fileText, _settings, lineMap);
-          ControlPlaneExtractor extractor =
+          FlatJuniperControlPlaneExtractor extractor =
               new FlatJuniperControlPlaneExtractor(
                   fileText,
                   flatJuniperParser,
                   _fileResults.get(filename).getWarnings(),
                   _fileResults.get(filename).getSilentSyntax());
           parseFile(filename, flatJuniperParser, extractor);
+          if (_settings.getParseStats()) {
+            _fileResults.get(filename).getStageMillis().putAll(extractor.getStageMillis());
+          }
           vc = extractor.getVendorConfiguration();
           vc.setFilename(filename);
           break;
@@ -534,7 +601,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case IPTABLES:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           IptablesCombinedParser iptablesParser = new IptablesCombinedParser(fileText, _settings);
@@ -553,7 +620,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case MRV:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           MrvCombinedParser mrvParser = new MrvCombinedParser(fileText, _settings);
@@ -571,7 +638,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
       case PALO_ALTO_NESTED:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = fileEntry.getValue();
           try {
@@ -593,7 +660,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
         }
       case PALO_ALTO:
         {
-          Entry<String, String> fileEntry = Iterables.getOnlyElement(_fileTexts.entrySet());
+          Entry<String, String> fileEntry = Iterables.getOnlyElement(fileTexts.entrySet());
           String filename = fileEntry.getKey();
           String fileText = firstNonNull(flattenedFileText, fileEntry.getValue());
           PaloAltoCombinedParser paParser =
@@ -617,8 +684,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
     vc.setVendor(format);
     if (Strings.isNullOrEmpty(vc.getHostname())) {
-      _warnings.redFlag(
-          String.format("No hostname set in %s\n", jobFilenamesToString(_fileTexts.keySet())));
+      _warnings.redFlag(String.format("No hostname set in %s\n", jobFilenamesToString(_filenames)));
       String guessedHostname =
           Paths.get(vc.getFilename()) // use the primary file for guessing filename
               .getFileName()
@@ -658,7 +724,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       throw new BatfishException(
           String.format(
               "Configuration file(s): %s contains unrecognized lines:\n%s",
-              _fileTexts.keySet(), String.join("\n", combinedParser.getErrors())));
+              _filenames, String.join("\n", combinedParser.getErrors())));
     }
 
     try {
@@ -686,9 +752,17 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
    */
   @Nonnull
   public ParseResult parse() {
-    ConfigurationFormat format = detectFormat(_fileTexts, _settings, _expectedFormat);
+    try {
+      return parseFileTexts();
+    } finally {
+      releaseFileTexts();
+    }
+  }
 
-    String jobFiles = jobFilenamesToString(_fileTexts.keySet());
+  private @Nonnull ParseResult parseFileTexts() {
+    ConfigurationFormat format = detectFormat(getFileTexts(), _settings, _expectedFormat);
+
+    String jobFiles = jobFilenamesToString(_filenames);
     // Handle specially some cases that will not produce a vendor configuration file.
     if (format == ConfigurationFormat.EMPTY) {
       _warnings.redFlag(String.format("Empty file(s): %s\n", jobFiles));
@@ -736,7 +810,7 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
       return new ParseResult(
           null,
           new BatfishException(
-              String.format("Error parsing configuration file(s): %s", _fileTexts.keySet()), e),
+              String.format("Error parsing configuration file(s): %s", _filenames), e),
           _fileResults,
           format,
           _warnings);
@@ -783,20 +857,38 @@ public class ParseVendorConfigurationJob extends BatfishJob<ParseVendorConfigura
 
   @Override
   public ParseVendorConfigurationResult call() {
-    _logger.infof("Processing: %s\n", _fileTexts.keySet());
+    _logger.infof("Processing: %s\n", _filenames);
     long startTime = System.currentTimeMillis();
     ParseResult result = parse();
     return fromResult(result, System.currentTimeMillis() - startTime);
   }
 
+  /** Returns the names of the files that are part of this parsing job. */
+  public @Nonnull Set<String> getFilenames() {
+    return _filenames;
+  }
+
   /**
-   * Returns a map from file name to its text content. The map has one entry for each file that is
-   * part of this parsing job.
+   * Returns a map from file name to its text content, loading the texts if they are not currently
+   * loaded. The map has one entry for each file that is part of this parsing job.
    */
-  public Map<String, String> getFileTexts() {
+  public @Nonnull Map<String, String> getFileTexts() {
+    if (_fileTexts == null) {
+      _fileTexts =
+          _fileTextLoaders.entrySet().stream()
+              .collect(ImmutableMap.toImmutableMap(Entry::getKey, e -> e.getValue().get()));
+    }
     return _fileTexts;
   }
 
+  /**
+   * Drops this job's reference to its loaded file texts, so they may be garbage-collected. The
+   * texts are reloaded if they are needed again.
+   */
+  public void releaseFileTexts() {
+    _fileTexts = null;
+  }
+
   /** Returns a string, made up of filenames, used in warnings */
   static @Nonnull String jobFilenamesToString(Collection<String> filenames) {
     return filenames.size() == 1
@@ -138,6 +138,9 @@ public class ParseVendorConfigurationResult
             if (!result.getParseTreeSentences().isEmpty()) {
               answerElement.getParseTrees().put(name, result.getParseTreeSentences());
             }
+            if (!result.getStageMillis().isEmpty()) {
+              answerElement.getParseStageMillis().put(name, result.getStageMillis());
+            }
           });
     } else if (_fileResults.values().stream()
         .anyMatch(fileResult -> fileResult.getParseStatus() == ParseStatus.FAILED)) {
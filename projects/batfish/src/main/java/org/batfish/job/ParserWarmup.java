@@ -0,0 +1,82 @@
+package org.batfish.job;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Warnings;
+import org.batfish.common.util.Resources;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.grammar.ParserCacheManager;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+
+/**
+ * Pre-warms the shared parser DFA caches of the most commonly used grammars by parsing a bundled
+ * corpus of small, representative configuration snippets.
+ */
+@ParametersAreNonnullByDefault
+public final class ParserWarmup {
+
+  private static final Logger LOGGER = LogManager.getLogger(ParserWarmup.class);
+
+  private static final String CORPUS_DIR = "org/batfish/job/parser_warmup/";
+
+  /** Map of corpus file to the format it should be parsed as. */
+  @VisibleForTesting
+  static final Map<String, ConfigurationFormat> CORPUS =
+      ImmutableMap.<String, ConfigurationFormat>builder()
+          .put("arista.cfg", ConfigurationFormat.ARISTA)
+          .put("cisco_ios.cfg", ConfigurationFormat.CISCO_IOS)
+          .put("cisco_nxos.cfg", ConfigurationFormat.CISCO_NX)
+          .put("cisco_xr.cfg", ConfigurationFormat.CISCO_IOS_XR)
+          .put("juniper.cfg", ConfigurationFormat.JUNIPER)
+          .build();
+
+  private static final NetworkSnapshot WARMUP_SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("parser_warmup"), new SnapshotId("parser_warmup"));
+
+  /**
+   * Parses every file in the warm-up corpus using the given settings. Failures are logged and
+   * otherwise ignored, since warm-up only exists to populate the parser caches.
+   */
+  public static void warmUp(Settings settings) {
+    LOGGER.info("Warming up parser caches using {} corpus files", CORPUS.size());
+    long startTime = System.currentTimeMillis();
+    ParserCacheManager.getInstance()
+        .warmUp(() -> CORPUS.forEach((f, fmt) -> parse(settings, f, fmt)));
+    LOGGER.info(
+        "Warmed up parser caches in {} ms: {}",
+        System.currentTimeMillis() - startTime,
+        ParserCacheManager.getInstance().getStats());
+  }
+
+  @VisibleForTesting
+  static @Nonnull ParseResult parse(
+      Settings settings, String corpusFile, ConfigurationFormat format) {
+    String text = Resources.readResource(CORPUS_DIR + corpusFile, UTF_8);
+    ParseVendorConfigurationJob job =
+        new ParseVendorConfigurationJob(
+            settings,
+            WARMUP_SNAPSHOT,
+            ImmutableMap.of(corpusFile, text),
+            new Warnings.Settings(false, false, false),
+            format,
+            HashMultimap.create());
+    ParseResult result = job.parse();
+    if (result.getFailureCause() != null) {
+      LOGGER.warn("Error parsing warm-up file {}", corpusFile, result.getFailureCause());
+    }
+    return result;
+  }
+
+  private ParserWarmup() {}
+}
@@ -8,6 +8,8 @@ import static java.util.regex.Pattern.CASE_INSENSITIVE;
 import static java.util.stream.Collectors.toMap;
 import static org.batfish.bddreachability.BDDMultipathInconsistency.computeMultipathInconsistencies;
 import static org.batfish.bddreachability.BDDReachabilityUtils.constructFlows;
+import static org.batfish.common.bdd.BDDUtils.DEBUG_FLAG_BDD_STATS;
+import static org.batfish.common.bdd.BDDUtils.addStatsToSummary;
 import static org.batfish.common.runtime.SnapshotRuntimeData.EMPTY_SNAPSHOT_RUNTIME_DATA;
 import static org.batfish.common.util.CompletionMetadataUtils.getFilterNames;
 import static org.batfish.common.util.CompletionMetadataUtils.getInterfaces;
@@ -31,10 +33,8 @@ import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
 import static org.batfish.vendor.check_point_management.parsing.CheckpointManagementParser.parseCheckpointManagementData;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
-import com.google.common.cache.Cache;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -42,9 +42,9 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
-import com.google.common.collect.Table;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 import com.google.errorprone.annotations.MustBeClosed;
@@ -62,6 +62,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -69,15 +70,20 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -129,25 +135,19 @@ import org.batfish.common.util.isp.IspModelingUtils;
 import org.batfish.common.util.isp.IspModelingUtils.ModeledNodes;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.BgpAdvertisement;
-import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.DeviceType;
 import org.batfish.datamodel.Edge;
-import org.batfish.datamodel.EvpnRoute;
-import org.batfish.datamodel.Fib;
-import org.batfish.datamodel.FinalMainRib;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDisposition;
-import org.batfish.datamodel.ForwardingAnalysis;
 import org.batfish.datamodel.IntegerSpace;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Interface.Dependency;
 import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.NetworkConfigurations;
-import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.acl.AclLineMatchExpr;
@@ -175,8 +175,6 @@ import org.batfish.datamodel.isp_configuration.IspConfigurationException;
 import org.batfish.datamodel.ospf.OspfTopologyUtils;
 import org.batfish.datamodel.questions.InvalidReachabilityParametersException;
 import org.batfish.datamodel.questions.Question;
-import org.batfish.datamodel.vxlan.Layer2Vni;
-import org.batfish.datamodel.vxlan.Layer3Vni;
 import org.batfish.dataplane.TracerouteEngineImpl;
 import org.batfish.grammar.BatfishCombinedParser;
 import org.batfish.grammar.BatfishParseException;
@@ -185,6 +183,7 @@ import org.batfish.grammar.BgpTableFormat;
 import org.batfish.grammar.GrammarSettings;
 import org.batfish.grammar.NopFlattener;
 import org.batfish.grammar.ParseTreePrettyPrinter;
+import org.batfish.grammar.ParserCacheManager;
 import org.batfish.grammar.VendorConfigurationFormatDetector;
 import org.batfish.grammar.flattener.Flattener;
 import org.batfish.grammar.juniper.JuniperCombinedParser;
@@ -206,6 +205,7 @@ import org.batfish.job.ParseEnvironmentBgpTableJob;
 import org.batfish.job.ParseResult;
 import org.batfish.job.ParseVendorConfigurationJob;
 import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.main.BfCache.SnapshotCache;
 import org.batfish.question.ReachabilityParameters;
 import org.batfish.question.ResolvedReachabilityParameters;
 import org.batfish.question.SrcNattedConstraint;
@@ -233,6 +233,7 @@ import org.batfish.specifier.SpecifierContextImpl;
 import org.batfish.specifier.UnionLocationSpecifier;
 import org.batfish.storage.FileBasedStorage;
 import org.batfish.storage.StorageProvider;
+import org.batfish.storage.StorageProvider.AnswerWriter;
 import org.batfish.symbolic.IngressLocation;
 import org.batfish.topology.TopologyProviderImpl;
 import org.batfish.vendor.ConversionContext;
@@ -367,22 +368,23 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private @Nonnull SortedMap<String, String> readAllInputObjects(
       Stream<String> keys, NetworkSnapshot snapshot) {
     return keys.parallel()
-        .map(
-            key -> {
-              _logger.debugf("Reading: \"%s\"\n", key);
-              try (InputStream inputStream =
-                  _storage.loadSnapshotInputObject(
-                      snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
-                return new SimpleEntry<>(key, decodeStreamAndAppendNewline(inputStream));
-              } catch (IOException e) {
-                throw new UncheckedIOException(e);
-              }
-            })
+        .map(key -> new SimpleEntry<>(key, readInputObject(key, snapshot)))
         .collect(
             ImmutableSortedMap.toImmutableSortedMap(
                 Ordering.natural(), SimpleEntry::getKey, SimpleEntry::getValue));
   }
 
+  /** Reads and returns the contents of the snapshot input object with the provided key. */
+  private @Nonnull String readInputObject(String key, NetworkSnapshot snapshot) {
+    _logger.debugf("Reading: \"%s\"\n", key);
+    try (InputStream inputStream =
+        _storage.loadSnapshotInputObject(snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
+      return decodeStreamAndAppendNewline(inputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   public static void logWarnings(BatfishLogger logger, Warnings warnings) {
     for (Warning warning : warnings.getRedFlagWarnings()) {
       logger.redflag(logWarningsHelper(warning));
@@ -407,7 +409,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       BatfishCombinedParser<?, ?> parser, BatfishLogger logger, GrammarSettings settings) {
     ParserRuleContext tree;
     try {
-      tree = parser.parse();
+      tree = ParserCacheManager.getInstance().trackParse(parser, parser::parse);
     } catch (BatfishException e) {
       throw new ParserBatfishException("Parser error", e);
     }
@@ -432,15 +434,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private SortedMap<BgpTableFormat, BgpTablePlugin> _bgpTablePlugins;
 
-  private final Cache<NetworkSnapshot, SortedMap<String, Configuration>> _cachedConfigurations;
+  private final SnapshotCache<SortedMap<String, Configuration>> _cachedConfigurations;
 
-  private final Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
+  private final SnapshotCache<DataPlane> _cachedDataPlanes;
 
-  private final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
+  private final SnapshotCache<SortedMap<String, BgpAdvertisementsByVrf>>
       _cachedEnvironmentBgpTables;
 
-  private final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      _cachedVendorConfigurations;
+  private final SnapshotCache<Map<String, VendorConfiguration>> _cachedVendorConfigurations;
 
   private SnapshotId _referenceSnapshot;
 
@@ -464,18 +465,15 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   public Batfish(
       Settings settings,
-      Cache<NetworkSnapshot, SortedMap<String, Configuration>> cachedConfigurations,
-      Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
-      Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
-      Cache<NetworkSnapshot, Map<String, VendorConfiguration>> cachedVendorConfigurations,
+      BfCache cache,
       @Nullable StorageProvider alternateStorageProvider,
       @Nullable IdResolver alternateIdResolver) {
     _settings = settings;
     _bgpTablePlugins = new TreeMap<>();
-    _cachedConfigurations = cachedConfigurations;
-    _cachedDataPlanes = cachedDataPlanes;
-    _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
-    _cachedVendorConfigurations = cachedVendorConfigurations;
+    _cachedConfigurations = cache.getConfigurations();
+    _cachedDataPlanes = cache.getDataPlanes();
+    _cachedEnvironmentBgpTables = cache.getEnvironmentBgpTables();
+    _cachedVendorConfigurations = cache.getVendorConfigurations();
     _externalBgpAdvertisementPlugins = new TreeSet<>();
     initLocalSettings(settings);
     _logger = _settings.getLogger();
@@ -649,75 +647,13 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return Warnings.forLogger(settings.getLogger());
   }
 
-  private static final NetworkSnapshot DUMMY_SNAPSHOT =
-      new NetworkSnapshot(
-          new NetworkId("__BATFISH_DUMMY_NETWORK"), new SnapshotId("__BATFISH_DUMMY_SNAPSHOT"));
-  private static final DataPlane DUMMY_DATAPLANE =
-      new DataPlane() {
-        @Override
-        public Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Map<String, Map<String, Fib>> getFibs() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public ForwardingAnalysis getForwardingAnalysis() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, FinalMainRib> getRibs() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
-            getPrefixTracingInfoSummary() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
-          throw new UnsupportedOperationException();
-        }
-
-        @Override
-        public Table<String, String, Set<Layer3Vni>> getLayer3Vnis() {
-          throw new UnsupportedOperationException();
-        }
-      };
-
   @Override
   public DataPlaneAnswerElement computeDataPlane(NetworkSnapshot snapshot) {
     LOGGER.info("Starting data plane computation");
-    // If already present, invalidate a dataplane for this snapshot.
-    // (unlikely, only when devs force recomputation)
+    // Drop any stale dataplane for this snapshot (when devs force recomputation). Other snapshots'
+    // dataplanes stay cached, since the cache evicts by weight when the new one is inserted.
     _cachedDataPlanes.invalidate(snapshot);
 
-    // Reserve space for the new dataplane in the in-memory cache by inserting and invalidating a
-    // dummy value.
-    _cachedDataPlanes.put(DUMMY_SNAPSHOT, DUMMY_DATAPLANE);
-    _cachedDataPlanes.invalidate(DUMMY_SNAPSHOT);
-
     ComputeDataPlaneResult result = getDataPlanePlugin().computeDataPlane(snapshot);
     DataPlaneAnswerElement answerElement = result._answerElement;
     DataPlane dataplane = result._dataPlane;
@@ -759,7 +695,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
   }
 
   private Map<String, Configuration> convertConfigurations(
-      Map<String, VendorConfiguration> vendorConfigurations,
+      Map<String, ? extends Supplier<VendorConfiguration>> vendorConfigurations,
+      BiConsumer<String, VendorConfiguration> onConverted,
       ConversionContext conversionContext,
       SnapshotRuntimeData runtimeData,
       ConvertConfigurationAnswerElement answerElement) {
@@ -767,11 +704,17 @@ public class Batfish extends PluginConsumer implements IBatfish {
     _logger.resetTimer();
     Map<String, Configuration> configurations = new TreeMap<>();
     List<ConvertConfigurationJob> jobs = new ArrayList<>();
-    for (Entry<String, VendorConfiguration> config : vendorConfigurations.entrySet()) {
-      VendorConfiguration vc = config.getValue();
+    for (Entry<String, ? extends Supplier<VendorConfiguration>> config :
+        vendorConfigurations.entrySet()) {
+      String name = config.getKey();
       ConvertConfigurationJob job =
           new ConvertConfigurationJob(
-              _settings, conversionContext, runtimeData, vc, config.getKey());
+              _settings,
+              conversionContext,
+              runtimeData,
+              config.getValue(),
+              vc -> onConverted.accept(name, vc),
+              name);
       jobs.add(job);
     }
     BatfishJobExecutor.runJobsInExecutor(
@@ -867,14 +810,20 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
-  /** Returns a map of hostname to VI {@link Configuration} */
+  /**
+   * Returns a map of hostname to VI {@link Configuration}. Each vendor configuration is supplied to
+   * its conversion job when that job runs, and passed to {@code onConverted} with its name once
+   * converted.
+   */
   public Map<String, Configuration> getConfigurations(
-      Map<String, VendorConfiguration> vendorConfigurations,
+      Map<String, ? extends Supplier<VendorConfiguration>> vendorConfigurations,
+      BiConsumer<String, VendorConfiguration> onConverted,
       ConversionContext conversionContext,
       SnapshotRuntimeData runtimeData,
       ConvertConfigurationAnswerElement answerElement) {
     Map<String, Configuration> configurations =
-        convertConfigurations(vendorConfigurations, conversionContext, runtimeData, answerElement);
+        convertConfigurations(
+            vendorConfigurations, onConverted, conversionContext, runtimeData, answerElement);
 
     identifyDeviceTypes(configurations.values());
     return configurations;
@@ -1164,30 +1113,31 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   @Override
   public DataPlane loadDataPlane(NetworkSnapshot snapshot) {
-    try {
-      return _cachedDataPlanes.get(
-          snapshot,
-          () -> {
-            LOGGER.info("Data plane cache miss on snapshot {}", snapshot);
-            long start = System.currentTimeMillis();
-            newBatch("Loading data plane from disk", 0);
-            DataPlane dp = _storage.loadDataPlane(snapshot);
-            LOGGER.info(
-                "Loading data plane for snapshot {} took {}ms",
-                snapshot,
-                System.currentTimeMillis() - start);
-            return dp;
-          });
-    } catch (ExecutionException e) {
-      throw new RuntimeException(e);
-    }
+    return _cachedDataPlanes.get(
+        snapshot,
+        s -> {
+          LOGGER.info("Data plane cache miss on snapshot {}", s);
+          long start = System.currentTimeMillis();
+          newBatch("Loading data plane from disk", 0);
+          DataPlane dp;
+          try {
+            dp = _storage.loadDataPlane(s);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          LOGGER.info(
+              "Loading data plane for snapshot {} took {}ms",
+              s,
+              System.currentTimeMillis() - start);
+          return dp;
+        });
   }
 
   @Override
   public SortedMap<String, BgpAdvertisementsByVrf> loadEnvironmentBgpTables(
       NetworkSnapshot snapshot) {
     SortedMap<String, BgpAdvertisementsByVrf> environmentBgpTables =
-        _cachedEnvironmentBgpTables.get(snapshot);
+        _cachedEnvironmentBgpTables.getIfPresent(snapshot);
     if (environmentBgpTables == null) {
       loadParseEnvironmentBgpTablesAnswerElement(snapshot);
       try {
@@ -1351,12 +1301,20 @@ public class Batfish extends PluginConsumer implements IBatfish {
       // - answering a question
       // - question successful
       // - client did not request full successful answers
-      String answerString = BatfishObjectMapper.writeString(answer);
       boolean summarizeWorkJsonLogAnswer =
           writeLog
               && _settings.getQuestionName() != null
               && !_settings.getAlwaysIncludeAnswerInWorkJsonLog()
               && answer.getStatus() == AnswerStatus.SUCCESS;
+      // The stored answer is streamed, since a large answer may not fit in memory as one string.
+      // Only build that string if it is needed for the log.
+      String answerString =
+          _logger.isActive(BatfishLogger.LEVEL_DEBUG) || (writeLog && !summarizeWorkJsonLogAnswer)
+              ? BatfishObjectMapper.writeString(answer)
+              : null;
+      if (answerString != null) {
+        _logger.debug(answerString);
+      }
       String workJsonLogAnswerString;
       if (summarizeWorkJsonLogAnswer) {
         Answer summaryAnswer = new Answer();
@@ -1368,8 +1326,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
       } else {
         workJsonLogAnswerString = answerString;
       }
-      _logger.debug(answerString);
-      writeJsonAnswerWithLog(answerString, workJsonLogAnswerString, writeLog);
+      writeJsonAnswerWithLog(
+          answerString != null
+              ? writer -> writer.write(answerString)
+              : writer -> BatfishObjectMapper.writer().writeValue(writer, answer),
+          workJsonLogAnswerString,
+          writeLog);
     } catch (Exception e) {
       BatfishException be = new BatfishException("Error in sending answer", e);
       try {
@@ -1378,7 +1340,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         String answerString = BatfishObjectMapper.writeString(failureAnswer);
         _logger.error(answerString);
         // write "answer" to work json log if caller requested
-        writeJsonAnswerWithLog(answerString, answerString, writeLog);
+        writeJsonAnswerWithLog(writer -> writer.write(answerString), answerString, writeLog);
       } catch (Exception e1) {
         _logger.errorf(
             "Could not serialize failure answer. %s", Throwables.getStackTraceAsString(e1));
@@ -1415,6 +1377,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
   public static AwsConfiguration parseAwsConfigurations(
       Map<String, String> configurationData, ParseVendorConfigurationAnswerElement pvcae) {
     AwsConfiguration config = new AwsConfiguration();
+    // account -> region -> (file name, file text), in input order
+    Map<String, Map<String, List<Entry<String, String>>>> files = new LinkedHashMap<>();
     for (Entry<String, String> configFile : configurationData.entrySet()) {
       // Using path for convenience for now to handle separators and key hierarchcially gracefully
       Path path = Paths.get(configFile.getKey());
@@ -1450,16 +1414,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
       }
       String fileName = path.subpath(awsRootIndex, pathLength).toString();
       pvcae.getFileMap().put(BfConsts.RELPATH_AWS_CONFIGS_FILE, fileName);
-
-      try {
-        JsonNode json = BatfishObjectMapper.mapper().readTree(configFile.getValue());
-        config.addConfigElement(regionName, json, fileName, pvcae, accountName);
-      } catch (IOException e) {
-        pvcae.addRedFlagWarning(
-            BfConsts.RELPATH_AWS_CONFIGS_FILE,
-            new Warning(String.format("Unexpected content in AWS file %s", fileName), "AWS"));
-      }
+      files
+          .computeIfAbsent(accountName, a -> new LinkedHashMap<>())
+          .computeIfAbsent(regionName, r -> new ArrayList<>())
+          .add(Maps.immutableEntry(fileName, configFile.getValue()));
     }
+    config.addConfigFiles(files, pvcae);
     return config;
   }
 
@@ -1520,6 +1480,24 @@ public class Batfish extends PluginConsumer implements IBatfish {
         HashMultimap.create());
   }
 
+  /**
+   * Returns a {@link ParseVendorConfigurationJob} for the snapshot input objects with the given
+   * keys. The objects are not read until the job runs.
+   */
+  private ParseVendorConfigurationJob makeLazyParseVendorConfigurationJob(
+      NetworkSnapshot snapshot, Collection<String> keys, ConfigurationFormat expectedFormat) {
+    return ParseVendorConfigurationJob.withFileTextLoaders(
+        _settings,
+        snapshot,
+        keys.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Function.identity(), key -> () -> readInputObject(key, snapshot))),
+        Warnings.Settings.fromLogger(_settings.getLogger()),
+        expectedFormat,
+        HashMultimap.create());
+  }
+
   /**
    * Parses the given configuration files and returns a map keyed by hostname representing the
    * {@link VendorConfiguration vendor-specific configurations}.
@@ -2317,22 +2295,60 @@ public class Batfish extends PluginConsumer implements IBatfish {
         firstNonNull(
             _storage.loadRuntimeData(snapshot.getNetwork(), snapshot.getSnapshot()),
             EMPTY_SNAPSHOT_RUNTIME_DATA);
-    Map<String, VendorConfiguration> vendorConfigs;
     Map<String, Configuration> configurations;
+    // Inputs of the cross-device steps below, recorded as each vendor configuration is converted
+    Set<Layer1Edge> layer1Edges = ConcurrentHashMap.newKeySet();
+    Queue<VendorConfiguration> deferredLayer1Edges = new ConcurrentLinkedQueue<>();
+    SortedMap<String, IspConfiguration> vendorIspConfigurations = new ConcurrentSkipListMap<>();
     LOGGER.info(
         "Converting the Vendor-Specific configurations to Vendor-Independent configurations");
     try {
-      vendorConfigs = _storage.loadVendorConfigurations(snapshot);
+      Set<String> names;
+      Function<String, VendorConfiguration> loader;
+      if (_settings.getPipelinedConversion()) {
+        // Each conversion job loads its own vendor configuration, so only the vendor
+        // configurations being converted are in memory at once.
+        names = _storage.listVendorConfigurationNames(snapshot);
+        loader =
+            name -> {
+              try {
+                return _storage.loadVendorConfiguration(snapshot, name);
+              } catch (IOException e) {
+                throw new BatfishException(
+                    String.format("Could not load vendor configuration '%s'", name), e);
+              }
+            };
+      } else {
+        Map<String, VendorConfiguration> vendorConfigs =
+            _storage.loadVendorConfigurations(snapshot);
+        names = vendorConfigs.keySet();
+        loader = vendorConfigs::get;
+      }
+      Map<String, Supplier<VendorConfiguration>> vendorConfigs =
+          names.stream()
+              .collect(ImmutableMap.toImmutableMap(name -> name, name -> () -> loader.apply(name)));
       configurations =
-          getConfigurations(vendorConfigs, conversionContext, runtimeData, answerElement);
+          getConfigurations(
+              vendorConfigs,
+              (name, vc) -> {
+                // Layer-1 edges may be computed during conversion.
+                if (vc.layer1EdgesDependOnOtherConfigurations()) {
+                  deferredLayer1Edges.add(vc);
+                } else {
+                  layer1Edges.addAll(vc.getLayer1Edges());
+                }
+                IspConfiguration ispConfiguration = vc.getIspConfiguration();
+                if (ispConfiguration != null) {
+                  vendorIspConfigurations.put(name, ispConfiguration);
+                }
+              },
+              conversionContext,
+              runtimeData,
+              answerElement);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
-
-    Set<Layer1Edge> layer1Edges =
-        vendorConfigs.values().stream()
-            .flatMap(vc -> vc.getLayer1Edges().stream())
-            .collect(Collectors.toSet());
+    deferredLayer1Edges.forEach(vc -> layer1Edges.addAll(vc.getLayer1Edges()));
 
     Warnings internetWarnings =
         answerElement
@@ -2340,7 +2356,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
             .computeIfAbsent(INTERNET_HOST_NAME, i -> buildWarnings(_settings));
 
     ModeledNodes modeledNodes =
-        getInternetAndIspNodes(snapshot, configurations, vendorConfigs, internetWarnings);
+        getInternetAndIspNodes(
+            snapshot, configurations, vendorIspConfigurations.values(), internetWarnings);
 
     mergeInternetAndIspNodes(modeledNodes, configurations, layer1Edges, internetWarnings);
 
@@ -2400,7 +2417,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private ModeledNodes getInternetAndIspNodes(
       NetworkSnapshot snapshot,
       Map<String, Configuration> configurations,
-      Map<String, VendorConfiguration> vendorConfigs,
+      Collection<IspConfiguration> vendorIspConfigurations,
       Warnings internetWarnings) {
     if (configurations.containsKey(INTERNET_HOST_NAME)) {
       internetWarnings.redFlag(
@@ -2423,10 +2440,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
           "Error loading ISP configuration for snapshot %s", Throwables.getStackTraceAsString(e));
     }
 
-    vendorConfigs.values().stream()
-        .map(VendorConfiguration::getIspConfiguration)
-        .filter(Objects::nonNull)
-        .forEach(ispConfigurations::add);
+    ispConfigurations.addAll(vendorIspConfigurations);
 
     return IspModelingUtils.getInternetAndIspNodes(
         configurations, ispConfigurations.build(), _logger, internetWarnings);
@@ -2454,7 +2468,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
   }
 
   private ParseVendorConfigurationResult getOrParse(
-      ParseVendorConfigurationJob job, GrammarSettings settings) {
+      ParseVendorConfigurationJob job, Settings settings) {
     // Short-circuit all cache-related code.
     if (!_settings.getParseReuse()) {
       long startTime = System.currentTimeMillis();
@@ -2474,13 +2488,15 @@ public class Batfish extends PluginConsumer implements IBatfish {
             .putBoolean(settings.getPrintParseTreeLineNums())
             .putBoolean(settings.getPrintParseTree())
             .putBoolean(settings.getThrowOnLexerError())
-            .putBoolean(settings.getThrowOnParserError());
-    job.getFileTexts().keySet().stream()
+            .putBoolean(settings.getThrowOnParserError())
+            .putBoolean(settings.getParseStats());
+    Map<String, String> fileTexts = job.getFileTexts();
+    fileTexts.keySet().stream()
         .sorted()
         .forEach(
             filename -> {
               hasher.putString(filename, UTF_8);
-              hasher.putString(job.getFileTexts().get(filename), UTF_8);
+              hasher.putString(fileTexts.get(filename), UTF_8);
             });
     String id = hasher.hash().toString();
     long startTime = System.currentTimeMillis();
@@ -2490,15 +2506,18 @@ public class Batfish extends PluginConsumer implements IBatfish {
       result = SerializationUtils.deserialize(in);
       // sanity-check filenames. In the extremely unlikely event of a collision, we'll lose reuse
       // for this input.
-      cached = result.getFileResults().keySet().equals(job.getFileTexts().keySet());
+      cached = result.getFileResults().keySet().equals(job.getFilenames());
     } catch (FileNotFoundException e) {
       result = job.parse();
     } catch (Exception e) {
       _logger.warnf(
           "Error deserializing cached parse result for %s: %s",
-          job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
+          job.getFilenames(), Throwables.getStackTraceAsString(e));
       result = job.parse();
     }
+    // parse() releases the file texts itself, but on a cache hit they were only loaded to compute
+    // the cache key.
+    job.releaseFileTexts();
     if (!cached) {
       try {
         byte[] serialized = SerializationUtils.serialize(result);
@@ -2507,7 +2526,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       } catch (Exception e) {
         _logger.warnf(
             "Error caching parse result for %s: %s",
-            job.getFileTexts().keySet(), Throwables.getStackTraceAsString(e));
+            job.getFilenames(), Throwables.getStackTraceAsString(e));
       }
     }
     long elapsed = System.currentTimeMillis() - startTime;
@@ -2536,15 +2555,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     List<ParseVendorConfigurationResult> parseResults;
     List<ParseVendorConfigurationJob> jobs = new LinkedList<>();
-    // add devices in the 'configs' folder
+    // add devices in the 'configs' folder. Files are read lazily by each job, so that peak memory
+    // use scales with the number of jobs running in parallel rather than the size of the snapshot.
     try (Stream<String> keys = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
-      readAllInputObjects(keys, snapshot).entrySet().stream()
+      keys.sorted()
           .map(
-              entry ->
-                  makeParseVendorConfigurationJob(
-                      snapshot,
-                      ImmutableMap.of(entry.getKey(), entry.getValue()),
-                      ConfigurationFormat.UNKNOWN))
+              key ->
+                  makeLazyParseVendorConfigurationJob(
+                      snapshot, ImmutableList.of(key), ConfigurationFormat.UNKNOWN))
           .forEach(jobs::add);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
@@ -2552,16 +2570,14 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     // add devices in the sonic_configs folder
     try (Stream<String> keys = _storage.listInputSonicConfigsKeys(snapshot)) {
-      Map<String, String> sonicObjects = readAllInputObjects(keys, snapshot);
-      makeSonicFileGroups(sonicObjects.keySet(), answerElement).stream()
+      makeSonicFileGroups(
+              keys.collect(ImmutableSortedSet.toImmutableSortedSet(Ordering.natural())),
+              answerElement)
+          .stream()
           .map(
               files ->
-                  makeParseVendorConfigurationJob(
-                      snapshot,
-                      files.stream()
-                          .collect(
-                              ImmutableMap.toImmutableMap(Function.identity(), sonicObjects::get)),
-                      ConfigurationFormat.SONIC))
+                  makeLazyParseVendorConfigurationJob(
+                      snapshot, ImmutableSortedSet.copyOf(files), ConfigurationFormat.SONIC))
           .forEach(jobs::add);
     } catch (IOException e) {
       throw new UncheckedIOException(e);
@@ -2825,6 +2841,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
       throw new BatfishException("No valid configurations found in snapshot");
     }
 
+    if (_settings.getParseStats()) {
+      answerElement.setParserCacheStats(ParserCacheManager.getInstance().getStats());
+    }
+
     // serialize any context needed for conversion (this does not include any configs)
     serializeConversionContext(snapshot, answerElement);
 
@@ -2920,7 +2940,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
     Set<Flow> flows = constructFlows(pkt, reachableBDDs);
 
-    return new TraceWrapperAsAnswerElement(buildFlows(snapshot, flows, ignoreFilters));
+    TraceWrapperAsAnswerElement answer =
+        new TraceWrapperAsAnswerElement(buildFlows(snapshot, flows, ignoreFilters));
+    if (debugFlagEnabled(DEBUG_FLAG_BDD_STATS)) {
+      addStatsToSummary(answer, pkt.getFactory());
+    }
+    return answer;
   }
 
   @Override
@@ -3028,7 +3053,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
         dataPlane.getForwardingAnalysis(),
         new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
         ignoreFilters,
-        false);
+        false,
+        _settings.getBddConstructionThreads());
   }
 
   public BDDReachabilityAnalysis getBddReachabilityAnalysis(
@@ -3143,7 +3169,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
         .collect(ImmutableSet.toImmutableSet());
   }
 
-  private void writeJsonAnswer(String structuredAnswerString) throws IOException {
+  private void writeJsonAnswer(AnswerWriter answerWriter) throws IOException {
     SnapshotId referenceSnapshot = _settings.getDiffQuestion() ? _referenceSnapshot : null;
     NetworkId networkId = _settings.getContainer();
     QuestionId questionId = _settings.getQuestionName();
@@ -3154,11 +3180,12 @@ public class Batfish extends PluginConsumer implements IBatfish {
     AnswerId baseAnswerId =
         _idResolver.getAnswerId(
             networkId, _snapshot, questionId, networkNodeRolesId, referenceSnapshot);
-    _storage.storeAnswer(networkId, _snapshot, structuredAnswerString, baseAnswerId);
+    _storage.storeAnswer(networkId, _snapshot, answerWriter, baseAnswerId);
   }
 
   private void writeJsonAnswerWithLog(
-      String answerOutput, String workJsonLogAnswerString, boolean writeLog) throws IOException {
+      AnswerWriter answerWriter, @Nullable String workJsonLogAnswerString, boolean writeLog)
+      throws IOException {
     if (writeLog && _settings.getTaskId() != null) {
       _storage.storeWorkJson(
           workJsonLogAnswerString,
@@ -3168,7 +3195,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
     // Write answer if WorkItem was answering a question
     if (_settings.getQuestionName() != null) {
-      writeJsonAnswer(answerOutput);
+      writeJsonAnswer(answerWriter);
     }
   }
 
@@ -1,54 +1,396 @@
 package org.batfish.main;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import java.util.Collections;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy.Eviction;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.SortedMap;
-import org.apache.commons.collections4.map.LRUMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.vendor.VendorConfiguration;
 
-/** Internal caches. */
+/**
+ * Internal caches of per-snapshot data, which share one memory budget.
+ *
+ * <p>Entries are weighed by an estimate of their retained size, made before they are inserted by
+ * serializing a sample of their parts. Eviction uses Caffeine's size-based policy (Window TinyLFU),
+ * so snapshots that are used often survive a burst of one-off ones. An entry larger than the whole
+ * budget is still cached, alone.
+ *
+ * <p>Values are loaded and weighed outside of the cache, so that a slow load (e.g., deserializing a
+ * data plane) does not block access to other entries. Concurrent loads of the same entry share one
+ * load.
+ */
+@ParametersAreNonnullByDefault
 public final class BfCache {
-  public static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
-  public static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
-      CACHED_ENVIRONMENT_BGP_TABLES = buildEnvironmentBgpTablesCache();
-  public static final Cache<NetworkSnapshot, SortedMap<String, Configuration>> CACHED_TESTRIGS =
-      buildTestrigCache();
-  public static final Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      CACHED_VENDOR_CONFIGURATIONS = buildVendorConfigurationCache();
 
-  private static final int MAX_CACHED_DATA_PLANES = 2;
+  private static final Logger LOGGER = LogManager.getLogger(BfCache.class);
+
+  /** The kinds of per-snapshot data cached. */
+  private enum Kind {
+    CONFIGURATIONS("configurations", 5, value -> estimateMapSize((Map<?, ?>) value)),
+    DATA_PLANES("dataPlanes", 2, value -> estimateDataPlaneSize((DataPlane) value)),
+    ENVIRONMENT_BGP_TABLES("environmentBgpTables", 4, value -> estimateMapSize((Map<?, ?>) value)),
+    VENDOR_CONFIGURATIONS("vendorConfigurations", 2, value -> estimateMapSize((Map<?, ?>) value));
+
+    private final String _name;
+
+    /**
+     * How many entries of this kind fit in the budget, if their size cannot be estimated. These are
+     * the numbers of entries cached before caches were weighed.
+     */
+    private final int _fallbackCount;
+
+    private final ToLongFunction<Object> _sizeEstimator;
+
+    Kind(String name, int fallbackCount, ToLongFunction<Object> sizeEstimator) {
+      _name = name;
+      _fallbackCount = fallbackCount;
+      _sizeEstimator = sizeEstimator;
+    }
+  }
+
+  /** The key of an entry of a given kind for a given snapshot. */
+  private static final class Key {
+    private final Kind _kind;
+    private final NetworkSnapshot _snapshot;
+
+    private Key(Kind kind, NetworkSnapshot snapshot) {
+      _kind = kind;
+      _snapshot = snapshot;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      return _kind == key._kind && _snapshot.equals(key._snapshot);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_kind.ordinal(), _snapshot);
+    }
+  }
+
+  /** A cached value, with its weight computed before it is inserted. */
+  private static final class Weighed {
+    private final Object _value;
+    private final int _weight;
+
+    private Weighed(Object value, int weight) {
+      _value = value;
+      _weight = weight;
+    }
+  }
+
+  /** A view of the entries of one kind, keyed by snapshot. */
+  public final class SnapshotCache<V> {
+    private final Kind _kind;
+    private final LongAdder _hits;
+    private final LongAdder _misses;
+
+    private SnapshotCache(Kind kind) {
+      _kind = kind;
+      _hits = new LongAdder();
+      _misses = new LongAdder();
+    }
 
-  private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
+    /** Returns the value cached for {@code snapshot}, or {@code null} if there is none. */
+    @SuppressWarnings("unchecked")
+    public @Nullable V getIfPresent(NetworkSnapshot snapshot) {
+      Weighed weighed = _cache.getIfPresent(new Key(_kind, snapshot));
+      (weighed == null ? _misses : _hits).increment();
+      return weighed == null ? null : (V) weighed._value;
+    }
+
+    /**
+     * Returns the value cached for {@code snapshot}, computing and caching it with {@code loader}
+     * if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public @Nonnull V get(NetworkSnapshot snapshot, Function<NetworkSnapshot, V> loader) {
+      Key key = new Key(_kind, snapshot);
+      Weighed weighed = _cache.getIfPresent(key);
+      if (weighed != null) {
+        _hits.increment();
+        return (V) weighed._value;
+      }
+      CompletableFuture<Object> load = new CompletableFuture<>();
+      CompletableFuture<Object> existingLoad = _loads.putIfAbsent(key, load);
+      if (existingLoad != null) {
+        // Another thread is loading this entry.
+        _hits.increment();
+        return (V) existingLoad.join();
+      }
+      _misses.increment();
+      try {
+        // The entry may have been inserted since it was looked up.
+        weighed = _cache.getIfPresent(key);
+        Object value;
+        if (weighed != null) {
+          value = weighed._value;
+        } else {
+          value = loader.apply(snapshot);
+          weighed = weigh(_kind, value, _maximumWeight);
+          Weighed existing = _cache.asMap().putIfAbsent(key, weighed);
+          if (existing != null) {
+            value = existing._value;
+          }
+        }
+        load.complete(value);
+        return (V) value;
+      } catch (RuntimeException | Error e) {
+        load.completeExceptionally(e);
+        throw e;
+      } finally {
+        _loads.remove(key, load);
+      }
+    }
+
+    public void put(NetworkSnapshot snapshot, V value) {
+      _cache.put(new Key(_kind, snapshot), weigh(_kind, value, _maximumWeight));
+    }
+
+    public void invalidate(NetworkSnapshot snapshot) {
+      _cache.invalidate(new Key(_kind, snapshot));
+    }
+
+    /** Removes the values cached for all snapshots. */
+    public void invalidateAll() {
+      _cache.invalidateAll(
+          _cache.asMap().keySet().stream()
+              .filter(key -> key._kind == _kind)
+              .collect(ImmutableList.toImmutableList()));
+    }
+  }
 
-  private static final int MAX_CACHED_TESTRIGS = 5;
+  /** Percentage of the maximum heap size used by default for cached snapshot data. */
+  public static final int DEFAULT_HEAP_PERCENT = 25;
 
-  private static final int MAX_CACHED_VENDOR_CONFIGURATIONS = 2;
+  /** Maximum number of parts of an entry serialized to estimate its size. */
+  @VisibleForTesting static final int SIZE_SAMPLE_PARTS = 16;
 
-  private BfCache() {}
+  /**
+   * Rough ratio of the retained heap size of an object graph to its serialized size, since objects
+   * in memory carry headers, padding, and collection overhead.
+   */
+  private static final int RETAINED_BYTES_PER_SERIALIZED_BYTE = 3;
+
+  /**
+   * Rough number of copies of each main RIB route held by a data plane, in its main RIB, its FIB,
+   * and its protocol RIBs.
+   */
+  private static final int DATA_PLANE_COPIES_PER_MAIN_RIB_ROUTE = 3;
+
+  /** Entries are weighed in KiB, so that weights fit in an int. */
+  private static final int WEIGHT_UNIT_BYTES = 1 << 10;
+
+  private final long _maximumBytes;
+  private final long _maximumWeight;
+  private final Cache<Key, Weighed> _cache;
+
+  /**
+   * Loads in progress by {@link SnapshotCache#get}, which concurrent gets of the entry wait for.
+   */
+  private final ConcurrentMap<Key, CompletableFuture<Object>> _loads;
+
+  private final SnapshotCache<SortedMap<String, Configuration>> _configurations;
+  private final SnapshotCache<DataPlane> _dataPlanes;
+  private final SnapshotCache<SortedMap<String, BgpAdvertisementsByVrf>> _environmentBgpTables;
+  private final SnapshotCache<Map<String, VendorConfiguration>> _vendorConfigurations;
+  private final Map<Kind, SnapshotCache<?>> _views;
+
+  /** Creates caches holding at most about {@code maximumBytes} of retained heap. */
+  public BfCache(long maximumBytes) {
+    checkArgument(maximumBytes > 0, "Cache budget must be positive");
+    _maximumBytes = maximumBytes;
+    _maximumWeight = Math.max(1, maximumBytes / WEIGHT_UNIT_BYTES);
+    _cache =
+        Caffeine.newBuilder()
+            .maximumWeight(_maximumWeight)
+            .<Key, Weighed>weigher((key, weighed) -> weighed._weight)
+            // Evict on the writing thread, so the budget is never exceeded for long.
+            .executor(Runnable::run)
+            .recordStats()
+            .build();
+    _loads = new ConcurrentHashMap<>();
+    _configurations = new SnapshotCache<>(Kind.CONFIGURATIONS);
+    _dataPlanes = new SnapshotCache<>(Kind.DATA_PLANES);
+    _environmentBgpTables = new SnapshotCache<>(Kind.ENVIRONMENT_BGP_TABLES);
+    _vendorConfigurations = new SnapshotCache<>(Kind.VENDOR_CONFIGURATIONS);
+    Map<Kind, SnapshotCache<?>> views = new EnumMap<>(Kind.class);
+    views.put(Kind.CONFIGURATIONS, _configurations);
+    views.put(Kind.DATA_PLANES, _dataPlanes);
+    views.put(Kind.ENVIRONMENT_BGP_TABLES, _environmentBgpTables);
+    views.put(Kind.VENDOR_CONFIGURATIONS, _vendorConfigurations);
+    _views = views;
+  }
+
+  /** Creates caches holding at most about {@code percent}% of the maximum heap size. */
+  public static @Nonnull BfCache forHeapPercent(int percent) {
+    checkArgument(percent > 0 && percent <= 100, "Invalid heap percentage: %s", percent);
+    return new BfCache(Runtime.getRuntime().maxMemory() / 100 * percent);
+  }
+
+  public @Nonnull SnapshotCache<SortedMap<String, Configuration>> getConfigurations() {
+    return _configurations;
+  }
+
+  public @Nonnull SnapshotCache<DataPlane> getDataPlanes() {
+    return _dataPlanes;
+  }
+
+  public @Nonnull SnapshotCache<SortedMap<String, BgpAdvertisementsByVrf>>
+      getEnvironmentBgpTables() {
+    return _environmentBgpTables;
+  }
+
+  public @Nonnull SnapshotCache<Map<String, VendorConfiguration>> getVendorConfigurations() {
+    return _vendorConfigurations;
+  }
+
+  /**
+   * Returns statistics of these caches: the budget and estimated size in bytes, evictions, and the
+   * number of entries, estimated size, hits, and misses of each kind of data.
+   */
+  public @Nonnull SortedMap<String, Object> getStats() {
+    Eviction<Key, Weighed> eviction = _cache.policy().eviction().get();
+    Map<Kind, long[]> entriesAndWeights = new EnumMap<>(Kind.class);
+    for (Key key : _cache.asMap().keySet()) {
+      long[] entryAndWeight = entriesAndWeights.computeIfAbsent(key._kind, k -> new long[2]);
+      entryAndWeight[0]++;
+      entryAndWeight[1] += eviction.weightOf(key).orElse(0);
+    }
+    ImmutableSortedMap.Builder<String, Object> kinds = ImmutableSortedMap.naturalOrder();
+    _views.forEach(
+        (kind, view) -> {
+          long[] entriesAndWeight = entriesAndWeights.getOrDefault(kind, new long[2]);
+          kinds.put(
+              kind._name,
+              ImmutableSortedMap.of(
+                  "entries",
+                  entriesAndWeight[0],
+                  "bytes",
+                  entriesAndWeight[1] * WEIGHT_UNIT_BYTES,
+                  "hits",
+                  view._hits.sum(),
+                  "misses",
+                  view._misses.sum()));
+        });
+    CacheStats stats = _cache.stats();
+    return ImmutableSortedMap.of(
+        "budgetBytes",
+        _maximumBytes,
+        "bytes",
+        eviction.weightedSize().orElse(0) * WEIGHT_UNIT_BYTES,
+        "evictions",
+        stats.evictionCount(),
+        "evictedBytes",
+        stats.evictionWeight() * WEIGHT_UNIT_BYTES,
+        "kinds",
+        kinds.build());
+  }
+
+  /**
+   * Returns {@code value} with its weight, which is at most {@code maximumWeight} so it can be
+   * cached.
+   */
+  private static Weighed weigh(Kind kind, Object value, long maximumWeight) {
+    long weight;
+    try {
+      weight =
+          kind._sizeEstimator.applyAsLong(value)
+              * RETAINED_BYTES_PER_SERIALIZED_BYTE
+              / WEIGHT_UNIT_BYTES;
+    } catch (RuntimeException e) {
+      LOGGER.warn("Could not estimate the size of cached {}", kind._name, e);
+      weight = maximumWeight / kind._fallbackCount;
+    }
+    return new Weighed(
+        value, (int) Math.max(1, Math.min(Math.min(weight, maximumWeight), Integer.MAX_VALUE)));
+  }
 
-  static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
+  /**
+   * Estimates the serialized size of the values of {@code map} from a sample of at most {@link
+   * #SIZE_SAMPLE_PARTS} of them.
+   */
+  @VisibleForTesting
+  static long estimateMapSize(Map<?, ?> map) {
+    return estimateSize(ImmutableList.copyOf(map.values()));
   }
 
-  static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
-      buildEnvironmentBgpTablesCache() {
-    return Collections.synchronizedMap(new LRUMap<>(MAX_CACHED_ENVIRONMENT_BGP_TABLES));
+  /**
+   * Estimates the serialized size of the routes of {@code dataPlane}, which dominate its size, from
+   * a sample of at most {@link #SIZE_SAMPLE_PARTS} of its main RIB routes. Each main RIB route is
+   * counted {@link #DATA_PLANE_COPIES_PER_MAIN_RIB_ROUTE} times, for the FIB entries and other RIBs
+   * derived from it.
+   */
+  @VisibleForTesting
+  static long estimateDataPlaneSize(DataPlane dataPlane) {
+    List<AbstractRoute> routes =
+        dataPlane.getRibs().values().stream()
+            .flatMap(rib -> rib.getRoutes().stream())
+            .collect(ImmutableList.toImmutableList());
+    return estimateSize(routes) * DATA_PLANE_COPIES_PER_MAIN_RIB_ROUTE;
   }
 
-  static Cache<NetworkSnapshot, SortedMap<String, Configuration>> buildTestrigCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_TESTRIGS).build();
+  /**
+   * Estimates the total serialized size of {@code parts}, serializing at most {@link
+   * #SIZE_SAMPLE_PARTS} evenly spaced parts.
+   */
+  private static long estimateSize(List<?> parts) {
+    if (parts.isEmpty()) {
+      return 0;
+    }
+    int samples = Math.min(parts.size(), SIZE_SAMPLE_PARTS);
+    // Serialize the sample together, so class descriptors shared by the parts are counted once.
+    List<Object> sample = new ArrayList<>(samples);
+    for (int i = 0; i < samples; i++) {
+      sample.add(parts.get(i * parts.size() / samples));
+    }
+    return serializedSize(sample) * parts.size() / samples;
   }
 
-  static Cache<NetworkSnapshot, Map<String, VendorConfiguration>> buildVendorConfigurationCache() {
-    return CacheBuilder.newBuilder()
-        .softValues()
-        .maximumSize(MAX_CACHED_VENDOR_CONFIGURATIONS)
-        .build();
+  private static long serializedSize(Object object) {
+    CountingOutputStream counter = new CountingOutputStream(ByteStreams.nullOutputStream());
+    try (ObjectOutputStream out = new ObjectOutputStream(counter)) {
+      out.writeObject(object);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Could not serialize " + object.getClass(), e);
+    }
+    return counter.getCount();
   }
 }
@@ -1,6 +1,7 @@
 package org.batfish.main;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Arrays;
@@ -24,6 +25,8 @@ import org.batfish.common.Task;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerStatus;
+import org.batfish.grammar.ParserCacheManager;
+import org.batfish.job.ParserWarmup;
 import org.batfish.version.BatfishVersion;
 import org.glassfish.grizzly.http.server.HttpServer;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
@@ -46,6 +49,9 @@ public class Driver {
 
   private static Settings _mainSettings = null;
 
+  /** Caches of snapshot data shared by all tasks, created once settings are known. */
+  private static BfCache _cache = null;
+
   private static final int COORDINATOR_CHECK_INTERVAL_MS = 1 * 60 * 1000; // 1 min
 
   private static final int COORDINATOR_POLL_TIMEOUT_MS = 30 * 1000; // 30 secs
@@ -71,6 +77,11 @@ public class Driver {
     return _idle;
   }
 
+  /** Returns statistics of the caches of snapshot data, or an empty map before initialization. */
+  public static Map<String, Object> getCacheStats() {
+    return _cache == null ? ImmutableMap.of() : _cache.getStats();
+  }
+
   public static BatfishLogger getMainLogger() {
     return _mainLogger;
   }
@@ -84,6 +95,8 @@ public class Driver {
   private static void mainInit(String[] args) {
     try {
       _mainSettings = new Settings(args);
+      _cache = BfCache.forHeapPercent(_mainSettings.getCacheHeapPercent());
+      ParserCacheManager.getInstance().setMaxDfaStates(_mainSettings.getParserDfaMaxStates());
       networkListenerLogger.setLevel(Level.WARNING);
       httpServerLogger.setLevel(Level.WARNING);
     } catch (Exception e) {
@@ -125,6 +138,9 @@ public class Driver {
     URI baseUri = UriBuilder.fromUri(baseUrl).port(_mainSettings.getServicePort()).build();
     _mainLogger.debug(String.format("Starting server at %s\n", baseUri));
     ResourceConfig rc = new ResourceConfig(Service.class).register(new JettisonFeature());
+    if (_mainSettings.getParserWarmup()) {
+      startParserWarmup();
+    }
     try {
       HttpServer server;
       server = GrizzlyHttpServerFactory.createHttpServer(baseUri, rc);
@@ -159,6 +175,15 @@ public class Driver {
     }
   }
 
+  /** Warms up parser caches in the background so the service can start accepting work at once. */
+  private static void startParserWarmup() {
+    Settings settings = new Settings(_mainSettings);
+    settings.setLogger(_mainLogger);
+    Thread warmupThread = new Thread(() -> ParserWarmup.warmUp(settings), "parser-warmup");
+    warmupThread.setDaemon(true);
+    warmupThread.start();
+  }
+
   private static synchronized void makeIdle() {
     _idle = true;
   }
@@ -198,15 +223,7 @@ public class Driver {
     BatfishLogger logger = settings.getLogger();
 
     try {
-      Batfish batfish =
-          new Batfish(
-              settings,
-              BfCache.CACHED_TESTRIGS,
-              BfCache.CACHED_DATA_PLANES,
-              BfCache.CACHED_ENVIRONMENT_BGP_TABLES,
-              BfCache.CACHED_VENDOR_CONFIGURATIONS,
-              null,
-              null);
+      Batfish batfish = new Batfish(settings, _cache, null, null);
 
       Thread thread =
           new Thread(
@@ -40,7 +40,12 @@ public class Service {
       return new JSONArray(
           Arrays.asList(
               BfConsts.SVC_SUCCESS_KEY,
-              (new JSONObject().put("idle", Driver.getIdle())).toString()));
+              (new JSONObject()
+                      .put("idle", Driver.getIdle())
+                      .put(
+                          "cache",
+                          new JSONObject(BatfishObjectMapper.writeString(Driver.getCacheStats()))))
+                  .toString()));
     } catch (Exception e) {
       return new JSONArray(Arrays.asList(BfConsts.SVC_FAILURE_KEY, e.getMessage()));
     }
@@ -1,20 +1,32 @@
 package org.batfish.main;
 
-import com.google.common.io.Closer;
+import com.google.common.collect.ImmutableList;
 import com.ibm.icu.text.CharsetDetector;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.SequenceInputStream;
 import java.nio.charset.Charset;
+import java.util.Comparator;
+import java.util.List;
 import javax.annotation.Nonnull;
 import org.apache.commons.io.ByteOrderMark;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.input.BOMInputStream;
 
 /** Utility class for decoding streams of unknown charset to strings. */
 final class StreamDecoder {
 
+  /**
+   * Byte order marks to strip, longest first so that e.g. UTF-32LE is not mistaken for UTF-16LE.
+   */
+  private static final List<ByteOrderMark> BOMS =
+      ImmutableList.sortedCopyOf(
+          Comparator.comparingInt(ByteOrderMark::length).reversed(),
+          ImmutableList.of(
+              ByteOrderMark.UTF_8,
+              ByteOrderMark.UTF_16BE,
+              ByteOrderMark.UTF_16LE,
+              ByteOrderMark.UTF_32BE,
+              ByteOrderMark.UTF_32LE));
+
   /**
    * Automatically detects charset of the input stream, reads it, decodes it, and returns the
    * resulting string with a newline appended if the original stream is non-empty. Does not close
@@ -22,33 +34,38 @@ final class StreamDecoder {
    *
    * @throws IOException if there is an error
    */
-  @SuppressWarnings("PMD.CloseResource") // PMD does not understand Closer.
   static @Nonnull String decodeStreamAndAppendNewline(@Nonnull InputStream inputStream)
       throws IOException {
     byte[] rawBytes = IOUtils.toByteArray(inputStream);
+    if (rawBytes.length == 0) {
+      return "";
+    }
     Charset cs = Charset.forName(new CharsetDetector().setText(rawBytes).detect().getName());
-    try (Closer closer = Closer.create()) {
-      InputStream inputByteStream =
-          closer.register(bomInputStream(new ByteArrayInputStream(rawBytes)));
-      InputStream finalInputStream =
-          closer.register(
-              rawBytes.length > 0
-                  ? new SequenceInputStream(
-                      inputByteStream,
-                      closer.register(bomInputStream(new ByteArrayInputStream("\n".getBytes(cs)))))
-                  : inputByteStream);
-      return new String(IOUtils.toByteArray(finalInputStream), cs);
+    // Decode directly from the raw bytes, skipping any byte order mark, rather than copying them.
+    int offset = bomLength(rawBytes);
+    return new String(rawBytes, offset, rawBytes.length - offset, cs) + "\n";
+  }
+
+  /** Returns the length of the byte order mark at the start of {@code bytes}, or {@code 0}. */
+  private static int bomLength(byte[] bytes) {
+    for (ByteOrderMark bom : BOMS) {
+      if (startsWith(bytes, bom)) {
+        return bom.length();
+      }
     }
+    return 0;
   }
 
-  private static @Nonnull BOMInputStream bomInputStream(@Nonnull InputStream inputStream) {
-    return new BOMInputStream(
-        inputStream,
-        ByteOrderMark.UTF_8,
-        ByteOrderMark.UTF_16BE,
-        ByteOrderMark.UTF_16LE,
-        ByteOrderMark.UTF_32BE,
-        ByteOrderMark.UTF_32LE);
+  private static boolean startsWith(byte[] bytes, ByteOrderMark bom) {
+    if (bytes.length < bom.length()) {
+      return false;
+    }
+    for (int i = 0; i < bom.length(); i++) {
+      if ((bytes[i] & 0xFF) != bom.get(i)) {
+        return false;
+      }
+    }
+    return true;
   }
 
   private StreamDecoder() {}
@@ -72,6 +72,7 @@ import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -2612,16 +2613,10 @@ public final class AristaConfiguration extends VendorConfiguration {
 
     // Define the Null0 interface if it has been referenced. Otherwise, these show as undefined
     // references.
-    Optional<Integer> firstRefToNull0 =
-        _structureReferences
-            .getOrDefault(AristaStructureType.INTERFACE, ImmutableSortedMap.of())
-            .getOrDefault("Null0", ImmutableSortedMap.of())
-            .entrySet()
-            .stream()
-            .flatMap(e -> e.getValue().stream())
-            .min(Integer::compare);
+    OptionalInt firstRefToNull0 =
+        getFirstStructureReferenceLine(AristaStructureType.INTERFACE, "Null0");
     if (firstRefToNull0.isPresent()) {
-      defineSingleLineStructure(AristaStructureType.INTERFACE, "Null0", firstRefToNull0.get());
+      defineSingleLineStructure(AristaStructureType.INTERFACE, "Null0", firstRefToNull0.getAsInt());
     }
 
     markConcreteStructure(AristaStructureType.BFD_TEMPLATE);
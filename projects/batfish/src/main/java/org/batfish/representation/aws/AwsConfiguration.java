@@ -7,6 +7,7 @@ import static org.batfish.representation.aws.Utils.addStaticRoute;
 import static org.batfish.representation.aws.Utils.toStaticRoute;
 import static org.batfish.specifier.Location.interfaceLinkLocation;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
@@ -16,6 +17,8 @@ import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Streams;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +27,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -31,7 +35,9 @@ import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.BfConsts;
 import org.batfish.common.VendorConversionException;
+import org.batfish.common.Warning;
 import org.batfish.common.topology.Layer1Edge;
+import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.isp.IspModelingUtils;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
@@ -157,6 +163,78 @@ public class AwsConfiguration extends VendorConfiguration {
     addOrGetAccount(account).addOrGetRegion(region).addConfigElement(json, sourceFileName, pvcae);
   }
 
+  /**
+   * Adds the contents of AWS files, given as account -> region -> list of (file name, file text).
+   * The files of a region are added in order.
+   *
+   * <p>Regions are independent, so they are read in parallel, and each file is streamed into its
+   * region rather than read as one JSON tree. The result, including the warnings added to {@code
+   * pvcae}, is the same as calling {@link #addConfigElement} with the tree of each file in turn.
+   */
+  public void addConfigFiles(
+      Map<String, Map<String, List<Entry<String, String>>>> files,
+      ParseVendorConfigurationAnswerElement pvcae) {
+    List<Supplier<ParseVendorConfigurationAnswerElement>> regionTasks = new ArrayList<>();
+    files.forEach(
+        (account, filesByRegion) ->
+            filesByRegion.forEach(
+                (regionName, regionFiles) ->
+                    regionTasks.add(() -> addRegionFiles(account, regionName, regionFiles))));
+    List<ParseVendorConfigurationAnswerElement> regionWarnings =
+        regionTasks.parallelStream().map(Supplier::get).collect(ImmutableList.toImmutableList());
+    // Merge warnings on this thread, since the answer element is not thread-safe
+    for (ParseVendorConfigurationAnswerElement warnings : regionWarnings) {
+      warnings
+          .getWarnings()
+          .forEach(
+              (name, w) -> {
+                w.getRedFlagWarnings().forEach(warning -> pvcae.addRedFlagWarning(name, warning));
+                w.getUnimplementedWarnings()
+                    .forEach(warning -> pvcae.addUnimplementedWarning(name, warning));
+              });
+    }
+  }
+
+  /**
+   * Adds the given files of one region, in order, and returns the warnings they produce. A file
+   * that is not well-formed JSON is skipped with a warning, and does not by itself create the
+   * region.
+   */
+  private @Nonnull ParseVendorConfigurationAnswerElement addRegionFiles(
+      String account, String regionName, List<Entry<String, String>> files) {
+    ParseVendorConfigurationAnswerElement warnings = new ParseVendorConfigurationAnswerElement();
+    Region region = null;
+    for (Entry<String, String> file : files) {
+      String fileName = file.getKey();
+      String text = file.getValue();
+      try {
+        // check the whole file first, so that malformed files add nothing
+        checkWellFormed(text);
+        if (region == null) {
+          synchronized (_accounts) {
+            region = addOrGetAccount(account).addOrGetRegion(regionName);
+          }
+        }
+        try (JsonParser parser = BatfishObjectMapper.mapper().createParser(text)) {
+          region.addConfigElement(parser, fileName, warnings);
+        }
+      } catch (IOException e) {
+        warnings.addRedFlagWarning(
+            BfConsts.RELPATH_AWS_CONFIGS_FILE,
+            new Warning(String.format("Unexpected content in AWS file %s", fileName), "AWS"));
+      }
+    }
+    return warnings;
+  }
+
+  /** Throws if the first JSON value in {@code text} is not well-formed. */
+  private static void checkWellFormed(String text) throws IOException {
+    try (JsonParser parser = BatfishObjectMapper.mapper().createParser(text)) {
+      parser.nextToken();
+      parser.skipChildren();
+    }
+  }
+
   /**
    * Convert this AWS config to a set of VI configurations
    *
@@ -7,6 +7,8 @@ import static org.batfish.representation.aws.AwsConfiguration.AWS_SERVICES_GATEW
 import static org.batfish.representation.aws.ElasticsearchDomain.getNodeName;
 import static org.batfish.representation.aws.Utils.getTraceElementForSecurityGroup;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.google.common.annotations.VisibleForTesting;
@@ -243,55 +245,108 @@ public final class Region implements Serializable {
   void addConfigElement(
       JsonNode json, String sourceFileName, ParseVendorConfigurationAnswerElement pvcae) {
 
-    Iterator<?> keys = json.fieldNames();
+    Iterator<Entry<String, JsonNode>> fields = json.fields();
 
-    while (keys.hasNext()) {
-      String key = (String) keys.next();
+    while (fields.hasNext()) {
+      Entry<String, JsonNode> field = fields.next();
+      addConfigElement(field.getKey(), field.getValue(), sourceFileName, pvcae);
+    }
+  }
+
+  /**
+   * Adds the contents of an AWS file read from {@code parser}. The lists in the file are read one
+   * element at a time, so a large file is never held in memory as a whole JSON tree.
+   *
+   * <p>Adds the same objects and warnings as {@link #addConfigElement(JsonNode, String,
+   * ParseVendorConfigurationAnswerElement)} does for the tree of the whole file.
+   */
+  void addConfigElement(
+      JsonParser parser, String sourceFileName, ParseVendorConfigurationAnswerElement pvcae)
+      throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      // not an object, so there are no elements to add
+      return;
+    }
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.getCurrentName();
+      JsonToken valueToken = parser.nextToken();
 
       if (ignoreElement(key)) {
+        parser.skipChildren();
         continue;
       }
 
-      // All objects nested under the current key will be subjected to this function, which will
-      // integrate them appropriately into this Region. Returns null on unrecognized keys.
       ThrowingConsumer<JsonNode, IOException> integratorFunction = getChildConsumer(key);
 
-      if (integratorFunction == null) {
-        // Add warning for unrecognized key in AWS file but don't warn if there is no data
-        if (json.get(key).isArray() && json.get(key).size() == 0) {
-          continue;
-        }
-        pvcae.addUnimplementedWarning(
-            BfConsts.RELPATH_AWS_CONFIGS_FILE,
-            new Warning(
-                String.format("Unrecognized element '%s' in AWS file %s", key, sourceFileName),
-                "AWS"));
+      if (integratorFunction == null || valueToken != JsonToken.START_ARRAY) {
+        // unrecognized or malformed, so warn exactly as for a tree
+        addConfigElement(key, parser.readValueAsTree(), sourceFileName, pvcae);
         continue;
       }
-      if (!json.get(key).isArray()) {
-        pvcae.addRedFlagWarning(
-            BfConsts.RELPATH_AWS_CONFIGS_FILE,
-            new Warning(
-                String.format(
-                    "Unexpected JSON for element '%s' in AWS file %s. Expected a list.",
-                    key, sourceFileName),
-                "AWS"));
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        addChild(key, parser.readValueAsTree(), integratorFunction, sourceFileName, pvcae);
       }
+    }
+  }
 
-      ArrayNode array = (ArrayNode) json.get(key);
-      for (int index = 0; index < array.size(); index++) {
-        try {
-          integratorFunction.accept(array.get(index));
-        } catch (IOException | IllegalArgumentException e) {
-          pvcae.addRedFlagWarning(
-              BfConsts.RELPATH_AWS_CONFIGS_FILE,
-              new Warning(
-                  String.format(
-                      "Exception while parsing '%s' in AWS file %s: %s",
-                      key, sourceFileName, e.getMessage()),
-                  "AWS"));
-        }
+  private void addConfigElement(
+      String key,
+      JsonNode value,
+      String sourceFileName,
+      ParseVendorConfigurationAnswerElement pvcae) {
+
+    if (ignoreElement(key)) {
+      return;
+    }
+
+    // All objects nested under the current key will be subjected to this function, which will
+    // integrate them appropriately into this Region. Returns null on unrecognized keys.
+    ThrowingConsumer<JsonNode, IOException> integratorFunction = getChildConsumer(key);
+
+    if (integratorFunction == null) {
+      // Add warning for unrecognized key in AWS file but don't warn if there is no data
+      if (value.isArray() && value.size() == 0) {
+        return;
       }
+      pvcae.addUnimplementedWarning(
+          BfConsts.RELPATH_AWS_CONFIGS_FILE,
+          new Warning(
+              String.format("Unrecognized element '%s' in AWS file %s", key, sourceFileName),
+              "AWS"));
+      return;
+    }
+    if (!value.isArray()) {
+      pvcae.addRedFlagWarning(
+          BfConsts.RELPATH_AWS_CONFIGS_FILE,
+          new Warning(
+              String.format(
+                  "Unexpected JSON for element '%s' in AWS file %s. Expected a list.",
+                  key, sourceFileName),
+              "AWS"));
+    }
+
+    ArrayNode array = (ArrayNode) value;
+    for (int index = 0; index < array.size(); index++) {
+      addChild(key, array.get(index), integratorFunction, sourceFileName, pvcae);
+    }
+  }
+
+  private static void addChild(
+      String key,
+      JsonNode child,
+      ThrowingConsumer<JsonNode, IOException> integratorFunction,
+      String sourceFileName,
+      ParseVendorConfigurationAnswerElement pvcae) {
+    try {
+      integratorFunction.accept(child);
+    } catch (IOException | IllegalArgumentException e) {
+      pvcae.addRedFlagWarning(
+          BfConsts.RELPATH_AWS_CONFIGS_FILE,
+          new Warning(
+              String.format(
+                  "Exception while parsing '%s' in AWS file %s: %s",
+                  key, sourceFileName, e.getMessage()),
+              "AWS"));
     }
   }
 
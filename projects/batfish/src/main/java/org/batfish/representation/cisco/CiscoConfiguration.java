@@ -72,6 +72,7 @@ import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -2995,16 +2996,10 @@ public final class CiscoConfiguration extends VendorConfiguration {
 
     // Define the Null0 interface if it has been referenced. Otherwise, these show as undefined
     // references.
-    Optional<Integer> firstRefToNull0 =
-        _structureReferences
-            .getOrDefault(CiscoStructureType.INTERFACE, ImmutableSortedMap.of())
-            .getOrDefault("Null0", ImmutableSortedMap.of())
-            .entrySet()
-            .stream()
-            .flatMap(e -> e.getValue().stream())
-            .min(Integer::compare);
+    OptionalInt firstRefToNull0 =
+        getFirstStructureReferenceLine(CiscoStructureType.INTERFACE, "Null0");
     if (firstRefToNull0.isPresent()) {
-      defineSingleLineStructure(CiscoStructureType.INTERFACE, "Null0", firstRefToNull0.get());
+      defineSingleLineStructure(CiscoStructureType.INTERFACE, "Null0", firstRefToNull0.getAsInt());
     }
 
     markAbstractStructureAllUsages(
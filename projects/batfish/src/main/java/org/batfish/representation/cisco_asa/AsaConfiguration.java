@@ -71,6 +71,7 @@ import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -3244,16 +3245,10 @@ public final class AsaConfiguration extends VendorConfiguration {
 
     // Define the Null0 interface if it has been referenced. Otherwise, these show as undefined
     // references.
-    Optional<Integer> firstRefToNull0 =
-        _structureReferences
-            .getOrDefault(AsaStructureType.INTERFACE, ImmutableSortedMap.of())
-            .getOrDefault("Null0", ImmutableSortedMap.of())
-            .entrySet()
-            .stream()
-            .flatMap(e -> e.getValue().stream())
-            .min(Integer::compare);
+    OptionalInt firstRefToNull0 =
+        getFirstStructureReferenceLine(AsaStructureType.INTERFACE, "Null0");
     if (firstRefToNull0.isPresent()) {
-      defineSingleLineStructure(AsaStructureType.INTERFACE, "Null0", firstRefToNull0.get());
+      defineSingleLineStructure(AsaStructureType.INTERFACE, "Null0", firstRefToNull0.getAsInt());
     }
 
     markConcreteStructure(AsaStructureType.BFD_TEMPLATE, AsaStructureUsage.INTERFACE_BFD_TEMPLATE);
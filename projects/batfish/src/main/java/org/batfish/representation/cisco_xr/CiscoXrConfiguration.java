@@ -69,6 +69,7 @@ import java.util.Map.Entry;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -2246,16 +2247,11 @@ public final class CiscoXrConfiguration extends VendorConfiguration {
 
     // Define the Null0 interface if it has been referenced. Otherwise, these show as undefined
     // references.
-    Optional<Integer> firstRefToNull0 =
-        _structureReferences
-            .getOrDefault(CiscoXrStructureType.INTERFACE, ImmutableSortedMap.of())
-            .getOrDefault("Null0", ImmutableSortedMap.of())
-            .entrySet()
-            .stream()
-            .flatMap(e -> e.getValue().stream())
-            .min(Integer::compare);
+    OptionalInt firstRefToNull0 =
+        getFirstStructureReferenceLine(CiscoXrStructureType.INTERFACE, "Null0");
     if (firstRefToNull0.isPresent()) {
-      defineSingleLineStructure(CiscoXrStructureType.INTERFACE, "Null0", firstRefToNull0.get());
+      defineSingleLineStructure(
+          CiscoXrStructureType.INTERFACE, "Null0", firstRefToNull0.getAsInt());
     }
 
     CiscoXrStructureType.CONCRETE_STRUCTURES.forEach(this::markConcreteStructure);
@@ -1063,11 +1063,10 @@ public class F5BigipConfiguration extends VendorConfiguration {
 
   private boolean isReferencedByRouteMap(String aclName) {
     // Return true iff the named acl is referenced via route-map match ip address
-    return Optional.ofNullable(_structureReferences.get(F5BigipStructureType.ACCESS_LIST))
-        .map(byStructureName -> byStructureName.get(aclName))
-        .map(byUsage -> byUsage.get(F5BigipStructureUsage.ROUTE_MAP_MATCH_IP_ADDRESS))
-        .map(lines -> !lines.isEmpty())
-        .orElse(false);
+    return isStructureReferenced(
+        F5BigipStructureType.ACCESS_LIST,
+        aclName,
+        F5BigipStructureUsage.ROUTE_MAP_MATCH_IP_ADDRESS);
   }
 
   private void markStructures() {
@@ -56,18 +56,14 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Multiset;
 import com.google.common.collect.Range;
 import com.google.common.collect.RangeSet;
 import com.google.common.collect.Sets;
-import com.google.common.collect.SortedMultiset;
 import com.google.common.collect.Streams;
-import com.google.common.collect.TreeMultiset;
 import com.google.common.collect.TreeRangeSet;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -170,7 +166,6 @@ import org.batfish.representation.palo_alto.SecurityRule.RuleType;
 import org.batfish.representation.palo_alto.Vsys.NamespaceType;
 import org.batfish.representation.palo_alto.Zone.Type;
 import org.batfish.representation.palo_alto.application_definitions.ApplicationDefinitions;
-import org.batfish.vendor.StructureUsage;
 import org.batfish.vendor.VendorConfiguration;
 
 public class PaloAltoConfiguration extends VendorConfiguration {
@@ -3514,13 +3509,14 @@ public class PaloAltoConfiguration extends VendorConfiguration {
       Collection<PaloAltoStructureType> structureTypesToCheck,
       boolean ignoreUndefined,
       PaloAltoStructureUsage... usages) {
-    Map<String, SortedMap<StructureUsage, SortedMultiset<Integer>>> references =
-        firstNonNull(_structureReferences.get(type), Collections.emptyMap());
     for (PaloAltoStructureUsage usage : usages) {
-      references.forEach(
-          (nameWithNamespace, byUsage) -> {
+      forEachStructureReference(
+          type,
+          (nameWithNamespace, referenceUsage, lines) -> {
+            if (!referenceUsage.equals(usage)) {
+              return;
+            }
             String name = extractObjectName(nameWithNamespace);
-            Multiset<Integer> lines = firstNonNull(byUsage.get(usage), TreeMultiset.create());
             // Check this namespace first
             DefinedStructureInfo info =
                 findDefinedStructure(nameWithNamespace, structureTypesToCheck);
@@ -3533,7 +3529,7 @@ public class PaloAltoConfiguration extends VendorConfiguration {
 
             // Now update reference count if applicable
             if (info != null) {
-              info.setNumReferrers(info.getNumReferrers() + lines.size());
+              info.setNumReferrers(info.getNumReferrers() + lines.length);
             } else if (!ignoreUndefined) {
               for (int line : lines) {
                 undefined(type, name, usage, line);
@@ -0,0 +1,139 @@
+package org.batfish.topology;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.common.util.ContentHashes.newContentHasher;
+import static org.batfish.common.util.ContentHashes.putContent;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Vrf;
+
+/**
+ * Content hashes of the parts of each node's configuration that the topology stages read.
+ *
+ * <p>A topology stage computed for one snapshot can be reused for any other snapshot with the same
+ * {@link #stageKey stage key}, such as a fork that changes configuration the stage does not read.
+ * When the key differs, {@link #changedNodes} tells which nodes' inputs changed.
+ */
+@ParametersAreNonnullByDefault
+final class TopologyFingerprints {
+
+  /** A part of a node's configuration that some topology stage reads. */
+  enum Slice {
+    /** Hostname, device model, interfaces and layer-2 VNIs: layer-1 through layer-3 topology. */
+    LAYER3(
+        c ->
+            new Object[] {
+              c.getHostname(),
+              c.getDeviceModel(),
+              c.getAllInterfaces(),
+              byVrf(c, Vrf::getLayer2Vnis)
+            }),
+    /** Layer-3 VNIs, read by the VXLAN topology along with layer-2 VNIs. */
+    LAYER3_VNIS(c -> new Object[] {byVrf(c, Vrf::getLayer3Vnis)}),
+    /** OSPF processes. */
+    OSPF(c -> new Object[] {byVrf(c, Vrf::getOspfProcesses)}),
+    /** IKE and IPsec settings. */
+    IPSEC(
+        c ->
+            new Object[] {
+              c.getIkePhase1Keys(),
+              c.getIkePhase1Policies(),
+              c.getIkePhase1Proposals(),
+              c.getIpsecPeerConfigs(),
+              c.getIpsecPhase2Policies(),
+              c.getIpsecPhase2Proposals()
+            }),
+    /** Tracking groups, read by HSRP and VRRP elections. */
+    TRACKING(c -> new Object[] {c.getTrackingGroups()});
+
+    private final @Nonnull Function<Configuration, Object[]> _parts;
+
+    Slice(Function<Configuration, Object[]> parts) {
+      _parts = parts;
+    }
+  }
+
+  TopologyFingerprints(Map<String, Configuration> configurations) {
+    _configurations = configurations;
+    _hashes = new ConcurrentHashMap<>();
+  }
+
+  /** Returns the hash of the given slice of each node's configuration, by hostname. */
+  @Nonnull
+  SortedMap<String, HashCode> getNodeHashes(Slice slice) {
+    return _hashes.computeIfAbsent(slice, this::computeNodeHashes);
+  }
+
+  /**
+   * Returns the key of a topology stage that reads the given slices of each node's configuration,
+   * plus {@code otherInputs} (e.g. user-provided topology files).
+   */
+  @Nonnull
+  HashCode stageKey(String stage, Set<Slice> slices, Object... otherInputs) {
+    Hasher hasher = newContentHasher();
+    hasher.putInt(stage.length()).putString(stage, UTF_8);
+    for (Object input : otherInputs) {
+      putContent(hasher, input);
+    }
+    for (Slice slice : slices) {
+      hasher.putInt(slice.ordinal());
+      getNodeHashes(slice)
+          .forEach(
+              (hostname, hash) -> {
+                hasher.putInt(hostname.length()).putString(hostname, UTF_8);
+                hasher.putBytes(hash.asBytes());
+              });
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Returns the nodes whose given slice differs from that of {@code previous}, including nodes that
+   * {@code previous} does not have.
+   */
+  static @Nonnull Set<String> changedNodes(
+      Map<String, HashCode> previous, Map<String, HashCode> current) {
+    return current.entrySet().stream()
+        .filter(e -> !Objects.equals(previous.get(e.getKey()), e.getValue()))
+        .map(Entry::getKey)
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  private @Nonnull SortedMap<String, HashCode> computeNodeHashes(Slice slice) {
+    return _configurations.values().parallelStream()
+        .collect(
+            ImmutableSortedMap.toImmutableSortedMap(
+                String::compareTo, Configuration::getHostname, c -> hash(slice, c)));
+  }
+
+  private static @Nonnull HashCode hash(Slice slice, Configuration c) {
+    Hasher hasher = newContentHasher();
+    Arrays.stream(slice._parts.apply(c)).forEach(part -> putContent(hasher, part));
+    return hasher.hash();
+  }
+
+  private static @Nonnull Map<String, Object> byVrf(
+      Configuration c, Function<Vrf, Object> property) {
+    return c.getVrfs().entrySet().stream()
+        .collect(
+            ImmutableSortedMap.toImmutableSortedMap(
+                String::compareTo, Entry::getKey, e -> property.apply(e.getValue())));
+  }
+
+  private final @Nonnull Map<String, Configuration> _configurations;
+  private final @Nonnull Map<Slice, SortedMap<String, HashCode>> _hashes;
+}
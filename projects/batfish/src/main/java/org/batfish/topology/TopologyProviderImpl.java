@@ -4,12 +4,25 @@ import static org.batfish.common.topology.TopologyUtil.computeLayer2Topology;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.common.BatfishException;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
@@ -24,7 +37,9 @@ import org.batfish.common.topology.TopologyProvider;
 import org.batfish.common.topology.TopologyUtil;
 import org.batfish.common.topology.TunnelTopology;
 import org.batfish.common.topology.broadcast.BroadcastL3Adjacencies;
+import org.batfish.common.util.ContentHashes;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.bgp.BgpTopology;
@@ -34,6 +49,7 @@ import org.batfish.datamodel.ospf.OspfTopologyUtils;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.datamodel.vxlan.VxlanTopologyUtils;
 import org.batfish.storage.StorageProvider;
+import org.batfish.topology.TopologyFingerprints.Slice;
 
 @ParametersAreNonnullByDefault
 public final class TopologyProviderImpl implements TopologyProvider {
@@ -182,6 +198,139 @@ public final class TopologyProviderImpl implements TopologyProvider {
   private static final Cache<NetworkSnapshot, VxlanTopology> INITIAL_VXLAN_TOPOLOGIES =
       Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).build();
 
+  // Each initial topology is also cached by the content of the configuration it reads (see
+  // TopologyFingerprints), so a snapshot whose relevant configuration matches a recently computed
+  // one, e.g. a fork that changes a few ACLs, reuses that topology instead of recomputing it.
+
+  private static final String STAGE_IP_OWNERS = "ipOwners";
+  private static final String STAGE_IPSEC = "ipsec";
+  private static final String STAGE_L3_ADJACENCIES = "l3Adjacencies";
+  private static final String STAGE_LAYER1 = "layer1";
+  private static final String STAGE_LAYER3 = "layer3";
+  private static final String STAGE_OSPF = "ospf";
+  private static final String STAGE_RAW_LAYER3 = "rawLayer3";
+  private static final String STAGE_TUNNEL = "tunnel";
+  private static final String STAGE_VXLAN = "vxlan";
+
+  private static final Set<Slice> LAYER3 = ImmutableSet.of(Slice.LAYER3);
+
+  private static final Cache<HashCode, IpOwners> IP_OWNERS_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, IpsecTopology> IPSEC_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, L3Adjacencies> L3_ADJACENCIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, Layer1Topologies> LAYER1_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, Topology> LAYER3_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, OspfTopology> OSPF_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, Topology> RAW_LAYER3_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, TunnelTopology> TUNNEL_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+  private static final Cache<HashCode, VxlanTopology> VXLAN_TOPOLOGIES_BY_CONTENT =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).softValues().build();
+
+  private static final Cache<NetworkSnapshot, TopologyFingerprints> FINGERPRINTS =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).build();
+
+  /** Hash of the user-provided and synthesized layer-1 topologies of each snapshot. */
+  private static final Cache<NetworkSnapshot, HashCode> LAYER1_INPUTS =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).build();
+
+  private static final Cache<NetworkSnapshot, Map<String, Long>> STAGE_MILLIS =
+      Caffeine.newBuilder().maximumSize(MAX_CACHED_SNAPSHOTS).build();
+
+  /**
+   * The most recently synthesized layer-3 topology (see {@link
+   * TopologyUtil#synthesizeL3Topology(Map)}), from which the next one is derived incrementally.
+   */
+  private static final AtomicReference<SynthesizedLayer3Topology> LAST_SYNTHESIZED_LAYER3 =
+      new AtomicReference<>();
+
+  private static final class SynthesizedLayer3Topology {
+    private SynthesizedLayer3Topology(Map<String, HashCode> nodeHashes, Topology topology) {
+      _nodeHashes = nodeHashes;
+      _topology = topology;
+    }
+
+    private final @Nonnull Map<String, HashCode> _nodeHashes;
+    private final @Nonnull Topology _topology;
+  }
+
+  /**
+   * Returns how long each initial topology stage took for the given snapshot, in milliseconds,
+   * keyed by stage name in the order the stages finished. A stage's time includes finding its
+   * result in the cache, and computing any upstream stage it needed that was not yet computed.
+   */
+  public @Nonnull Map<String, Long> getStageMillis(NetworkSnapshot snapshot) {
+    Map<String, Long> stageMillis = STAGE_MILLIS.getIfPresent(snapshot);
+    if (stageMillis == null) {
+      return ImmutableMap.of();
+    }
+    synchronized (stageMillis) {
+      return ImmutableMap.copyOf(stageMillis);
+    }
+  }
+
+  /**
+   * Returns the result of the given stage for the given snapshot: the cached result of any snapshot
+   * with the same stage inputs, or else the result of {@code compute}.
+   *
+   * @param slices the parts of each node's configuration that the stage reads
+   * @param readsLayer1 whether the stage reads the snapshot's layer-1 topologies
+   */
+  private <T> T computeStage(
+      NetworkSnapshot snapshot,
+      String stage,
+      Cache<HashCode, T> byContent,
+      Set<Slice> slices,
+      boolean readsLayer1,
+      Supplier<T> compute) {
+    long startTime = System.currentTimeMillis();
+    TopologyFingerprints fingerprints = getFingerprints(snapshot);
+    HashCode key =
+        readsLayer1
+            ? fingerprints.stageKey(stage, slices, getLayer1Inputs(snapshot))
+            : fingerprints.stageKey(stage, slices);
+    boolean[] computed = new boolean[1];
+    T result =
+        byContent.get(
+            key,
+            k -> {
+              computed[0] = true;
+              return compute.get();
+            });
+    long millis = System.currentTimeMillis() - startTime;
+    Map<String, Long> stageMillis =
+        STAGE_MILLIS.get(snapshot, s -> Collections.synchronizedMap(new LinkedHashMap<>()));
+    stageMillis.put(stage, millis);
+    LOGGER.debug(
+        "Topology stage {} for {}: {} in {} ms",
+        stage,
+        snapshot,
+        computed[0] ? "computed" : "reused",
+        millis);
+    return result;
+  }
+
+  private @Nonnull TopologyFingerprints getFingerprints(NetworkSnapshot snapshot) {
+    return FINGERPRINTS.get(snapshot, s -> new TopologyFingerprints(getConfigurations(s)));
+  }
+
+  private @Nonnull HashCode getLayer1Inputs(NetworkSnapshot snapshot) {
+    return LAYER1_INPUTS.get(
+        snapshot,
+        s -> {
+          Hasher hasher = ContentHashes.newContentHasher();
+          ContentHashes.putContent(hasher, getRawLayer1PhysicalTopology(s).orElse(null));
+          ContentHashes.putContent(hasher, loadSynthesizedLayer1Topology(s).orElse(null));
+          return hasher.hash();
+        });
+  }
+
   private @Nonnull Map<String, Configuration> getConfigurations(NetworkSnapshot snapshot) {
     return _batfish
         .getProcessedConfigurations(snapshot)
@@ -192,7 +341,15 @@ public final class TopologyProviderImpl implements TopologyProvider {
   }
 
   private @Nonnull IpOwners computeInitialIpOwners(NetworkSnapshot snapshot) {
-    return new PreDataPlaneIpOwners(getConfigurations(snapshot), getInitialL3Adjacencies(snapshot));
+    return computeStage(
+        snapshot,
+        STAGE_IP_OWNERS,
+        IP_OWNERS_BY_CONTENT,
+        ImmutableSet.of(Slice.LAYER3, Slice.TRACKING),
+        true,
+        () ->
+            new PreDataPlaneIpOwners(
+                getConfigurations(snapshot), getInitialL3Adjacencies(snapshot)));
   }
 
   private Optional<Layer1Topology> loadSynthesizedLayer1Topology(NetworkSnapshot networkSnapshot) {
@@ -204,23 +361,54 @@ public final class TopologyProviderImpl implements TopologyProvider {
   }
 
   private @Nonnull Layer1Topologies createLayer1Topologies(NetworkSnapshot networkSnapshot) {
-    return Layer1TopologiesFactory.create(
-        getRawLayer1PhysicalTopology(networkSnapshot).orElse(Layer1Topology.EMPTY),
-        loadSynthesizedLayer1Topology(networkSnapshot).orElse(Layer1Topology.EMPTY),
-        getConfigurations(networkSnapshot));
+    return computeStage(
+        networkSnapshot,
+        STAGE_LAYER1,
+        LAYER1_TOPOLOGIES_BY_CONTENT,
+        LAYER3,
+        true,
+        () ->
+            Layer1TopologiesFactory.create(
+                getRawLayer1PhysicalTopology(networkSnapshot).orElse(Layer1Topology.EMPTY),
+                loadSynthesizedLayer1Topology(networkSnapshot).orElse(Layer1Topology.EMPTY),
+                getConfigurations(networkSnapshot)));
   }
 
   /** Computes {@link IpsecTopology} with edges that have compatible IPsec settings */
   private IpsecTopology computeInitialIpsecTopology(NetworkSnapshot networkSnapshot) {
-    return TopologyUtil.computeIpsecTopology(getConfigurations(networkSnapshot));
+    return computeStage(
+        networkSnapshot,
+        STAGE_IPSEC,
+        IPSEC_TOPOLOGIES_BY_CONTENT,
+        ImmutableSet.of(Slice.LAYER3, Slice.IPSEC),
+        false,
+        () -> TopologyUtil.computeIpsecTopology(getConfigurations(networkSnapshot)));
   }
 
   private Topology computeInitialLayer3Topology(NetworkSnapshot networkSnapshot) {
-    return TopologyUtil.computeLayer3Topology(
-        getRawLayer3Topology(networkSnapshot), ImmutableSet.of());
+    return computeStage(
+        networkSnapshot,
+        STAGE_LAYER3,
+        LAYER3_TOPOLOGIES_BY_CONTENT,
+        LAYER3,
+        true,
+        () ->
+            TopologyUtil.computeLayer3Topology(
+                getRawLayer3Topology(networkSnapshot), ImmutableSet.of()));
   }
 
   private @Nonnull L3Adjacencies computeInitialL3Adjacencies(NetworkSnapshot networkSnapshot) {
+    return computeStage(
+        networkSnapshot,
+        STAGE_L3_ADJACENCIES,
+        L3_ADJACENCIES_BY_CONTENT,
+        LAYER3,
+        true,
+        () -> computeInitialL3AdjacenciesUncached(networkSnapshot));
+  }
+
+  private @Nonnull L3Adjacencies computeInitialL3AdjacenciesUncached(
+      NetworkSnapshot networkSnapshot) {
     Layer1Topologies l1 = getLayer1Topologies(networkSnapshot);
     if (L3Adjacencies.USE_NEW_METHOD) {
       return BroadcastL3Adjacencies.create(
@@ -242,14 +430,64 @@ public final class TopologyProviderImpl implements TopologyProvider {
   }
 
   private @Nonnull Topology computeRawLayer3Topology(NetworkSnapshot networkSnapshot) {
-    Map<String, Configuration> configurations = getConfigurations(networkSnapshot);
-    L3Adjacencies adjacencies = getInitialL3Adjacencies(networkSnapshot);
-    return TopologyUtil.computeRawLayer3Topology(adjacencies, configurations);
+    return computeStage(
+        networkSnapshot,
+        STAGE_RAW_LAYER3,
+        RAW_LAYER3_TOPOLOGIES_BY_CONTENT,
+        LAYER3,
+        true,
+        () -> {
+          Map<String, Configuration> configurations = getConfigurations(networkSnapshot);
+          L3Adjacencies adjacencies = getInitialL3Adjacencies(networkSnapshot);
+          return TopologyUtil.computeRawLayer3Topology(
+              adjacencies,
+              configurations,
+              synthesizeLayer3Topology(
+                  configurations, getFingerprints(networkSnapshot).getNodeHashes(Slice.LAYER3)));
+        });
+  }
+
+  /**
+   * Returns {@link TopologyUtil#synthesizeL3Topology(Map) the synthesized layer-3 topology} of the
+   * given configurations. The edges among nodes whose layer-3 configuration is unchanged since the
+   * last synthesized topology are taken from that topology; only the edges of the other nodes are
+   * recomputed.
+   */
+  @VisibleForTesting
+  static @Nonnull Topology synthesizeLayer3Topology(
+      Map<String, Configuration> configurations, Map<String, HashCode> nodeHashes) {
+    SynthesizedLayer3Topology last = LAST_SYNTHESIZED_LAYER3.get();
+    Topology topology;
+    if (last == null) {
+      topology = TopologyUtil.synthesizeL3Topology(configurations);
+    } else if (last._nodeHashes.equals(nodeHashes)) {
+      topology = last._topology;
+    } else {
+      Set<String> changed = TopologyFingerprints.changedNodes(last._nodeHashes, nodeHashes);
+      Predicate<String> unchanged = n -> nodeHashes.containsKey(n) && !changed.contains(n);
+      ImmutableSortedSet.Builder<Edge> edges = ImmutableSortedSet.naturalOrder();
+      last._topology.getEdges().stream()
+          .filter(e -> unchanged.test(e.getNode1()) && unchanged.test(e.getNode2()))
+          .forEach(edges::add);
+      edges.addAll(TopologyUtil.synthesizeL3Topology(configurations, changed).getEdges());
+      topology = new Topology(edges.build());
+    }
+    LAST_SYNTHESIZED_LAYER3.set(
+        new SynthesizedLayer3Topology(ImmutableMap.copyOf(nodeHashes), topology));
+    return topology;
   }
 
   private @Nonnull OspfTopology computeInitialOspfTopology(NetworkSnapshot snapshot) {
-    return OspfTopologyUtils.computeOspfTopology(
-        NetworkConfigurations.of(getConfigurations(snapshot)), getInitialLayer3Topology(snapshot));
+    return computeStage(
+        snapshot,
+        STAGE_OSPF,
+        OSPF_TOPOLOGIES_BY_CONTENT,
+        ImmutableSet.of(Slice.LAYER3, Slice.OSPF),
+        true,
+        () ->
+            OspfTopologyUtils.computeOspfTopology(
+                NetworkConfigurations.of(getConfigurations(snapshot)),
+                getInitialLayer3Topology(snapshot)));
   }
 
   private @Nonnull OspfTopology computeOspfTopology(NetworkSnapshot snapshot) {
@@ -258,10 +496,24 @@ public final class TopologyProviderImpl implements TopologyProvider {
   }
 
   private @Nonnull TunnelTopology computeInitialTunnelTopology(NetworkSnapshot snapshot) {
-    return TopologyUtil.computeInitialTunnelTopology(getConfigurations(snapshot));
+    return computeStage(
+        snapshot,
+        STAGE_TUNNEL,
+        TUNNEL_TOPOLOGIES_BY_CONTENT,
+        LAYER3,
+        false,
+        () -> TopologyUtil.computeInitialTunnelTopology(getConfigurations(snapshot)));
   }
 
   private @Nonnull VxlanTopology computeInitialVxlanTopology(NetworkSnapshot snapshot) {
-    return VxlanTopologyUtils.computeInitialVxlanTopology(getConfigurations(snapshot));
+    return computeStage(
+        snapshot,
+        STAGE_VXLAN,
+        VXLAN_TOPOLOGIES_BY_CONTENT,
+        ImmutableSet.of(Slice.LAYER3, Slice.LAYER3_VNIS),
+        false,
+        () -> VxlanTopologyUtils.computeInitialVxlanTopology(getConfigurations(snapshot)));
   }
+
+  private static final Logger LOGGER = LogManager.getLogger(TopologyProviderImpl.class);
 }
@@ -9,6 +9,7 @@ import static org.batfish.bddreachability.transition.Transitions.addOriginatingF
 import static org.batfish.bddreachability.transition.Transitions.compose;
 import static org.batfish.bddreachability.transition.Transitions.constraint;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
 import static org.batfish.datamodel.ExprAclLine.ACCEPT_ALL;
 import static org.batfish.datamodel.ExprAclLine.REJECT_ALL;
 import static org.batfish.datamodel.ExprAclLine.accepting;
@@ -41,6 +42,7 @@ import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
@@ -58,12 +60,18 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Streams;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
@@ -155,6 +163,7 @@ import org.batfish.symbolic.state.Query;
 import org.batfish.symbolic.state.SetupSessionDeliveredToSubnet;
 import org.batfish.symbolic.state.SetupSessionExitsNetwork;
 import org.batfish.symbolic.state.StateExpr;
+import org.batfish.symbolic.state.VrfAccept;
 import org.hamcrest.Matcher;
 import org.junit.Rule;
 import org.junit.Test;
@@ -200,16 +209,26 @@ public final class BDDReachabilityAnalysisFactoryTest {
 
   private BDDReachabilityAnalysisFactory makeBddReachabilityAnalysisFactory(
       SortedMap<String, Configuration> configs, boolean ignoreFilters) throws IOException {
+    return makeBddReachabilityAnalysisFactory(_pkt, configs, ignoreFilters, 1);
+  }
+
+  private BDDReachabilityAnalysisFactory makeBddReachabilityAnalysisFactory(
+      BDDPacket pkt,
+      SortedMap<String, Configuration> configs,
+      boolean ignoreFilters,
+      int constructionThreads)
+      throws IOException {
     Batfish batfish = BatfishTestUtils.getBatfish(configs, temp);
     batfish.computeDataPlane(batfish.getSnapshot());
     DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
     return new BDDReachabilityAnalysisFactory(
-        _pkt,
+        pkt,
         configs,
         dataPlane.getForwardingAnalysis(),
         new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
         ignoreFilters,
-        false);
+        false,
+        constructionThreads);
   }
 
   @Test
@@ -219,6 +238,105 @@ public final class BDDReachabilityAnalysisFactoryTest {
     makeBddReachabilityAnalysisFactory(net._configs);
   }
 
+  @Test
+  public void testParallelConstruction() throws IOException {
+    TestNetworkIndirection net = new TestNetworkIndirection();
+    BDDReachabilityAnalysisFactory sequential = makeBddReachabilityAnalysisFactory(net._configs);
+    BDDPacket parallelPkt = new BDDPacket();
+    BDDReachabilityAnalysisFactory parallel =
+        makeBddReachabilityAnalysisFactory(parallelPkt, net._configs, false, 2);
+
+    // move the sequentially built BDDs into the parallel factory to compare them
+    Map<String, Map<String, Supplier<BDD>>> expected = sequential.getAclPermitBdds();
+    Map<String, Map<String, Supplier<BDD>>> actual = parallel.getAclPermitBdds();
+    assertThat(actual.keySet(), equalTo(expected.keySet()));
+    List<BDD> expectedBdds = new ArrayList<>();
+    List<BDD> actualBdds = new ArrayList<>();
+    expected.forEach(
+        (node, acls) -> {
+          assertThat(actual.get(node).keySet(), equalTo(acls.keySet()));
+          acls.forEach(
+              (acl, bdd) -> {
+                expectedBdds.add(bdd.get());
+                actualBdds.add(actual.get(node).get(acl).get());
+              });
+        });
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    _pkt.getFactory().save(new DataOutputStream(bytes), expectedBdds);
+    assertThat(
+        parallelPkt
+            .getFactory()
+            .load(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))),
+        equalTo(actualBdds));
+
+    assertThat(
+        parallel.getConstructionMillis().keySet(),
+        hasItems("aclBdds", "incomingTransformations", "outgoingTransformations"));
+  }
+
+  @Test
+  public void testQueryScopedAnalysis() throws IOException {
+    TestNetwork net = new TestNetwork();
+    Batfish batfish = BatfishTestUtils.getBatfish(net._configs, temp);
+    BDDReachabilityAnalysisFactory factory = makeBddReachabilityAnalysisFactory(net._configs);
+    String dstNode = net._dstNode.getHostname();
+    for (Set<FlowDisposition> actions :
+        ImmutableList.<Set<FlowDisposition>>of(
+            ImmutableSet.of(ACCEPTED), ImmutableSet.of(DENIED_OUT, NO_ROUTE), ALL_DISPOSITIONS)) {
+      BDDReachabilityAnalysis full =
+          factory.bddReachabilityAnalysis(
+              ipSpaceAssignment(batfish),
+              TRUE,
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(dstNode),
+              actions,
+              false,
+              false);
+      BDDReachabilityAnalysis scoped =
+          factory.bddReachabilityAnalysis(
+              ipSpaceAssignment(batfish),
+              TRUE,
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(dstNode),
+              actions,
+              false,
+              true);
+      assertThat(
+          scoped.getIngressLocationReachableBDDs(),
+          equalTo(full.getIngressLocationReachableBDDs()));
+      assertTrue(
+          full.getForwardEdgeTable().cellSet().containsAll(scoped.getForwardEdgeTable().cellSet()));
+    }
+
+    // Edges that cannot lead to the query are sliced away: the source node accepts flows, but it
+    // is not a final node.
+    StateExpr srcVrfAccept = new VrfAccept(net._srcNode.getHostname(), DEFAULT_VRF_NAME);
+    BDDReachabilityAnalysis full =
+        factory.bddReachabilityAnalysis(
+            ipSpaceAssignment(batfish),
+            TRUE,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            ImmutableSet.of(dstNode),
+            ImmutableSet.of(ACCEPTED),
+            false,
+            false);
+    BDDReachabilityAnalysis scoped =
+        factory.bddReachabilityAnalysis(
+            ipSpaceAssignment(batfish),
+            TRUE,
+            ImmutableSet.of(),
+            ImmutableSet.of(),
+            ImmutableSet.of(dstNode),
+            ImmutableSet.of(ACCEPTED),
+            false,
+            true);
+    assertThat(full.getForwardEdgeMap(), hasKey(srcVrfAccept));
+    assertThat(scoped.getForwardEdgeMap(), not(hasKey(srcVrfAccept)));
+  }
+
   @Test
   public void testAnalysisUseInterfaceRootsParam() throws IOException {
     SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
@@ -18,6 +18,8 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.ConcreteInterfaceAddress;
@@ -29,6 +31,7 @@ import org.batfish.datamodel.FibEntry;
 import org.batfish.datamodel.FibForward;
 import org.batfish.datamodel.FibImpl;
 import org.batfish.datamodel.FibNextVrf;
+import org.batfish.datamodel.FibNullRoute;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.NetworkFactory;
@@ -486,4 +489,61 @@ public final class FibImplTest {
     Set<AbstractRoute> fibRoutesEth2 = getTopLevelRoutesByInterface(fib, "Eth2");
     assertThat(fibRoutesEth2, contains(restrictionViolatingRoute));
   }
+
+  @Test
+  public void testSharedNextHopResolution() {
+    Rib rib = new Rib();
+    StaticRoute interfaceRoute =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("10.0.0.0/24"))
+            .setNextHopInterface("Eth1")
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute resolvingRoute =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopIp(Ip.parse("10.0.0.1"))
+            .setAdministrativeCost(1)
+            .build();
+    // Resolves its next-hop IP through its own network, so its resolution is a loop.
+    StaticRoute loopingRoute =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopIp(Ip.parse("1.1.1.1"))
+            .setAdministrativeCost(1)
+            .build();
+    rib.mergeRoute(annotateRoute(interfaceRoute));
+    rib.mergeRoute(annotateRoute(resolvingRoute));
+    rib.mergeRoute(annotateRoute(loopingRoute));
+    // Enough routes sharing the next-hop IP of loopingRoute for the FIB to be built in parallel
+    List<Prefix> sharingNetworks = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      Prefix network = Prefix.create(Ip.create((100L << 24) + ((long) i << 8)), 24);
+      sharingNetworks.add(network);
+      rib.mergeRoute(
+          annotateRoute(
+              StaticRoute.testBuilder()
+                  .setNetwork(network)
+                  .setNextHopIp(Ip.parse("1.1.1.1"))
+                  .setAdministrativeCost(1)
+                  .build()));
+    }
+
+    Fib fib = new FibImpl(rib, alwaysTrue());
+
+    assertThat(
+        fib.get(Ip.parse("1.1.1.1")),
+        containsInAnyOrder(
+            new FibEntry(
+                FibForward.of(Ip.parse("10.0.0.1"), "Eth1"), ImmutableList.of(resolvingRoute)),
+            new FibEntry(FibNullRoute.INSTANCE, ImmutableList.of(loopingRoute))));
+    for (Prefix network : sharingNetworks) {
+      // Resolves through resolvingRoute to Eth1, and through loopingRoute to a loop.
+      assertThat(
+          fib.get(network.getStartIp()).stream()
+              .map(FibEntry::getAction)
+              .collect(ImmutableSet.toImmutableSet()),
+          containsInAnyOrder(FibForward.of(Ip.parse("10.0.0.1"), "Eth1"), FibNullRoute.INSTANCE));
+    }
+  }
 }
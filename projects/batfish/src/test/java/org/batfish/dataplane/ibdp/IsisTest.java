@@ -12,8 +12,10 @@ import static org.batfish.datamodel.matchers.IsisRouteMatchers.isisRouteWith;
 import static org.batfish.dataplane.ibdp.TestUtils.assertIsisRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertNoRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertRoute;
+import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasKey;
 import static org.junit.Assert.assertThat;
@@ -23,6 +25,7 @@ import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Sets;
 import java.util.Collections;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedMap;
 import org.batfish.common.topology.IpOwnersBaseImpl;
@@ -753,6 +756,117 @@ public class IsisTest {
     assertRoute(routes, ISIS_L1, R5, Prefix.parse("10.3.3.100/32"), 10L);
   }
 
+  /**
+   * Builds the dataplane of a ring of eight routers with chords r0-r4 and r2-r6 and random
+   * interface costs, using the given IS-IS propagation. r3 and r5 are L1-only, the other routers
+   * are L1-L2.
+   */
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getIsisRingRoutes(
+      boolean isisSpf) {
+    int numRouters = 8;
+    Random random = new Random(0);
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Vrf.Builder vb = nf.vrfBuilder().setName(DEFAULT_VRF_NAME);
+    Interface.Builder ib = nf.interfaceBuilder();
+    IsisLevelSettings levelSettings = IsisLevelSettings.builder().build();
+    IsisInterfaceLevelSettings passiveIls =
+        IsisInterfaceLevelSettings.builder().setMode(IsisInterfaceMode.PASSIVE).build();
+    ImmutableSortedMap.Builder<String, Configuration> configurations =
+        ImmutableSortedMap.naturalOrder();
+    for (int i = 0; i < numRouters; i++) {
+      boolean l1Only = i == 3 || i == 5;
+      Configuration c = cb.setHostname("r" + i).build();
+      Vrf v = vb.setOwner(c).build();
+      IsisProcess.builder()
+          .setVrf(v)
+          .setNetAddress(new IsoAddress(String.format("49.0001.0100.0000.%04d.00", i)))
+          .setLevel1(levelSettings)
+          .setLevel2(l1Only ? null : levelSettings)
+          .build();
+      ib.setOwner(c).setVrf(v);
+      ib.setAddress(ConcreteInterfaceAddress.create(Ip.parse("10.255.255." + i), 32))
+          .setIsis(
+              IsisInterfaceSettings.builder()
+                  .setPointToPoint(true)
+                  .setLevel1(passiveIls)
+                  .setLevel2(l1Only ? null : passiveIls)
+                  .build())
+          .build();
+      configurations.put(c.getHostname(), c);
+    }
+    SortedMap<String, Configuration> configs = configurations.build();
+    int[][] links = new int[numRouters + 2][];
+    for (int i = 0; i < numRouters; i++) {
+      links[i] = new int[] {i, (i + 1) % numRouters};
+    }
+    links[numRouters] = new int[] {0, 4};
+    links[numRouters + 1] = new int[] {2, 6};
+    for (int link = 0; link < links.length; link++) {
+      for (int end = 0; end < 2; end++) {
+        int router = links[link][end];
+        Configuration c = configs.get("r" + router);
+        boolean l1Only = router == 3 || router == 5;
+        ib.setOwner(c)
+            .setVrf(c.getDefaultVrf())
+            .setAddress(
+                ConcreteInterfaceAddress.create(
+                    Ip.parse("10.0." + link + "." + (end + 1)), INTERFACE_PREFIX_LENGTH))
+            .setIsis(
+                IsisInterfaceSettings.builder()
+                    .setPointToPoint(true)
+                    .setLevel1(
+                        IsisInterfaceLevelSettings.builder()
+                            .setMode(IsisInterfaceMode.ACTIVE)
+                            .setCost(1L + random.nextInt(3))
+                            .build())
+                    .setLevel2(
+                        l1Only
+                            ? null
+                            : IsisInterfaceLevelSettings.builder()
+                                .setMode(IsisInterfaceMode.ACTIVE)
+                                .setCost(1L + random.nextInt(3))
+                                .build())
+                    .build())
+            .build();
+      }
+    }
+
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_ISIS_SPF, isisSpf);
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings);
+    Topology topology = TopologyUtil.synthesizeL3Topology(configs);
+    TopologyContext topologyContext =
+        TopologyContext.builder()
+            .setLayer3Topology(topology)
+            .setIsisTopology(IsisTopology.initIsisTopology(configs, topology))
+            .build();
+    return IncrementalBdpEngine.getRoutes(
+        (IncrementalDataPlane)
+            engine.computeDataPlane(
+                    configs,
+                    topologyContext,
+                    Collections.emptySet(),
+                    new TestIpOwners(configs, topologyContext.getL3Adjacencies()))
+                ._dataPlane);
+  }
+
+  @Test
+  public void testIsisSpfMatchesIterativePropagation() {
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> spfRoutes = getIsisRingRoutes(true);
+    assertThat(spfRoutes, equalTo(getIsisRingRoutes(false)));
+
+    // sanity check: L1 routes, L2 routes, and attached defaults were computed
+    Set<AbstractRoute> r3Routes = spfRoutes.get("r3").get(DEFAULT_VRF_NAME);
+    assertThat(r3Routes, hasItem(allOf(hasPrefix(Prefix.ZERO), hasProtocol(ISIS_L1))));
+    assertThat(
+        r3Routes, hasItem(allOf(hasPrefix(Prefix.parse("10.255.255.7/32")), hasProtocol(ISIS_L1))));
+    assertThat(
+        spfRoutes.get("r0").get(DEFAULT_VRF_NAME),
+        hasItem(allOf(hasPrefix(Prefix.parse("10.255.255.6/32")), hasProtocol(ISIS_L1))));
+  }
+
   private static class TestIpOwners extends IpOwnersBaseImpl {
     protected TestIpOwners(
         Map<String, Configuration> configurations, L3Adjacencies initialL3Adjacencies) {
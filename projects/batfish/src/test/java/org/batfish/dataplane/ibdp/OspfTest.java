@@ -5,19 +5,28 @@ import static org.batfish.datamodel.RoutingProtocol.OSPF_E1;
 import static org.batfish.datamodel.RoutingProtocol.OSPF_E2;
 import static org.batfish.datamodel.RoutingProtocol.OSPF_IA;
 import static org.batfish.datamodel.RoutingProtocol.OSPF_IS;
+import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasPrefix;
+import static org.batfish.datamodel.matchers.AbstractRouteDecoratorMatchers.hasProtocol;
 import static org.batfish.datamodel.ospf.OspfAreaSummary.SummaryRouteBehavior.ADVERTISE_AND_INSTALL_DISCARD;
 import static org.batfish.datamodel.ospf.OspfAreaSummary.SummaryRouteBehavior.NOT_ADVERTISE_AND_INSTALL_DISCARD;
 import static org.batfish.datamodel.ospf.OspfAreaSummary.SummaryRouteBehavior.NOT_ADVERTISE_AND_NO_DISCARD;
 import static org.batfish.datamodel.ospf.OspfTopologyUtils.computeOspfTopology;
 import static org.batfish.dataplane.ibdp.TestUtils.assertNoRoute;
 import static org.batfish.dataplane.ibdp.TestUtils.assertRoute;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedMap;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedMap;
 import javax.annotation.Nullable;
@@ -1361,6 +1370,136 @@ public class OspfTest {
     assertNoRoute(routes, "listener", Prefix.parse("192.168.61.0/24"));
   }
 
+  /**
+   * Get routes for a ring of eight routers with a chord and random interface costs, using the given
+   * OSPF intra-area engine. Ring links 0 through 3 and the chord are in area 0, the rest in area 1,
+   * so r0 and r4 are ABRs. Both also originate the same prefix, in different areas.
+   */
+  private static SortedMap<String, SortedMap<String, Set<AbstractRoute>>> getOspfRingRoutes(
+      boolean ospfSpf) {
+    int numRouters = 8;
+    Random random = new Random(0);
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Vrf.Builder vb = nf.vrfBuilder().setName(Configuration.DEFAULT_VRF_NAME);
+    OspfProcess.Builder opb = nf.ospfProcessBuilder().setProcessId("1");
+    Interface.Builder ib = nf.interfaceBuilder();
+    List<Configuration> configs = new ArrayList<>();
+    List<Map<Long, OspfArea>> areas = new ArrayList<>();
+    for (int i = 0; i < numRouters; i++) {
+      Configuration c = cb.setHostname("r" + i).build();
+      Vrf v = vb.setOwner(c).build();
+      OspfProcess op = opb.setVrf(v).setRouterId(Ip.create(i + 1)).build();
+      configs.add(c);
+      areas.add(new HashMap<>());
+      long loopbackArea = i < numRouters / 2 ? 0L : 1L;
+      addOspfInterface(
+          ib.setOwner(c).setVrf(v),
+          op,
+          areas.get(i),
+          "Loopback0",
+          ConcreteInterfaceAddress.create(Ip.parse("1.1.1." + i), 32),
+          loopbackArea,
+          1,
+          true);
+    }
+    // Ring links, plus a chord between r1 and r5
+    for (int link = 0; link <= numRouters; link++) {
+      int[] ends = link < numRouters ? new int[] {link, (link + 1) % numRouters} : new int[] {1, 5};
+      long area = link < numRouters / 2 || link == numRouters ? 0L : 1L;
+      for (int end = 0; end < 2; end++) {
+        Configuration c = configs.get(ends[end]);
+        addOspfInterface(
+            ib.setOwner(c).setVrf(c.getDefaultVrf()),
+            c.getDefaultVrf().getOspfProcesses().get("1"),
+            areas.get(ends[end]),
+            "Ethernet" + link,
+            ConcreteInterfaceAddress.create(Ip.parse("10.0." + link + "." + (end + 1)), 30),
+            area,
+            1 + random.nextInt(3),
+            false);
+      }
+    }
+    // The same prefix, originated in area 1 by r0 and in area 0 by r4
+    for (int router : new int[] {0, numRouters / 2}) {
+      Configuration c = configs.get(router);
+      addOspfInterface(
+          ib.setOwner(c).setVrf(c.getDefaultVrf()),
+          c.getDefaultVrf().getOspfProcesses().get("1"),
+          areas.get(router),
+          "Ethernet9",
+          ConcreteInterfaceAddress.create(Ip.parse("10.255.0." + (router + 1)), 24),
+          router == 0 ? 1L : 0L,
+          1,
+          true);
+    }
+
+    SortedMap<String, Configuration> configurations =
+        configs.stream()
+            .collect(
+                ImmutableSortedMap.toImmutableSortedMap(
+                    String::compareTo, Configuration::getHostname, c -> c));
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_OSPF_SPF, ospfSpf);
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(settings);
+    OspfTopologyUtils.initNeighborConfigs(NetworkConfigurations.of(configurations));
+    Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
+    TopologyContext topologyContext =
+        TopologyContext.builder()
+            .setLayer3Topology(topology)
+            .setOspfTopology(
+                computeOspfTopology(NetworkConfigurations.of(configurations), topology))
+            .build();
+    IncrementalDataPlane dp =
+        (IncrementalDataPlane)
+            engine.computeDataPlane(
+                    configurations,
+                    topologyContext,
+                    Collections.emptySet(),
+                    new TestIpOwners(configurations, topologyContext.getL3Adjacencies()))
+                ._dataPlane;
+    return IncrementalBdpEngine.getRoutes(dp);
+  }
+
+  /** Add an OSPF interface to the given area of {@code op}, creating the area if needed. */
+  private static void addOspfInterface(
+      Interface.Builder ib,
+      OspfProcess op,
+      Map<Long, OspfArea> areas,
+      String name,
+      ConcreteInterfaceAddress address,
+      long area,
+      int cost,
+      boolean passive) {
+    OspfArea ospfArea =
+        areas.computeIfAbsent(
+            area, a -> OspfArea.builder().setNumber(a).setOspfProcess(op).build());
+    ib.setName(name)
+        .setAddress(address)
+        .setOspfSettings(
+            baseOspfSettings()
+                .setAreaName(area)
+                .setCost(cost)
+                .setPassive(passive)
+                .setNetworkType(OspfNetworkType.POINT_TO_POINT)
+                .build())
+        .build();
+    ospfArea.addInterface(name);
+  }
+
+  @Test
+  public void testOspfSpfMatchesIterativePropagation() {
+    SortedMap<String, SortedMap<String, Set<AbstractRoute>>> spfRoutes = getOspfRingRoutes(true);
+    assertThat(spfRoutes, equalTo(getOspfRingRoutes(false)));
+
+    // sanity check: intra- and inter-area routes were computed
+    Set<AbstractRoute> r2Routes = spfRoutes.get("r2").get(Configuration.DEFAULT_VRF_NAME);
+    assertThat(r2Routes, hasItem(allOf(hasPrefix(Prefix.parse("1.1.1.0/32")), hasProtocol(OSPF))));
+    assertThat(
+        r2Routes, hasItem(allOf(hasPrefix(Prefix.parse("1.1.1.6/32")), hasProtocol(OSPF_IA))));
+  }
+
   private static class TestIpOwners extends IpOwnersBaseImpl {
     protected TestIpOwners(
         Map<String, Configuration> configurations, L3Adjacencies initialL3Adjacencies) {
@@ -5,8 +5,13 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.testing.EqualsTester;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.BgpTieBreaker;
 import org.batfish.datamodel.Bgpv4Route;
@@ -219,6 +224,83 @@ public class RibDeltaTest {
             equalTo(new RouteAdvertisement<>(bestRoute))));
   }
 
+  /**
+   * Check that the {@link Builder} agrees with a model of insertion-ordered actions, through many
+   * adds, removes and cancellations.
+   */
+  @Test
+  public void testBuilderMatchesModel() {
+    List<StaticRoute> routes =
+        IntStream.range(0, 50)
+            .mapToObj(
+                i ->
+                    StaticRoute.testBuilder()
+                        .setNetwork(Prefix.create(Ip.create(i << 8), PREFIX_LENGTH))
+                        .setNextHopIp(_nextHopIp)
+                        .setAdministrativeCost(1)
+                        .build())
+            .collect(Collectors.toList());
+    Random random = new Random(0);
+    for (int round = 0; round < 20; round++) {
+      Map<AbstractRoute, Reason> model = new LinkedHashMap<>();
+      for (int i = 0; i < 500; i++) {
+        StaticRoute route = routes.get(random.nextInt(routes.size()));
+        Reason reason = Reason.values()[random.nextInt(Reason.values().length)];
+        Reason old = model.put(route, reason);
+        if (reason == Reason.ADD) {
+          _builder.add(route);
+          if (old != null && old != Reason.ADD) {
+            model.remove(route);
+          }
+        } else {
+          _builder.remove(route, reason);
+          if (old == Reason.ADD) {
+            model.remove(route);
+          }
+        }
+      }
+      List<String> expected =
+          model.entrySet().stream()
+              .map(e -> e.getKey().getNetwork() + " " + e.getValue())
+              .collect(Collectors.toList());
+      List<String> actual = new ArrayList<>();
+      _builder
+          .build()
+          .forEachAction((route, reason) -> actual.add(route.getNetwork() + " " + reason));
+      assertThat(actual, equalTo(expected));
+      assertThat(_builder.isEmpty(), equalTo(model.isEmpty()));
+
+      // the builder can be reused
+      _builder.clear();
+      assertThat(_builder.build(), equalTo(RibDelta.empty()));
+    }
+  }
+
+  /** Check that an action and its reversal in the same delta cancel out */
+  @Test
+  public void testBuilderCancel() {
+    StaticRoute route1 =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("1.1.1.0/24"))
+            .setNextHopIp(_nextHopIp)
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute route2 =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("2.2.2.0/24"))
+            .setNextHopIp(_nextHopIp)
+            .setAdministrativeCost(1)
+            .build();
+    _builder.add(route1).add(route2).remove(route1, Reason.REPLACE);
+    assertThat(_builder.build().getRoutes(), contains(route2));
+
+    // re-adding a cancelled route puts it last
+    _builder.add(route1);
+    assertThat(
+        _builder.build().getActions().collect(Collectors.toList()),
+        contains(new RouteAdvertisement<>(route2), new RouteAdvertisement<>(route1)));
+  }
+
   /** Test that the routes are exact route matches are removed from the RIB by default */
   @Test
   public void testImportRibExactRemoval() {
@@ -0,0 +1,47 @@
+package org.batfish.grammar.flatjuniper;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNodeImpl;
+import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
+import org.junit.Test;
+
+/** Tests of {@link ConfigurationLineEdits}. */
+public final class ConfigurationLineEditsTest {
+
+  private static ParseTree line(String text) {
+    return new TerminalNodeImpl(new CommonToken(FlatJuniperLexer.NEWLINE, text));
+  }
+
+  @Test
+  public void testApplyTo() {
+    ParseTree a = line("a");
+    ParseTree b = line("b");
+    ParseTree c = line("c");
+    ParseTree before1 = line("before1");
+    ParseTree before2 = line("before2");
+    ParseTree after1 = line("after1");
+    ParseTree after2 = line("after2");
+    ParseTree nested = line("nested");
+    Flat_juniper_configurationContext ctx = new Flat_juniper_configurationContext(null, -1);
+    ctx.children = new ArrayList<>(ImmutableList.of(a, b, c));
+
+    ConfigurationLineEdits edits = new ConfigurationLineEdits();
+    edits.insertBefore(b, ImmutableList.of(before1));
+    edits.insertBefore(b, ImmutableList.of(before2));
+    edits.insertAfter(b, ImmutableList.of(after1));
+    edits.insertAfter(b, ImmutableList.of(after2));
+    edits.remove(b);
+    // inserted lines can be edited too
+    edits.insertBefore(before2, ImmutableList.of(nested));
+    edits.remove(c);
+    edits.applyTo(ctx);
+
+    assertThat(ctx.children, contains(a, before1, nested, before2, after2, after1));
+  }
+}
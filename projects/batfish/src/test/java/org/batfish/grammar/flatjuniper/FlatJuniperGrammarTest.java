@@ -201,6 +201,7 @@ import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.emptyIterable;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasItems;
@@ -330,6 +331,7 @@ import org.batfish.datamodel.acl.PermittedByAcl;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.InitInfoAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.datamodel.answers.ParserCacheStats;
 import org.batfish.datamodel.bgp.AddressFamilyCapabilities;
 import org.batfish.datamodel.bgp.BgpConfederation;
 import org.batfish.datamodel.bgp.RouteDistinguisher;
@@ -376,6 +378,7 @@ import org.batfish.datamodel.transformation.ShiftIpAddressIntoSubnet;
 import org.batfish.datamodel.transformation.Transformation;
 import org.batfish.dataplane.ibdp.IncrementalDataPlane;
 import org.batfish.grammar.BatfishParseTreeWalker;
+import org.batfish.grammar.ParserCacheManager;
 import org.batfish.grammar.flatjuniper.FlatJuniperParser.Flat_juniper_configurationContext;
 import org.batfish.grammar.silent_syntax.SilentSyntaxCollection;
 import org.batfish.main.Batfish;
@@ -7519,6 +7522,19 @@ public final class FlatJuniperGrammarTest {
     parseJuniperConfig(hostname);
   }
 
+  @Test
+  public void testApplyGroupsSubParsesTracked() {
+    String grammar =
+        new FlatJuniperCombinedParser("", new Settings(), null).getParser().getGrammarFileName();
+    ParserCacheStats before = ParserCacheManager.getInstance().getStats().get(grammar);
+    long parsesBefore = before == null ? 0L : before.getParses();
+    parseJuniperConfig("apply-groups");
+    // The statements applied from groups are parsed on their own, and tracked like other parses.
+    assertThat(
+        ParserCacheManager.getInstance().getStats().get(grammar).getParses(),
+        greaterThan(parsesBefore + 1));
+  }
+
   @Test
   public void testDefineStructureFromNested() throws IOException {
     String hostname = "define-structure-from-nested";
@@ -3,6 +3,7 @@ package org.batfish.job;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.batfish.common.util.Resources.readResource;
 import static org.batfish.job.ParseVendorConfigurationJob.detectFormat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
@@ -12,6 +13,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warnings;
 import org.batfish.config.Settings;
@@ -120,4 +122,59 @@ public class ParseVendorConfigurationJobTest {
         detectFormat(ImmutableMap.of("file", fileText), settings, ConfigurationFormat.UNKNOWN),
         equalTo(ConfigurationFormat.IGNORED));
   }
+
+  @Test
+  public void testFileTextsLoadedLazily() {
+    AtomicInteger loads = new AtomicInteger();
+    ParseVendorConfigurationJob job =
+        ParseVendorConfigurationJob.withFileTextLoaders(
+            new Settings(),
+            new NetworkSnapshot(new NetworkId("net"), new SnapshotId("ss")),
+            ImmutableMap.of(
+                "config",
+                () -> {
+                  loads.incrementAndGet();
+                  return "some nonempty content";
+                }),
+            new Warnings.Settings(false, false, false),
+            ConfigurationFormat.UNSUPPORTED,
+            ImmutableMultimap.of());
+    assertThat(job.getFilenames(), contains("config"));
+    assertThat(loads.get(), equalTo(0));
+
+    ParseResult result = job.parse();
+    assertThat(result.getParseStatus("config"), equalTo(Optional.of(ParseStatus.UNSUPPORTED)));
+    assertThat(loads.get(), equalTo(1));
+
+    // Texts are released after parsing, and reloaded on demand.
+    assertThat(job.getFileTexts(), equalTo(ImmutableMap.of("config", "some nonempty content")));
+    assertThat(loads.get(), equalTo(2));
+  }
+
+  @Test
+  public void testJuniperStageMillis() {
+    Settings settings = new Settings();
+    settings.setParseStats(true);
+    ParseResult result =
+        new ParseVendorConfigurationJob(
+                settings,
+                new NetworkSnapshot(new NetworkId("net"), new SnapshotId("ss")),
+                ImmutableMap.of("config", "system {\n  host-name r1;\n}\n"),
+                new Warnings.Settings(false, false, false),
+                ConfigurationFormat.JUNIPER,
+                ImmutableMultimap.of())
+            .parse();
+    assertThat(result.getFailureCause(), nullValue());
+    assertThat(
+        result.getFileResults().get("config").getStageMillis().keySet(),
+        contains(
+            "flatten",
+            "preprocess:insertDelete",
+            "preprocess:deactivate",
+            "preprocess:buildHierarchy",
+            "preprocess:applyGroups",
+            "preprocess:wildcards",
+            "preprocess:applyPath",
+            "extract"));
+  }
 }
@@ -0,0 +1,24 @@
+package org.batfish.job;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.batfish.config.Settings;
+import org.batfish.datamodel.answers.ParseStatus;
+import org.junit.Test;
+
+/** Tests of {@link ParserWarmup}. */
+public final class ParserWarmupTest {
+
+  @Test
+  public void testCorpusParses() {
+    Settings settings = new Settings();
+    ParserWarmup.CORPUS.forEach(
+        (file, format) -> {
+          ParseResult result = ParserWarmup.parse(settings, file, format);
+          assertThat(file, result.getFailureCause(), nullValue());
+          assertThat(file, result.getParseStatus(file).get(), equalTo(ParseStatus.PASSED));
+        });
+  }
+}
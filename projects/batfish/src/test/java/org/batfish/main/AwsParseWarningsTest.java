@@ -2,13 +2,19 @@ package org.batfish.main;
 
 import static org.batfish.common.BfConsts.RELPATH_AWS_CONFIGS_FILE;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import org.batfish.common.BfConsts;
 import org.batfish.common.Warning;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.representation.aws.AwsConfiguration;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,4 +46,46 @@ public class AwsParseWarningsTest {
             new Warning(
                 String.format("Unrecognized element 'invalidKey' in AWS file %s", _key), "AWS")));
   }
+
+  @Test
+  public void testBadJsonAddsNothing() {
+    AwsConfiguration config =
+        Batfish.parseAwsConfigurations(
+            ImmutableMap.of(
+                Paths.get(BfConsts.RELPATH_AWS_CONFIGS_DIR, "account", "region", "file.json")
+                    .toString(),
+                "{ \"Vpcs\": [] "),
+            _pvcae);
+    assertThat(config.getAccounts(), empty());
+    assertThat(_pvcae.getWarnings().get(RELPATH_AWS_CONFIGS_FILE).getRedFlagWarnings(), hasSize(1));
+  }
+
+  @Test
+  public void testWarningsFromManyRegions() {
+    ImmutableMap.Builder<String, String> files = ImmutableMap.builder();
+    ImmutableList.Builder<Warning> expected = ImmutableList.builder();
+    for (int account = 0; account < 5; account++) {
+      for (int region = 0; region < 5; region++) {
+        for (int file = 0; file < 2; file++) {
+          Path path =
+              Paths.get(
+                  BfConsts.RELPATH_AWS_CONFIGS_DIR,
+                  "account" + account,
+                  "region" + region,
+                  "file" + file + ".json");
+          files.put(path.toString(), "{ \"invalidKey\": [1] }");
+          expected.add(
+              new Warning(
+                  String.format("Unrecognized element 'invalidKey' in AWS file %s", path), "AWS"));
+        }
+      }
+    }
+    AwsConfiguration config = Batfish.parseAwsConfigurations(files.build(), _pvcae);
+
+    assertThat(config.getAccounts(), hasSize(5));
+    assertThat(
+        _pvcae.getWarnings().get(RELPATH_AWS_CONFIGS_FILE).getUnimplementedWarnings(),
+        containsInAnyOrder(expected.build().toArray()));
+    assertThat(_pvcae.getFileMap().get(RELPATH_AWS_CONFIGS_FILE), hasSize(50));
+  }
 }
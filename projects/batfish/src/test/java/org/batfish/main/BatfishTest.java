@@ -38,9 +38,13 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.MoreCollectors;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -53,6 +57,7 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
@@ -722,6 +727,65 @@ public class BatfishTest {
     batfish.loadConfigurations(batfish.getSnapshot());
   }
 
+  @Test
+  public void testPipelinedConversion() throws IOException {
+    TestrigText testrigText =
+        TestrigText.builder()
+            .setConfigurationText(
+                ImmutableMap.of(
+                    "r1",
+                    "!RANCID-CONTENT-TYPE: cisco\nhostname r1\n"
+                        + "interface Ethernet0\n ip address 10.0.0.1 255.255.255.0\n",
+                    "r2",
+                    "!RANCID-CONTENT-TYPE: cisco\nhostname r2\n"
+                        + "interface Ethernet0\n ip address 10.0.0.2 255.255.255.0\n"))
+            .build();
+
+    Batfish pipelined = BatfishTestUtils.getBatfishFromTestrigText(testrigText, _folder);
+    pipelined.getSettings().setPipelinedConversion(true);
+    Batfish upFront = BatfishTestUtils.getBatfishFromTestrigText(testrigText, _folder);
+    upFront.getSettings().setPipelinedConversion(false);
+
+    SortedMap<String, Configuration> configs =
+        pipelined.loadConfigurations(pipelined.getSnapshot());
+    assertThat(configs.keySet(), contains("r1", "r2"));
+    assertThat(
+        configs.keySet(), equalTo(upFront.loadConfigurations(upFront.getSnapshot()).keySet()));
+    assertThat(
+        pipelined
+            .loadConvertConfigurationAnswerElementOrReparse(pipelined.getSnapshot())
+            .getConvertStatus(),
+        equalTo(
+            upFront
+                .loadConvertConfigurationAnswerElementOrReparse(upFront.getSnapshot())
+                .getConvertStatus()));
+  }
+
+  @Test
+  public void testPipelinedConversionCorruptVendorConfiguration() throws IOException {
+    Batfish batfish =
+        BatfishTestUtils.getBatfishFromTestrigText(
+            TestrigText.builder()
+                .setConfigurationText(
+                    ImmutableMap.of("r1", "!RANCID-CONTENT-TYPE: cisco\nhostname r1\n"))
+                .build(),
+            _folder);
+    batfish.getSettings().setPipelinedConversion(true);
+    // Parse and store the vendor configuration, then corrupt it before conversion.
+    batfish.loadParseVendorConfigurationAnswerElement(batfish.getSnapshot());
+    Path vendorConfig;
+    try (Stream<Path> paths = Files.walk(_folder.getRoot().toPath())) {
+      vendorConfig =
+          paths
+              .filter(path -> path.endsWith(Paths.get("output", "vendor", "r1")))
+              .collect(MoreCollectors.onlyElement());
+    }
+    Files.write(vendorConfig, "not a vendor configuration".getBytes(UTF_8));
+
+    _thrown.expect(hasStackTrace(containsString("Failed to deserialize object")));
+    batfish.loadConfigurations(batfish.getSnapshot());
+  }
+
   @Test
   public void testGetSnapshotInputObject() throws IOException {
     String fileName = "fileName";
@@ -8,22 +8,18 @@ import static org.batfish.common.BfConsts.RELPATH_HOST_CONFIGS_DIR;
 import static org.batfish.common.BfConsts.RELPATH_SONIC_CONFIGS_DIR;
 import static org.batfish.common.util.Resources.readResourceBytes;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.file.Path;
-import java.util.Collections;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.collections4.map.LRUMap;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
@@ -31,9 +27,7 @@ import org.batfish.common.plugin.IBatfish;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
-import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Interface;
-import org.batfish.datamodel.collections.BgpAdvertisementsByVrf;
 import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
 import org.batfish.identifiers.IdResolver;
 import org.batfish.identifiers.NetworkId;
@@ -42,7 +36,6 @@ import org.batfish.identifiers.StorageBasedIdResolver;
 import org.batfish.storage.FileBasedStorage;
 import org.batfish.storage.StorageProvider;
 import org.batfish.vendor.ConversionContext;
-import org.batfish.vendor.VendorConfiguration;
 import org.junit.rules.TemporaryFolder;
 
 public class BatfishTestUtils {
@@ -61,21 +54,8 @@ public class BatfishTestUtils {
     }
   }
 
-  private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> makeTestrigCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(5).build();
-  }
-
-  private static Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> makeEnvBgpCache() {
-    return Collections.synchronizedMap(new LRUMap<>(4));
-  }
-
-  private static Cache<NetworkSnapshot, DataPlane> makeDataPlaneCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
-  }
-
-  private static Cache<NetworkSnapshot, Map<String, VendorConfiguration>>
-      makeVendorConfigurationCache() {
-    return CacheBuilder.newBuilder().softValues().maximumSize(2).build();
+  private static BfCache makeCache() {
+    return BfCache.forHeapPercent(BfCache.DEFAULT_HEAP_PERCENT);
   }
 
   private static void setNextTestNetworkSnapshot(Settings settings) {
@@ -94,23 +74,18 @@ public class BatfishTestUtils {
       throws IOException {
     Settings settings = new Settings(new String[] {});
     settings.setLogger(new BatfishLogger("debug", false));
-    final Cache<NetworkSnapshot, SortedMap<String, Configuration>> testrigs = makeTestrigCache();
+    BfCache cache = makeCache();
 
     settings.setStorageBase(tempFolder.newFolder().toPath());
     setNextTestNetworkSnapshot(settings);
     if (!configurations.isEmpty()) {
-      testrigs.put(
-          new NetworkSnapshot(settings.getContainer(), settings.getTestrig()), configurations);
+      cache
+          .getConfigurations()
+          .put(new NetworkSnapshot(settings.getContainer(), settings.getTestrig()), configurations);
     }
     Batfish batfish =
         new Batfish(
-            settings,
-            testrigs,
-            makeDataPlaneCache(),
-            makeEnvBgpCache(),
-            makeVendorConfigurationCache(),
-            null,
-            new TestStorageBasedIdResolver(settings.getStorageBase()));
+            settings, cache, null, new TestStorageBasedIdResolver(settings.getStorageBase()));
     if (!configurations.isEmpty()) {
       batfish.initializeTopology(batfish.getSnapshot());
     }
@@ -125,25 +100,23 @@ public class BatfishTestUtils {
       throws IOException {
     Settings settings = new Settings(new String[] {});
     settings.setLogger(new BatfishLogger("debug", false));
-    final Cache<NetworkSnapshot, SortedMap<String, Configuration>> testrigs = makeTestrigCache();
+    BfCache cache = makeCache();
 
     settings.setStorageBase(tempFolder.newFolder().toPath());
     setNextTestNetworkSnapshot(settings);
     if (!baseConfigs.isEmpty()) {
-      testrigs.put(
-          new NetworkSnapshot(settings.getContainer(), settings.getTestrig()), baseConfigs);
-      testrigs.put(
-          new NetworkSnapshot(settings.getContainer(), settings.getDeltaTestrig()), deltaConfigs);
+      cache
+          .getConfigurations()
+          .put(new NetworkSnapshot(settings.getContainer(), settings.getTestrig()), baseConfigs);
+      cache
+          .getConfigurations()
+          .put(
+              new NetworkSnapshot(settings.getContainer(), settings.getDeltaTestrig()),
+              deltaConfigs);
     }
     Batfish batfish =
         new Batfish(
-            settings,
-            testrigs,
-            makeDataPlaneCache(),
-            makeEnvBgpCache(),
-            makeVendorConfigurationCache(),
-            null,
-            new TestStorageBasedIdResolver(settings.getStorageBase()));
+            settings, cache, null, new TestStorageBasedIdResolver(settings.getStorageBase()));
     batfish.getSettings().setDiffQuestion(true);
     if (!baseConfigs.isEmpty()) {
       batfish.initializeTopology(batfish.getSnapshot());
@@ -200,13 +173,7 @@ public class BatfishTestUtils {
     setNextTestNetworkSnapshot(settings);
     Batfish batfish =
         new Batfish(
-            settings,
-            makeTestrigCache(),
-            makeDataPlaneCache(),
-            makeEnvBgpCache(),
-            makeVendorConfigurationCache(),
-            null,
-            new TestStorageBasedIdResolver(settings.getStorageBase()));
+            settings, makeCache(), null, new TestStorageBasedIdResolver(settings.getStorageBase()));
     StorageProvider storage = new FileBasedStorage(settings.getStorageBase(), batfish.getLogger());
     writeTemporarySnapshotInputFiles(
         checkpointMgmtBytes, RELPATH_CHECKPOINT_MANAGEMENT_DIR, storage, batfish.getSnapshot());
@@ -299,15 +266,7 @@ public class BatfishTestUtils {
     Settings settings = new Settings(new String[] {});
     settings.setLogger(new BatfishLogger("debug", false));
     setNextTestNetworkSnapshot(settings);
-    Batfish batfish =
-        new Batfish(
-            settings,
-            makeTestrigCache(),
-            makeDataPlaneCache(),
-            makeEnvBgpCache(),
-            makeVendorConfigurationCache(),
-            storageProvider,
-            idResolver);
+    Batfish batfish = new Batfish(settings, makeCache(), storageProvider, idResolver);
     registerDataPlanePlugins(batfish);
     return batfish;
   }
@@ -0,0 +1,213 @@
+package org.batfish.main;
+
+import static com.google.common.util.concurrent.Uninterruptibles.awaitUninterruptibly;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.FinalMainRib;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.junit.Test;
+
+/** Tests of {@link BfCache}. */
+public final class BfCacheTest {
+
+  private static NetworkSnapshot snapshot(int i) {
+    return new NetworkSnapshot(new NetworkId("net"), new SnapshotId("snap" + i));
+  }
+
+  private static SortedMap<String, Configuration> configurations(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i ->
+                Configuration.builder()
+                    .setHostname("node" + i)
+                    .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+                    .build())
+        .collect(
+            ImmutableSortedMap.toImmutableSortedMap(
+                String::compareTo, Configuration::getHostname, c -> c));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> kindStats(BfCache cache, String kind) {
+    return (Map<String, Object>) ((Map<String, Object>) cache.getStats().get("kinds")).get(kind);
+  }
+
+  @Test
+  public void testGetAndStats() {
+    BfCache cache = new BfCache(1L << 30);
+    SortedMap<String, Configuration> configurations = configurations(3);
+    assertThat(cache.getConfigurations().getIfPresent(snapshot(1)), nullValue());
+    cache.getConfigurations().put(snapshot(1), configurations);
+    assertThat(cache.getConfigurations().getIfPresent(snapshot(1)), equalTo(configurations));
+    assertThat(
+        cache.getConfigurations().get(snapshot(1), s -> configurations(1)),
+        equalTo(configurations));
+
+    // Kinds do not share entries.
+    assertThat(cache.getDataPlanes().getIfPresent(snapshot(1)), nullValue());
+
+    Map<String, Object> stats = kindStats(cache, "configurations");
+    assertThat(stats.get("entries"), equalTo(1L));
+    assertThat((Long) stats.get("bytes"), greaterThan(0L));
+    assertThat(stats.get("hits"), equalTo(2L));
+    assertThat(stats.get("misses"), equalTo(1L));
+    assertThat(kindStats(cache, "dataPlanes").get("misses"), equalTo(1L));
+
+    cache.getConfigurations().invalidateAll();
+    assertThat(cache.getConfigurations().getIfPresent(snapshot(1)), nullValue());
+  }
+
+  @Test
+  public void testEvictionByWeight() {
+    long budget = 8 << 10;
+    BfCache cache = new BfCache(budget);
+
+    // An entry larger than the whole budget is still cached.
+    cache.getConfigurations().put(snapshot(0), configurations(100));
+    assertThat(cache.getConfigurations().getIfPresent(snapshot(0)), notNullValue());
+
+    for (int i = 1; i < 10; i++) {
+      cache.getConfigurations().put(snapshot(i), configurations(100));
+    }
+    Map<String, Object> stats = cache.getStats();
+    assertThat((Long) stats.get("bytes"), lessThanOrEqualTo(budget));
+    assertThat((Long) stats.get("evictions"), greaterThan(0L));
+    assertThat((Long) kindStats(cache, "configurations").get("entries"), lessThanOrEqualTo(1L));
+  }
+
+  @Test
+  public void testGetLoadsOnce() throws Exception {
+    BfCache cache = new BfCache(1L << 30);
+    SortedMap<String, Configuration> configurations = configurations(1);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger loads = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<SortedMap<String, Configuration>> first =
+          executor.submit(
+              () ->
+                  cache
+                      .getConfigurations()
+                      .get(
+                          snapshot(1),
+                          s -> {
+                            loads.incrementAndGet();
+                            loading.countDown();
+                            awaitUninterruptibly(release);
+                            return configurations;
+                          }));
+      loading.await();
+      Future<SortedMap<String, Configuration>> second =
+          executor.submit(
+              () ->
+                  cache
+                      .getConfigurations()
+                      .get(
+                          snapshot(1),
+                          s -> {
+                            loads.incrementAndGet();
+                            return configurations(2);
+                          }));
+
+      // Other entries can be used while the load is in progress.
+      cache.getConfigurations().put(snapshot(2), configurations(2));
+      assertThat(
+          cache.getConfigurations().get(snapshot(3), s -> configurations(3)).size(), equalTo(3));
+
+      release.countDown();
+      assertThat(first.get(), sameInstance(configurations));
+      assertThat(second.get(), sameInstance(configurations));
+      assertThat(loads.get(), equalTo(1));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testGetLoadFailure() {
+    BfCache cache = new BfCache(1L << 30);
+    try {
+      cache
+          .getConfigurations()
+          .get(
+              snapshot(1),
+              s -> {
+                throw new IllegalStateException("load failed");
+              });
+      fail("Expected the load to fail");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage(), equalTo("load failed"));
+    }
+    // A failed load is not cached.
+    assertThat(cache.getConfigurations().getIfPresent(snapshot(1)), nullValue());
+    assertThat(
+        cache.getConfigurations().get(snapshot(1), s -> configurations(1)).size(), equalTo(1));
+  }
+
+  @Test
+  public void testEstimateDataPlaneSize() {
+    DataPlane empty = MockDataPlane.builder().build();
+    assertThat(BfCache.estimateDataPlaneSize(empty), equalTo(0L));
+
+    ImmutableTable.Builder<String, String, FinalMainRib> ribs = ImmutableTable.builder();
+    for (int i = 0; i < 100; i++) {
+      ribs.put(
+          "node" + i,
+          "default",
+          FinalMainRib.of(
+              IntStream.range(0, 10)
+                  .mapToObj(
+                      j ->
+                          StaticRoute.testBuilder()
+                              .setNetwork(Prefix.create(Ip.create(j << 8), 24))
+                              .setNextHopIp(Ip.parse("1.1.1.1"))
+                              .build())));
+    }
+    DataPlane dataPlane = MockDataPlane.builder().setRibs(ribs.build()).build();
+    assertThat(BfCache.estimateDataPlaneSize(dataPlane), greaterThan(10_000L));
+  }
+
+  @Test
+  public void testEstimateMapSize() {
+    Map<Integer, String> small =
+        IntStream.range(0, 100)
+            .boxed()
+            .collect(ImmutableMap.toImmutableMap(i -> i, i -> Strings.repeat("a", 10)));
+    Map<Integer, String> large =
+        IntStream.range(0, 100)
+            .boxed()
+            .collect(ImmutableMap.toImmutableMap(i -> i, i -> Strings.repeat("a", 1000)));
+    assertThat(BfCache.estimateMapSize(ImmutableMap.of()), equalTo(0L));
+    assertThat(BfCache.estimateMapSize(large), greaterThan(100_000L));
+    assertThat(BfCache.estimateMapSize(large), greaterThan(10 * BfCache.estimateMapSize(small)));
+  }
+}
@@ -0,0 +1,47 @@
+package org.batfish.main;
+
+import static java.nio.charset.StandardCharsets.UTF_16BE;
+import static java.nio.charset.StandardCharsets.UTF_16LE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.main.StreamDecoder.decodeStreamAndAppendNewline;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.primitives.Bytes;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+/** Tests of {@link StreamDecoder}. */
+public final class StreamDecoderTest {
+
+  private static final String TEXT = "hostname foo\ninterface Ethernet1\n";
+
+  private static String decode(byte[] bytes) throws IOException {
+    return decodeStreamAndAppendNewline(new ByteArrayInputStream(bytes));
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertThat(decode(new byte[0]), equalTo(""));
+  }
+
+  @Test
+  public void testUtf8() throws IOException {
+    assertThat(decode(TEXT.getBytes(UTF_8)), equalTo(TEXT + "\n"));
+  }
+
+  @Test
+  public void testUtf8Bom() throws IOException {
+    byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    assertThat(decode(Bytes.concat(bom, TEXT.getBytes(UTF_8))), equalTo(TEXT + "\n"));
+  }
+
+  @Test
+  public void testUtf16Bom() throws IOException {
+    byte[] beBom = {(byte) 0xFE, (byte) 0xFF};
+    byte[] leBom = {(byte) 0xFF, (byte) 0xFE};
+    assertThat(decode(Bytes.concat(beBom, TEXT.getBytes(UTF_16BE))), equalTo(TEXT + "\n"));
+    assertThat(decode(Bytes.concat(leBom, TEXT.getBytes(UTF_16LE))), equalTo(TEXT + "\n"));
+  }
+}
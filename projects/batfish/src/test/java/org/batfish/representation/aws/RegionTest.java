@@ -18,11 +18,13 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -92,6 +94,64 @@ public class RegionTest {
     assertTrue(warning.getText().startsWith("Unrecognized element"));
   }
 
+  /** Generates an AWS file with the given numbers of instances and security groups. */
+  private static String generateAwsFile(int numInstances, int numSecurityGroups) {
+    StringBuilder sb = new StringBuilder("{\"Reservations\": [");
+    for (int i = 0; i < numInstances; i++) {
+      sb.append(i == 0 ? "" : ",")
+          .append(
+              String.format(
+                  "{\"Instances\": [{\"InstanceId\": \"i-%d\", \"VpcId\": \"vpc-1\","
+                      + " \"SubnetId\": \"subnet-%d\", \"SecurityGroups\": [],"
+                      + " \"NetworkInterfaces\": [], \"PrivateIpAddress\": \"10.0.%d.%d\","
+                      + " \"State\": {\"Name\": \"%s\"}}]}",
+                  i, i % 10, i / 256 % 256, i % 256, i % 7 == 0 ? "stopped" : "running"));
+    }
+    sb.append("], \"Tags\": [{\"Key\": \"ignored\"}], \"SecurityGroups\": [");
+    for (int i = 0; i < numSecurityGroups; i++) {
+      // every tenth security group has no VPC, which is an error
+      sb.append(i == 0 ? "" : ",")
+          .append(
+              String.format(
+                  "{\"GroupId\": \"sg-%d\", \"GroupName\": \"g%d\", \"IpPermissions\": [],"
+                      + " \"IpPermissionsEgress\": []%s}",
+                  i, i, i % 10 == 0 ? "" : ", \"VpcId\": \"vpc-1\""));
+    }
+    sb.append("], \"stranger\": [1], \"empty\": []}");
+    return sb.toString();
+  }
+
+  /** Test that streaming a file adds the same objects and warnings as reading it as a tree. */
+  @Test
+  public void testAddConfigElementStreamingMatchesTree() throws IOException {
+    String text = generateAwsFile(1000, 200);
+
+    ParseVendorConfigurationAnswerElement treePvcae = new ParseVendorConfigurationAnswerElement();
+    Region treeRegion = new Region("r1");
+    treeRegion.addConfigElement(
+        BatfishObjectMapper.mapper().readTree(text), "file.json", treePvcae);
+
+    ParseVendorConfigurationAnswerElement streamPvcae = new ParseVendorConfigurationAnswerElement();
+    Region streamRegion = new Region("r1");
+    try (JsonParser parser = BatfishObjectMapper.mapper().createParser(text)) {
+      streamRegion.addConfigElement(parser, "file.json", streamPvcae);
+    }
+
+    assertThat(streamRegion.getInstances().size(), equalTo(857));
+    assertThat(streamRegion.getInstances(), equalTo(treeRegion.getInstances()));
+    assertThat(streamRegion.getSecurityGroups().size(), equalTo(180));
+    assertThat(streamRegion.getSecurityGroups(), equalTo(treeRegion.getSecurityGroups()));
+    // the same error for 20 security groups, and one unrecognized element
+    Warnings treeWarnings = Iterables.getOnlyElement(treePvcae.getWarnings().values());
+    Warnings streamWarnings = Iterables.getOnlyElement(streamPvcae.getWarnings().values());
+    assertThat(streamWarnings.getRedFlagWarnings(), hasSize(1));
+    assertThat(streamWarnings.getRedFlagWarnings(), equalTo(treeWarnings.getRedFlagWarnings()));
+    assertThat(streamWarnings.getUnimplementedWarnings(), hasSize(1));
+    assertThat(
+        streamWarnings.getUnimplementedWarnings(),
+        equalTo(treeWarnings.getUnimplementedWarnings()));
+  }
+
   /** Test that we warn the user upon encountering a non-list with an unknown key type */
   @Test
   public void testAddConfigElementUnknownKeyNonList() throws IOException {
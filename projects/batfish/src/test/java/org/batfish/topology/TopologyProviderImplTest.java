@@ -0,0 +1,102 @@
+package org.batfish.topology;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Map;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Topology;
+import org.batfish.topology.TopologyFingerprints.Slice;
+import org.junit.Test;
+
+/** Tests of {@link TopologyProviderImpl}. */
+public final class TopologyProviderImplTest {
+
+  private static Configuration node(String hostname, String... addresses) {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    for (int i = 0; i < addresses.length; i++) {
+      nf.interfaceBuilder()
+          .setOwner(c)
+          .setName("i" + i)
+          .setAddresses(ConcreteInterfaceAddress.parse(addresses[i]))
+          .build();
+    }
+    return c;
+  }
+
+  private static Map<String, Configuration> configs(Configuration... nodes) {
+    ImmutableMap.Builder<String, Configuration> configs = ImmutableMap.builder();
+    for (Configuration c : nodes) {
+      configs.put(c.getHostname(), c);
+    }
+    return configs.build();
+  }
+
+  private static Topology synthesize(Map<String, Configuration> configs) {
+    return TopologyProviderImpl.synthesizeLayer3Topology(
+        configs, new TopologyFingerprints(configs).getNodeHashes(Slice.LAYER3));
+  }
+
+  @Test
+  public void testFingerprints() {
+    Configuration a = node("a", "10.0.0.1/24");
+    Configuration b = node("b", "10.0.0.2/24");
+    TopologyFingerprints before = new TopologyFingerprints(configs(a, b));
+
+    // unrelated change
+    Configuration a2 = node("a", "10.0.0.1/24");
+    IpAccessList.builder().setOwner(a2).setName("acl").build();
+    TopologyFingerprints sameLayer3 = new TopologyFingerprints(configs(a2, b));
+    assertThat(
+        sameLayer3.stageKey("stage", ImmutableSet.of(Slice.LAYER3)),
+        equalTo(before.stageKey("stage", ImmutableSet.of(Slice.LAYER3))));
+    assertThat(
+        sameLayer3.stageKey("other", ImmutableSet.of(Slice.LAYER3)),
+        not(equalTo(before.stageKey("stage", ImmutableSet.of(Slice.LAYER3)))));
+
+    // interface change on b, and a new node c
+    Configuration b2 = node("b", "10.0.0.3/24");
+    TopologyFingerprints after = new TopologyFingerprints(configs(a, b2, node("c")));
+    assertThat(
+        after.stageKey("stage", ImmutableSet.of(Slice.LAYER3)),
+        not(equalTo(before.stageKey("stage", ImmutableSet.of(Slice.LAYER3)))));
+    assertThat(
+        TopologyFingerprints.changedNodes(
+            before.getNodeHashes(Slice.LAYER3), after.getNodeHashes(Slice.LAYER3)),
+        contains("b", "c"));
+  }
+
+  @Test
+  public void testSynthesizeLayer3TopologyIncrementally() {
+    Configuration a = node("a", "10.0.0.1/24", "10.0.1.1/24");
+    Configuration b = node("b", "10.0.0.2/24", "10.0.2.1/24");
+    Configuration c = node("c", "10.0.1.2/24", "10.0.2.2/24");
+    Configuration d = node("d", "10.0.2.3/24");
+
+    Map<String, Configuration> initial = configs(a, b, c, d);
+    assertThat(synthesize(initial), equalTo(TopologyUtil.synthesizeL3Topology(initial)));
+
+    // b moves one interface to another subnet, d is removed, e is added
+    Map<String, Configuration> changed =
+        configs(a, node("b", "10.0.0.2/24", "10.0.3.1/24"), c, node("e", "10.0.3.2/24"));
+    assertThat(synthesize(changed), equalTo(TopologyUtil.synthesizeL3Topology(changed)));
+
+    // back again, and unchanged
+    assertThat(synthesize(initial), equalTo(TopologyUtil.synthesizeL3Topology(initial)));
+    assertThat(synthesize(initial), equalTo(TopologyUtil.synthesizeL3Topology(initial)));
+  }
+}
@@ -31,6 +31,9 @@ package net.sf.javabdd;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.collect.ImmutableSet;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
@@ -538,6 +541,31 @@ public abstract class BDDFactory {
     return result;
   }
 
+  /**
+   * Reorders the variables by sifting to reduce the number of live nodes. Each variable block (see
+   * {@link #addVarBlock}), and each variable not in a block, is in turn moved to every level and
+   * left where the node count is smallest. Variables keep their indices and existing BDDs keep
+   * representing the same functions.
+   */
+  public abstract void reorder();
+
+  /**
+   * Groups the variables {@code first} to {@code last}, which must be at adjacent levels, into a
+   * block that {@link #reorder reordering} moves as a unit, keeping the order of its variables.
+   * Blocks must not overlap.
+   */
+  public abstract void addVarBlock(int first, int last);
+
+  /**
+   * Enables automatic {@link #reorder reordering} when the number of live nodes, as counted during
+   * garbage collection, has grown by {@code growthFactor} since the last reordering. Reordering
+   * then happens before the next operation result is returned.
+   */
+  public abstract void enableAutoReorder(double growthFactor);
+
+  /** Disables automatic reordering. */
+  public abstract void disableAutoReorder();
+
   /**
    * Make a new BDDPairing object.
    *
@@ -621,6 +649,26 @@ public abstract class BDDFactory {
    */
   public abstract int duplicateVar(int var);
 
+  /** ** SAVE AND LOAD *** */
+
+  /**
+   * Writes the given BDDs to {@code out} in a compact binary format that {@link #load} can read
+   * into any factory. The format consists of a header with the variable order of this factory, a
+   * table of the nodes of all the BDDs, children before parents, and the indices of the roots.
+   * Nodes shared between BDDs are written only once.
+   */
+  public abstract void save(DataOutput out, List<BDD> roots) throws IOException;
+
+  /**
+   * Reads BDDs written by {@link #save} into this factory, returning them in the order in which
+   * they were saved. Nodes are created as they are read, so the whole node table is never held in
+   * memory. Variables are added to this factory if it has fewer than the saving factory, and the
+   * BDDs are rebuilt if its variable order differs.
+   *
+   * @throws BDDException if the input is not in the expected format
+   */
+  public abstract List<BDD> load(DataInput in) throws IOException;
+
   /** ** BDD STATS *** */
 
   /**
@@ -857,6 +905,12 @@ public abstract class BDDFactory {
     return cachestats;
   }
 
+  /**
+   * Returns a snapshot of the statistics this factory always collects about its operator caches,
+   * unique table, garbage collections, node table resizes, and reorderings.
+   */
+  public abstract BDDStats getStats();
+
   // TODO: bdd_sizeprobe_hook
   // TODO: bdd_reorder_probe
 
@@ -0,0 +1,204 @@
+package net.sf.javabdd;
+
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.Map;
+import java.util.SortedMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A snapshot of the counters that a {@link BDDFactory} maintains about its own work, as returned by
+ * {@link BDDFactory#getStats()}.
+ *
+ * <p>Unlike {@link BDDFactory.CacheStats}, these counters are always collected. They are cumulative
+ * since the factory was created, so the work done by a single computation is best judged from the
+ * difference between the snapshots taken before and after it.
+ */
+@ParametersAreNonnullByDefault
+public final class BDDStats {
+
+  /** Lookup counts of one operator cache. */
+  public static final class OperatorCacheStats {
+    private final long _lookups;
+    private final long _hits;
+
+    OperatorCacheStats(long lookups, long hits) {
+      _lookups = lookups;
+      _hits = hits;
+    }
+
+    public long getLookups() {
+      return _lookups;
+    }
+
+    public long getHits() {
+      return _hits;
+    }
+
+    public long getMisses() {
+      return _lookups - _hits;
+    }
+
+    /** The fraction of lookups answered from the cache, or {@code 0} if there were none. */
+    public double getHitRate() {
+      return _lookups == 0 ? 0 : (double) _hits / _lookups;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%d/%d", _hits, _lookups);
+    }
+  }
+
+  private final SortedMap<String, OperatorCacheStats> _operatorCaches;
+  private final long _uniqueLookups;
+  private final long _uniqueHits;
+  private final long _uniqueChainSteps;
+  private final int _nodeTableSize;
+  private final int _nodesInUse;
+  private final int _peakNodesInUse;
+  private final int _gcCount;
+  private final long _gcTimeMillis;
+  private final int _resizeCount;
+  private final long _resizeTimeMillis;
+  private final int _reorderCount;
+  private final long _reorderTimeMillis;
+
+  BDDStats(
+      Map<String, OperatorCacheStats> operatorCaches,
+      long uniqueLookups,
+      long uniqueHits,
+      long uniqueChainSteps,
+      int nodeTableSize,
+      int nodesInUse,
+      int peakNodesInUse,
+      int gcCount,
+      long gcTimeMillis,
+      int resizeCount,
+      long resizeTimeMillis,
+      int reorderCount,
+      long reorderTimeMillis) {
+    _operatorCaches = ImmutableSortedMap.copyOf(operatorCaches);
+    _uniqueLookups = uniqueLookups;
+    _uniqueHits = uniqueHits;
+    _uniqueChainSteps = uniqueChainSteps;
+    _nodeTableSize = nodeTableSize;
+    _nodesInUse = nodesInUse;
+    _peakNodesInUse = peakNodesInUse;
+    _gcCount = gcCount;
+    _gcTimeMillis = gcTimeMillis;
+    _resizeCount = resizeCount;
+    _resizeTimeMillis = resizeTimeMillis;
+    _reorderCount = reorderCount;
+    _reorderTimeMillis = reorderTimeMillis;
+  }
+
+  /** Lookup counts of each operator cache, by cache name. Caches never used are omitted. */
+  public @Nonnull SortedMap<String, OperatorCacheStats> getOperatorCaches() {
+    return _operatorCaches;
+  }
+
+  /** Total lookup counts over all operator caches. */
+  public @Nonnull OperatorCacheStats getOperatorCacheTotal() {
+    return new OperatorCacheStats(
+        _operatorCaches.values().stream().mapToLong(OperatorCacheStats::getLookups).sum(),
+        _operatorCaches.values().stream().mapToLong(OperatorCacheStats::getHits).sum());
+  }
+
+  /** Number of lookups of a non-trivial node in the unique table. */
+  public long getUniqueLookups() {
+    return _uniqueLookups;
+  }
+
+  /** Number of unique table lookups that found an existing node. */
+  public long getUniqueHits() {
+    return _uniqueHits;
+  }
+
+  /** Number of unique table lookups that created a new node. */
+  public long getUniqueMisses() {
+    return _uniqueLookups - _uniqueHits;
+  }
+
+  /**
+   * The average number of hash chain links followed per unique table lookup. Values well above
+   * {@code 1} indicate an overloaded table.
+   */
+  public double getUniqueAverageChainLength() {
+    return _uniqueLookups == 0 ? 0 : (double) _uniqueChainSteps / _uniqueLookups;
+  }
+
+  /** Number of allocated nodes, which is also the number of unique table buckets. */
+  public int getNodeTableSize() {
+    return _nodeTableSize;
+  }
+
+  /**
+   * Number of nodes in use, including dead nodes not yet reclaimed by garbage collection. See
+   * {@link BDDFactory#getNodeNum()}.
+   */
+  public int getNodesInUse() {
+    return _nodesInUse;
+  }
+
+  /** The largest value {@link #getNodesInUse()} ever had. */
+  public int getPeakNodesInUse() {
+    return _peakNodesInUse;
+  }
+
+  /** The fraction of the node table in use, i.e. the load factor of the unique table. */
+  public double getUniqueLoad() {
+    return _nodeTableSize == 0 ? 0 : (double) _nodesInUse / _nodeTableSize;
+  }
+
+  public int getGcCount() {
+    return _gcCount;
+  }
+
+  public long getGcTimeMillis() {
+    return _gcTimeMillis;
+  }
+
+  /** Number of times the node table grew. */
+  public int getResizeCount() {
+    return _resizeCount;
+  }
+
+  public long getResizeTimeMillis() {
+    return _resizeTimeMillis;
+  }
+
+  /** Number of dynamic variable reorderings. */
+  public int getReorderCount() {
+    return _reorderCount;
+  }
+
+  public long getReorderTimeMillis() {
+    return _reorderTimeMillis;
+  }
+
+  /** Returns a one-line summary of these statistics, suitable for logs and answer notes. */
+  @Override
+  public String toString() {
+    OperatorCacheStats total = getOperatorCacheTotal();
+    return String.format(
+        "nodes %d/%d (peak %d), unique hits %d/%d (avg chain %.2f), cache hits %d/%d (%.1f%%) %s,"
+            + " gc %d (%dms), resize %d (%dms), reorder %d (%dms)",
+        _nodesInUse,
+        _nodeTableSize,
+        _peakNodesInUse,
+        _uniqueHits,
+        _uniqueLookups,
+        getUniqueAverageChainLength(),
+        total.getHits(),
+        total.getLookups(),
+        100 * total.getHitRate(),
+        _operatorCaches,
+        _gcCount,
+        _gcTimeMillis,
+        _resizeCount,
+        _resizeTimeMillis,
+        _reorderCount,
+        _reorderTimeMillis);
+  }
+}
@@ -30,22 +30,33 @@ package net.sf.javabdd;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import com.carrotsearch.hppc.IntArrayList;
 import com.carrotsearch.hppc.IntHashSet;
+import com.carrotsearch.hppc.IntIntHashMap;
 import com.carrotsearch.hppc.IntSet;
 import com.carrotsearch.hppc.IntStack;
 import com.carrotsearch.hppc.procedures.IntProcedure;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.Serializable;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.IntFunction;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
@@ -94,9 +105,42 @@ public class JFactory extends BDDFactory implements Serializable {
     _bddReuse = new LinkedList<>();
   }
 
+  /**
+   * Writes only the live nodes of the node table, i.e. those reachable from referenced nodes, and
+   * only their level, reference count, and children. Free and dead nodes and the hash chains of the
+   * unique table are rebuilt by {@link #readObject}. Live nodes keep their indices, so serialized
+   * {@link BDDImpl BDDImpls} remain valid.
+   */
+  private void writeObject(java.io.ObjectOutputStream stream) throws IOException {
+    stream.defaultWriteObject();
+    BitSet live = liveNodes();
+    writeVarInt(stream, live.cardinality());
+    int prev = 0;
+    for (int n = live.nextSetBit(0); n >= 0; n = live.nextSetBit(n + 1)) {
+      writeVarInt(stream, n - prev);
+      stream.writeInt(bddnodes[n * __node_size + offset__refcou_and_level] & ~MARK_MASK);
+      writeVarInt(stream, LOW(n));
+      writeVarInt(stream, HIGH(n));
+      prev = n;
+    }
+  }
+
   private void readObject(java.io.ObjectInputStream stream)
       throws IOException, ClassNotFoundException {
     stream.defaultReadObject();
+    bddnodes = new int[bddnodesize * __node_size];
+    for (int n = 2; n < bddnodesize; n++) {
+      SETLOW(n, INVALID_BDD);
+    }
+    int liveCount = readVarInt(stream);
+    int n = 0;
+    for (int i = 0; i < liveCount; i++) {
+      n += readVarInt(stream);
+      bddnodes[n * __node_size + offset__refcou_and_level] = stream.readInt();
+      SETLOW(n, readVarInt(stream));
+      SETHIGH(n, readVarInt(stream));
+    }
+    bdd_gbc_rehash();
     supportSet = new int[0];
     bddrefstack = new IntStack();
     _bddReuse = new LinkedList<>();
@@ -130,6 +174,10 @@ public class JFactory extends BDDFactory implements Serializable {
       ret._index = id;
       bdd_addref(id);
     }
+    if (reorderPending) {
+      // Safe to reorder here: the operation is complete, and its result is now referenced.
+      bdd_reorder();
+    }
     return ret;
   }
 
@@ -635,6 +683,8 @@ public class JFactory extends BDDFactory implements Serializable {
   private static class BddCache {
     BddCacheData[] table;
     int tablesize;
+    long lookups;
+    long hits;
 
     /**
      * Returns the number of used entries in this cache.
@@ -660,7 +710,7 @@ public class JFactory extends BDDFactory implements Serializable {
   private boolean bddrunning; /* Flag - package initialized */
   private int bdderrorcond; /* Some error condition */
   private int bddnodesize; /* Number of allocated nodes */
-  private int[] bddnodes; /* All of the bdd nodes */
+  private transient int[] bddnodes; /* All of the bdd nodes */
   private int bddfreepos; /* First free node */
   private int bddfreenum; /* Number of free nodes */
   private int bddproduced; /* Number of new nodes ever produced */
@@ -680,6 +730,19 @@ public class JFactory extends BDDFactory implements Serializable {
   private long gbcclock; /* Clock ticks used in GBC */
   /** Total millis used in resizing */
   private long sumResizeTime;
+  /** Number of times the node table grew */
+  private int resizeCount;
+  /** Number of non-trivial lookups, hits, and hash chain links followed in the unique table */
+  private long uniqueLookups;
+
+  private long uniqueHits;
+  private long uniqueChainSteps;
+  /** Largest number of nodes ever in use */
+  private int peakNodesInUse;
+  /** Number of dynamic reorderings */
+  private int reorderCount;
+  /** Total millis used in dynamic reordering */
+  private long reorderTime;
 
   private static final int BDD_MEMORY = -1; /* Out of memory */
   private static final int BDD_VAR = -2; /* Unknown variable */
@@ -1100,6 +1163,7 @@ public class JFactory extends BDDFactory implements Serializable {
     entry = BddCache_lookupI(applycache, hash);
 
     if (entry.a == r && entry.c == bddop_not) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1178,6 +1242,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = MULTIOPHASH(operands, bddop_ite);
     MultiOpBddCacheData entry = BddCache_lookupMultiOp(multiopcache, hash);
     if (entry.a == bddop_ite && Arrays.equals(operands, entry.operands)) {
+      multiopcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1272,6 +1337,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = REPLACEHASH(replaceid, r);
     entry = BddCache_lookupI(replacecache, hash);
     if (entry.a == r && entry.c == replaceid) {
+      replacecache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1338,6 +1404,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = CORRECTIFYHASH(replaceid, l, r);
     BddCacheDataI entry = BddCache_lookupI(replacecache, hash);
     if (entry.a == l && entry.b == r && entry.c == replaceid) {
+      replacecache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1559,6 +1626,7 @@ public class JFactory extends BDDFactory implements Serializable {
     entry = BddCache_lookupI(applycache, hash);
 
     if (entry.a == l && entry.b == r && entry.c == applyop) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1618,6 +1686,7 @@ public class JFactory extends BDDFactory implements Serializable {
     entry = BddCache_lookupI(applycache, hash);
 
     if (entry.a == l && entry.b == r && entry.c == bddop_and) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1668,6 +1737,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = APPLYHASH(l, r, bddop_diffsat);
     BddCacheDataI entry = BddCache_lookupI(applycache, hash);
     if (entry.a == l && entry.b == r && entry.c == bddop_diffsat) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1717,6 +1787,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = APPLYHASH(l, r, bddop_andsat);
     BddCacheDataI entry = BddCache_lookupI(applycache, hash);
     if (entry.a == l && entry.b == r && entry.c == bddop_andsat) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1790,6 +1861,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = MULTIOPHASH(operands, bddop_and);
     MultiOpBddCacheData entry = BddCache_lookupMultiOp(multiopcache, hash);
     if (entry.a == bddop_and && Arrays.equals(operands, entry.operands)) {
+      multiopcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -1937,6 +2009,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = MULTIOPHASH(operands, bddop_or);
     MultiOpBddCacheData entry = BddCache_lookupMultiOp(multiopcache, hash);
     if (entry.a == bddop_or && Arrays.equals(operands, entry.operands)) {
+      multiopcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2090,6 +2163,7 @@ public class JFactory extends BDDFactory implements Serializable {
     entry = BddCache_lookupI(applycache, hash);
 
     if (entry.a == l && entry.b == r && entry.c == bddop_or) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2151,6 +2225,7 @@ public class JFactory extends BDDFactory implements Serializable {
       int hash = APPEXHASH(l, r, bddop_and);
       entry = BddCache_lookupI(appexcache, hash);
       if (entry.a == l && entry.b == r && entry.c == appexid) {
+        appexcache.hits++;
         if (CACHESTATS) {
           cachestats.opHit++;
         }
@@ -2282,6 +2357,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = TRANSFORMHASH(replaceid, l, r);
     entry = BddCache_lookupI(replacecache, hash);
     if (entry.a == l && entry.b == r && entry.c == replaceid) {
+      replacecache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2461,6 +2537,7 @@ public class JFactory extends BDDFactory implements Serializable {
       int hash = APPEXHASH(l, r, appexop);
       entry = BddCache_lookupI(appexcache, hash);
       if (entry.a == l && entry.b == r && entry.c == appexid) {
+        appexcache.hits++;
         if (CACHESTATS) {
           cachestats.opHit++;
         }
@@ -2551,6 +2628,7 @@ public class JFactory extends BDDFactory implements Serializable {
       int hash = APPEXHASH(l, r, appexop);
       entry = BddCache_lookupI(appexcache, hash);
       if (entry.a == l && entry.b == r && entry.c == appexid) {
+        appexcache.hits++;
         if (CACHESTATS) {
           cachestats.opHit++;
         }
@@ -2641,6 +2719,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = QUANTHASH(r);
     entry = BddCache_lookupI(quantcache, hash);
     if (entry.a == r && entry.c == quantid) {
+      quantcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2685,6 +2764,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = QUANTHASH(r);
     BddCacheDataI entry = BddCache_lookupI(quantcache, hash);
     if (entry.a == r && entry.c == quantid) {
+      quantcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2782,6 +2862,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = QUANTHASH(r);
     entry = BddCache_lookupI(quantcache, hash);
     if (entry.a == r && entry.c == quantid) {
+      quantcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2836,6 +2917,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = QUANTHASH(r);
     entry = BddCache_lookupI(quantcache, hash);
     if (entry.a == r && entry.c == quantid) {
+      quantcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2875,6 +2957,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = QUANTHASH(r);
     entry = BddCache_lookupI(quantcache, hash);
     if (entry.a == r && entry.c == quantid) {
+      quantcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -2940,6 +3023,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = CONSTRAINHASH(f, c);
     entry = BddCache_lookupI(misccache, hash);
     if (entry.a == f && entry.b == c && entry.c == miscid) {
+      misccache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3026,6 +3110,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = COMPOSEHASH(replaceid, f, g);
     entry = BddCache_lookupI(replacecache, hash);
     if (entry.a == f && entry.b == g && entry.c == replaceid) {
+      replacecache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3098,6 +3183,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = VECCOMPOSEHASH(replaceid, f);
     entry = BddCache_lookupI(replacecache, hash);
     if (entry.a == f && entry.c == replaceid) {
+      replacecache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3283,6 +3369,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = RESTRHASH(r, miscid);
     entry = BddCache_lookupI(misccache, hash);
     if (entry.a == r && entry.c == miscid) {
+      misccache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3348,6 +3435,7 @@ public class JFactory extends BDDFactory implements Serializable {
     entry = BddCache_lookupI(applycache, hash);
 
     if (entry.a == f && entry.b == d && entry.c == bddop_simplify) {
+      applycache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3842,6 +3930,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = PATHCOUHASH(r, miscid);
     BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, hash);
     if (entry.a == r && entry.c == miscid) {
+      countcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3885,6 +3974,7 @@ public class JFactory extends BDDFactory implements Serializable {
     int hash = SATCOUHASH(root, miscid);
     BigIntegerBddCacheData entry = BddCache_lookupBigInteger(countcache, hash);
     if (entry.a == root && entry.c == miscid) {
+      countcache.hits++;
       if (CACHESTATS) {
         cachestats.opHit++;
       }
@@ -3965,6 +4055,10 @@ public class JFactory extends BDDFactory implements Serializable {
       }
     }
 
+    if (autoReorderGrowth > 0 && bdd_getnodenum() >= autoReorderThreshold) {
+      reorderPending = true;
+    }
+
     c2 = System.currentTimeMillis();
     gbcclock += c2 - c1;
     gbcollectnum++;
@@ -4084,6 +4178,7 @@ public class JFactory extends BDDFactory implements Serializable {
       return low;
     }
 
+    uniqueLookups++;
     if (CACHESTATS) {
       cachestats.uniqueAccess++;
     }
@@ -4094,6 +4189,7 @@ public class JFactory extends BDDFactory implements Serializable {
 
     while (res != 0) {
       if (LEVEL(res) == level && LOW(res) == low && HIGH(res) == high) {
+        uniqueHits++;
         if (CACHESTATS) {
           cachestats.uniqueHit++;
         }
@@ -4101,6 +4197,7 @@ public class JFactory extends BDDFactory implements Serializable {
       }
 
       res = NEXT(res);
+      uniqueChainSteps++;
       if (CACHESTATS) {
         cachestats.uniqueChain++;
       }
@@ -4138,6 +4235,7 @@ public class JFactory extends BDDFactory implements Serializable {
     bddfreepos = NEXT(bddfreepos);
     bddfreenum--;
     bddproduced++;
+    peakNodesInUse = Math.max(peakNodesInUse, bddnodesize - bddfreenum);
     newNodeIndex(res);
 
     SETLEVELANDMARK(res, level);
@@ -4218,6 +4316,7 @@ public class JFactory extends BDDFactory implements Serializable {
     bddresized = true;
     long resizeTime = System.currentTimeMillis() - resizeStartTime;
     sumResizeTime += resizeTime;
+    resizeCount++;
     LOGGER.info(
         "Resized node table from {} to {} in {}s / {}s total",
         oldsize,
@@ -4532,14 +4631,17 @@ public class JFactory extends BDDFactory implements Serializable {
   }
 
   private static BddCacheDataI BddCache_lookupI(BddCache cache, int hash) {
+    cache.lookups++;
     return (BddCacheDataI) cache.table[Math.floorMod(hash, cache.tablesize)];
   }
 
   private static BigIntegerBddCacheData BddCache_lookupBigInteger(BddCache cache, int hash) {
+    cache.lookups++;
     return (BigIntegerBddCacheData) cache.table[Math.floorMod(hash, cache.tablesize)];
   }
 
   private static MultiOpBddCacheData BddCache_lookupMultiOp(BddCache cache, int hash) {
+    cache.lookups++;
     return (MultiOpBddCacheData) cache.table[Math.floorMod(hash, cache.tablesize)];
   }
 
@@ -5048,6 +5150,195 @@ public class JFactory extends BDDFactory implements Serializable {
   /* Interaction matrix */
   private transient imatrix iactmtx;
 
+  /** Variable blocks kept together by reordering, as {first, last} variable pairs. */
+  private final List<int[]> varBlocks = new ArrayList<>();
+
+  /** Growth factor of live nodes that triggers automatic reordering, or 0 if disabled. */
+  private double autoReorderGrowth;
+
+  /** Number of live nodes after garbage collection that triggers automatic reordering. */
+  private int autoReorderThreshold;
+
+  /** Whether garbage collection triggered an automatic reordering that has not happened yet. */
+  private transient boolean reorderPending;
+
+  /** Minimum number of live nodes that triggers automatic reordering. */
+  private static final int AUTO_REORDER_MIN_NODES = 10_000;
+
+  /**
+   * Sifting stops moving a block in one direction once the node count exceeds the best count seen
+   * by this factor.
+   */
+  private static final double SIFT_MAX_GROWTH = 1.2;
+
+  @Override
+  public void reorder() {
+    bdd_reorder();
+  }
+
+  @Override
+  public void addVarBlock(int first, int last) {
+    checkArgument(
+        0 <= first && first <= last && last < bddvarnum,
+        "Invalid variable block %s..%s",
+        first,
+        last);
+    for (int[] block : varBlocks) {
+      checkArgument(
+          last < block[0] || block[1] < first,
+          "Variable block %s..%s overlaps block %s..%s",
+          first,
+          last,
+          block[0],
+          block[1]);
+    }
+    int minLevel = Integer.MAX_VALUE;
+    int maxLevel = Integer.MIN_VALUE;
+    for (int var = first; var <= last; var++) {
+      minLevel = Math.min(minLevel, bddvar2level[var]);
+      maxLevel = Math.max(maxLevel, bddvar2level[var]);
+    }
+    checkArgument(
+        maxLevel - minLevel == last - first,
+        "Variables %s..%s are not at adjacent levels",
+        first,
+        last);
+    varBlocks.add(new int[] {first, last});
+  }
+
+  @Override
+  public void enableAutoReorder(double growthFactor) {
+    checkArgument(growthFactor > 1, "Growth factor must be greater than 1: %s", growthFactor);
+    autoReorderGrowth = growthFactor;
+    setAutoReorderThreshold();
+  }
+
+  @Override
+  public void disableAutoReorder() {
+    autoReorderGrowth = 0;
+    reorderPending = false;
+  }
+
+  private void setAutoReorderThreshold() {
+    autoReorderThreshold =
+        (int)
+            Math.min(
+                Integer.MAX_VALUE,
+                Math.max(AUTO_REORDER_MIN_NODES, bdd_getnodenum() * autoReorderGrowth));
+  }
+
+  private void bdd_reorder() {
+    if (bddvarnum >= 2) {
+      long c1 = System.currentTimeMillis();
+      reorder_init();
+      reorder_sift();
+      reorder_done();
+      // Cached results remain valid functions, but some (e.g. satisfying counts) depend on levels.
+      bdd_operator_reset();
+      reorderCount++;
+      reorderTime += System.currentTimeMillis() - c1;
+    }
+    if (autoReorderGrowth > 0) {
+      setAutoReorderThreshold();
+    }
+    // The garbage collection that ends reordering must not trigger another one.
+    reorderPending = false;
+  }
+
+  /** Sifts every block of variables, largest first. */
+  private void reorder_sift() {
+    List<int[]> blocks = reorder_blocks();
+    List<int[]> bySize = new ArrayList<>(blocks);
+    bySize.sort(
+        Comparator.comparingInt(
+                (int[] block) -> Arrays.stream(block).map(v -> levels[v].nodenum).sum())
+            .reversed());
+    for (int[] block : bySize) {
+      reorder_siftBlock(blocks, block);
+    }
+  }
+
+  /**
+   * Returns the blocks of variables in level order, each with its variables in level order.
+   * Variables not in a block of {@link #varBlocks} form blocks of their own.
+   */
+  private @Nonnull List<int[]> reorder_blocks() {
+    int[] blockOf = new int[bddvarnum];
+    Arrays.fill(blockOf, -1);
+    for (int b = 0; b < varBlocks.size(); b++) {
+      for (int var = varBlocks.get(b)[0]; var <= varBlocks.get(b)[1]; var++) {
+        blockOf[var] = b;
+      }
+    }
+    List<int[]> blocks = new ArrayList<>();
+    int level = 0;
+    while (level < bddvarnum) {
+      int b = blockOf[bddlevel2var[level]];
+      int[] block = new int[b < 0 ? 1 : varBlocks.get(b)[1] - varBlocks.get(b)[0] + 1];
+      for (int i = 0; i < block.length; i++) {
+        if (level + i >= bddvarnum || blockOf[bddlevel2var[level + i]] != b) {
+          throw new BDDException("Variable block is not at adjacent levels: " + level);
+        }
+        block[i] = bddlevel2var[level + i];
+      }
+      blocks.add(block);
+      level += block.length;
+    }
+    return blocks;
+  }
+
+  /**
+   * Moves {@code block} through all positions in {@code blocks}, first towards the nearer end, and
+   * leaves it where the node count is smallest.
+   */
+  private void reorder_siftBlock(List<int[]> blocks, int[] block) {
+    int pos = blocks.indexOf(block);
+    int bestPos = pos;
+    int bestSize = reorder_nodenum();
+    boolean downFirst = pos >= blocks.size() / 2;
+    for (int pass = 0; pass < 2; pass++) {
+      boolean down = downFirst == (pass == 0);
+      while (down ? pos < blocks.size() - 1 : pos > 0) {
+        pos = down ? reorder_blockDown(blocks, pos) : reorder_blockDown(blocks, pos - 1) - 1;
+        int size = reorder_nodenum();
+        if (size < bestSize) {
+          bestSize = size;
+          bestPos = pos;
+        } else if (size > bestSize * SIFT_MAX_GROWTH) {
+          break;
+        }
+      }
+    }
+    while (pos < bestPos) {
+      pos = reorder_blockDown(blocks, pos);
+    }
+    while (pos > bestPos) {
+      pos = reorder_blockDown(blocks, pos - 1) - 1;
+    }
+  }
+
+  /**
+   * Swaps the block at {@code pos} with the block below it, keeping the order of variables within
+   * each, and returns {@code pos + 1}.
+   */
+  private int reorder_blockDown(List<int[]> blocks, int pos) {
+    int[] upper = blocks.get(pos);
+    int[] lower = blocks.get(pos + 1);
+    // Move each variable of the lower block, topmost first, above all variables of the upper one.
+    for (int var : lower) {
+      for (int i = 0; i < upper.length; i++) {
+        reorder_varup(var);
+      }
+    }
+    Collections.swap(blocks, pos, pos + 1);
+    return pos + 1;
+  }
+
+  /** Returns the number of live nodes during reordering. */
+  private int reorder_nodenum() {
+    return bddnodesize - bddfreenum;
+  }
+
   private int bdd_getnodenum() {
     return bddnodesize - bddfreenum;
   }
@@ -5779,6 +6070,183 @@ public class JFactory extends BDDFactory implements Serializable {
     return bdd_anodecount(a);
   }
 
+  /** Magic number and version of the format written by {@link #save}. */
+  private static final int SAVE_FORMAT = 0x42444401;
+
+  @Override
+  public void save(DataOutput out, List<BDD> roots) throws IOException {
+    int[] rootIndices = roots.stream().mapToInt(b -> ((BDDImpl) b)._index).toArray();
+
+    // Number the nodes in post-order, so that children are numbered (and loaded) before parents.
+    IntIntHashMap ids = new IntIntHashMap();
+    ids.put(BDDZERO, BDDZERO);
+    ids.put(BDDONE, BDDONE);
+    IntArrayList nodes = new IntArrayList();
+    IntStack stack = new IntStack();
+    for (int root : rootIndices) {
+      CHECK(root);
+      stack.push(root);
+      while (!stack.isEmpty()) {
+        int n = stack.peek();
+        if (ids.containsKey(n)) {
+          stack.pop();
+        } else if (!ids.containsKey(LOW(n))) {
+          stack.push(LOW(n));
+        } else if (!ids.containsKey(HIGH(n))) {
+          stack.push(HIGH(n));
+        } else {
+          stack.pop();
+          ids.put(n, nodes.size() + 2);
+          nodes.add(n);
+        }
+      }
+    }
+
+    out.writeInt(SAVE_FORMAT);
+    writeVarInt(out, bddvarnum);
+    for (int level = 0; level < bddvarnum; level++) {
+      writeVarInt(out, bddlevel2var[level]);
+    }
+    writeVarInt(out, nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      int n = nodes.get(i);
+      int id = i + 2;
+      writeVarInt(out, bddlevel2var[LEVEL(n)]);
+      // Children are referenced relative to their parent, since they are usually numbered close to
+      // it and small numbers have short encodings.
+      writeVarInt(out, id - ids.get(LOW(n)));
+      writeVarInt(out, id - ids.get(HIGH(n)));
+    }
+    writeVarInt(out, rootIndices.length);
+    for (int root : rootIndices) {
+      writeVarInt(out, ids.get(root));
+    }
+  }
+
+  @Override
+  public List<BDD> load(DataInput in) throws IOException {
+    if (in.readInt() != SAVE_FORMAT) {
+      throw new BDDException("Input is not in BDD save format");
+    }
+    int varNum = readVarInt(in);
+    if (varNum > bddvarnum) {
+      bdd_setvarnum(varNum);
+    }
+    // Whether the variables are ordered the same way in the saved BDDs and in this factory, in
+    // which case each node can be made directly from its children.
+    boolean sameOrder = true;
+    int prevLevel = -1;
+    for (int level = 0; level < varNum; level++) {
+      int var = readVarInt(in);
+      if (var < 0 || var >= varNum) {
+        throw new BDDException("Invalid variable in BDD variable order: " + var);
+      }
+      sameOrder &= bddvar2level[var] > prevLevel;
+      prevLevel = bddvar2level[var];
+    }
+
+    int numNodes = readVarInt(in);
+    if (numNodes < 0) {
+      throw new BDDException("Invalid BDD node count: " + numNodes);
+    }
+    // Loaded nodes are referenced until the roots are made, so they survive garbage collection.
+    int[] nodes = new int[numNodes + 2];
+    nodes[BDDZERO] = BDDZERO;
+    nodes[BDDONE] = BDDONE;
+    int loaded = 2;
+    try {
+      INITREF();
+      for (; loaded < nodes.length; loaded++) {
+        int var = readVarInt(in);
+        int lowDelta = readVarInt(in);
+        int highDelta = readVarInt(in);
+        if (var < 0
+            || var >= varNum
+            || lowDelta < 1
+            || lowDelta > loaded
+            || highDelta < 1
+            || highDelta > loaded) {
+          throw new BDDException("Invalid BDD node: " + loaded);
+        }
+        int low = nodes[loaded - lowDelta];
+        int high = nodes[loaded - highDelta];
+        int level = bddvar2level[var];
+        int node;
+        if (level < LEVEL(low) && level < LEVEL(high)) {
+          node = bdd_makenode(level, low, high);
+        } else if (sameOrder) {
+          throw new BDDException("Invalid BDD node: " + loaded);
+        } else {
+          node = bdd_ite(bdd_ithvar(var), high, low);
+        }
+        nodes[loaded] = bdd_addref(node);
+      }
+      checkresize();
+
+      int numRoots = readVarInt(in);
+      if (numRoots < 0) {
+        throw new BDDException("Invalid BDD root count: " + numRoots);
+      }
+      List<BDD> roots = new ArrayList<>(numRoots);
+      for (int i = 0; i < numRoots; i++) {
+        int id = readVarInt(in);
+        if (id < 0 || id >= nodes.length) {
+          throw new BDDException("Invalid BDD root: " + id);
+        }
+        roots.add(makeBDD(nodes[id]));
+      }
+      return roots;
+    } finally {
+      for (int i = 2; i < loaded; i++) {
+        bdd_delref(nodes[i]);
+      }
+    }
+  }
+
+  /** Returns the nodes reachable from referenced nodes, including the constants. */
+  private @Nonnull BitSet liveNodes() {
+    BitSet live = new BitSet(bddnodesize);
+    live.set(BDDZERO);
+    live.set(BDDONE);
+    IntStack stack = new IntStack();
+    for (int n = 2; n < bddnodesize; n++) {
+      if (LOW(n) != INVALID_BDD && HASREF(n)) {
+        stack.push(n);
+      }
+    }
+    while (!stack.isEmpty()) {
+      int n = stack.pop();
+      if (!live.get(n)) {
+        live.set(n);
+        stack.push(LOW(n));
+        stack.push(HIGH(n));
+      }
+    }
+    return live;
+  }
+
+  /** Writes a non-negative int in 1 to 5 bytes, 7 bits at a time, least significant first. */
+  private static void writeVarInt(DataOutput out, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    out.writeByte(value);
+  }
+
+  /** Reads an int written by {@link #writeVarInt}. */
+  private static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new BDDException("Invalid variable-length int");
+  }
+
   @Override
   public int getNodeTableSize() {
     return bdd_getallocnum();
@@ -5798,6 +6266,32 @@ public class JFactory extends BDDFactory implements Serializable {
     return cachesize;
   }
 
+  @Override
+  public BDDStats getStats() {
+    SortedMap<String, BDDStats.OperatorCacheStats> operatorCaches = new TreeMap<>();
+    Stream.of(applycache, appexcache, countcache, misccache, multiopcache, quantcache, replacecache)
+        .filter(Objects::nonNull)
+        .forEach(
+            cache ->
+                operatorCaches.put(
+                    getCacheName(cache),
+                    new BDDStats.OperatorCacheStats(cache.lookups, cache.hits)));
+    return new BDDStats(
+        operatorCaches,
+        uniqueLookups,
+        uniqueHits,
+        uniqueChainSteps,
+        bddnodesize,
+        bdd_getnodenum(),
+        peakNodesInUse,
+        gbcollectnum,
+        gbcclock,
+        resizeCount,
+        sumResizeTime,
+        reorderCount,
+        reorderTime);
+  }
+
   @Override
   public void printStat() {
     bdd_fprintstat(System.out);
@@ -1,19 +1,31 @@
 package net.sf.javabdd;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import org.apache.commons.lang3.SerializationUtils;
 import org.junit.Rule;
 import org.junit.Test;
@@ -617,6 +629,191 @@ public class JFactoryTest {
     _factory.andLiterals(v0.and(v1), v2);
   }
 
+  /** Returns a random disjunction of conjunctions of literals over the first {@code numVars}. */
+  private static BDD randomBdd(BDDFactory factory, Random random, int numVars) {
+    BDD result = factory.zero();
+    for (int i = 0; i < 10; i++) {
+      BDD cube = factory.one();
+      for (int j = 0; j < 6; j++) {
+        int var = random.nextInt(numVars);
+        cube.andWith(random.nextBoolean() ? factory.ithVar(var) : factory.nithVar(var));
+      }
+      result.orWith(cube);
+    }
+    return result;
+  }
+
+  private static byte[] save(BDDFactory factory, List<BDD> roots) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    factory.save(new DataOutputStream(bytes), roots);
+    return bytes.toByteArray();
+  }
+
+  private static List<BDD> load(BDDFactory factory, byte[] bytes) throws IOException {
+    return factory.load(new DataInputStream(new ByteArrayInputStream(bytes)));
+  }
+
+  @Test
+  public void testSaveLoad() throws IOException {
+    _factory.setVarNum(20);
+    Random random = new Random(0);
+    List<BDD> bdds = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      bdds.add(randomBdd(_factory, random, 20));
+    }
+    bdds.add(bdds.get(0).and(bdds.get(1)));
+    bdds.add(bdds.get(0));
+    bdds.add(_factory.zero());
+    bdds.add(_factory.one());
+
+    byte[] bytes = save(_factory, bdds);
+    assertThat(load(_factory, bytes), equalTo(bdds));
+
+    // shared nodes are saved once: only the index of the second root is added
+    byte[] single = save(_factory, ImmutableList.of(bdds.get(0)));
+    byte[] twice = save(_factory, ImmutableList.of(bdds.get(0), bdds.get(0)));
+    assertThat(twice.length, lessThanOrEqualTo(single.length + 2));
+
+    // load into a fresh factory with fewer variables
+    BDDFactory other = JFactory.init(1000, 1000);
+    List<BDD> loaded = load(other, bytes);
+    assertThat(other.varNum(), equalTo(20));
+    assertThat(save(other, loaded), equalTo(bytes));
+  }
+
+  @Test
+  public void testLoadWithDifferentVarOrder() throws IOException {
+    _factory.setVarNum(10);
+    List<BDD> bdds = new ArrayList<>();
+    Random random = new Random(0);
+    for (int i = 0; i < 10; i++) {
+      bdds.add(randomBdd(_factory, random, 10));
+    }
+    byte[] bytes = save(_factory, bdds);
+
+    BDDFactory other = JFactory.init(1000, 1000);
+    other.setVarNum(10);
+    other.setVarOrder(new int[] {9, 8, 7, 6, 5, 4, 3, 2, 1, 0});
+    List<BDD> expected = new ArrayList<>();
+    random = new Random(0);
+    for (int i = 0; i < 10; i++) {
+      expected.add(randomBdd(other, random, 10));
+    }
+    assertThat(load(other, bytes), equalTo(expected));
+  }
+
+  @Test
+  public void testLoadInvalid() throws IOException {
+    _exception.expect(BDDException.class);
+    load(_factory, new byte[] {1, 2, 3, 4});
+  }
+
+  @Test
+  public void testSerializationOmitsDeadNodes() {
+    _factory.setVarNum(20);
+    Random random = new Random(0);
+    BDD kept = randomBdd(_factory, random, 20);
+    byte[] before = SerializationUtils.serialize(_factory);
+    for (int i = 0; i < 100; i++) {
+      randomBdd(_factory, random, 20).free();
+    }
+    byte[] after = SerializationUtils.serialize(_factory);
+    // The dead nodes of the freed BDDs are not serialized.
+    assertThat(after.length, lessThan(before.length + 100));
+
+    BDD keptClone = SerializationUtils.clone(kept);
+    assertEquals(kept.toReprString(), keptClone.toReprString());
+    BDDFactory factoryClone = keptClone.getFactory();
+    assertThat(
+        randomBdd(factoryClone, new Random(1), 20).and(keptClone).satCount(),
+        equalTo(randomBdd(_factory, new Random(1), 20).and(kept).satCount()));
+  }
+
+  /**
+   * Returns {@code (x0 & y0) | ... | (xn & yn)}, where {@code xi} is variable {@code i} and {@code
+   * yi} is variable {@code n + i}. Its size is exponential in {@code n} under the identity order,
+   * and linear if each {@code xi} is next to {@code yi}.
+   */
+  private static BDD pairwiseOr(BDDFactory factory, int n) {
+    BDD result = factory.zero();
+    for (int i = 0; i < n; i++) {
+      result.orWith(factory.ithVar(i).and(factory.ithVar(n + i)));
+    }
+    return result;
+  }
+
+  @Test
+  public void testReorder() {
+    int n = 8;
+    _factory.setVarNum(2 * n);
+    BDD f = pairwiseOr(_factory, n);
+    double satCount = f.satCount();
+    int before = f.nodeCount();
+    _factory.reorder();
+    assertThat(f.nodeCount(), lessThan(before / 4));
+    assertThat(f.satCount(), equalTo(satCount));
+    assertThat(pairwiseOr(_factory, n), equalTo(f));
+  }
+
+  @Test
+  public void testReorderKeepsVarBlocks() {
+    int n = 8;
+    _factory.setVarNum(2 * n);
+    _factory.addVarBlock(0, n - 1);
+    BDD f = pairwiseOr(_factory, n);
+    _factory.reorder();
+    for (int var = 1; var < n; var++) {
+      assertThat(_factory.var2Level(var), equalTo(_factory.var2Level(0) + var));
+    }
+    assertThat(pairwiseOr(_factory, n), equalTo(f));
+  }
+
+  @Test
+  public void testAddVarBlockOverlapping() {
+    _factory.setVarNum(10);
+    _factory.addVarBlock(2, 5);
+    _exception.expect(IllegalArgumentException.class);
+    _factory.addVarBlock(5, 6);
+  }
+
+  @Test
+  public void testAutoReorder() {
+    int n = 14;
+    _factory.setVarNum(2 * n);
+    _factory.enableAutoReorder(2);
+    BDD f = pairwiseOr(_factory, n);
+    // without reordering, f would have more than 2^n nodes
+    assertThat(f.nodeCount(), lessThan(1000));
+    assertThat(f.satCount(), equalTo(Math.pow(4, n) - Math.pow(3, n)));
+    assertThat(_factory.getReorderStats().usednum_before, greaterThan(0));
+  }
+
+  @Test
+  public void testStats() {
+    _factory.setVarNum(8);
+    BDD a = _factory.ithVar(0).and(_factory.ithVar(1));
+    BDD b = _factory.ithVar(0).and(_factory.ithVar(1));
+    BDDStats stats = _factory.getStats();
+    assertThat(stats.getOperatorCaches().get("apply").getLookups(), greaterThan(0L));
+    // the second conjunction is answered from the apply cache
+    assertThat(stats.getOperatorCaches().get("apply").getHits(), greaterThan(0L));
+    assertThat(stats.getUniqueLookups(), greaterThan(0L));
+    assertThat(stats.getNodesInUse(), equalTo(_factory.getNodeNum()));
+    assertThat(stats.getPeakNodesInUse(), greaterThanOrEqualTo(stats.getNodesInUse()));
+    assertThat(stats.getNodeTableSize(), equalTo(_factory.getNodeTableSize()));
+    assertThat(stats.getGcCount(), equalTo(0));
+
+    a.free();
+    b.free();
+    _factory.setVarNum(16);
+    pairwiseOr(_factory, 8).free();
+    _factory.reorder();
+    stats = _factory.getStats();
+    assertThat(stats.getGcCount(), greaterThan(0));
+    assertThat(stats.getReorderCount(), equalTo(1));
+    assertThat(stats.getPeakNodesInUse(), greaterThan(stats.getNodesInUse()));
+  }
+
   @Test
   public void testSerialization() {
     _factory.setVarNum(10);
@@ -15,6 +15,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -104,6 +106,7 @@ import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.AnswerSummary;
 import org.batfish.datamodel.answers.AutoCompleteUtils;
 import org.batfish.datamodel.answers.AutocompleteSuggestion;
+import org.batfish.datamodel.answers.CompletionMetadataIndex;
 import org.batfish.datamodel.answers.InputValidationNotes;
 import org.batfish.datamodel.answers.InputValidationUtils;
 import org.batfish.datamodel.answers.Issue;
@@ -189,6 +192,8 @@ public class WorkMgr extends AbstractCoordinator {
   private static final String SNAPSHOT_PACKAGING_INSTRUCTIONS_URL =
       "https://batfish.readthedocs.io/en/latest/notebooks/interacting.html#Packaging-snapshot-data";
 
+  private static final int MAX_CACHED_COMPLETION_METADATA_INDEXES = 16;
+
   private final IdManager _idManager;
   private final BatfishLogger _logger;
   private final Settings _settings;
@@ -197,6 +202,10 @@ public class WorkMgr extends AbstractCoordinator {
   private final StorageProvider _storage;
   private final ExecutorService _gcExecutor;
 
+  /** Autocomplete indexes of the completion metadata of recently used snapshots. */
+  private final Cache<NetworkSnapshot, CompletionMetadataIndex> _completionMetadataIndexes =
+      CacheBuilder.newBuilder().maximumSize(MAX_CACHED_COMPLETION_METADATA_INDEXES).build();
+
   public WorkMgr(
       Settings settings,
       BatfishLogger logger,
@@ -358,7 +367,10 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
-  private CompletionMetadata getCompletionMetadata(String network, String snapshot)
+  /**
+   * Returns the ids of the given network and snapshot, or {@code null} if either does not exist.
+   */
+  private @Nullable NetworkSnapshot getNetworkSnapshot(String network, String snapshot)
       throws IOException {
     checkArgument(!isNullOrEmpty(network), "Network name should be supplied");
     checkArgument(!isNullOrEmpty(snapshot), "Snapshot name should be supplied");
@@ -372,8 +384,42 @@ public class WorkMgr extends AbstractCoordinator {
     if (!snapshotIdOpt.isPresent()) {
       return null;
     }
-    SnapshotId snapshotId = snapshotIdOpt.get();
-    return _storage.loadCompletionMetadata(networkId, snapshotId);
+    return new NetworkSnapshot(networkId, snapshotIdOpt.get());
+  }
+
+  private CompletionMetadata getCompletionMetadata(String network, String snapshot)
+      throws IOException {
+    NetworkSnapshot networkSnapshot = getNetworkSnapshot(network, snapshot);
+    if (networkSnapshot == null) {
+      return null;
+    }
+    return _storage.loadCompletionMetadata(
+        networkSnapshot.getNetwork(), networkSnapshot.getSnapshot());
+  }
+
+  /**
+   * Returns the autocomplete index of the given snapshot's completion metadata, or {@code null} if
+   * the network or snapshot does not exist. Indexes of recently used snapshots are cached.
+   */
+  private @Nullable CompletionMetadataIndex getCompletionMetadataIndex(
+      String network, String snapshot) throws IOException {
+    NetworkSnapshot networkSnapshot = getNetworkSnapshot(network, snapshot);
+    if (networkSnapshot == null) {
+      return null;
+    }
+    CompletionMetadataIndex index = _completionMetadataIndexes.getIfPresent(networkSnapshot);
+    if (index != null) {
+      return index;
+    }
+    CompletionMetadata completionMetadata =
+        _storage.loadCompletionMetadata(
+            networkSnapshot.getNetwork(), networkSnapshot.getSnapshot());
+    index = new CompletionMetadataIndex(completionMetadata);
+    // Metadata is stored once the snapshot is parsed, so do not cache its absence.
+    if (!completionMetadata.equals(CompletionMetadata.EMPTY)) {
+      _completionMetadataIndexes.put(networkSnapshot, index);
+    }
+    return index;
   }
 
   @Nullable
@@ -385,13 +431,26 @@ public class WorkMgr extends AbstractCoordinator {
       int maxSuggestions)
       throws IOException {
 
-    return AutoCompleteUtils.autoComplete(
+    CompletionMetadataIndex completionMetadataIndex = getCompletionMetadataIndex(network, snapshot);
+    if (completionMetadataIndex == null) {
+      return AutoCompleteUtils.autoComplete(
+          network,
+          snapshot,
+          completionType,
+          query,
+          maxSuggestions,
+          null,
+          getNetworkNodeRoles(network),
+          getReferenceLibrary(network),
+          true);
+    }
+    return AutoCompleteUtils.indexedAutoComplete(
         network,
         snapshot,
         completionType,
         query,
         maxSuggestions,
-        getCompletionMetadata(network, snapshot),
+        completionMetadataIndex,
         getNetworkNodeRoles(network),
         getReferenceLibrary(network),
         true);
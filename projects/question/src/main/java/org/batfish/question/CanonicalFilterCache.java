@@ -0,0 +1,230 @@
+package org.batfish.question;
+
+import static org.batfish.question.filterlinereachability.AclEraser.erase;
+import static org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.getReferencedAcls;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.common.bdd.BDDSourceManager;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.TraceElement;
+import org.batfish.datamodel.acl.AclLineMatchExpr;
+import org.batfish.datamodel.acl.CircularReferenceException;
+import org.batfish.datamodel.acl.UndefinedReferenceException;
+import org.batfish.datamodel.answers.AnswerElement;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.question.filterlinereachability.HeaderSpaceSanitizer;
+
+/**
+ * A content-addressed cache of per-filter analysis results, so that a filter defined identically on
+ * many nodes is analyzed only once per question.
+ *
+ * <p>Results are keyed by a list of parts, typically one or more {@link #canonicalFilter canonical
+ * filters} plus the {@link #sources sources} tracked by the {@link BDDSourceManager} used in the
+ * analysis. A canonical filter consists of the lines of the filter and of every filter it
+ * transitively references, with {@link TraceElement TraceElements} and vendor structure ids erased
+ * and named {@link IpSpace} references replaced by their definitions. A {@code null} key part marks
+ * the result as not cacheable. Instances are not thread-safe.
+ */
+@ParametersAreNonnullByDefault
+public final class CanonicalFilterCache<V> {
+
+  private static final Logger LOGGER = LogManager.getLogger(CanonicalFilterCache.class);
+
+  /**
+   * Debug flag asking answerers that use a {@link CanonicalFilterCache} to add its statistics to
+   * the notes of their {@link AnswerSummary}.
+   */
+  public static final String DEBUG_FLAG_FILTER_CACHE_STATS = "filterCacheStats";
+
+  private final Map<List<Object>, V> _results;
+  private int _hits;
+  private int _misses;
+  private int _uncacheable;
+
+  public CanonicalFilterCache() {
+    _results = new HashMap<>();
+  }
+
+  /**
+   * Returns the result cached for the given key, computing and caching it with {@code compute} if
+   * absent. If any key part is {@code null}, the result is computed but not cached.
+   */
+  public @Nonnull V get(Supplier<V> compute, @Nullable Object... keyParts) {
+    if (Arrays.asList(keyParts).contains(null)) {
+      _uncacheable++;
+      return compute.get();
+    }
+    List<Object> key = ImmutableList.copyOf(keyParts);
+    V result = _results.get(key);
+    if (result != null) {
+      _hits++;
+      return result;
+    }
+    _misses++;
+    result = compute.get();
+    _results.put(key, result);
+    return result;
+  }
+
+  /** Number of lookups answered from the cache. */
+  public int getHits() {
+    return _hits;
+  }
+
+  /** Number of lookups that computed and cached a new result. */
+  public int getMisses() {
+    return _misses;
+  }
+
+  /** Number of lookups whose result was computed without caching, due to a {@code null} key. */
+  public int getUncacheable() {
+    return _uncacheable;
+  }
+
+  /** Logs the hit statistics of this cache, attributed to the given question. */
+  public void logStats(String questionName) {
+    LOGGER.info("{}: {}", questionName, statsText());
+  }
+
+  /**
+   * Adds the hit statistics of this cache to the notes of the summary of {@code answer}, creating
+   * the summary if it has none.
+   */
+  public void addStatsToSummary(AnswerElement answer) {
+    AnswerSummary stats = new AnswerSummary("Filter cache stats: " + statsText(), 0, 0, 0);
+    if (answer.getSummary() == null) {
+      answer.setSummary(stats);
+    } else {
+      answer.getSummary().combine(stats);
+    }
+  }
+
+  private @Nonnull String statsText() {
+    return String.format(
+        "%d distinct filters analyzed, %d results reused, %d filters not cacheable",
+        _misses, _hits, _uncacheable);
+  }
+
+  /**
+   * Returns the canonical form of {@code acl} as a key part, or {@code null} if it (transitively)
+   * references an undefined filter or an undefined or circular named {@link IpSpace}.
+   *
+   * @param acls All filters defined on the node of {@code acl}
+   * @param ipSpaces All named IP spaces defined on the node of {@code acl}
+   */
+  public static @Nullable Object canonicalFilter(
+      IpAccessList acl, Map<String, IpAccessList> acls, Map<String, IpSpace> ipSpaces) {
+    HeaderSpaceSanitizer sanitizer = new HeaderSpaceSanitizer(ipSpaces);
+    SortedMap<String, List<AclLine>> referencedLines = new TreeMap<>();
+    Deque<String> toVisit = new ArrayDeque<>();
+    List<AclLine> lines = canonicalLines(acl, sanitizer, toVisit);
+    if (lines == null) {
+      return null;
+    }
+    while (!toVisit.isEmpty()) {
+      String name = toVisit.pop();
+      if (referencedLines.containsKey(name)) {
+        continue;
+      }
+      IpAccessList referenced = acls.get(name);
+      if (referenced == null) {
+        return null;
+      }
+      List<AclLine> canonicalReferencedLines = canonicalLines(referenced, sanitizer, toVisit);
+      if (canonicalReferencedLines == null) {
+        return null;
+      }
+      referencedLines.put(name, canonicalReferencedLines);
+    }
+    return new CanonicalFilter(lines, referencedLines);
+  }
+
+  /**
+   * Returns the canonical form of {@code headerSpace} as a key part, or {@code null} if it
+   * references an undefined or circular named {@link IpSpace}.
+   */
+  public static @Nullable Object canonicalHeaderSpace(
+      AclLineMatchExpr headerSpace, Map<String, IpSpace> ipSpaces) {
+    try {
+      return new HeaderSpaceSanitizer(ipSpaces).visit(headerSpace);
+    } catch (CircularReferenceException | UndefinedReferenceException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the sources of {@code mgr} as a key part. Managers with equal keys assign the same
+   * values to the same sources, in the same order.
+   */
+  public static @Nonnull Object sources(BDDSourceManager mgr) {
+    return ImmutableList.of(
+        ImmutableList.copyOf(mgr.getFiniteDomain().getValueBdds().keySet()),
+        mgr.getActiveButUnreferenced());
+  }
+
+  /**
+   * Returns the erased and sanitized lines of {@code acl}, adding the names of the filters they
+   * reference to {@code referencedAcls}, or {@code null} if they cannot be sanitized.
+   */
+  private static @Nullable List<AclLine> canonicalLines(
+      IpAccessList acl, HeaderSpaceSanitizer sanitizer, Deque<String> referencedAcls) {
+    ImmutableList.Builder<AclLine> lines = ImmutableList.builder();
+    try {
+      for (AclLine line : erase(acl).getLines()) {
+        lines.add(sanitizer.visit(line));
+        referencedAcls.addAll(getReferencedAcls(line));
+      }
+    } catch (CircularReferenceException | UndefinedReferenceException e) {
+      return null;
+    }
+    return lines.build();
+  }
+
+  /** The content of a filter and the filters it references, ignoring names and trace elements. */
+  private static final class CanonicalFilter {
+    private final List<AclLine> _lines;
+    private final SortedMap<String, List<AclLine>> _referencedLines;
+    private final int _hashCode;
+
+    private CanonicalFilter(List<AclLine> lines, SortedMap<String, List<AclLine>> referencedLines) {
+      _lines = lines;
+      _referencedLines = referencedLines;
+      _hashCode = Objects.hash(_lines, _referencedLines);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof CanonicalFilter)) {
+        return false;
+      }
+      CanonicalFilter that = (CanonicalFilter) o;
+      return _hashCode == that._hashCode
+          && _lines.equals(that._lines)
+          && _referencedLines.equals(that._referencedLines);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
@@ -6,15 +6,15 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.auto.service.AutoService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
+import com.google.common.primitives.Ints;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -23,6 +23,7 @@ import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.common.plugin.Plugin;
 import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.StructureReferenceTable;
 import org.batfish.datamodel.collections.FileLines;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.table.ColumnMetadata;
@@ -66,14 +67,15 @@ public class UndefinedReferencesQuestionPlugin extends QuestionPlugin {
               .collect(Collectors.toSet());
 
       Multiset<Row> rows = LinkedHashMultiset.create();
-      SortedMap<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
-          undefinedReferences =
-              _batfish
-                  .loadConvertConfigurationAnswerElementOrReparse(snapshot)
-                  .getUndefinedReferences();
-      undefinedReferences.entrySet().stream()
-          .filter(e -> includeFiles.contains(e.getKey()))
-          .forEach(e -> rows.addAll(processEntryToRows(e)));
+      _batfish
+          .loadConvertConfigurationAnswerElementOrReparse(snapshot)
+          .getUndefinedReferenceTables()
+          .forEach(
+              (filename, undefinedReferences) -> {
+                if (includeFiles.contains(filename)) {
+                  rows.addAll(toRows(filename, undefinedReferences));
+                }
+              });
 
       TableAnswerElement table = new TableAnswerElement(createMetadata());
       table.postProcessAnswer(_question, rows);
@@ -81,35 +83,22 @@ public class UndefinedReferencesQuestionPlugin extends QuestionPlugin {
     }
 
     @VisibleForTesting
-    // Entry is: filename -> struct type -> struct name -> context -> line nums
-    public static List<Row> processEntryToRows(
-        Entry<String, SortedMap<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>>>
-            e) {
+    public static List<Row> toRows(String filename, StructureReferenceTable undefinedReferences) {
       List<Row> rows = new ArrayList<>();
-      String filename = e.getKey();
-      for (Entry<String, SortedMap<String, SortedMap<String, SortedSet<Integer>>>> e1 :
-          e.getValue().entrySet()) {
-        String structType = e1.getKey();
-        for (Entry<String, SortedMap<String, SortedSet<Integer>>> e2 : e1.getValue().entrySet()) {
-          String name = e2.getKey();
-          for (Entry<String, SortedSet<Integer>> e3 : e2.getValue().entrySet()) {
-            String context = e3.getKey();
-            SortedSet<Integer> lineNums = e3.getValue();
-            rows.add(
-                Row.of(
-                    COL_FILENAME,
-                    filename,
-                    COL_STRUCT_TYPE,
-                    structType,
-                    COL_REF_NAME,
-                    name,
-                    COL_CONTEXT,
-                    context,
-                    COL_LINES,
-                    new FileLines(filename, lineNums)));
-          }
-        }
-      }
+      undefinedReferences.forEachReference(
+          (structType, name, context, lineNums) ->
+              rows.add(
+                  Row.of(
+                      COL_FILENAME,
+                      filename,
+                      COL_STRUCT_TYPE,
+                      structType,
+                      COL_REF_NAME,
+                      name,
+                      COL_CONTEXT,
+                      context,
+                      COL_LINES,
+                      new FileLines(filename, ImmutableSortedSet.copyOf(Ints.asList(lineNums))))));
       return rows;
     }
 
@@ -1,7 +1,12 @@
 package org.batfish.question.comparefilters;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static org.batfish.common.bdd.BDDUtils.DEBUG_FLAG_BDD_STATS;
+import static org.batfish.common.bdd.BDDUtils.addStatsToSummary;
 import static org.batfish.common.bdd.PermitAndDenyBdds.takeDifferentActions;
+import static org.batfish.question.CanonicalFilterCache.DEBUG_FLAG_FILTER_CACHE_STATS;
+import static org.batfish.question.CanonicalFilterCache.canonicalFilter;
+import static org.batfish.question.CanonicalFilterCache.sources;
 import static org.batfish.question.FilterQuestionUtils.differentialBDDSourceManager;
 import static org.batfish.question.FilterQuestionUtils.getSpecifiedFilters;
 
@@ -38,6 +43,7 @@ import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.question.CanonicalFilterCache;
 import org.batfish.specifier.LocationSpecifier;
 import org.batfish.specifier.SpecifierContext;
 
@@ -90,6 +96,7 @@ public class CompareFiltersAnswerer extends Answerer {
             entry -> referenceFilters.containsEntry(entry.getKey(), entry.getValue()));
 
     BDDPacket bddPacket = new BDDPacket();
+    CanonicalFilterCache<List<FilterDifference>> cache = new CanonicalFilterCache<>();
     Multiset<Row> rows =
         commonFilters.entries().stream()
             .flatMap(
@@ -99,12 +106,20 @@ public class CompareFiltersAnswerer extends Answerer {
                         entry.getValue(),
                         bddPacket,
                         currentContext,
-                        referenceContext))
+                        referenceContext,
+                        cache))
             .map(filterDifference -> toRow(filterDifference, currentContext, referenceContext))
             .collect(ImmutableMultiset.toImmutableMultiset());
+    cache.logStats(_question.getName());
 
     TableAnswerElement table = new TableAnswerElement(metadata());
     table.postProcessAnswer(_question, rows);
+    if (_batfish.debugFlagEnabled(DEBUG_FLAG_BDD_STATS)) {
+      addStatsToSummary(table, bddPacket.getFactory());
+    }
+    if (_batfish.debugFlagEnabled(DEBUG_FLAG_FILTER_CACHE_STATS)) {
+      cache.addStatsToSummary(table);
+    }
     return table;
   }
 
@@ -161,7 +176,8 @@ public class CompareFiltersAnswerer extends Answerer {
       String filtername,
       BDDPacket bddPacket,
       SpecifierContext currentContext,
-      SpecifierContext referenceContext) {
+      SpecifierContext referenceContext,
+      CanonicalFilterCache<List<FilterDifference>> cache) {
     Configuration currentConfig = currentContext.getConfigs().get(hostname);
     Configuration referenceConfig = referenceContext.getConfigs().get(hostname);
     Map<String, IpAccessList> currentAcls = currentConfig.getIpAccessLists();
@@ -176,17 +192,31 @@ public class CompareFiltersAnswerer extends Answerer {
             referenceConfig,
             currentAcls.keySet(),
             LocationSpecifier.ALL_LOCATIONS);
-    IpAccessListToBdd currentToBdd =
-        new IpAccessListToBddImpl(bddPacket, srcMgr, currentAcls, currentIpSpaces);
-    List<PermitAndDenyBdds> currentBdds = currentToBdd.reachAndMatchLines(currentAcl);
-
     Map<String, IpAccessList> referenceAcls = referenceConfig.getIpAccessLists();
     Map<String, IpSpace> referenceIpSpaces = referenceConfig.getIpSpaces();
     IpAccessList referenceAcl = referenceAcls.get(filtername);
-    List<PermitAndDenyBdds> referenceBdds =
-        new IpAccessListToBddImpl(bddPacket, srcMgr, referenceAcls, referenceIpSpaces)
-            .reachAndMatchLines(referenceAcl);
-    return compareFilters(hostname, filtername, currentBdds, referenceBdds, bddPacket);
+
+    // Identical pairs of filters on different nodes differ in the same lines.
+    List<FilterDifference> differences =
+        cache.get(
+            () -> {
+              IpAccessListToBdd currentToBdd =
+                  new IpAccessListToBddImpl(bddPacket, srcMgr, currentAcls, currentIpSpaces);
+              List<PermitAndDenyBdds> currentBdds = currentToBdd.reachAndMatchLines(currentAcl);
+              List<PermitAndDenyBdds> referenceBdds =
+                  new IpAccessListToBddImpl(bddPacket, srcMgr, referenceAcls, referenceIpSpaces)
+                      .reachAndMatchLines(referenceAcl);
+              return compareFilters(hostname, filtername, currentBdds, referenceBdds, bddPacket)
+                  .collect(ImmutableList.toImmutableList());
+            },
+            canonicalFilter(currentAcl, currentAcls, currentIpSpaces),
+            canonicalFilter(referenceAcl, referenceAcls, referenceIpSpaces),
+            sources(srcMgr));
+    return differences.stream()
+        .map(
+            d ->
+                new FilterDifference(
+                    hostname, filtername, d.getCurrentIndex(), d.getReferenceIndex()));
   }
 
   @VisibleForTesting
@@ -2,6 +2,7 @@ package org.batfish.question.filterlinereachability;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
+import static org.batfish.question.CanonicalFilterCache.DEBUG_FLAG_FILTER_CACHE_STATS;
 import static org.batfish.question.filterlinereachability.AclEraser.erase;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityRows.createMetadata;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.getReferencedAcls;
@@ -40,6 +41,7 @@ import org.batfish.datamodel.acl.UndefinedReferenceException;
 import org.batfish.datamodel.answers.AclSpecs;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.question.CanonicalFilterCache;
 import org.batfish.specifier.FilterSpecifier;
 import org.batfish.specifier.SpecifierContext;
 
@@ -61,10 +63,15 @@ public class FilterLineReachabilityAnswerer extends Answerer {
     Map<String, Set<String>> specifiedAcls = getSpecifiedFilters(question, ctxt);
 
     SortedMap<String, Configuration> configurations = _batfish.loadConfigurations(snapshot);
-    List<AclSpecs> aclSpecs = getAclSpecs(configurations, specifiedAcls, answerRows);
+    CanonicalFilterCache<AclSpecs.Builder> cache = new CanonicalFilterCache<>();
+    List<AclSpecs> aclSpecs = getAclSpecs(configurations, specifiedAcls, answerRows, cache);
+    cache.logStats(question.getName());
     computeUnreachableFilterLines(aclSpecs).forEach(answerRows::addRowForLine);
     TableAnswerElement answer = new TableAnswerElement(createMetadata(question));
     answer.postProcessAnswer(question, answerRows.getRows());
+    if (_batfish.debugFlagEnabled(DEBUG_FLAG_FILTER_CACHE_STATS)) {
+      cache.addStatsToSummary(answer);
+    }
     return answer;
   }
 
@@ -357,6 +364,14 @@ public class FilterLineReachabilityAnswerer extends Answerer {
       SortedMap<String, Configuration> configurations,
       Map<String, Set<String>> specifiedAcls,
       FilterLineReachabilityRows answer) {
+    return getAclSpecs(configurations, specifiedAcls, answer, new CanonicalFilterCache<>());
+  }
+
+  private static List<AclSpecs> getAclSpecs(
+      SortedMap<String, Configuration> configurations,
+      Map<String, Set<String>> specifiedAcls,
+      FilterLineReachabilityRows answer,
+      CanonicalFilterCache<AclSpecs.Builder> cache) {
     List<AclSpecs.Builder> aclSpecs = new ArrayList<>();
 
     /*
@@ -432,17 +447,15 @@ public class FilterLineReachabilityAnswerer extends Answerer {
                   node.getLinesInCycles());
 
           // If an identical ACL exists, add current hostname/aclName pair; otherwise, add new ACL
-          boolean added = false;
-          for (AclSpecs.Builder aclSpec : aclSpecs) {
-            if (aclSpec.getAcl().equals(currentAcl)) {
-              aclSpec.addSource(hostname, aclName);
-              added = true;
-              break;
-            }
-          }
-          if (!added) {
-            aclSpecs.add(AclSpecs.builder().setAcl(currentAcl).addSource(hostname, aclName));
-          }
+          cache
+              .get(
+                  () -> {
+                    AclSpecs.Builder aclSpec = AclSpecs.builder().setAcl(currentAcl);
+                    aclSpecs.add(aclSpec);
+                    return aclSpec;
+                  },
+                  currentAcl)
+              .addSource(hostname, aclName);
         }
       }
     }
@@ -1,10 +1,11 @@
 package org.batfish.question.referencedstructures;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multiset;
-import java.util.ArrayList;
+import com.google.common.primitives.Ints;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -51,39 +52,35 @@ public class ReferencedStructuresAnswerer extends Answerer {
     Multiset<Row> rows = LinkedHashMultiset.create();
     _batfish
         .loadConvertConfigurationAnswerElementOrReparse(snapshot)
-        .getReferencedStructures()
+        .getReferencedStructureTables()
         .forEach(
-            (filename, value) -> {
+            (filename, references) -> {
               if (!includeFiles.contains(filename)) {
                 return;
               }
-              List<Row> rows1 = new ArrayList<>();
-              value.forEach(
-                  (structType, byName) -> {
-                    if (!includeStructureTypes.matcher(structType).matches()) {
-                      return;
-                    }
-                    byName.forEach(
-                        (name, byContext) -> {
-                          if (!includeStructureNames.matcher(name).matches()) {
-                            return;
-                          }
-                          byContext.forEach(
-                              (context, lineNums) -> {
-                                rows1.add(
-                                    Row.of(
-                                        COL_STRUCTURE_TYPE,
-                                        structType,
-                                        COL_STRUCTURE_NAME,
-                                        name,
-                                        COL_CONTEXT,
-                                        context,
-                                        COL_SOURCE_LINES,
-                                        new FileLines(filename, lineNums)));
-                              });
-                        });
-                  });
-              rows.addAll(rows1);
+              for (String structType : references.getStructureTypes()) {
+                if (!includeStructureTypes.matcher(structType).matches()) {
+                  continue;
+                }
+                references.forEachReference(
+                    structType,
+                    (type, name, context, lineNums) -> {
+                      if (!includeStructureNames.matcher(name).matches()) {
+                        return;
+                      }
+                      rows.add(
+                          Row.of(
+                              COL_STRUCTURE_TYPE,
+                              structType,
+                              COL_STRUCTURE_NAME,
+                              name,
+                              COL_CONTEXT,
+                              context,
+                              COL_SOURCE_LINES,
+                              new FileLines(
+                                  filename, ImmutableSortedSet.copyOf(Ints.asList(lineNums)))));
+                    });
+              }
             });
 
     TableAnswerElement table = new TableAnswerElement(createMetadata());
@@ -1,7 +1,13 @@
 package org.batfish.question.searchfilters;
 
+import static org.batfish.common.bdd.BDDUtils.DEBUG_FLAG_BDD_STATS;
+import static org.batfish.common.bdd.BDDUtils.addStatsToSummary;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.activeAclSources;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
+import static org.batfish.question.CanonicalFilterCache.DEBUG_FLAG_FILTER_CACHE_STATS;
+import static org.batfish.question.CanonicalFilterCache.canonicalFilter;
+import static org.batfish.question.CanonicalFilterCache.canonicalHeaderSpace;
+import static org.batfish.question.CanonicalFilterCache.sources;
 import static org.batfish.question.FilterQuestionUtils.differentialBDDSourceManager;
 import static org.batfish.question.FilterQuestionUtils.resolveSources;
 import static org.batfish.question.testfilters.TestFiltersAnswerer.COLUMN_METADATA;
@@ -34,6 +40,7 @@ import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.acl.AclLineMatchExpr;
 import org.batfish.datamodel.answers.AnswerElement;
 import org.batfish.datamodel.pojo.Node;
@@ -42,6 +49,7 @@ import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableDiff;
 import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.question.CanonicalFilterCache;
 import org.batfish.question.FilterQuestionUtils;
 import org.batfish.question.SearchFiltersParameters;
 import org.batfish.question.testfilters.TestFiltersAnswerer;
@@ -79,8 +87,10 @@ public final class SearchFiltersAnswerer extends Answerer {
 
     Map<String, Map<String, IpAccessList>> acls = getSpecifiedAcls(snapshot, question);
     Map<String, Map<String, IpAccessList>> refAcls = getSpecifiedAcls(reference, question);
+    BDDPacket pkt = new BDDPacket();
     Map<String, DiffConfigContext> configContexts =
-        getDiffConfigContexts(acls, refAcls, snapshot, reference, parameters);
+        getDiffConfigContexts(acls, refAcls, snapshot, reference, parameters, pkt);
+    CanonicalFilterCache<DifferentialSearchFiltersResult> cache = new CanonicalFilterCache<>();
 
     for (Entry<String, DiffConfigContext> e : configContexts.entrySet()) {
       String hostname = e.getKey();
@@ -111,11 +121,14 @@ public final class SearchFiltersAnswerer extends Answerer {
         }
 
         // present in both snapshot
-        DifferentialSearchFiltersResult result = getDiffResult(acl, refAcl, configContext, query);
+        DifferentialSearchFiltersResult result =
+            cache.get(
+                () -> getDiffResult(acl, refAcl, configContext, query),
+                configContext.getCacheKey(acl, refAcl));
 
         Stream.of(result.getDecreasedFlow(), result.getIncreasedFlow())
             .filter(Optional::isPresent)
-            .map(Optional::get)
+            .map(flow -> flow.get().toBuilder().setIngressNode(hostname).build())
             .forEach(
                 flow -> {
                   baseTable.addRow(testFiltersRow(snapshot, hostname, aclName, flow));
@@ -130,11 +143,19 @@ public final class SearchFiltersAnswerer extends Answerer {
       addOneSnapshotNodes(Sets.difference(refAcls.keySet(), acls.keySet()), refTable);
     }
 
+    cache.logStats(question.getName());
+
     TableAnswerElement diffTable =
         TableDiff.diffTables(baseTable, refTable, question.getIncludeOneTableKeys());
 
     _tableAnswerElement = new TableAnswerElement(diffTable.getMetadata());
     _tableAnswerElement.postProcessAnswer(question, diffTable.getRows().getData());
+    if (_batfish.debugFlagEnabled(DEBUG_FLAG_BDD_STATS)) {
+      addStatsToSummary(_tableAnswerElement, pkt.getFactory());
+    }
+    if (_batfish.debugFlagEnabled(DEBUG_FLAG_FILTER_CACHE_STATS)) {
+      cache.addStatsToSummary(_tableAnswerElement);
+    }
   }
 
   private void nonDifferentialAnswer(NetworkSnapshot snapshot, SearchFiltersQuestion question) {
@@ -151,8 +172,11 @@ public final class SearchFiltersAnswerer extends Answerer {
      */
     SearchFiltersParameters parameters = question.toSearchFiltersParameters();
     SearchFiltersQuery query = question.getQuery();
+    // Identical filters on different nodes yield the same flow, up to its ingress node.
+    CanonicalFilterCache<Optional<Flow>> cache = new CanonicalFilterCache<>();
+    BDDPacket pkt = new BDDPacket();
     for (Entry<String, NonDiffConfigContext> e :
-        getConfigContexts(specifiedAcls, snapshot, parameters).entrySet()) {
+        getConfigContexts(specifiedAcls, snapshot, parameters, pkt).entrySet()) {
       String hostname = e.getKey();
       NonDiffConfigContext configContext = e.getValue();
       for (IpAccessList acl : specifiedAcls.get(hostname).values()) {
@@ -162,18 +186,35 @@ public final class SearchFiltersAnswerer extends Answerer {
         }
 
         // Generate representative flow for ACL, if one exists
-        Flow flow = configContext.getFlow(configContext.getReachBdd(acl, query));
-        if (flow == null) {
+        Optional<Flow> flow =
+            cache.get(
+                () ->
+                    Optional.ofNullable(
+                        configContext.getFlow(configContext.getReachBdd(acl, query))),
+                configContext.getCacheKey(acl));
+        if (!flow.isPresent()) {
           continue;
         }
 
         // Add result to table
-        rows.add(testFiltersRow(snapshot, hostname, acl.getName(), flow));
+        rows.add(
+            testFiltersRow(
+                snapshot,
+                hostname,
+                acl.getName(),
+                flow.get().toBuilder().setIngressNode(hostname).build()));
       }
 
       _tableAnswerElement = new TableAnswerElement(new TableMetadata(COLUMN_METADATA));
       _tableAnswerElement.postProcessAnswer(question, rows);
     }
+    cache.logStats(question.getName());
+    if (_tableAnswerElement != null && _batfish.debugFlagEnabled(DEBUG_FLAG_BDD_STATS)) {
+      addStatsToSummary(_tableAnswerElement, pkt.getFactory());
+    }
+    if (_tableAnswerElement != null && _batfish.debugFlagEnabled(DEBUG_FLAG_FILTER_CACHE_STATS)) {
+      cache.addStatsToSummary(_tableAnswerElement);
+    }
   }
 
   /**
@@ -183,9 +224,9 @@ public final class SearchFiltersAnswerer extends Answerer {
   private Map<String, NonDiffConfigContext> getConfigContexts(
       Map<String, Map<String, IpAccessList>> specifiedAcls,
       NetworkSnapshot snapshot,
-      SearchFiltersParameters parameters) {
+      SearchFiltersParameters parameters,
+      BDDPacket pkt) {
     Map<String, Configuration> configs = _batfish.loadConfigurations(snapshot);
-    BDDPacket pkt = new BDDPacket();
     return specifiedAcls.entrySet().stream()
         .collect(
             ImmutableMap.toImmutableMap(
@@ -206,10 +247,10 @@ public final class SearchFiltersAnswerer extends Answerer {
       Map<String, Map<String, IpAccessList>> refAcls,
       NetworkSnapshot snapshot,
       NetworkSnapshot reference,
-      SearchFiltersParameters parameters) {
+      SearchFiltersParameters parameters,
+      BDDPacket pkt) {
     Map<String, Configuration> baseConfigs = _batfish.loadConfigurations(snapshot);
     Map<String, Configuration> refConfigs = _batfish.loadConfigurations(reference);
-    BDDPacket pkt = new BDDPacket();
 
     Set<String> commonNodes = Sets.intersection(baseAcls.keySet(), refAcls.keySet());
     ImmutableMap.Builder<String, DiffConfigContext> configContexts = ImmutableMap.builder();
@@ -292,6 +333,9 @@ public final class SearchFiltersAnswerer extends Answerer {
   @VisibleForTesting
   static final class NonDiffConfigContext {
     private final String _hostname;
+    private final Map<String, IpAccessList> _acls;
+    private final Map<String, IpSpace> _ipSpaces;
+    private final @Nullable Object _canonicalHeaderSpace;
     private final IpAccessListToBdd _ipAccessListToBdd;
 
     private final BDDPacket _pkt;
@@ -306,6 +350,8 @@ public final class SearchFiltersAnswerer extends Answerer {
         SearchFiltersParameters parameters,
         BDDPacket pkt) {
       _hostname = config.getHostname();
+      _acls = config.getIpAccessLists();
+      _ipSpaces = config.getIpSpaces();
       _pkt = pkt;
 
       SpecifierContext specifierContext = batfish.specifierContext(snapshot);
@@ -313,6 +359,7 @@ public final class SearchFiltersAnswerer extends Answerer {
       Set<String> referencedSources = referencedSources(config.getIpAccessLists(), specifiedAcls);
       _mgr = BDDSourceManager.forSources(_pkt, activeSources, referencedSources);
       AclLineMatchExpr headerSpace = parameters.resolveHeaderspace(specifierContext);
+      _canonicalHeaderSpace = canonicalHeaderSpace(headerSpace, _ipSpaces);
       BDD headerSpaceBdd =
           new IpAccessListToBddImpl(
                   _pkt, BDDSourceManager.empty(_pkt), ImmutableMap.of(), config.getIpSpaces())
@@ -324,6 +371,17 @@ public final class SearchFiltersAnswerer extends Answerer {
           new IpAccessListToBddImpl(_pkt, _mgr, config.getIpAccessLists(), config.getIpSpaces());
     }
 
+    /**
+     * Returns the {@link CanonicalFilterCache} key of the results of this context for the given
+     * ACL, which are the same for all contexts and ACLs with the same key.
+     */
+    @Nonnull
+    Object[] getCacheKey(IpAccessList acl) {
+      return new Object[] {
+        canonicalFilter(acl, _acls, _ipSpaces), sources(_mgr), _canonicalHeaderSpace
+      };
+    }
+
     /**
      * Returns the BDD representing all flows that match the query for the given ACL. Assumes the
      * question is applicable to the ACL (see {@link SearchFiltersQuery#canQuery(IpAccessList)}).
@@ -344,6 +402,9 @@ public final class SearchFiltersAnswerer extends Answerer {
   /** Holds BDD state for two snapshots' versions of one configuration */
   static final class DiffConfigContext {
     private final String _hostname;
+    private final Configuration _config;
+    private final Configuration _refConfig;
+    private final @Nullable Object _canonicalHeaderSpace;
     private final IpAccessListToBdd _ipAccessListToBdd;
     private final IpAccessListToBdd _refIpAccessListToBdd;
 
@@ -362,6 +423,8 @@ public final class SearchFiltersAnswerer extends Answerer {
         BDDPacket pkt) {
       // Both configs should share the same hostname
       _hostname = config.getHostname();
+      _config = config;
+      _refConfig = refConfig;
       _pkt = pkt;
 
       SpecifierContext specifierContext = batfish.specifierContext(snapshot);
@@ -378,6 +441,7 @@ public final class SearchFiltersAnswerer extends Answerer {
 
       // TODO: How to adjust _headerSpace in differential context?
       AclLineMatchExpr headerSpace = parameters.resolveHeaderspace(specifierContext);
+      _canonicalHeaderSpace = canonicalHeaderSpace(headerSpace, config.getIpSpaces());
       BDD headerSpaceBdd =
           new IpAccessListToBddImpl(
                   _pkt, BDDSourceManager.empty(_pkt), ImmutableMap.of(), config.getIpSpaces())
@@ -392,6 +456,20 @@ public final class SearchFiltersAnswerer extends Answerer {
               _pkt, _mgr, refConfig.getIpAccessLists(), refConfig.getIpSpaces());
     }
 
+    /**
+     * Returns the {@link CanonicalFilterCache} key of the results of this context for the given
+     * pair of ACLs, which are the same for all contexts and ACL pairs with the same key.
+     */
+    @Nonnull
+    Object[] getCacheKey(IpAccessList acl, IpAccessList refAcl) {
+      return new Object[] {
+        canonicalFilter(acl, _config.getIpAccessLists(), _config.getIpSpaces()),
+        canonicalFilter(refAcl, _refConfig.getIpAccessLists(), _refConfig.getIpSpaces()),
+        sources(_mgr),
+        _canonicalHeaderSpace
+      };
+    }
+
     /**
      * Returns the BDD representing all flows that match the query for the given ACL. Assumes the
      * question is applicable to the ACL (see {@link SearchFiltersQuery#canQuery(IpAccessList)}).
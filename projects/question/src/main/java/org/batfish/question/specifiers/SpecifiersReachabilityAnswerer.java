@@ -26,6 +26,8 @@ public final class SpecifiersReachabilityAnswerer extends Answerer {
       TracerouteAnswerer.flowTracesToRows(
               ((TraceWrapperAsAnswerElement) answer).getFlowTraces(), question.getMaxTraces())
           .forEach(tableAnswer::addRow);
+      // carries the BDD statistics, if requested
+      tableAnswer.setSummary(answer.getSummary());
       return tableAnswer;
     } else {
       return answer;
@@ -4,6 +4,8 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.LinkedHashMultiset;
 import com.google.common.collect.Multiset;
 import java.util.List;
@@ -13,6 +15,7 @@ import java.util.SortedMap;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
+import org.batfish.common.traceroute.TraceDag;
 import org.batfish.common.util.TracePruner;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.answers.AnswerElement;
@@ -40,22 +43,38 @@ public final class TracerouteAnswerer extends Answerer {
     super(question, batfish);
   }
 
-  @VisibleForTesting
-  SortedMap<Flow, List<Trace>> getTraces(NetworkSnapshot snapshot, TracerouteQuestion q) {
+  private Set<Flow> getFlows(NetworkSnapshot snapshot, TracerouteQuestion q) {
     TracerouteAnswererHelper helper =
         new TracerouteAnswererHelper(
             q.getHeaderConstraints(),
             q.getSourceLocationStr(),
             _batfish.specifierContext(snapshot));
-    Set<Flow> flows = helper.getFlows();
-    return _batfish.getTracerouteEngine(snapshot).computeTraces(flows, q.getIgnoreFilters());
+    return helper.getFlows();
+  }
+
+  @VisibleForTesting
+  SortedMap<Flow, List<Trace>> getTraces(NetworkSnapshot snapshot, TracerouteQuestion q) {
+    return _batfish
+        .getTracerouteEngine(snapshot)
+        .computeTraces(getFlows(snapshot, q), q.getIgnoreFilters());
+  }
+
+  /**
+   * Like {@link #getTraces(NetworkSnapshot, TracerouteQuestion)}, but keeps the traces of each flow
+   * as a {@link TraceDag} so they can be pruned without enumerating them all.
+   */
+  private SortedMap<Flow, TraceDag> getTraceDags(NetworkSnapshot snapshot, TracerouteQuestion q) {
+    return ImmutableSortedMap.copyOf(
+        _batfish
+            .getTracerouteEngine(snapshot)
+            .computeTraceDags(getFlows(snapshot, q), ImmutableSet.of(), q.getIgnoreFilters()));
   }
 
   @Override
   public AnswerElement answer(NetworkSnapshot snapshot) {
     TracerouteQuestion q = (TracerouteQuestion) _question;
-    SortedMap<Flow, List<Trace>> flowTraces = getTraces(snapshot, q);
-    Multiset<Row> rows = flowTracesToRows(flowTraces, q.getMaxTraces());
+    SortedMap<Flow, TraceDag> flowTraceDags = getTraceDags(snapshot, q);
+    Multiset<Row> rows = flowTraceDagsToRows(flowTraceDags, q.getMaxTraces());
 
     TableAnswerElement table = new TableAnswerElement(metadata(false));
     table.postProcessAnswer(_question, rows);
@@ -65,11 +84,12 @@ public final class TracerouteAnswerer extends Answerer {
   @Override
   public AnswerElement answerDiff(NetworkSnapshot snapshot, NetworkSnapshot reference) {
     TracerouteQuestion q = ((TracerouteQuestion) _question);
-    Map<Flow, List<Trace>> baseFlowTraces = getTraces(snapshot, q);
+    Map<Flow, TraceDag> baseFlowTraceDags = getTraceDags(snapshot, q);
 
-    Map<Flow, List<Trace>> deltaFlowTraces = getTraces(reference, q);
+    Map<Flow, TraceDag> deltaFlowTraceDags = getTraceDags(reference, q);
 
-    Multiset<Row> rows = diffFlowTracesToRows(baseFlowTraces, deltaFlowTraces, q.getMaxTraces());
+    Multiset<Row> rows =
+        diffFlowTraceDagsToRows(baseFlowTraceDags, deltaFlowTraceDags, q.getMaxTraces());
     TableAnswerElement table = new TableAnswerElement(metadata(true));
     table.postProcessAnswer(_question, rows);
     return table;
@@ -140,6 +160,57 @@ public final class TracerouteAnswerer extends Answerer {
     return rows;
   }
 
+  /**
+   * Like {@link #flowTracesToRows(SortedMap, int)}, but prunes each {@link TraceDag} directly, so
+   * flows with a huge number of (e.g. ECMP) paths never have all their traces enumerated.
+   */
+  public static Multiset<Row> flowTraceDagsToRows(
+      SortedMap<Flow, TraceDag> flowTraceDags, int maxTraces) {
+    Multiset<Row> rows = LinkedHashMultiset.create();
+    for (Map.Entry<Flow, TraceDag> flowTraceDag : flowTraceDags.entrySet()) {
+      TraceDag dag = flowTraceDag.getValue();
+      rows.add(
+          Row.of(
+              COL_FLOW,
+              flowTraceDag.getKey(),
+              COL_TRACES,
+              dag.getPrunedTraces(maxTraces),
+              COL_TRACE_COUNT,
+              dag.size()));
+    }
+    return rows;
+  }
+
+  /**
+   * Like {@link #diffFlowTracesToRows(Map, Map, int)}, but prunes each {@link TraceDag} directly.
+   */
+  public static Multiset<Row> diffFlowTraceDagsToRows(
+      Map<Flow, TraceDag> baseFlowTraceDags,
+      Map<Flow, TraceDag> deltaFlowTraceDags,
+      int maxTraces) {
+    Multiset<Row> rows = LinkedHashMultiset.create();
+    checkArgument(
+        baseFlowTraceDags.keySet().equals(deltaFlowTraceDags.keySet()),
+        "Base and delta flow traces should have same flows");
+    for (Flow flow : baseFlowTraceDags.keySet()) {
+      TraceDag baseDag = baseFlowTraceDags.get(flow);
+      TraceDag deltaDag = deltaFlowTraceDags.get(flow);
+      rows.add(
+          Row.of(
+              COL_FLOW,
+              flow,
+              TableDiff.baseColumnName(COL_TRACES),
+              baseDag.getPrunedTraces(maxTraces),
+              TableDiff.baseColumnName(COL_TRACE_COUNT),
+              baseDag.size(),
+              TableDiff.deltaColumnName(COL_TRACES),
+              deltaDag.getPrunedTraces(maxTraces),
+              TableDiff.deltaColumnName(COL_TRACE_COUNT),
+              deltaDag.size()));
+    }
+    return rows;
+  }
+
   public static Multiset<Row> diffFlowTracesToRows(
       Map<Flow, List<Trace>> baseFlowTraces,
       Map<Flow, List<Trace>> deltaFlowTraces,
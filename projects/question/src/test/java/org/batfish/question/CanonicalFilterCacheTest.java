@@ -0,0 +1,149 @@
+package org.batfish.question;
+
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.permittedByAcl;
+import static org.batfish.question.CanonicalFilterCache.canonicalFilter;
+import static org.batfish.question.CanonicalFilterCache.canonicalHeaderSpace;
+import static org.batfish.question.CanonicalFilterCache.sources;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.BDDSourceManager;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.TraceElement;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.StringAnswerElement;
+import org.junit.Test;
+
+/** Tests of {@link CanonicalFilterCache}. */
+public final class CanonicalFilterCacheTest {
+
+  private static IpAccessList acl(String name, ExprAclLine... lines) {
+    return IpAccessList.builder().setName(name).setLines(ImmutableList.copyOf(lines)).build();
+  }
+
+  private static Map<String, IpAccessList> acls(IpAccessList... acls) {
+    return Arrays.stream(acls)
+        .collect(ImmutableMap.toImmutableMap(IpAccessList::getName, Function.identity()));
+  }
+
+  @Test
+  public void testCanonicalFilterIgnoresNameAndTraceElements() {
+    IpAccessList acl1 =
+        acl("acl1", ExprAclLine.accepting(TraceElement.of("node1"), matchDst(Ip.parse("1.1.1.1"))));
+    IpAccessList acl2 =
+        acl("acl2", ExprAclLine.accepting(TraceElement.of("node2"), matchDst(Ip.parse("1.1.1.1"))));
+    IpAccessList acl3 = acl("acl1", ExprAclLine.accepting(matchDst(Ip.parse("2.2.2.2"))));
+
+    Object key1 = canonicalFilter(acl1, acls(acl1), ImmutableMap.of());
+    assertThat(key1, notNullValue());
+    assertThat(canonicalFilter(acl2, acls(acl2), ImmutableMap.of()), equalTo(key1));
+    assertThat(canonicalFilter(acl3, acls(acl3), ImmutableMap.of()), not(equalTo(key1)));
+  }
+
+  @Test
+  public void testCanonicalFilterDereferencesIpSpaces() {
+    IpAccessList acl = acl("acl", ExprAclLine.accepting(matchDst(new IpSpaceReference("space"))));
+    Map<String, IpSpace> ipSpaces1 =
+        ImmutableMap.of("space", Prefix.parse("10.0.0.0/8").toIpSpace());
+    Map<String, IpSpace> ipSpaces2 =
+        ImmutableMap.of("space", Prefix.parse("10.0.0.0/8").toIpSpace());
+    Map<String, IpSpace> ipSpaces3 =
+        ImmutableMap.of("space", Prefix.parse("192.168.0.0/16").toIpSpace());
+
+    Object key1 = canonicalFilter(acl, acls(acl), ipSpaces1);
+    assertThat(key1, notNullValue());
+    assertThat(canonicalFilter(acl, acls(acl), ipSpaces2), equalTo(key1));
+    assertThat(canonicalFilter(acl, acls(acl), ipSpaces3), not(equalTo(key1)));
+
+    // undefined IP space
+    assertThat(canonicalFilter(acl, acls(acl), ImmutableMap.of()), nullValue());
+  }
+
+  @Test
+  public void testCanonicalFilterIncludesReferencedFilters() {
+    IpAccessList acl = acl("acl", ExprAclLine.accepting(permittedByAcl("inner")));
+    IpAccessList inner1 = acl("inner", ExprAclLine.accepting(matchDst(Ip.parse("1.1.1.1"))));
+    IpAccessList inner2 = acl("inner", ExprAclLine.accepting(matchDst(Ip.parse("2.2.2.2"))));
+
+    Object key1 = canonicalFilter(acl, acls(acl, inner1), ImmutableMap.of());
+    assertThat(key1, notNullValue());
+    assertThat(canonicalFilter(acl, acls(acl, inner2), ImmutableMap.of()), not(equalTo(key1)));
+
+    // undefined filter
+    assertThat(canonicalFilter(acl, acls(acl), ImmutableMap.of()), nullValue());
+  }
+
+  @Test
+  public void testCanonicalHeaderSpace() {
+    assertThat(
+        canonicalHeaderSpace(matchDst(new IpSpaceReference("space")), ImmutableMap.of()),
+        nullValue());
+    assertThat(
+        canonicalHeaderSpace(
+            matchDst(new IpSpaceReference("space")),
+            ImmutableMap.of("space", Prefix.parse("10.0.0.0/8").toIpSpace())),
+        equalTo(matchDst(Prefix.parse("10.0.0.0/8").toIpSpace())));
+  }
+
+  @Test
+  public void testSources() {
+    BDDPacket pkt = new BDDPacket();
+    Object sources1 =
+        sources(BDDSourceManager.forSources(pkt, ImmutableSet.of("a", "b"), ImmutableSet.of("a")));
+    Object sources2 =
+        sources(BDDSourceManager.forSources(pkt, ImmutableSet.of("a", "b"), ImmutableSet.of("a")));
+    Object sources3 =
+        sources(BDDSourceManager.forSources(pkt, ImmutableSet.of("a", "b"), ImmutableSet.of("b")));
+    assertThat(sources2, equalTo(sources1));
+    assertThat(sources3, not(equalTo(sources1)));
+  }
+
+  @Test
+  public void testGet() {
+    CanonicalFilterCache<String> cache = new CanonicalFilterCache<>();
+    assertThat(cache.get(() -> "a", "k1", 1), equalTo("a"));
+    assertThat(cache.get(() -> "b", "k1", 1), equalTo("a"));
+    assertThat(cache.get(() -> "c", "k1", 2), equalTo("c"));
+    assertThat(cache.get(() -> "d", "k1", null), equalTo("d"));
+    assertThat(cache.get(() -> "e", "k1", null), equalTo("e"));
+
+    assertThat(cache.getHits(), equalTo(1));
+    assertThat(cache.getMisses(), equalTo(2));
+    assertThat(cache.getUncacheable(), equalTo(2));
+  }
+
+  @Test
+  public void testAddStatsToSummary() {
+    CanonicalFilterCache<String> cache = new CanonicalFilterCache<>();
+    cache.get(() -> "a", "k1");
+    cache.get(() -> "b", "k1");
+    cache.get(() -> "c", (Object) null);
+
+    StringAnswerElement answer = new StringAnswerElement("answer");
+    answer.setSummary(new AnswerSummary("existing", 0, 0, 2));
+    cache.addStatsToSummary(answer);
+    assertThat(answer.getSummary().getNumResults(), equalTo(2));
+    assertThat(
+        answer.getSummary().getNotes(),
+        containsString(
+            "Filter cache stats: 1 distinct filters analyzed, 1 results reused,"
+                + " 1 filters not cacheable"));
+  }
+}
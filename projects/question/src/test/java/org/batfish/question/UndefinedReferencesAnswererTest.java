@@ -23,6 +23,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.datamodel.answers.StructureReferenceTable;
 import org.batfish.datamodel.collections.FileLines;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.Rows;
@@ -62,8 +63,8 @@ public class UndefinedReferencesAnswererTest {
     List<Row> expected = ImmutableList.of(BASIC_ROW);
 
     List<Row> rows =
-        UndefinedReferencesAnswerer.processEntryToRows(
-            BASIC_UNDEFINED_REFS_MAP.entrySet().iterator().next());
+        UndefinedReferencesAnswerer.toRows(
+            "f", StructureReferenceTable.fromMap(BASIC_UNDEFINED_REFS_MAP.get("f")));
     assertThat(rows, equalTo(expected));
   }
 
@@ -97,7 +98,7 @@ public class UndefinedReferencesAnswererTest {
                 new FileLines("f", ImmutableSortedSet.of(2, 3))));
 
     List<Row> rows =
-        UndefinedReferencesAnswerer.processEntryToRows(refsMap.entrySet().iterator().next());
+        UndefinedReferencesAnswerer.toRows("f", StructureReferenceTable.fromMap(refsMap.get("f")));
     assertThat(rows, equalTo(expected));
   }
 